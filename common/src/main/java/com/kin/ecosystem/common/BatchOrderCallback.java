@@ -0,0 +1,27 @@
+package com.kin.ecosystem.common;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.exception.KinEcosystemException;
+import com.kin.ecosystem.common.model.OrderConfirmation;
+
+/**
+ * Results of a batch of orders, all methods are called on the main thread.
+ * Each order is reported as soon as it completes, so orders may be reported in a different order than requested.
+ */
+public interface BatchOrderCallback {
+
+    /**
+     * @param index the index of the order jwt in the batch.
+     */
+    void onOrderResponse(int index, @NonNull OrderConfirmation confirmation);
+
+    /**
+     * @param index the index of the order jwt in the batch.
+     */
+    void onOrderFailure(int index, @NonNull KinEcosystemException exception);
+
+    /**
+     * Called once after all the orders of the batch were reported.
+     */
+    void onBatchCompleted(int succeeded, int failed);
+}
@@ -3,28 +3,46 @@ package com.kin.ecosystem.common;
 import android.os.Handler;
 import android.os.Looper;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * Holds a value and notifies observers when it changes.
+ * Each observer can be notified on its own {@link Executor}, or on the thread that set the value.
+ * Values are delivered to an observer one at a time and in order, observers added with {@code conflate}
+ * skip values that were replaced before they could be delivered, so slow observers only get the latest one.
+ */
 public class ObservableData<T> {
 
-    static final Observer[] EMPTY = new Observer[0];
+    static final Subscriber[] EMPTY = new Subscriber[0];
+    private static final Object NULL = new Object();
 
-    private AtomicReference<T> value;
-    private final AtomicReference<Observer<T>[]> observers;
+    private final AtomicReference<T> value;
+    private final AtomicReference<Subscriber<T>[]> subscribers;
     private final Handler mainThreadHandler;
-
-    private final ReadWriteLock lock;
-    private final Lock writeLock;
+    private volatile boolean distinctUntilChanged;
+
+    private final ConcurrentLinkedQueue<Object> postedValues = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isPostScheduled = new AtomicBoolean(false);
+    private final Runnable dispatchPostedValues = new Runnable() {
+        @Override
+        public void run() {
+            isPostScheduled.set(false);
+            Object posted;
+            while ((posted = postedValues.poll()) != null) {
+                setValue(ObservableData.<T>unbox(posted));
+            }
+        }
+    };
 
     ObservableData() {
-        this.lock = new ReentrantReadWriteLock();
-        this.writeLock = lock.writeLock();
         this.mainThreadHandler = new Handler(Looper.getMainLooper());
         this.value = new AtomicReference<>();
-        this.observers = new AtomicReference<Observer<T>[]>(EMPTY);
+        this.subscribers = new AtomicReference<Subscriber<T>[]>(EMPTY);
     }
 
     ObservableData(@NonNull final T defaultValue) {
@@ -40,49 +58,77 @@ public class ObservableData<T> {
         return new ObservableData<>(defaultValue);
     }
 
+    /**
+     * Don't notify observers when the value set equals the current value.
+     */
+    public ObservableData<T> distinctUntilChanged() {
+        distinctUntilChanged = true;
+        return this;
+    }
+
     public Subscription<T> subscribe(Observer<T> observer) {
         addObserver(observer);
         return new Subscription<>(this, observer);
     }
 
-    public boolean addObserver(Observer<T> observer) {
-        Observer<T>[] oldList = observers.get();
+    public Subscription<T> subscribe(Observer<T> observer, @Nullable Executor executor, boolean conflate) {
+        addObserver(observer, executor, conflate);
+        return new Subscription<>(this, observer);
+    }
 
-        int len = oldList.length;
-        @SuppressWarnings("unchecked")
-        Observer<T>[] newList = new Observer[len + 1];
-        System.arraycopy(oldList, 0, newList, 0, len);
-        newList[len] = observer;
-        return observers.compareAndSet(oldList, newList);
+    /**
+     * Observer is notified on the thread that set the value.
+     */
+    public boolean addObserver(Observer<T> observer) {
+        return addObserver(observer, null, false);
+    }
 
+    /**
+     * @param executor executor to notify the observer on, null to notify on the thread that set the value.
+     * @param conflate true to deliver only the latest value when values are set faster than the observer handles them.
+     */
+    public boolean addObserver(Observer<T> observer, @Nullable Executor executor, boolean conflate) {
+        final Subscriber<T> subscriber = new Subscriber<>(observer, executor, conflate);
+        Subscriber<T>[] oldList;
+        Subscriber<T>[] newList;
+        do {
+            oldList = subscribers.get();
+            int len = oldList.length;
+            newList = new Subscriber[len + 1];
+            System.arraycopy(oldList, 0, newList, 0, len);
+            newList[len] = subscriber;
+        } while (!subscribers.compareAndSet(oldList, newList));
+        return true;
     }
 
     public void removeObserver(Observer<T> observer) {
-        Observer<T>[] oldList = observers.get();
-        if (oldList == EMPTY) {
-            return;
-        }
-        int len = oldList.length;
-        int observerIndex = -1;
-        for (int i = 0; i < len; i++) {
-            if (oldList[i] == observer) {
-                observerIndex = i;
-                break;
+        Subscriber<T>[] oldList;
+        Subscriber<T>[] newList;
+        Subscriber<T> removed;
+        do {
+            oldList = subscribers.get();
+            int len = oldList.length;
+            int observerIndex = -1;
+            for (int i = 0; i < len; i++) {
+                if (oldList[i].observer == observer) {
+                    observerIndex = i;
+                    break;
+                }
             }
-        }
 
-        if (observerIndex < 0) {
-            return;
-        }
-        Observer<T>[] newList;
-        if (len == 1) {
-            newList = EMPTY;
-        } else {
-            newList = new Observer[len - 1];
-            System.arraycopy(oldList, 0, newList, 0, observerIndex);
-            System.arraycopy(oldList, observerIndex + 1, newList, observerIndex, len - observerIndex - 1);
-        }
-        observers.compareAndSet(oldList, newList);
+            if (observerIndex < 0) {
+                return;
+            }
+            removed = oldList[observerIndex];
+            if (len == 1) {
+                newList = EMPTY;
+            } else {
+                newList = new Subscriber[len - 1];
+                System.arraycopy(oldList, 0, newList, 0, observerIndex);
+                System.arraycopy(oldList, observerIndex + 1, newList, observerIndex, len - observerIndex - 1);
+            }
+        } while (!subscribers.compareAndSet(oldList, newList));
+        removed.isActive = false;
     }
 
     public T getValue() {
@@ -90,40 +136,102 @@ public class ObservableData<T> {
     }
 
     /**
-     * Set value on the same thread
+     * Set value on the same thread, observers without an executor are notified before this returns,
+     * unless another thread is notifying them right now, which then delivers this value as well.
      * @param value
      */
     public void setValue(T value) {
-        this.writeLock.lock();
-        this.value.lazySet(value);
-        this.onChanged();
-        this.writeLock.unlock();
+        final T previous = this.value.getAndSet(value);
+        if (distinctUntilChanged && (previous == value || (previous != null && previous.equals(value)))) {
+            return;
+        }
+        for (Subscriber<T> subscriber : subscribers.get()) {
+            subscriber.dispatch(value);
+        }
     }
 
     /**
-     * Set value on the main thread
+     * Set value on the main thread, values posted together are set by a single main thread message.
      * @param value
      */
     public void postValue(final T value) {
         if (Looper.myLooper() != Looper.getMainLooper()) {
-            mainThreadHandler.post(new Runnable() {
-                @Override
-                public void run() {
-                    setValue(value);
-                }
-            });
+            postedValues.offer(value == null ? NULL : value);
+            if (isPostScheduled.compareAndSet(false, true)) {
+                mainThreadHandler.post(dispatchPostedValues);
+            }
         } else {
             setValue(value);
         }
     }
 
-    private void onChanged() {
-        for (Observer observer : observers.get()) {
-            observer.onChanged(value.get());
+    public void removeAllObservers() {
+        for (Subscriber<T> subscriber : subscribers.getAndSet(EMPTY)) {
+            subscriber.isActive = false;
         }
     }
 
-    public void removeAllObservers() {
-        observers.getAndSet(EMPTY);
+    @SuppressWarnings("unchecked")
+    private static <T> T unbox(Object boxed) {
+        return boxed == NULL ? null : (T) boxed;
+    }
+
+    /**
+     * Delivers values to a single observer, at most one thread delivers at a time.
+     */
+    static final class Subscriber<T> implements Runnable {
+
+        private final Observer<T> observer;
+        @Nullable
+        private final Executor executor;
+        @Nullable
+        private final ConcurrentLinkedQueue<Object> queue;
+        @Nullable
+        private final AtomicReference<Object> latest;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean isActive = true;
+
+        Subscriber(Observer<T> observer, @Nullable Executor executor, boolean conflate) {
+            this.observer = observer;
+            this.executor = executor;
+            this.queue = conflate ? null : new ConcurrentLinkedQueue<Object>();
+            this.latest = conflate ? new AtomicReference<Object>() : null;
+        }
+
+        void dispatch(T value) {
+            final Object boxed = value == null ? NULL : value;
+            if (latest != null) {
+                latest.set(boxed);
+            } else {
+                queue.offer(boxed);
+            }
+            if (pending.getAndIncrement() == 0) {
+                if (executor != null) {
+                    executor.execute(this);
+                } else {
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            try {
+                do {
+                    Object next;
+                    while ((next = latest != null ? latest.getAndSet(null) : queue.poll()) != null) {
+                        if (isActive) {
+                            observer.onChanged(ObservableData.<T>unbox(next));
+                        }
+                    }
+                    missed = pending.addAndGet(-missed);
+                } while (missed != 0);
+            } catch (RuntimeException e) {
+                // Let the next value start a new delivery, values not delivered yet are kept.
+                pending.set(0);
+                throw e;
+            }
+        }
     }
-}
\ No newline at end of file
+}
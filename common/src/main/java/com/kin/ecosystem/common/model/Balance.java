@@ -2,6 +2,9 @@ package com.kin.ecosystem.common.model;
 
 import java.math.BigDecimal;
 
+/**
+ * Balance value, the sdk treats it as immutable and creates a new instance for a balance change.
+ */
 public class Balance {
 
     private BigDecimal amount;
@@ -14,6 +17,11 @@ public class Balance {
         this.amount = amount;
     }
 
+    /**
+     * @deprecated a balance is shared with every balance observer, changing it changes their value too.
+     * Create a new {@link Balance} instead.
+     */
+    @Deprecated
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
@@ -21,4 +29,20 @@ public class Balance {
     public BigDecimal getAmount() {
         return amount;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return amount.compareTo(((Balance) o).amount) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return amount.stripTrailingZeros().hashCode();
+    }
 }
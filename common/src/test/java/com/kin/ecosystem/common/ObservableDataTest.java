@@ -0,0 +1,220 @@
+package com.kin.ecosystem.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ObservableDataTest {
+
+	private static final int THREADS = 8;
+	private static final int VALUES_PER_THREAD = 500;
+
+	private final ObservableData<Integer> observableData = ObservableData.create();
+	private final List<Runnable> executorTasks = new ArrayList<>();
+	private final Executor executor = new Executor() {
+		@Override
+		public void execute(@NonNull Runnable command) {
+			executorTasks.add(command);
+		}
+	};
+
+	@Test
+	public void addAndRemoveConcurrently_NoObserverLost() throws Exception {
+		final List<RecordingObserver> kept = Collections.synchronizedList(new ArrayList<RecordingObserver>());
+		final List<RecordingObserver> removed = Collections.synchronizedList(new ArrayList<RecordingObserver>());
+		runConcurrently(new Task() {
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < 100; i++) {
+					final RecordingObserver observer = new RecordingObserver();
+					observableData.addObserver(observer);
+					if (i % 2 == 0) {
+						observableData.removeObserver(observer);
+						removed.add(observer);
+					} else {
+						kept.add(observer);
+					}
+				}
+			}
+		});
+
+		observableData.setValue(1);
+		assertEquals(THREADS * 50, kept.size());
+		for (RecordingObserver observer : kept) {
+			assertEquals(Collections.singletonList(1), observer.values);
+		}
+		for (RecordingObserver observer : removed) {
+			assertTrue(observer.values.isEmpty());
+		}
+	}
+
+	@Test
+	public void setValueConcurrently_DeliveredOneAtATimeInOrder() throws Exception {
+		final RecordingObserver observer = new RecordingObserver();
+		observableData.addObserver(observer);
+
+		runConcurrently(new Task() {
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < VALUES_PER_THREAD; i++) {
+					observableData.setValue(thread * VALUES_PER_THREAD + i);
+				}
+			}
+		});
+
+		assertFalse(observer.isOverlapped.get());
+		assertEquals(THREADS * VALUES_PER_THREAD, observer.values.size());
+		final int[] lastOfThread = new int[THREADS];
+		Arrays.fill(lastOfThread, -1);
+		for (int value : observer.values) {
+			final int thread = value / VALUES_PER_THREAD;
+			assertTrue(value > lastOfThread[thread]);
+			lastOfThread[thread] = value;
+		}
+	}
+
+	@Test
+	public void conflate_OnlyLatestValueDelivered() {
+		final RecordingObserver conflated = new RecordingObserver();
+		final RecordingObserver queued = new RecordingObserver();
+		observableData.addObserver(conflated, executor, true);
+		observableData.addObserver(queued, executor, false);
+
+		observableData.setValue(1);
+		observableData.setValue(2);
+		observableData.setValue(3);
+		runExecutorTasks();
+
+		assertEquals(Collections.singletonList(3), conflated.values);
+		assertEquals(Arrays.asList(1, 2, 3), queued.values);
+	}
+
+	@Test
+	public void executor_ObserverNotifiedOnItsExecutor() {
+		final RecordingObserver onExecutor = new RecordingObserver();
+		final RecordingObserver onCaller = new RecordingObserver();
+		observableData.addObserver(onExecutor, executor, false);
+		observableData.addObserver(onCaller);
+
+		observableData.setValue(1);
+		assertTrue(onExecutor.values.isEmpty());
+		assertEquals(Collections.singletonList(1), onCaller.values);
+		assertEquals(1, executorTasks.size());
+
+		runExecutorTasks();
+		assertEquals(Collections.singletonList(1), onExecutor.values);
+	}
+
+	@Test
+	public void distinctUntilChanged_EqualValueNotDelivered() {
+		final ObservableData<String> distinct = ObservableData.<String>create().distinctUntilChanged();
+		final List<String> values = new ArrayList<>();
+		distinct.addObserver(new Observer<String>() {
+			@Override
+			public void onChanged(String value) {
+				values.add(value);
+			}
+		});
+
+		distinct.setValue("a");
+		distinct.setValue(new String("a"));
+		distinct.setValue(null);
+		distinct.setValue(null);
+		distinct.setValue("b");
+
+		assertEquals(Arrays.asList("a", null, "b"), values);
+	}
+
+	@Test
+	public void setValueFromObserver_DeliveredAfterCurrentValue() {
+		final AtomicInteger depth = new AtomicInteger();
+		final AtomicInteger maxDepth = new AtomicInteger();
+		final List<Integer> values = new ArrayList<>();
+		observableData.addObserver(new Observer<Integer>() {
+			@Override
+			public void onChanged(Integer value) {
+				maxDepth.set(Math.max(maxDepth.get(), depth.incrementAndGet()));
+				values.add(value);
+				if (value < 3) {
+					observableData.setValue(value + 1);
+				}
+				depth.decrementAndGet();
+			}
+		});
+
+		observableData.setValue(1);
+
+		assertEquals(Arrays.asList(1, 2, 3), values);
+		assertEquals(1, maxDepth.get());
+		assertEquals(3, (int) observableData.getValue());
+	}
+
+	private void runExecutorTasks() {
+		while (!executorTasks.isEmpty()) {
+			executorTasks.remove(0).run();
+		}
+	}
+
+	private static void runConcurrently(final Task task) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			final int thread = i;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					task.run(thread);
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	private interface Task {
+
+		void run(int thread);
+	}
+
+	private static class RecordingObserver extends Observer<Integer> {
+
+		private final List<Integer> values = Collections.synchronizedList(new ArrayList<Integer>());
+		private final AtomicInteger concurrentCalls = new AtomicInteger();
+		private final AtomicBoolean isOverlapped = new AtomicBoolean();
+
+		@Override
+		public void onChanged(Integer value) {
+			if (concurrentCalls.incrementAndGet() > 1) {
+				isOverlapped.set(true);
+			}
+			values.add(value);
+			concurrentCalls.decrementAndGet();
+		}
+	}
+}
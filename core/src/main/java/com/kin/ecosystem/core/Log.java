@@ -5,14 +5,26 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
 import android.support.annotation.IntDef;
 import java.lang.annotation.Retention;
 
+/**
+ * Log entry builder, values are kept as is and formatted only when the entry is logged.
+ * Nothing is collected while {@link Logger#isLoggable()} is false, use {@link #with(String)} on hot paths
+ * to avoid allocating the builder at all.
+ */
 public class Log {
 	private static String COLON = ": ";
 	private static String COMMA = ", ";
 	private static String SPACE = " ";
 
+	private static final Object TEXT = new Object();
+	private static final int INITIAL_CAPACITY = 8;
+
+	private static final Log NO_OP = new NoOpLog();
+
 	private int priority = DEBUG;
 	private String tag;
-	private StringBuilder content = new StringBuilder();
+	// Pairs of (name, value), a TEXT value marks a text entry.
+	private Object[] parts;
+	private int size;
 
 	public static final int DEBUG = 3;
 	public static final int INFO = 4;
@@ -25,6 +37,13 @@ public class Log {
 
 	}
 
+	/**
+	 * @return a new log with the tag, or a shared no-op instance when logging is disabled.
+	 */
+	public static Log with(String tag) {
+		return Logger.isLoggable() ? new Log().withTag(tag) : NO_OP;
+	}
+
 	public Log priority(@Priority final int priority) {
 		this.priority = priority;
 		return this;
@@ -36,22 +55,78 @@ public class Log {
 	}
 
 	public Log put(String name, Object value) {
-		content.append(name)
-			.append(COLON)
-			.append(value)
-			.append(COMMA);
-
+		if (Logger.isLoggable()) {
+			add(name, value);
+		}
 		return this;
 	}
 
 	public Log text(String name) {
-		content.append(SPACE)
-			.append(name)
-			.append(SPACE);
+		if (Logger.isLoggable()) {
+			add(name, TEXT);
+		}
 		return this;
 	}
 
+	private void add(String name, Object value) {
+		if (parts == null) {
+			parts = new Object[INITIAL_CAPACITY];
+		} else if (size + 2 > parts.length) {
+			Object[] newParts = new Object[parts.length * 2];
+			System.arraycopy(parts, 0, newParts, 0, size);
+			parts = newParts;
+		}
+		parts[size++] = name;
+		parts[size++] = value;
+	}
+
+	String format() {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < size; i += 2) {
+			if (parts[i + 1] == TEXT) {
+				content.append(SPACE)
+					.append(parts[i])
+					.append(SPACE);
+			} else {
+				content.append(parts[i])
+					.append(COLON)
+					.append(parts[i + 1])
+					.append(COMMA);
+			}
+		}
+		return content.length() > 0 ? content.substring(0, content.length() - 1) : "";
+	}
+
 	public void log() {
-		Logger.log(priority, tag, content.substring(0, content.length() - 1));
+		if (Logger.isLoggable()) {
+			Logger.log(priority, tag, format());
+		}
+	}
+
+	private static class NoOpLog extends Log {
+
+		@Override
+		public Log priority(int priority) {
+			return this;
+		}
+
+		@Override
+		public Log withTag(String tag) {
+			return this;
+		}
+
+		@Override
+		public Log put(String name, Object value) {
+			return this;
+		}
+
+		@Override
+		public Log text(String name) {
+			return this;
+		}
+
+		@Override
+		public void log() {
+		}
 	}
 }
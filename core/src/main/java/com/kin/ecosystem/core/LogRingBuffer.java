@@ -0,0 +1,49 @@
+package com.kin.ecosystem.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last N log entries in memory, e.g. to attach them to crash reports.
+ */
+public class LogRingBuffer {
+
+	private final String[] entries;
+	private int next;
+	private int size;
+
+	LogRingBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.entries = new String[capacity];
+	}
+
+	synchronized void add(String entry) {
+		entries[next] = entry;
+		next = (next + 1) % entries.length;
+		if (size < entries.length) {
+			size++;
+		}
+	}
+
+	/**
+	 * @return the entries from the oldest to the newest.
+	 */
+	public synchronized List<String> getEntries() {
+		List<String> result = new ArrayList<>(size);
+		int start = (next - size + entries.length) % entries.length;
+		for (int i = 0; i < size; i++) {
+			result.add(entries[(start + i) % entries.length]);
+		}
+		return result;
+	}
+
+	public synchronized void clear() {
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = null;
+		}
+		next = 0;
+		size = 0;
+	}
+}
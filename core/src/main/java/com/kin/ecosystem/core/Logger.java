@@ -1,25 +1,36 @@
 package com.kin.ecosystem.core;
 
+import android.support.annotation.Nullable;
 import android.util.Log;
 import com.kin.ecosystem.core.Log.Priority;
+import java.util.Collections;
+import java.util.List;
 
 public class Logger {
 
 	private static final String BASE_TAG = "KinEcosystem - ";
 
-	private static boolean shouldLog;
+	private static volatile boolean shouldLog;
+	@Nullable
+	private static volatile LogRingBuffer ringBuffer;
 
 	private Logger() {
 	}
 
 	public static void log(com.kin.ecosystem.core.Log ecosystemLog) {
-		ecosystemLog.log();
+		if (isLoggable()) {
+			ecosystemLog.log();
+		}
 	}
 
 	public static void log(@Priority final int priority, final String tag, final String content) {
 		if (shouldLog) {
 			Log.println(priority, getTag(tag), content);
 		}
+		final LogRingBuffer buffer = ringBuffer;
+		if (buffer != null) {
+			buffer.add(System.currentTimeMillis() + " " + priority + " " + tag + ":" + content);
+		}
 	}
 
 	public static void enableLogs(final boolean enableLogs) {
@@ -30,8 +41,31 @@ public class Logger {
 		return shouldLog;
 	}
 
+	/**
+	 * @return true if log entries should be built, either to logcat or to the ring buffer.
+	 */
+	public static boolean isLoggable() {
+		return shouldLog || ringBuffer != null;
+	}
+
+	/**
+	 * Keep the last capacity log entries in memory, even when logs are disabled.
+	 * Retrieve them with {@link #getRecentLogs()}.
+	 */
+	public static void enableRingBuffer(final int capacity) {
+		ringBuffer = new LogRingBuffer(capacity);
+	}
+
+	public static void disableRingBuffer() {
+		ringBuffer = null;
+	}
+
+	public static List<String> getRecentLogs() {
+		final LogRingBuffer buffer = ringBuffer;
+		return buffer != null ? buffer.getEntries() : Collections.<String>emptyList();
+	}
+
 	private static String getTag(String tag) {
 		return BASE_TAG + tag;
 	}
 }
- 
\ No newline at end of file
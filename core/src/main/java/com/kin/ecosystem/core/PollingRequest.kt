@@ -1,45 +1,31 @@
 package com.kin.ecosystem.core
 
+import com.kin.ecosystem.core.util.SharedExecutors
 import java.util.concurrent.Callable
-
-internal class PollingRequest<T>(private val intervals: IntArray, private val callable: Callable<T>) {
+import java.util.concurrent.Executor
+import java.util.concurrent.ScheduledExecutorService
+
+/**
+ * Calls `callable` until it succeeds, waiting `intervals[i]` seconds after the i-th failure.
+ * Fails with the last exception once all the intervals were used.
+ * Waits are scheduled, so a poll doesn't hold an io thread between calls.
+ */
+internal class PollingRequest<T>(
+        private val intervals: IntArray,
+        callable: Callable<T>,
+        executor: Executor = SharedExecutors.getInstance().io(),
+        scheduler: ScheduledExecutorService = SharedExecutors.getInstance().scheduled())
+    : Request<T>(callable, executor, scheduler) {
 
     companion object {
         const val SECOND_IN_MILLIS: Long = 1000
     }
 
-    private val pollingLimitIndex: Int = intervals.size
-    private var request: Request<T>
-
-    init {
-        val pollingCallable = Callable<T> { poll() }
-        request = Request(pollingCallable)
-    }
-
-    private fun poll(): T {
-        Logger.log(Log().withTag("PollingRequest").text("start polling"))
-        var pollingIndex = 0
-        Polling@ while (true) {
-            return try {
-                callable.call()
-            } catch (e: Exception) {
-                if (pollingIndex < pollingLimitIndex) {
-                    Logger.log(Log().withTag("PollingRequest").put("pollingIndex", pollingIndex))
-                    Thread.sleep(intervals[pollingIndex] * SECOND_IN_MILLIS)
-                    pollingIndex++
-                    continue@Polling
-                } else {
-                    throw e
-                }
-            }
+    override fun retryDelayMillis(attempt: Int, exception: Exception): Long {
+        if (attempt >= intervals.size) {
+            return NO_RETRY
         }
+        Logger.log(Log.with("PollingRequest").put("pollingIndex", attempt))
+        return intervals[attempt] * SECOND_IN_MILLIS
     }
-
-    fun run(callback: CoreCallback<T>?) {
-        request.run(callback)
-    }
-
-    fun cancel(mayInterruptIfRunning: Boolean) {
-        request.cancel(mayInterruptIfRunning)
-    }
-}
\ No newline at end of file
+}
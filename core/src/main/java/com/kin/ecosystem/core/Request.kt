@@ -2,20 +2,30 @@ package com.kin.ecosystem.core
 
 import android.os.Handler
 import android.os.Looper
+import com.kin.ecosystem.core.util.SharedExecutors
 import java.util.concurrent.Callable
-import java.util.concurrent.Executors
+import java.util.concurrent.Executor
 import java.util.concurrent.Future
+import java.util.concurrent.FutureTask
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
 
 /**
- * Each request will run sequentially on background thread,
- * and will notify [CoreCallback] onResponse or onFailure on main thread.
+ * Each request attempt runs on the io lane, and will notify [CoreCallback] onResponse or onFailure on main thread.
+ * A failed attempt can be retried after a delay, see [retryDelayMillis], the wait is scheduled on the scheduled lane
+ * so no thread is held between attempts.
  *
  * @param <T> request result type
 </T> */
-internal open class Request<T> internal constructor(private val callable: Callable<T>) {
+internal open class Request<T> internal constructor(
+        private val callable: Callable<T>,
+        private val executor: Executor = SharedExecutors.getInstance().io(),
+        private val scheduler: ScheduledExecutorService = SharedExecutors.getInstance().scheduled()) {
+
     private val mainHandler: Handler = Handler(Looper.getMainLooper())
     private var cancelled: Boolean = false
     private var executed: Boolean = false
+    // The running attempt or the scheduled wait before the next one.
     private var future: Future<*>? = null
     private var resultCallback: CoreCallback<T>? = null
 
@@ -26,7 +36,8 @@ internal open class Request<T> internal constructor(private val callable: Callab
     fun run(callback: CoreCallback<T>?) {
         checkBeforeRun()
         executed = true
-        submitFuture(callable, callback)
+        resultCallback = callback
+        submitAttempt(0)
     }
 
     private fun checkBeforeRun() {
@@ -38,16 +49,42 @@ internal open class Request<T> internal constructor(private val callable: Callab
         }
     }
 
-    private fun submitFuture(callable: Callable<T>, callback: CoreCallback<T>?) {
-        resultCallback = callback
-        future = executorService.submit {
-            try {
-                val result = callable.call()
-                executeOnMainThreadIfNotCancelled(Runnable { resultCallback?.onResponse(result) })
-            } catch (e: Exception) {
+    /**
+     * @return delay before retrying after `attempt` failed with `exception`, or [NO_RETRY] to fail the request.
+     */
+    protected open fun retryDelayMillis(attempt: Int, exception: Exception): Long = NO_RETRY
+
+    @Synchronized
+    private fun submitAttempt(attempt: Int) {
+        if (cancelled) {
+            return
+        }
+        val task = FutureTask<Unit>(Callable { runAttempt(attempt) })
+        future = task
+        executor.execute(task)
+    }
+
+    private fun runAttempt(attempt: Int) {
+        val result = try {
+            callable.call()
+        } catch (e: Exception) {
+            val delay = if (e is InterruptedException) NO_RETRY else retryDelayMillis(attempt, e)
+            if (delay == NO_RETRY) {
                 executeOnMainThreadIfNotCancelled(Runnable { resultCallback?.onFailure(e) })
+            } else {
+                scheduleAttempt(attempt + 1, delay)
             }
+            return
+        }
+        executeOnMainThreadIfNotCancelled(Runnable { resultCallback?.onResponse(result) })
+    }
+
+    @Synchronized
+    private fun scheduleAttempt(attempt: Int, delayMillis: Long) {
+        if (cancelled) {
+            return
         }
+        future = scheduler.schedule(Runnable { submitAttempt(attempt) }, delayMillis, TimeUnit.MILLISECONDS)
     }
 
     @Synchronized
@@ -59,7 +96,8 @@ internal open class Request<T> internal constructor(private val callable: Callab
 
     /**
      * Cancel `Request` and detach its callback,
-     * an attempt will be made to cancel ongoing request, if request has not run yet it will never run.
+     * an attempt will be made to cancel ongoing request, if request has not run yet it will never run,
+     * and a request waiting to retry won't retry.
      *
      * @param mayInterruptIfRunning true if the request should be interrupted; otherwise, in-progress requests are
      * allowed to complete
@@ -79,6 +117,6 @@ internal open class Request<T> internal constructor(private val callable: Callab
 
     companion object {
 
-        private val executorService = Executors.newSingleThreadExecutor()
+        const val NO_RETRY: Long = -1
     }
 }
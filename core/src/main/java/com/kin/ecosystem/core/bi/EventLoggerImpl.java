@@ -1,25 +1,90 @@
 package com.kin.ecosystem.core.bi;
 
+import android.content.Context;
+import android.support.annotation.Nullable;
 import com.kin.ecosystem.core.Log;
 import com.kin.ecosystem.core.Logger;
+import com.kin.ecosystem.core.bi.EventsQueue.Batch;
 import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.util.ErrorUtil;
+import com.kin.ecosystem.core.util.SharedExecutors;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 
+/**
+ * Batches events into a persistent queue and sends them as a single gzip compressed json array,
+ * either when {@link #BATCH_SIZE} events are waiting or {@link #FLUSH_INTERVAL_MILLIS} passed since the first one.
+ * Batches that failed with a retriable error, see {@link ErrorUtil#isRetriable(ApiException)}, are kept in the queue
+ * and retried with exponential backoff and the same request id, other failed batches are dropped.
+ */
 public class EventLoggerImpl implements EventLogger {
 
-    private static EventLoggerImpl instance;
+    private static final String TAG = EventLoggerImpl.class.getSimpleName();
+    private static final String EVENTS_FILE_NAME = "kinecosystem_bi_events";
+
+    static final int BATCH_SIZE = 20;
+    static final int MAX_QUEUE_SIZE = 500;
+    static final long FLUSH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    static final long MIN_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static volatile EventLoggerImpl instance;
+    @Nullable
+    private static File eventsFile;
 
     private final EventsApi eventsApi;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
 
-    private EventLoggerImpl(EventsApi eventsApi) {
+    // Accessed only from the serial executor.
+    private EventsQueue queue;
+    private ScheduledFuture<?> scheduledFlush;
+    private int flushGeneration;
+    private long backoffMillis;
+
+    private EventLoggerImpl(EventsApi eventsApi, @Nullable File file) {
+        this(eventsApi, file, SharedExecutors.serial(SharedExecutors.getInstance().io()),
+            SharedExecutors.getInstance().scheduled());
+    }
+
+    /**
+     * @param executor serial executor, all queue access happens on it.
+     * @param scheduler times the flushes, which then run on the executor.
+     */
+    EventLoggerImpl(EventsApi eventsApi, @Nullable final File file, Executor executor,
+        ScheduledExecutorService scheduler) {
         this.eventsApi = eventsApi;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                queue = new EventsQueue(file, MAX_QUEUE_SIZE);
+                if (!queue.isEmpty()) {
+                    scheduleFlush(FLUSH_INTERVAL_MILLIS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Set the directory used to persist pending events, should be called before {@link #getInstance()}.
+     * Without it events are kept in memory only.
+     */
+    public static void init(Context context) {
+        eventsFile = new File(context.getApplicationContext().getFilesDir(), EVENTS_FILE_NAME);
     }
 
     public static EventLoggerImpl getInstance() {
         if (instance == null) {
             synchronized (EventLoggerImpl.class) {
                 if (instance == null) {
-                    instance = new EventLoggerImpl(new EventsApi());
+                    instance = new EventLoggerImpl(new EventsApi(), eventsFile);
                 }
             }
         }
@@ -28,11 +93,94 @@ public class EventLoggerImpl implements EventLogger {
 
 
     @Override
-    public void send(Event event) {
+    public void send(final Event event) {
+        final String serializedEvent;
         try {
-            eventsApi.sendEventAsync(event, null);
-        } catch (ApiException e) {
-            Logger.log(new Log().withTag("EventLoggerImpl").text(e.getMessage()).priority(Log.ERROR));
+            serializedEvent = eventsApi.getJSON().serialize(event);
+        } catch (Exception e) {
+            Logger.log(new Log().withTag(TAG).text(e.getMessage()).priority(Log.ERROR));
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                queue.add(serializedEvent);
+                if (queue.size() >= BATCH_SIZE && backoffMillis == 0) {
+                    scheduleFlush(0);
+                } else if (scheduledFlush == null) {
+                    scheduleFlush(FLUSH_INTERVAL_MILLIS);
+                }
+            }
+        });
+    }
+
+    /**
+     * Send all pending events now, e.g. on logout.
+     */
+    public void flush() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                scheduleFlush(0);
+            }
+        });
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        // A flush that already fired can't be cancelled, it is skipped when it reaches the executor.
+        final int generation = ++flushGeneration;
+        scheduledFlush = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != flushGeneration) {
+                            return;
+                        }
+                        scheduledFlush = null;
+                        sendBatches();
+                    }
+                });
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendBatches() {
+        while (!queue.isEmpty()) {
+            final Batch batch = queue.peekBatch(BATCH_SIZE);
+            try {
+                eventsApi.sendEventsSync(batch.getRequestID(), toJsonArray(batch.getEvents()));
+            } catch (ApiException e) {
+                if (ErrorUtil.isRetriable(e)) {
+                    backoffMillis = backoffMillis == 0 ? MIN_BACKOFF_MILLIS
+                        : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                    Logger.log(new Log().withTag(TAG).text("failed to send events").put("pending", queue.size())
+                        .put("retryInMillis", backoffMillis).priority(Log.WARN));
+                    scheduleFlush(backoffMillis);
+                    return;
+                }
+                // Sending it again will fail the same way, don't let it block the events behind it.
+                Logger.log(new Log().withTag(TAG).text("events rejected, dropping batch").put("code", e.getCode())
+                    .put("dropped", batch.getEvents().size()).priority(Log.ERROR));
+            }
+            backoffMillis = 0;
+            queue.remove(batch.getEvents().size());
+        }
+    }
+
+    private static String toJsonArray(List<String> events) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(events.get(i));
         }
+        return builder.append(']').toString();
     }
 }
@@ -5,12 +5,17 @@ import com.kin.ecosystem.core.data.internal.ConfigurationImpl;
 import com.kin.ecosystem.core.network.ApiCallback;
 import com.kin.ecosystem.core.network.ApiClient;
 import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.JSON;
 import com.kin.ecosystem.core.network.Pair;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 import okhttp3.Call;
 
 class EventsApi {
@@ -79,4 +84,66 @@ class EventsApi {
 		apiClient.executeAsync(call, localVarReturnType, callback);
 		return call;
 	}
+
+	JSON getJSON() {
+		return apiClient.getJSON();
+	}
+
+	/**
+	 * Build call for sendEvents, the body is a gzip compressed json array of events.
+	 *
+	 * @param requestID request id of the batch, the same on every retry of the batch
+	 * @param eventsJsonArray serialized json array of events
+	 * @return Call to execute
+	 * @throws ApiException If fail to compress the request body
+	 */
+	public Call sendEventsCall(String requestID, String eventsJsonArray) throws ApiException {
+		Object localVarPostBody = gzip(eventsJsonArray);
+
+		// create path and map variables
+		String localVarPath = "";
+
+		List<Pair> localVarQueryParams = new ArrayList<Pair>();
+		List<Pair> localVarCollectionQueryParams = new ArrayList<Pair>();
+
+		Map<String, String> localVarHeaderParams = new HashMap<String, String>();
+		localVarHeaderParams.put("X-REQUEST-ID", requestID);
+		localVarHeaderParams.put("Content-Encoding", "gzip");
+
+		Map<String, Object> localVarFormParams = new HashMap<String, Object>();
+
+		String[] applicationJson = {ApiClient.APPLICATION_JSON_KEY};
+		final String localVarAccept = apiClient.selectHeaderAccept(applicationJson);
+		localVarHeaderParams.put("Accept", localVarAccept);
+
+		final String localVarContentType = apiClient.selectHeaderContentType(applicationJson);
+		localVarHeaderParams.put("Content-Type", localVarContentType);
+
+		return apiClient
+			.buildCall(localVarPath, ApiClient.POST, localVarQueryParams, localVarCollectionQueryParams, localVarPostBody,
+				localVarHeaderParams, localVarFormParams, null);
+	}
+
+	/**
+	 * Send a batch of events to BI synchronously.
+	 *
+	 * @param requestID request id of the batch, the same on every retry of the batch
+	 * @param eventsJsonArray serialized json array of events
+	 * @throws ApiException If fail to call the API, e.g. server error or cannot deserialize the response body
+	 */
+	public void sendEventsSync(String requestID, String eventsJsonArray) throws ApiException {
+		apiClient.execute(sendEventsCall(requestID, eventsJsonArray));
+	}
+
+	private static byte[] gzip(String content) throws ApiException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+			gzip.write(content.getBytes(Charset.forName("UTF-8")));
+			gzip.close();
+		} catch (IOException e) {
+			throw new ApiException(e);
+		}
+		return bytes.toByteArray();
+	}
 }
@@ -0,0 +1,215 @@
+package com.kin.ecosystem.core.bi;
+
+import android.support.annotation.Nullable;
+import com.kin.ecosystem.core.Log;
+import com.kin.ecosystem.core.Logger;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bounded FIFO of serialized events, mirrored to an append-only file (one json event per line).
+ * When the queue is full the oldest event is dropped.
+ * The batch being sent from the head of the queue is persisted with its request id, so retries of the batch,
+ * also after a restart, use the same request id.
+ * Not thread safe, should be accessed from a single thread.
+ */
+class EventsQueue {
+
+	private static final String TAG = EventsQueue.class.getSimpleName();
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	// Events are json objects, so a line with this prefix can't be an event.
+	private static final String BATCH_PREFIX = "batch ";
+
+	private final ArrayDeque<String> events = new ArrayDeque<>();
+	private final int maxSize;
+	@Nullable
+	private final File file;
+	@Nullable
+	private Batch headBatch;
+
+	static class Batch {
+
+		private final String requestID;
+		private final List<String> events;
+
+		Batch(String requestID, List<String> events) {
+			this.requestID = requestID;
+			this.events = events;
+		}
+
+		String getRequestID() {
+			return requestID;
+		}
+
+		List<String> getEvents() {
+			return events;
+		}
+	}
+
+	/**
+	 * @param file backing file, null for an in memory only queue.
+	 * @param maxSize maximum number of events to keep.
+	 */
+	EventsQueue(@Nullable File file, int maxSize) {
+		this.file = file;
+		this.maxSize = maxSize;
+		load();
+	}
+
+	int size() {
+		return events.size();
+	}
+
+	boolean isEmpty() {
+		return events.isEmpty();
+	}
+
+	void add(String event) {
+		boolean dropped = false;
+		while (events.size() >= maxSize) {
+			events.pollFirst();
+			dropped = true;
+		}
+		events.addLast(event);
+		if (dropped) {
+			Logger.log(new Log().withTag(TAG).text("queue is full, dropped oldest event"));
+			// The head batch lost an event, it is not the same batch anymore.
+			headBatch = null;
+			rewrite();
+		} else {
+			append(event);
+		}
+	}
+
+	/**
+	 * @return up to count events from the head of the queue, without removing them.
+	 */
+	List<String> peek(int count) {
+		List<String> batch = new ArrayList<>(Math.min(count, events.size()));
+		Iterator<String> iterator = events.iterator();
+		while (iterator.hasNext() && batch.size() < count) {
+			batch.add(iterator.next());
+		}
+		return batch;
+	}
+
+	/**
+	 * @return up to count events from the head of the queue to send as one request, without removing them.
+	 * Until the batch is removed the same batch is returned, with the same request id.
+	 */
+	Batch peekBatch(int count) {
+		if (headBatch == null) {
+			headBatch = new Batch(UUID.randomUUID().toString(), peek(count));
+			rewrite();
+		}
+		return headBatch;
+	}
+
+	/**
+	 * Remove count events from the head of the queue.
+	 */
+	void remove(int count) {
+		for (int i = 0; i < count && !events.isEmpty(); i++) {
+			events.pollFirst();
+		}
+		headBatch = null;
+		rewrite();
+	}
+
+	private void load() {
+		if (file == null || !file.exists()) {
+			return;
+		}
+		BufferedReader reader = null;
+		String[] batchRecord = null;
+		boolean dropped = false;
+		try {
+			reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(BATCH_PREFIX)) {
+					batchRecord = line.substring(BATCH_PREFIX.length()).split(" ");
+				} else if (!line.isEmpty()) {
+					if (events.size() >= maxSize) {
+						events.pollFirst();
+						dropped = true;
+					}
+					events.addLast(line);
+				}
+			}
+		} catch (IOException e) {
+			Logger.log(new Log().withTag(TAG).text("failed to load events").put("error", e.getMessage()));
+		} finally {
+			closeQuietly(reader);
+		}
+		if (batchRecord != null && batchRecord.length == 2 && !dropped) {
+			try {
+				final int batchSize = Integer.parseInt(batchRecord[1]);
+				if (batchSize > 0 && batchSize <= events.size()) {
+					headBatch = new Batch(batchRecord[0], peek(batchSize));
+				}
+			} catch (NumberFormatException e) {
+				Logger.log(new Log().withTag(TAG).text("invalid batch record").put("error", e.getMessage()));
+			}
+		}
+	}
+
+	private void append(String event) {
+		if (file == null) {
+			return;
+		}
+		write(true, Collections.singletonList(event));
+	}
+
+	private void rewrite() {
+		if (file == null) {
+			return;
+		}
+		final List<String> lines = new ArrayList<>(events.size() + 1);
+		if (headBatch != null) {
+			lines.add(BATCH_PREFIX + headBatch.requestID + " " + headBatch.events.size());
+		}
+		lines.addAll(events);
+		write(false, lines);
+	}
+
+	private void write(boolean append, Iterable<String> lines) {
+		Writer writer = null;
+		try {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), UTF_8));
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+			writer.flush();
+		} catch (IOException e) {
+			Logger.log(new Log().withTag(TAG).text("failed to persist events").put("error", e.getMessage()));
+		} finally {
+			closeQuietly(writer);
+		}
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+}
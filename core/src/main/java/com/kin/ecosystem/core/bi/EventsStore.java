@@ -1,25 +1,51 @@
 package com.kin.ecosystem.core.bi;
 
+import com.kin.ecosystem.core.bi.events.Client;
 import com.kin.ecosystem.core.bi.events.ClientProxy;
 import com.kin.ecosystem.core.bi.events.ClientReadonly;
+import com.kin.ecosystem.core.bi.events.Common;
 import com.kin.ecosystem.core.bi.events.CommonProxy;
 import com.kin.ecosystem.core.bi.events.CommonReadonly;
 import com.kin.ecosystem.core.bi.events.UserProxy;
 import com.kin.ecosystem.core.bi.events.UserReadonly;
-import java.util.concurrent.atomic.AtomicBoolean;
-
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the user, common and client properties attached to every event.
+ * Snapshots are immutable and versioned, a snapshot is rebuilt only after {@code update(...)} or
+ * {@code invalidate...()} was called, so reading them is lock free in the common case.
+ * Dynamic values are evaluated when the snapshot is rebuilt, whoever owns the value should call the matching
+ * {@code invalidate...()} when it changes.
+ * Common event id and timestamp are unique per event and are evaluated on every {@link #common()} call.
+ * Client language follows the device locale, which can change at any time, so it is evaluated on every
+ * {@link #client()} call.
+ */
 public final class EventsStore {
-    private static final Object userModifierMutex = new Object();
-    private static final Object commonModifierMutex = new Object();
-    private static final Object clientModifierMutex = new Object();
 
     private static final UserProxy user = new UserProxy();
     private static final CommonProxy common = new CommonProxy();
     private static final ClientProxy client = new ClientProxy();
 
-    private static AtomicBoolean isUserBeingModified;
-    private static AtomicBoolean isCommonBeingModified;
-    private static AtomicBoolean isClientBeingModified;
+    private static final SnapshotCache<UserReadonly> userCache = new SnapshotCache<UserReadonly>() {
+        @Override
+        UserReadonly build() {
+            return user.snapshot();
+        }
+    };
+
+    private static final SnapshotCache<Common> commonCache = new SnapshotCache<Common>() {
+        @Override
+        Common build() {
+            return common.snapshot();
+        }
+    };
+
+    private static final SnapshotCache<Client> clientCache = new SnapshotCache<Client>() {
+        @Override
+        Client build() {
+            return client.snapshot();
+        }
+    };
 
     public interface DynamicValue<T> {
         T get();
@@ -54,10 +80,6 @@ public final class EventsStore {
     }
 
     public static void init(UserModifier userModifier, CommonModifier commonModifier, ClientModifier clientModifier) {
-        isUserBeingModified = new AtomicBoolean(false);
-        isCommonBeingModified = new AtomicBoolean(false);
-        isClientBeingModified = new AtomicBoolean(false);
-
         if (userModifier != null) {
             update(userModifier);
         }
@@ -72,56 +94,100 @@ public final class EventsStore {
     }
 
     public static UserReadonly user() {
-        if (isUserBeingModified.get()) {
-            synchronized (userModifierMutex) {
-                return user.snapshot();
-            }
-        }
-
-        return user.snapshot();
+        return userCache.get();
     }
 
     public static CommonReadonly common() {
-        if (isCommonBeingModified.get()) {
-            synchronized (commonModifierMutex) {
-                return common.snapshot();
-            }
-        }
-
-        return common.snapshot();
+        final Common snapshot = commonCache.get();
+        return new Common(snapshot.getSchemaVersion(), common.getEventId(), snapshot.getVersion(),
+            snapshot.getUserId(), common.getTimestamp());
     }
 
     public static ClientReadonly client() {
-        if (isClientBeingModified.get()) {
-            synchronized (commonModifierMutex) {
-                return client.snapshot();
-            }
-        }
-
-        return client.snapshot();
+        final Client snapshot = clientCache.get();
+        return new Client(snapshot.getOs(), client.getLanguage(), snapshot.getCarrier(), snapshot.getDeviceId(),
+            snapshot.getDeviceManufacturer(), snapshot.getDeviceModel());
     }
 
     public static void update(UserModifier modifier) {
-        synchronized (userModifierMutex) {
-            isUserBeingModified.set(true);
+        synchronized (userCache) {
             modifier.modify(user);
-            isUserBeingModified.set(false);
+            userCache.invalidate();
         }
     }
 
     public static void update(CommonModifier modifier) {
-        synchronized (userModifierMutex) {
-            isUserBeingModified.set(true);
+        synchronized (commonCache) {
             modifier.modify(common);
-            isUserBeingModified.set(false);
+            commonCache.invalidate();
         }
     }
 
     public static void update(ClientModifier modifier) {
-        synchronized (clientModifierMutex) {
-            isClientBeingModified.set(true);
+        synchronized (clientCache) {
             modifier.modify(client);
-            isClientBeingModified.set(false);
+            clientCache.invalidate();
+        }
+    }
+
+    /**
+     * A dynamic user value changed, the next {@link #user()} call will evaluate it again.
+     */
+    public static void invalidateUser() {
+        userCache.invalidate();
+    }
+
+    /**
+     * A dynamic common value changed, the next {@link #common()} call will evaluate it again.
+     */
+    public static void invalidateCommon() {
+        commonCache.invalidate();
+    }
+
+    /**
+     * A dynamic client value changed, the next {@link #client()} call will evaluate it again.
+     */
+    public static void invalidateClient() {
+        clientCache.invalidate();
+    }
+
+    private static abstract class SnapshotCache<T> {
+
+        private final AtomicInteger version = new AtomicInteger();
+        private volatile Snapshot<T> snapshot;
+
+        abstract T build();
+
+        void invalidate() {
+            version.incrementAndGet();
+        }
+
+        T get() {
+            Snapshot<T> current = snapshot;
+            if (current != null && current.version == version.get()) {
+                return current.value;
+            }
+            synchronized (this) {
+                current = snapshot;
+                // Read the version before building, so a change while building triggers another rebuild.
+                final int latestVersion = version.get();
+                if (current == null || current.version != latestVersion) {
+                    current = new Snapshot<>(latestVersion, build());
+                    snapshot = current;
+                }
+                return current.value;
+            }
+        }
+    }
+
+    private static class Snapshot<T> {
+
+        private final int version;
+        private final T value;
+
+        Snapshot(int version, T value) {
+            this.version = version;
+            this.value = value;
         }
     }
 }
@@ -7,6 +7,7 @@ import com.kin.ecosystem.common.Callback;
 import com.kin.ecosystem.common.KinCallback;
 import com.kin.ecosystem.common.exception.ClientException;
 import com.kin.ecosystem.common.model.UserStats;
+import com.kin.ecosystem.core.bi.EventsStore;
 import com.kin.ecosystem.core.network.ApiException;
 import com.kin.ecosystem.core.network.model.AccountInfo;
 import com.kin.ecosystem.core.network.model.AuthToken;
@@ -24,22 +25,37 @@ import org.json.JSONException;
 public class AuthRepository implements AuthDataSource {
 
 	private static final long TWO_DAYS_IN_MILLIS = 2 * DateUtils.DAY_IN_MILLIS;
+	private static final long EXPIRATION_MARGIN_MILLIS = DateUtils.MINUTE_IN_MILLIS;
 	private static volatile AuthRepository instance = null;
 
 	private final AuthDataSource.Local localData;
 	private final AuthDataSource.Remote remoteData;
 
-	private String jwt;
-	private AccountInfo cachedAccountInfo;
-	private AuthToken cachedAuthToken;
+	private final AuthTokenRefresher tokenRefresher;
+
+	private volatile String jwt;
+	private volatile AccountInfo cachedAccountInfo;
+	private volatile AuthToken cachedAuthToken;
 
 	private AuthRepository(@NonNull AuthDataSource.Local local,
 		@NonNull AuthDataSource.Remote remote) {
 		this.localData = local;
 		this.remoteData = remote;
+		this.tokenRefresher = new AuthTokenRefresher(remote, new AuthTokenRefresher.Listener() {
+			@Override
+			public void onRefreshed(@NonNull String jwt, @Nullable AccountInfo accountInfo) {
+				// Drop results of a previous user's jwt.
+				if (accountInfo != null && jwt.equals(AuthRepository.this.jwt)) {
+					setAccountInfo(accountInfo);
+				}
+			}
+		});
 		this.jwt = local.getJWT();
 		this.cachedAuthToken = local.getAuthTokenSync();
 		this.cachedAccountInfo = local.getAccountInfo();
+		if (cachedAuthToken != null) {
+			scheduleRenewal(cachedAuthToken);
+		}
 	}
 
 	public static void init(@NonNull AuthDataSource.Local localData,
@@ -76,6 +92,7 @@ public class AuthRepository implements AuthDataSource {
 		this.jwt = jwt;
 		final JwtBody jwtBody = getJwtBody(jwt);
 		localData.setJWT(jwtBody);
+		invalidateEventsStore();
 	}
 
 	@NonNull
@@ -129,20 +146,35 @@ public class AuthRepository implements AuthDataSource {
 		return cachedAuthToken == null ? localData.getEcosystemUserID() : cachedAuthToken.getEcosystemUserID();
 	}
 
+	/**
+	 * Called from the network interceptor on every request.
+	 * Blocks only when there is no usable token, concurrent callers then share a single sign in request.
+	 * A token within {@link #TWO_DAYS_IN_MILLIS} of its expiration is still returned and renewed in the background.
+	 */
 	@Override
 	@Nullable
 	public AuthToken getAuthTokenSync() {
-		if (cachedAuthToken != null) {
-			return cachedAuthToken;
-		} else {
-			AuthToken authToken = localData.getAuthTokenSync();
-			if (authToken != null && !isAuthTokenExpired(authToken)) {
-				setAuthToken(authToken);
-			} else {
-				refreshTokenSync();
+		AuthToken authToken = cachedAuthToken;
+		if (authToken == null) {
+			authToken = localData.getAuthTokenSync();
+			if (authToken == null || !isAuthTokenUsable(authToken)) {
+				return refreshTokenSync();
 			}
-			return cachedAuthToken;
+			setAuthToken(authToken);
+		} else if (!isAuthTokenUsable(authToken)) {
+			return refreshTokenSync();
+		} else if (isAuthTokenExpired(authToken)) {
+			scheduleRenewal(authToken);
 		}
+		return authToken;
+	}
+
+	/**
+	 * @return auth token refresh metrics since the sdk was initialized.
+	 */
+	@NonNull
+	public TokenRefreshMetrics getTokenRefreshMetrics() {
+		return tokenRefresher.getMetrics();
 	}
 
 
@@ -190,9 +222,17 @@ public class AuthRepository implements AuthDataSource {
 		final String token = cachedAuthToken.getToken();
 		remoteData.logout(token);
 
+		tokenRefresher.cancel();
 		cachedAuthToken = null;
 		jwt = null;
 		localData.logout();
+		invalidateEventsStore();
+	}
+
+	private void invalidateEventsStore() {
+		EventsStore.invalidateUser();
+		EventsStore.invalidateCommon();
+		EventsStore.invalidateClient();
 	}
 
 	private boolean isAuthTokenExpired(AuthToken authToken) {
@@ -208,17 +248,37 @@ public class AuthRepository implements AuthDataSource {
 		}
 	}
 
-	private void refreshTokenSync() {
-		if (!StringUtil.isEmpty(jwt)) {
-			AccountInfo accountInfo = remoteData.getAccountInfoSync(new JWT(jwt));
-			if (accountInfo != null) {
-				setAccountInfo(accountInfo);
-			}
+	private boolean isAuthTokenUsable(@NonNull AuthToken authToken) {
+		Date expirationDate = DateUtil.getDateFromUTCString(authToken.getExpirationDate());
+		return expirationDate != null
+			&& Calendar.getInstance().getTimeInMillis() < (expirationDate.getTime() - EXPIRATION_MARGIN_MILLIS);
+	}
+
+	@Nullable
+	private AuthToken refreshTokenSync() {
+		final String currentJwt = jwt;
+		if (!StringUtil.isEmpty(currentJwt)) {
+			tokenRefresher.refreshSync(currentJwt);
+		}
+		return cachedAuthToken;
+	}
+
+	/**
+	 * Renew the token when it enters the {@link #TWO_DAYS_IN_MILLIS} window, or now if it already did.
+	 */
+	private void scheduleRenewal(@NonNull AuthToken authToken) {
+		final String currentJwt = jwt;
+		Date expirationDate = DateUtil.getDateFromUTCString(authToken.getExpirationDate());
+		if (!StringUtil.isEmpty(currentJwt) && expirationDate != null) {
+			tokenRefresher.renew(currentJwt,
+				expirationDate.getTime() - TWO_DAYS_IN_MILLIS - Calendar.getInstance().getTimeInMillis());
 		}
 	}
 
 	private void setAuthToken(@NonNull AuthToken authToken) {
 		cachedAuthToken = authToken;
+		EventsStore.invalidateCommon();
+		scheduleRenewal(authToken);
 	}
 
 	private void setAccountInfo(AccountInfo accountInfo) {
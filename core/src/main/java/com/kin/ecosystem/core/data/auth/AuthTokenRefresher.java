@@ -0,0 +1,177 @@
+package com.kin.ecosystem.core.data.auth;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.kin.ecosystem.core.network.model.AccountInfo;
+import com.kin.ecosystem.core.network.model.JWT;
+import com.kin.ecosystem.core.util.SharedExecutors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs in to get a new auth token, with at most one sign in request in flight per jwt.
+ * Callers that ask for a refresh while a request is in flight wait for its result instead of sending their own.
+ * Renewals can be scheduled ahead of time on the shared scheduler, which doesn't run while the device sleeps,
+ * so callers should also renew on access when the token is close to expire.
+ */
+class AuthTokenRefresher {
+
+	static final long RETRY_INTERVAL_MILLIS = 30 * 1000;
+
+	interface Listener {
+
+		/**
+		 * Called on the refreshing thread before waiting callers are released.
+		 *
+		 * @param accountInfo the sign in result, null if the request failed.
+		 */
+		void onRefreshed(@NonNull String jwt, @Nullable AccountInfo accountInfo);
+	}
+
+	private static class InFlight {
+
+		private final String jwt;
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		InFlight(String jwt) {
+			this.jwt = jwt;
+		}
+	}
+
+	private final AuthDataSource.Remote remote;
+	private final Listener listener;
+	private final SharedExecutors executors;
+
+	private final Object lock = new Object();
+	// Guarded by lock
+	private InFlight inFlight;
+	private ScheduledFuture<?> scheduledRenewal;
+	private String renewalJwt;
+	private long renewalAt;
+	private long lastFailureAt = -RETRY_INTERVAL_MILLIS;
+	private long requestCount;
+	private long coalescedCount;
+	private long failureCount;
+	private long totalLatencyMillis;
+	private long maxLatencyMillis;
+
+	AuthTokenRefresher(@NonNull AuthDataSource.Remote remote, @NonNull Listener listener) {
+		this.remote = remote;
+		this.listener = listener;
+		this.executors = SharedExecutors.getInstance();
+	}
+
+	/**
+	 * Sign in with the jwt, or wait for the sign in request already in flight for it.
+	 * Returns after the {@link Listener} was notified with the result.
+	 */
+	void refreshSync(@NonNull String jwt) {
+		final InFlight request;
+		final boolean isOwner;
+		synchronized (lock) {
+			if (inFlight != null && inFlight.jwt.equals(jwt)) {
+				request = inFlight;
+				isOwner = false;
+				coalescedCount++;
+			} else {
+				request = new InFlight(jwt);
+				inFlight = request;
+				isOwner = true;
+			}
+		}
+
+		if (isOwner) {
+			signIn(request);
+		} else {
+			try {
+				request.done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Refresh in the background after the delay, replaces a later scheduled renewal.
+	 * Renewals after a failed request are not scheduled sooner than {@link #RETRY_INTERVAL_MILLIS}.
+	 */
+	void renew(@NonNull final String jwt, long delayMillis) {
+		synchronized (lock) {
+			final long now = SystemClock.elapsedRealtime();
+			final long at = Math.max(now + Math.max(0, delayMillis), lastFailureAt + RETRY_INTERVAL_MILLIS);
+			if (scheduledRenewal != null) {
+				if (renewalAt <= at && jwt.equals(renewalJwt)) {
+					return;
+				}
+				scheduledRenewal.cancel(false);
+			}
+			renewalJwt = jwt;
+			renewalAt = at;
+			scheduledRenewal = executors.scheduled().schedule(new Runnable() {
+				@Override
+				public void run() {
+					synchronized (lock) {
+						scheduledRenewal = null;
+						renewalJwt = null;
+					}
+					// Sign in blocks, run it on the io lane rather than the shared scheduler.
+					executors.io().execute(new Runnable() {
+						@Override
+						public void run() {
+							refreshSync(jwt);
+						}
+					});
+				}
+			}, at - now, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Cancel the scheduled renewal, a request already in flight still completes.
+	 */
+	void cancel() {
+		synchronized (lock) {
+			if (scheduledRenewal != null) {
+				scheduledRenewal.cancel(false);
+				scheduledRenewal = null;
+				renewalJwt = null;
+			}
+		}
+	}
+
+	@NonNull
+	TokenRefreshMetrics getMetrics() {
+		synchronized (lock) {
+			return new TokenRefreshMetrics(requestCount, coalescedCount, failureCount, totalLatencyMillis,
+				maxLatencyMillis);
+		}
+	}
+
+	private void signIn(InFlight request) {
+		final long start = SystemClock.elapsedRealtime();
+		AccountInfo accountInfo = null;
+		try {
+			accountInfo = remote.getAccountInfoSync(new JWT(request.jwt));
+			// Notify before clearing the request, so new callers find either the request or its result.
+			listener.onRefreshed(request.jwt, accountInfo);
+		} finally {
+			final long end = SystemClock.elapsedRealtime();
+			synchronized (lock) {
+				if (inFlight == request) {
+					inFlight = null;
+				}
+				final long latency = end - start;
+				requestCount++;
+				totalLatencyMillis += latency;
+				maxLatencyMillis = Math.max(maxLatencyMillis, latency);
+				if (accountInfo == null) {
+					failureCount++;
+					lastFailureAt = end;
+				}
+			}
+			request.done.countDown();
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.kin.ecosystem.core.data.auth;
+
+/**
+ * Snapshot of the auth token refresh metrics: sign in requests sent, callers that waited on a request
+ * already in flight instead of sending their own, failed requests and sign in latency.
+ */
+public final class TokenRefreshMetrics {
+
+	private final long requestCount;
+	private final long coalescedCount;
+	private final long failureCount;
+	private final long totalLatencyMillis;
+	private final long maxLatencyMillis;
+
+	TokenRefreshMetrics(long requestCount, long coalescedCount, long failureCount, long totalLatencyMillis,
+		long maxLatencyMillis) {
+		this.requestCount = requestCount;
+		this.coalescedCount = coalescedCount;
+		this.failureCount = failureCount;
+		this.totalLatencyMillis = totalLatencyMillis;
+		this.maxLatencyMillis = maxLatencyMillis;
+	}
+
+	public long getRequestCount() {
+		return requestCount;
+	}
+
+	public long getCoalescedCount() {
+		return coalescedCount;
+	}
+
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	public long getTotalLatencyMillis() {
+		return totalLatencyMillis;
+	}
+
+	public long getMaxLatencyMillis() {
+		return maxLatencyMillis;
+	}
+
+	public long getAverageLatencyMillis() {
+		return requestCount == 0 ? 0 : totalLatencyMillis / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "requests: " + requestCount + ", coalesced: " + coalescedCount + ", failures: " + failureCount
+			+ ", avgLatencyMillis: " + getAverageLatencyMillis() + ", maxLatencyMillis: " + maxLatencyMillis;
+	}
+}
@@ -0,0 +1,67 @@
+package com.kin.ecosystem.core.data.blockchain;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import kin.sdk.migration.common.interfaces.IKinAccount;
+import kin.sdk.migration.common.interfaces.IKinClient;
+
+/**
+ * Index of the {@link IKinClient} accounts by public address.
+ * Accounts are appended to the client, so a lookup only indexes the accounts added since the last one,
+ * the index is rebuilt when the client changed or an indexed account is no longer at its index.
+ */
+class AccountIndex {
+
+	static final int NOT_FOUND = -1;
+
+	private final Map<String, Integer> indexByAddress = new HashMap<>();
+	private IKinClient indexedClient;
+	private int indexedCount;
+
+	synchronized int indexOf(@NonNull IKinClient kinClient, @Nullable String publicAddress) {
+		if (publicAddress == null) {
+			return NOT_FOUND;
+		}
+		if (kinClient != indexedClient || kinClient.getAccountCount() < indexedCount) {
+			clear(kinClient);
+		}
+		Integer index = indexByAddress.get(publicAddress);
+		if (index != null && !isAccountAt(kinClient, index, publicAddress)) {
+			clear(kinClient);
+			index = null;
+		}
+		if (index == null) {
+			indexNewAccounts(kinClient);
+			index = indexByAddress.get(publicAddress);
+		}
+		return index != null ? index : NOT_FOUND;
+	}
+
+	private void clear(@NonNull IKinClient kinClient) {
+		indexByAddress.clear();
+		indexedClient = kinClient;
+		indexedCount = 0;
+	}
+
+	private void indexNewAccounts(@NonNull IKinClient kinClient) {
+		final int count = kinClient.getAccountCount();
+		for (int i = indexedCount; i < count; i++) {
+			final IKinAccount account = kinClient.getAccount(i);
+			final String address = account != null ? account.getPublicAddress() : null;
+			if (address != null) {
+				indexByAddress.put(address, i);
+			}
+		}
+		indexedCount = count;
+	}
+
+	private static boolean isAccountAt(@NonNull IKinClient kinClient, int index, @NonNull String publicAddress) {
+		if (index >= kinClient.getAccountCount()) {
+			return false;
+		}
+		final IKinAccount account = kinClient.getAccount(index);
+		return account != null && publicAddress.equals(account.getPublicAddress());
+	}
+}
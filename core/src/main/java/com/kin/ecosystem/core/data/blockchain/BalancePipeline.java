@@ -0,0 +1,149 @@
+package com.kin.ecosystem.core.data.blockchain;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.kin.ecosystem.common.ObservableData;
+import com.kin.ecosystem.common.model.Balance;
+import com.kin.ecosystem.core.util.SharedExecutors;
+import java.math.BigDecimal;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current immutable {@link Balance}, updated with compare and set.
+ * Changes are persisted at most once per {@link #PERSIST_DEBOUNCE_MILLIS} and observers are notified
+ * on the main thread at most once per {@link #NOTIFY_INTERVAL_MILLIS}, always with the latest value.
+ */
+class BalancePipeline {
+
+	static final long PERSIST_DEBOUNCE_MILLIS = 500;
+	static final long NOTIFY_INTERVAL_MILLIS = 250;
+
+	private final BlockchainSource.Local local;
+	private final ObservableData<Balance> observable;
+	private final AtomicReference<Balance> current;
+	private final ScheduledExecutorService persistExecutor;
+	private final Handler mainThreadHandler;
+
+	private final Object persistLock = new Object();
+	// Guarded by persistLock
+	private ScheduledFuture<?> scheduledPersist;
+	// Incremented by reset, a write scheduled before it belongs to the previous balance. Written under persistLock.
+	private volatile int generation;
+
+	private final AtomicBoolean isNotifyScheduled = new AtomicBoolean(false);
+	private volatile long lastNotifyAt;
+
+	private final Runnable notifyRunnable = new Runnable() {
+		@Override
+		public void run() {
+			isNotifyScheduled.set(false);
+			lastNotifyAt = SystemClock.uptimeMillis();
+			observable.setValue(current.get());
+		}
+	};
+
+	BalancePipeline(@NonNull BlockchainSource.Local local, @NonNull ObservableData<Balance> observable) {
+		this.local = local;
+		this.observable = observable;
+		this.current = new AtomicReference<>(new Balance(new BigDecimal(local.getBalance())));
+		this.mainThreadHandler = new Handler(Looper.getMainLooper());
+		this.persistExecutor = SharedExecutors.getInstance().scheduled();
+	}
+
+	@NonNull
+	Balance get() {
+		return current.get();
+	}
+
+	/**
+	 * @return the previous balance if the amount changed, null if it was already up to date.
+	 */
+	@Nullable
+	Balance update(@NonNull BigDecimal amount) {
+		final int updateGeneration = generation;
+		final Balance newBalance = new Balance(amount);
+		Balance previous;
+		do {
+			previous = current.get();
+			if (previous.getAmount().compareTo(amount) == 0) {
+				return null;
+			}
+		} while (!current.compareAndSet(previous, newBalance));
+
+		schedulePersist(updateGeneration);
+		scheduleNotify();
+		return previous;
+	}
+
+	/**
+	 * Replace the balance without persisting it, e.g. after loading another account.
+	 * Pending writes of the previous value are dropped.
+	 */
+	void reset(@NonNull BigDecimal amount) {
+		synchronized (persistLock) {
+			generation++;
+			if (scheduledPersist != null) {
+				scheduledPersist.cancel(false);
+				scheduledPersist = null;
+			}
+			current.set(new Balance(amount));
+		}
+		scheduleNotify();
+	}
+
+	/**
+	 * Persist and notify pending changes now, should be called on the main thread.
+	 */
+	void flush() {
+		synchronized (persistLock) {
+			if (scheduledPersist != null) {
+				scheduledPersist.cancel(false);
+				scheduledPersist = null;
+				local.setBalance(current.get().getAmount().intValue());
+			}
+		}
+		if (isNotifyScheduled.get()) {
+			mainThreadHandler.removeCallbacks(notifyRunnable);
+			notifyRunnable.run();
+		}
+	}
+
+	private void schedulePersist(final int updateGeneration) {
+		synchronized (persistLock) {
+			if (scheduledPersist != null || updateGeneration != generation) {
+				return;
+			}
+			scheduledPersist = persistExecutor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					synchronized (persistLock) {
+						// Reset while waiting for the lock, the current balance is not ours to write.
+						if (updateGeneration != generation) {
+							return;
+						}
+						scheduledPersist = null;
+						local.setBalance(current.get().getAmount().intValue());
+					}
+				}
+			}, PERSIST_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void scheduleNotify() {
+		if (isNotifyScheduled.compareAndSet(false, true)) {
+			final long delay = lastNotifyAt + NOTIFY_INTERVAL_MILLIS - SystemClock.uptimeMillis();
+			if (delay > 0) {
+				mainThreadHandler.postDelayed(notifyRunnable, delay);
+			} else {
+				mainThreadHandler.post(notifyRunnable);
+			}
+		}
+	}
+}
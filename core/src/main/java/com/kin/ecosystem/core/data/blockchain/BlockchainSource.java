@@ -147,14 +147,29 @@ public interface BlockchainSource {
 	String getPublicAddress(final int accountIndex);
 
 	/**
-	 * Add {@link Payment} completed observer.
+	 * Observe the completed {@link Payment} of the order, the observer is notified once, off the main thread,
+	 * and then removed. A payment that arrived shortly before the observer was added is delivered as well.
 	 */
-	void addPaymentObservable(Observer<Payment> observer);
+	void addPaymentObserver(@NonNull String orderID, @NonNull PaymentObserver observer);
 
 	/**
-	 * Remove the payment observer to stop listening for completed payments.
+	 * Remove the payment observer of the order before it was notified.
 	 */
-	void removePaymentObserver(Observer<Payment> observer);
+	void removePaymentObserver(@NonNull String orderID, @NonNull PaymentObserver observer);
+
+	/**
+	 * Notify the order payment observers with {@link PaymentObserver#onTimeout(String)} and remove them,
+	 * unless the payment arrives within the timeout.
+	 */
+	void setPaymentTimeout(@NonNull String orderID, long timeoutMillis);
+
+	/**
+	 * Start listening for payments before a payment observer is added, e.g. while the order is created,
+	 * and keep listening until {@link #releasePaymentListener()} is called.
+	 */
+	void holdPaymentListener();
+
+	void releasePaymentListener();
 
 	/**
 	 * Create trustline polling call, so it will try few time before failure.
@@ -206,6 +221,13 @@ public interface BlockchainSource {
 		KinSdkVersion getBlockchainVersion();
 
 		void setBlockchainVersion(KinSdkVersion version);
+
+		/**
+		 * @return true if the account was found on the new blockchain, which it can't migrate back from.
+		 */
+		boolean isOnNewBlockchain(String publicAddress);
+
+		void setOnNewBlockchain(String publicAddress);
 	}
 
 	interface Remote {
@@ -16,6 +16,7 @@ import com.kin.ecosystem.common.model.Balance;
 import com.kin.ecosystem.core.Log;
 import com.kin.ecosystem.core.Logger;
 import com.kin.ecosystem.core.bi.EventLogger;
+import com.kin.ecosystem.core.bi.EventsStore;
 import com.kin.ecosystem.core.bi.events.KinBalanceUpdated;
 import com.kin.ecosystem.core.bi.events.MigrationAccountCompleted;
 import com.kin.ecosystem.core.bi.events.MigrationAccountCompleted.BlockchainVersion;
@@ -33,9 +34,13 @@ import com.kin.ecosystem.core.network.ApiException;
 import com.kin.ecosystem.core.network.model.MigrationInfo;
 import com.kin.ecosystem.core.util.ErrorUtil;
 import com.kin.ecosystem.core.util.ExecutorsUtil.MainThreadExecutor;
+import com.kin.ecosystem.core.util.SharedExecutors;
 import com.kin.ecosystem.core.util.StringUtil;
 import com.kin.ecosystem.recovery.KeyStoreProvider;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import kin.sdk.migration.MigrationManager;
 import kin.sdk.migration.common.KinSdkVersion;
 import kin.sdk.migration.common.WhitelistResult;
@@ -71,16 +76,19 @@ public class BlockchainSourceImpl implements BlockchainSource {
 	private IKinClient kinClient;
 	private IKinAccount account;
 	private String currentUserId;
+	private final AccountIndex accountIndex = new AccountIndex();
 
-	private ObservableData<Balance> balance = ObservableData.create(new Balance());
+	private ObservableData<Balance> balance = ObservableData.create(new Balance()).distinctUntilChanged();
+	private final BalancePipeline balancePipeline;
+	private final Object balanceRequestLock = new Object();
+	// Callbacks waiting for the in flight balance request, null when no request is in flight.
+	private List<KinCallback<Balance>> pendingBalanceCallbacks;
 	/**
-	 * Listen for {@code completedPayment} in order to be notify about completed transaction sent to the blockchain, it
-	 * could failed or succeed.
+	 * Routes completed transactions sent to the blockchain, failed or succeeded, to the observers of their order.
+	 * Payments are delivered in order on the main thread, as payment observers expect.
 	 */
-	private ObservableData<Payment> completedPayment = ObservableData.create();
-	private final Object paymentObserversLock = new Object();
+	private final PaymentRouter paymentRouter;
 	private final Object balanceObserversLock = new Object();
-	private int paymentObserversCount;
 	private int balanceObserversCount;
 
 	private AccountCreationRequest accountCreationRequest;
@@ -103,6 +111,20 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		this.authRepository = authRepository;
 		this.local = local;
 		this.remote = remote;
+		this.balancePipeline = new BalancePipeline(local, balance);
+		this.paymentRouter = new PaymentRouter(mainThread, SharedExecutors.getInstance().scheduled(),
+			new PaymentRouter.ActivityListener() {
+			@Override
+			public void onActive() {
+				startPaymentListener();
+			}
+
+			@Override
+			public void onIdle() {
+				removeRegistration(paymentRegistration);
+				paymentRegistration = null;
+			}
+		});
 		Logger.log(new Log().withTag(TAG)
 			.put("BlockchainSourceImpl authRepository.getEcosystemUserID()", authRepository.getEcosystemUserID()));
 		this.currentUserId = authRepository.getEcosystemUserID();
@@ -177,8 +199,14 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		// If the account should migrate then migrate it, if not update the kinClient to run on this version.
 		// If we don't have an account then check the server for the current version and update the kinClient to run on this version.
 		if (kinClient.hasAccount()) {
-			// TODO: 01/04/2019 Maybe we can make it more efficient by adding a call to the local storage to check if the account is already migrated(locally)?
-			if (migrationInfo != null) {
+			if (migrationInfo == null && local.getBlockchainVersion() == KinSdkVersion.NEW_KIN_SDK
+				&& local.isOnNewBlockchain(publicAddress)) {
+				// Already on the new blockchain, there is nothing to migrate.
+				updateKinClient(migrationManager.getKinClient(KinSdkVersion.NEW_KIN_SDK));
+				if (listener != null) {
+					listener.onMigrationEnd();
+				}
+			} else if (migrationInfo != null) {
 				startMigrationIfNeeded(migrationInfo, publicAddress, listener);
 			} else {
 				handleMigrationInfo(publicAddress, listener);
@@ -235,6 +263,9 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		if (migrationInfo.shouldMigrate()) {
 			startMigration(publicAddress, listener);
 		} else {
+			if (sdkVersion == KinSdkVersion.NEW_KIN_SDK) {
+				local.setOnNewBlockchain(publicAddress);
+			}
 			updateKinClient(migrationManager.getKinClient(KinSdkVersion.get(migrationInfo.getBlockchainVersion())));
 			if (listener != null) {
 				listener.onMigrationEnd();
@@ -261,6 +292,7 @@ public class BlockchainSourceImpl implements BlockchainSource {
 					eventLogger.send(MigrationAccountCompleted.create(
 						BlockchainVersion._3, publicAddress
 					));
+					local.setOnNewBlockchain(publicAddress);
 					updateKinClient(kinClient);
 
 					if (listener != null) {
@@ -292,6 +324,8 @@ public class BlockchainSourceImpl implements BlockchainSource {
 	public void loadAccount(String kinUserId) throws BlockchainException {
 		migrateToMultipleUsers(kinUserId);
 		createOrLoadAccount(kinUserId);
+		// Observers added before the account was loaded are waiting for its payments.
+		paymentRouter.restartIfActive();
 		initBalance();
 	}
 
@@ -408,15 +442,15 @@ public class BlockchainSourceImpl implements BlockchainSource {
 				public void onResult(ITransactionId result) {
 					eventLogger
 						.send(SpendTransactionBroadcastToBlockchainSucceeded.create(result.id(), offerID, orderID));
-					Logger.log(new Log().withTag(TAG).put("sendTransaction onResult", result.id()));
+					Logger.log(Log.with(TAG).put("sendTransaction onResult", result.id()));
 				}
 
 				@Override
 				public void onError(Exception e) {
 					eventLogger
 						.send(SpendTransactionBroadcastToBlockchainFailed.create(e.getMessage(), offerID, orderID));
-					completedPayment.postValue(new Payment(orderID, false, e));
-					Logger.log(new Log().withTag(TAG).put("sendTransaction onError", e.getMessage()));
+					paymentRouter.dispatch(new Payment(orderID, false, e));
+					Logger.log(Log.with(TAG).put("sendTransaction onError", e.getMessage()));
 				}
 			});
 		}
@@ -463,17 +497,19 @@ public class BlockchainSourceImpl implements BlockchainSource {
 
 	private void initBalance() {
 		reconnectBalanceConnection();
-		balance.postValue(getBalance());
+		balancePipeline.reset(new BigDecimal(local.getBalance()));
+		EventsStore.invalidateUser();
 		getBalance(null);
 	}
 
 	@Override
 	public Balance getBalance() {
-		Balance balance = new Balance();
-		balance.setAmount(new BigDecimal(local.getBalance()));
-		return balance;
+		return balancePipeline.get();
 	}
 
+	/**
+	 * Concurrent calls are coalesced into one in flight request, all callbacks get its result.
+	 */
 	@Override
 	public void getBalance(@Nullable final KinCallback<Balance> callback) {
 		if (account == null) {
@@ -487,36 +523,63 @@ public class BlockchainSourceImpl implements BlockchainSource {
 			}
 			return;
 		}
+		synchronized (balanceRequestLock) {
+			if (pendingBalanceCallbacks != null) {
+				if (callback != null) {
+					pendingBalanceCallbacks.add(callback);
+				}
+				return;
+			}
+			pendingBalanceCallbacks = new ArrayList<>();
+			if (callback != null) {
+				pendingBalanceCallbacks.add(callback);
+			}
+		}
 		account.getBalance().run(new ResultCallback<IBalance>() {
 			@Override
 			public void onResult(final IBalance balanceObj) {
 				setBalance(balanceObj);
-				if (callback != null) {
+				final List<KinCallback<Balance>> callbacks = takePendingBalanceCallbacks();
+				if (!callbacks.isEmpty()) {
+					final Balance result = balancePipeline.get();
 					mainThread.execute(new Runnable() {
 						@Override
 						public void run() {
-							callback.onResponse(balance.getValue());
+							for (KinCallback<Balance> callback : callbacks) {
+								callback.onResponse(result);
+							}
 						}
 					});
 				}
-				Logger.log(new Log().withTag(TAG).put("getBalance onResult", balanceObj.value().intValue()));
+				Logger.log(Log.with(TAG).put("getBalance onResult", balanceObj.value().intValue()));
 			}
 
 			@Override
 			public void onError(final Exception e) {
-				if (callback != null) {
+				final List<KinCallback<Balance>> callbacks = takePendingBalanceCallbacks();
+				if (!callbacks.isEmpty()) {
 					mainThread.execute(new Runnable() {
 						@Override
 						public void run() {
-							callback.onFailure(ErrorUtil.getBlockchainException(e));
+							for (KinCallback<Balance> callback : callbacks) {
+								callback.onFailure(ErrorUtil.getBlockchainException(e));
+							}
 						}
 					});
 				}
-				Logger.log(new Log().withTag(TAG).priority(Log.ERROR).put("getBalance onError", e));
+				Logger.log(Log.with(TAG).priority(Log.ERROR).put("getBalance onError", e));
 			}
 		});
 	}
 
+	private List<KinCallback<Balance>> takePendingBalanceCallbacks() {
+		synchronized (balanceRequestLock) {
+			final List<KinCallback<Balance>> callbacks = pendingBalanceCallbacks;
+			pendingBalanceCallbacks = null;
+			return callbacks != null ? callbacks : Collections.<KinCallback<Balance>>emptyList();
+		}
+	}
+
 	@Override
 	public Balance getBalanceSync() throws ClientException, BlockchainException {
 		if (account == null) {
@@ -524,7 +587,7 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		}
 		try {
 			setBalance(account.getBalanceSync());
-			return balance.getValue();
+			return balancePipeline.get();
 		} catch (OperationFailedException e) {
 			throw ErrorUtil.getBlockchainException(e);
 		}
@@ -542,22 +605,24 @@ public class BlockchainSourceImpl implements BlockchainSource {
 
 	@VisibleForTesting
 	void setBalance(final kin.sdk.migration.common.interfaces.IBalance balanceObj) {
-		Balance balanceTemp = balance.getValue();
-		// if the values are not equals so we need to update,
-		// no need to update for equal values.
-		if (balanceTemp.getAmount().compareTo(balanceObj.value()) != 0) {
-			eventLogger.send(KinBalanceUpdated.create(balanceTemp.getAmount().doubleValue()));
-			Logger.log(new Log().withTag(TAG).text("setBalance: Balance changed, should get update"));
-			balanceTemp.setAmount(balanceObj.value());
-			balance.postValue(balanceTemp);
-			local.setBalance(balanceObj.value().intValue());
+		// No update for equal values.
+		final Balance previous = balancePipeline.update(balanceObj.value());
+		if (previous != null) {
+			eventLogger.send(KinBalanceUpdated.create(previous.getAmount().doubleValue()));
+			Logger.log(Log.with(TAG).text("setBalance: Balance changed, should get update"));
+			EventsStore.invalidateUser();
 		}
 	}
 
+	@VisibleForTesting
+	void flushBalance() {
+		balancePipeline.flush();
+	}
+
 	@Override
 	public void addBalanceObserver(@NonNull Observer<Balance> observer, boolean startSSE) {
 		balance.addObserver(observer);
-		observer.onChanged(balance.getValue());
+		observer.onChanged(balancePipeline.get());
 
 		if (startSSE) {
 			incrementBalanceSSECount();
@@ -570,7 +635,7 @@ public class BlockchainSourceImpl implements BlockchainSource {
 				startBalanceListener();
 			}
 			balanceObserversCount++;
-			Logger.log(new Log().withTag(TAG).put("incrementBalanceSSECount count", balanceObserversCount));
+			Logger.log(Log.with(TAG).put("incrementBalanceSSECount count", balanceObserversCount));
 		}
 	}
 
@@ -586,6 +651,12 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		}
 	}
 
+	private boolean isBalanceListenerActive() {
+		synchronized (balanceObserversLock) {
+			return balanceObserversCount > 0 && balanceRegistration != null;
+		}
+	}
+
 	@Override
 	public void removeBalanceObserver(@NonNull Observer<Balance> observer, boolean stopSSE) {
 		Logger.log(new Log().withTag(TAG).text("removeBalanceObserver"));
@@ -600,7 +671,7 @@ public class BlockchainSourceImpl implements BlockchainSource {
 			if (balanceObserversCount > 0) {
 				balanceObserversCount--;
 			}
-			Logger.log(new Log().withTag(TAG).put("decrementBalanceSSECount: count", balanceObserversCount));
+			Logger.log(Log.with(TAG).put("decrementBalanceSSECount: count", balanceObserversCount));
 
 			if (balanceObserversCount == 0) {
 				removeRegistration(balanceRegistration);
@@ -625,18 +696,23 @@ public class BlockchainSourceImpl implements BlockchainSource {
 	}
 
 	@Override
-	public void addPaymentObservable(Observer<Payment> observer) {
-		completedPayment.addObserver(observer);
-		incrementPaymentCount();
+	public void addPaymentObserver(@NonNull String orderID, @NonNull PaymentObserver observer) {
+		paymentRouter.addObserver(orderID, observer);
 	}
 
-	private void incrementPaymentCount() {
-		synchronized (paymentObserversLock) {
-			if (paymentObserversCount == 0) {
-				startPaymentListener();
-			}
-			paymentObserversCount++;
-		}
+	@Override
+	public void setPaymentTimeout(@NonNull String orderID, long timeoutMillis) {
+		paymentRouter.setTimeout(orderID, timeoutMillis);
+	}
+
+	@Override
+	public void holdPaymentListener() {
+		paymentRouter.hold();
+	}
+
+	@Override
+	public void releasePaymentListener() {
+		paymentRouter.release();
 	}
 
 	private void startPaymentListener() {
@@ -645,25 +721,26 @@ public class BlockchainSourceImpl implements BlockchainSource {
 				@Override
 				public void onEvent(IPaymentInfo data) {
 					final String orderID = extractOrderId(data.memo());
-					Logger.log(new Log().withTag(TAG).put("startPaymentListener onEvent: the orderId", orderID)
+					Logger.log(Log.with(TAG).put("startPaymentListener onEvent: the orderId", orderID)
 						.put("with memo", data.memo()));
 					final String accountPublicAddress = account.getPublicAddress();
 					if (orderID != null && accountPublicAddress != null) {
-						completedPayment.postValue(PaymentConverter.toPayment(data, orderID, accountPublicAddress));
-						Logger.log(new Log().withTag(TAG).put("completedPayment order id", orderID));
+						paymentRouter.dispatch(PaymentConverter.toPayment(data, orderID, accountPublicAddress));
+						Logger.log(Log.with(TAG).put("completedPayment order id", orderID));
 					}
 
-					// UpdateBalance
-					getBalance(null);
+					// The balance listener already reports the change.
+					if (!isBalanceListenerActive()) {
+						getBalance(null);
+					}
 				}
 			});
 		}
 	}
 
 	@Override
-	public void removePaymentObserver(Observer<Payment> observer) {
-		completedPayment.removeObserver(observer);
-		decrementPaymentCount();
+	public void removePaymentObserver(@NonNull String orderID, @NonNull PaymentObserver observer) {
+		paymentRouter.removeObserver(orderID, observer);
 	}
 
 	@Override
@@ -697,7 +774,7 @@ public class BlockchainSourceImpl implements BlockchainSource {
 
 	@Override
 	public KeyStoreProvider getKeyStoreProvider() {
-		return new KeyStoreProviderImpl(kinClient, account);
+		return new KeyStoreProviderImpl(kinClient, account, accountIndex);
 	}
 
 	@Override
@@ -705,6 +782,7 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		if (accountIndex != -1 && accountIndex < kinClient.getAccountCount()) {
 			account = kinClient.getAccount(accountIndex);
 			local.setActiveUserWallet(currentUserId, account.getPublicAddress());
+			paymentRouter.restartIfActive();
 			reconnectBalanceConnection();
 			//trigger balance update
 			getBalance(null);
@@ -719,21 +797,10 @@ public class BlockchainSourceImpl implements BlockchainSource {
 		removeRegistration(balanceRegistration);
 		paymentRegistration = null;
 		balanceRegistration = null;
-		completedPayment.removeAllObservers();
+		paymentRouter.clear();
 		account = null;
 		local.logout();
-	}
-
-	private void decrementPaymentCount() {
-		synchronized (paymentObserversLock) {
-			if (paymentObserversCount > 0) {
-				paymentObserversCount--;
-			}
-
-			if (paymentObserversCount == 0) {
-				removeRegistration(paymentRegistration);
-			}
-		}
+		balancePipeline.reset(BigDecimal.ZERO);
 	}
 
 	private void removeRegistration(IListenerRegistration listenerRegistration) {
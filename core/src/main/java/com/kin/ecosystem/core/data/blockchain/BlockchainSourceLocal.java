@@ -7,7 +7,10 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import kin.sdk.migration.common.KinSdkVersion;
 
 public class BlockchainSourceLocal implements BlockchainSource.Local {
@@ -22,6 +25,7 @@ public class BlockchainSourceLocal implements BlockchainSource.Local {
 	private static final String CURRENT_KIN_USER_ID = "current_kin_user_id";
 	private static final String IS_MIGRATED_KEY = "is_migrated_key";
 	private static final String BLOCKCHAIN_VERSION = "blockchain_version";
+	private static final String NEW_BLOCKCHAIN_WALLETS_KEY = "new_blockchain_wallets";
 
 	private final SharedPreferences blockchainSharedPreferences;
 
@@ -124,4 +128,22 @@ public class BlockchainSourceLocal implements BlockchainSource.Local {
 	public void setBlockchainVersion(KinSdkVersion version) {
 		blockchainSharedPreferences.edit().putString(BLOCKCHAIN_VERSION, version.getVersion()).apply();
 	}
+
+	@Override
+	public boolean isOnNewBlockchain(String publicAddress) {
+		return publicAddress != null && blockchainSharedPreferences
+			.getStringSet(NEW_BLOCKCHAIN_WALLETS_KEY, Collections.<String>emptySet()).contains(publicAddress);
+	}
+
+	@Override
+	public void setOnNewBlockchain(String publicAddress) {
+		if (publicAddress == null || isOnNewBlockchain(publicAddress)) {
+			return;
+		}
+		// The returned set must not be modified
+		Set<String> wallets = new HashSet<>(blockchainSharedPreferences
+			.getStringSet(NEW_BLOCKCHAIN_WALLETS_KEY, Collections.<String>emptySet()));
+		wallets.add(publicAddress);
+		blockchainSharedPreferences.edit().putStringSet(NEW_BLOCKCHAIN_WALLETS_KEY, wallets).apply();
+	}
 }
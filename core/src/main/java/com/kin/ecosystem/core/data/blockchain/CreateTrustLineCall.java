@@ -1,39 +1,50 @@
 package com.kin.ecosystem.core.data.blockchain;
 
+import com.kin.ecosystem.core.util.SharedExecutors;
+import java.util.concurrent.TimeUnit;
 import kin.sdk.migration.common.exception.OperationFailedException;
 import kin.sdk.migration.common.interfaces.IKinAccount;
 
-public class CreateTrustLineCall extends Thread {
+/**
+ * Activates the account on the {@link SharedExecutors#io()} lane, failed attempts are retried after a delay
+ * scheduled on {@link SharedExecutors#scheduled()} instead of sleeping on the io thread.
+ */
+public class CreateTrustLineCall implements Runnable {
 
 	private static final int[] DELAY_SECONDS = {2, 4, 8, 16, 32, 32, 32, 32, 32, 32};
-	private static final int SEC_IN_MILLI = 1000;
 
 	private final IKinAccount account;
 	private final TrustlineCallback trustlineCallback;
+	private final SharedExecutors executors;
+	private int tries;
 
 	public CreateTrustLineCall(IKinAccount account, TrustlineCallback trustlineCallback) {
 		this.account = account;
 		this.trustlineCallback = trustlineCallback;
+		this.executors = SharedExecutors.getInstance();
+	}
+
+	public void start() {
+		executors.io().execute(this);
 	}
 
 	@Override
 	public void run() {
-		super.run();
-		createTrustline(0);
+		createTrustline();
 	}
 
-	private void createTrustline(int tries) {
+	private void createTrustline() {
 		try {
 			account.activateSync();
 			trustlineCallback.onSuccess();
 		} catch (OperationFailedException e) {
 			if (tries < DELAY_SECONDS.length) {
-				try {
-					sleep(DELAY_SECONDS[tries] * SEC_IN_MILLI);
-					createTrustline(++tries);
-				} catch (InterruptedException e1) {
-					trustlineCallback.onFailure(new OperationFailedException(e1));
-				}
+				executors.scheduled().schedule(new Runnable() {
+					@Override
+					public void run() {
+						executors.io().execute(CreateTrustLineCall.this);
+					}
+				}, DELAY_SECONDS[tries++], TimeUnit.SECONDS);
 			} else {
 				trustlineCallback.onFailure(e);
 			}
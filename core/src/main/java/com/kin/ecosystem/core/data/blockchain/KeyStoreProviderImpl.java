@@ -23,11 +23,15 @@ public class KeyStoreProviderImpl implements KeyStoreProvider {
 	private final IKinClient kinClient;
 	@Nullable
 	private final IKinAccount kinAccount;
+	@NonNull
+	private final AccountIndex accountIndex;
 	private final Pattern pattern;
 
-	KeyStoreProviderImpl(@NonNull final IKinClient kinClient, @NonNull final IKinAccount kinAccount) {
+	KeyStoreProviderImpl(@NonNull final IKinClient kinClient, @NonNull final IKinAccount kinAccount,
+		@NonNull final AccountIndex accountIndex) {
 		this.kinClient = kinClient;
 		this.kinAccount = kinAccount;
+		this.accountIndex = accountIndex;
 		this.pattern = Pattern.compile("^(?=.*\\d)(?=.*[A-Z])(?=.*[!@#$%^&*()_+{}\\[\\]])(?!.*[^a-zA-Z0-9!@#$%^&*()_+{}\\[\\]])(.{9,})$");
 	}
 
@@ -55,14 +59,8 @@ public class KeyStoreProviderImpl implements KeyStoreProvider {
 		Validator.checkNotNull(keystore, "password");
 		try {
 			IKinAccount importedAccount = kinClient.importAccount(keystore, password);
-			int index = -1;
-			for (int i = 0; i < kinClient.getAccountCount(); i++) {
-				if (importedAccount.equals(kinClient.getAccount(i))) {
-					index = i;
-				}
-			}
-
-			if (index != -1) {
+			final int index = accountIndex.indexOf(kinClient, importedAccount.getPublicAddress());
+			if (index != AccountIndex.NOT_FOUND) {
 				return index;
 			} else {
 				throw new BackupException(CODE_UNEXPECTED, "Could not find the imported account");
@@ -0,0 +1,17 @@
+package com.kin.ecosystem.core.data.blockchain;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.Observer;
+
+/**
+ * Observes the {@link Payment} of a single order, see {@link BlockchainSource#addPaymentObserver(String, PaymentObserver)}.
+ */
+public abstract class PaymentObserver extends Observer<Payment> {
+
+	/**
+	 * Called instead of {@link #onChanged(Object)} when the payment didn't arrive before the order timeout,
+	 * see {@link BlockchainSource#setPaymentTimeout(String, long)}.
+	 */
+	public void onTimeout(@NonNull String orderID) {
+	}
+}
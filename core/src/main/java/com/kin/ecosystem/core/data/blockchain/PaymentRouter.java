@@ -0,0 +1,251 @@
+package com.kin.ecosystem.core.data.blockchain;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes each {@link Payment} to the observers of its order.
+ * Observers are notified once on the executor, with the payment or a timeout, and then removed.
+ * The last {@link #REPLAY_CAPACITY} payments are kept for {@link #REPLAY_WINDOW_MILLIS},
+ * so an observer added after its payment arrived still gets it.
+ */
+class PaymentRouter {
+
+	static final int REPLAY_CAPACITY = 16;
+	static final long REPLAY_WINDOW_MILLIS = 60 * 1000;
+
+	interface ActivityListener {
+
+		/**
+		 * The first observer or hold was added, called while holding the router lock.
+		 */
+		void onActive();
+
+		/**
+		 * The last observer was removed or notified and no hold is left, called while holding the router lock.
+		 */
+		void onIdle();
+	}
+
+	private static class Route {
+
+		private final List<PaymentObserver> observers = new ArrayList<>(2);
+		private ScheduledFuture<?> timeout;
+	}
+
+	private static class ReplayEntry {
+
+		private final Payment payment;
+		private final long receivedAt;
+
+		ReplayEntry(Payment payment, long receivedAt) {
+			this.payment = payment;
+			this.receivedAt = receivedAt;
+		}
+	}
+
+	private final Executor executor;
+	private final ScheduledExecutorService scheduler;
+	private final ActivityListener activityListener;
+
+	// Guarded by this
+	private final Map<String, Route> routes = new HashMap<>();
+	private final Map<String, ReplayEntry> replay = new LinkedHashMap<String, ReplayEntry>() {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ReplayEntry> eldest) {
+			return size() > REPLAY_CAPACITY;
+		}
+	};
+	private int observerCount;
+	private int holdCount;
+
+	PaymentRouter(@NonNull Executor executor, @NonNull ScheduledExecutorService scheduler,
+		@NonNull ActivityListener activityListener) {
+		this.executor = executor;
+		this.scheduler = scheduler;
+		this.activityListener = activityListener;
+	}
+
+	void addObserver(@NonNull String orderID, @NonNull PaymentObserver observer) {
+		final Payment replayed;
+		synchronized (this) {
+			replayed = getReplayedLocked(orderID);
+			if (replayed == null) {
+				Route route = routes.get(orderID);
+				if (route == null) {
+					route = new Route();
+					routes.put(orderID, route);
+				}
+				route.observers.add(observer);
+				onAddedLocked();
+				observerCount++;
+			}
+		}
+		if (replayed != null) {
+			notifyPayment(observer, replayed);
+		}
+	}
+
+	/**
+	 * Keep the router active without an observer, e.g. to start listening before the order id is known.
+	 * Each hold must be released with {@link #release()}.
+	 */
+	synchronized void hold() {
+		onAddedLocked();
+		holdCount++;
+	}
+
+	synchronized void release() {
+		if (holdCount > 0) {
+			holdCount--;
+			onRemovedLocked(0);
+		}
+	}
+
+	void removeObserver(@NonNull String orderID, @NonNull PaymentObserver observer) {
+		synchronized (this) {
+			final Route route = routes.get(orderID);
+			if (route != null && route.observers.remove(observer)) {
+				if (route.observers.isEmpty()) {
+					routes.remove(orderID);
+					cancelTimeout(route);
+				}
+				onRemovedLocked(1);
+			}
+		}
+	}
+
+	void dispatch(@NonNull Payment payment) {
+		final String orderID = payment.getOrderID();
+		final Route route;
+		synchronized (this) {
+			replay.put(orderID, new ReplayEntry(payment, SystemClock.elapsedRealtime()));
+			route = routes.remove(orderID);
+			if (route != null) {
+				cancelTimeout(route);
+				onRemovedLocked(route.observers.size());
+			}
+		}
+		if (route != null) {
+			for (PaymentObserver observer : route.observers) {
+				notifyPayment(observer, payment);
+			}
+		}
+	}
+
+	/**
+	 * Notify the order observers with {@link PaymentObserver#onTimeout(String)} unless the payment arrives
+	 * within the timeout, replaces a previous timeout of the order.
+	 */
+	void setTimeout(@NonNull final String orderID, long timeoutMillis) {
+		synchronized (this) {
+			final Route route = routes.get(orderID);
+			if (route == null) {
+				return;
+			}
+			cancelTimeout(route);
+			route.timeout = scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					onTimeout(orderID, route);
+				}
+			}, timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Call the activity listener again if the router is active, e.g. to listen on a newly loaded account.
+	 */
+	synchronized void restartIfActive() {
+		if (observerCount + holdCount > 0) {
+			activityListener.onIdle();
+			activityListener.onActive();
+		}
+	}
+
+	/**
+	 * Remove all observers without notifying them, and drop the replayed payments.
+	 */
+	synchronized void clear() {
+		for (Route route : routes.values()) {
+			cancelTimeout(route);
+		}
+		routes.clear();
+		replay.clear();
+		if (observerCount + holdCount > 0) {
+			observerCount = 0;
+			holdCount = 0;
+			activityListener.onIdle();
+		}
+	}
+
+	private void onTimeout(final String orderID, Route route) {
+		synchronized (this) {
+			if (routes.get(orderID) != route) {
+				return;
+			}
+			routes.remove(orderID);
+			onRemovedLocked(route.observers.size());
+		}
+		for (final PaymentObserver observer : route.observers) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					observer.onTimeout(orderID);
+				}
+			});
+		}
+	}
+
+	@Nullable
+	private Payment getReplayedLocked(String orderID) {
+		final ReplayEntry entry = replay.get(orderID);
+		if (entry == null) {
+			return null;
+		}
+		if (SystemClock.elapsedRealtime() - entry.receivedAt > REPLAY_WINDOW_MILLIS) {
+			replay.remove(orderID);
+			return null;
+		}
+		return entry.payment;
+	}
+
+	private void onAddedLocked() {
+		if (observerCount + holdCount == 0) {
+			activityListener.onActive();
+		}
+	}
+
+	private void onRemovedLocked(int count) {
+		observerCount -= count;
+		if (observerCount + holdCount == 0) {
+			activityListener.onIdle();
+		}
+	}
+
+	private void cancelTimeout(Route route) {
+		if (route.timeout != null) {
+			route.timeout.cancel(false);
+			route.timeout = null;
+		}
+	}
+
+	private void notifyPayment(final PaymentObserver observer, final Payment payment) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				observer.onChanged(payment);
+			}
+		});
+	}
+}
@@ -47,6 +47,7 @@ public class ConfigurationImpl implements Configuration {
 	static final String API_VERSION = "v2";
 
 	private static final int NO_TOKEN_ERROR_CODE = 666;
+	private static final long MAX_ERROR_PEEK_BYTES = 16 * 1024;
 	private static final String AUTH_TOKEN_COULD_NOT_BE_GENERATED = "AuthToken could not be generated";
 
 	private static final String USERS_PATH = "/" + API_VERSION + "/users";
@@ -56,7 +57,7 @@ public class ConfigurationImpl implements Configuration {
 	private static final String PREFIX_ANDROID = "android ";
 
 	private static final Object apiClientLock = new Object();
-	private static ApiClient defaultApiClient;
+	private static volatile ApiClient defaultApiClient;
 
 	private BlockchainSource blockchainSource;
 	private final KinEnvironment kinEnvironment;
@@ -95,8 +96,12 @@ public class ConfigurationImpl implements Configuration {
 	public ApiClient getDefaultApiClient() {
 		if (defaultApiClient == null) {
 			synchronized (apiClientLock) {
-				defaultApiClient = new ApiClient(kinEnvironment.getEcosystemServerUrl());
-				defaultApiClient.addInterceptor(new Interceptor() {
+				if (defaultApiClient != null) {
+					addHeaders(defaultApiClient);
+					return defaultApiClient;
+				}
+				final ApiClient apiClient = new ApiClient(kinEnvironment.getEcosystemServerUrl());
+				apiClient.addInterceptor(new Interceptor() {
 					@Override
 					public Response intercept(Chain chain) throws IOException {
 						Request originalRequest = blockchainSource == null ?
@@ -115,14 +120,12 @@ public class ConfigurationImpl implements Configuration {
 									.header(AUTHORIZATION, BEARER + authToken.getToken())
 									.build();
 
+								// Successful bodies stream through untouched, only errors are peeked.
 								final Response response = chain.proceed(authorisedRequest);
-								final ResponseBody body = response.body();
-								final String bodyString = body.string();
-								final MediaType contentType = body.contentType();
-
-								return sendRequestAndMigrateOnFail(response, contentType, bodyString)
-									.newBuilder()
-									.body(ResponseBody.create(contentType, bodyString)).build();
+								if (!response.isSuccessful()) {
+									migrateIfBlockchainEndpointChanged(response);
+								}
+								return response;
 							} else {
 								// Stop the request from being executed.
 								Logger.log(new Log().withTag("ApiClient").text("No token - response error on client"));
@@ -138,6 +141,7 @@ public class ConfigurationImpl implements Configuration {
 						}
 					}
 				});
+				defaultApiClient = apiClient;
 			}
 		}
 
@@ -162,20 +166,19 @@ public class ConfigurationImpl implements Configuration {
 		apiClient.addDefaultHeader(HEADER_DEVICE_LANGUAGE, getDeviceAcceptedLanguage());
 	}
 
-	private Response sendRequestAndMigrateOnFail(Response response, MediaType contentType, String body) {
+	/**
+	 * Peeks at most {@link #MAX_ERROR_PEEK_BYTES} of the error body, the response body itself is not consumed.
+	 */
+	private void migrateIfBlockchainEndpointChanged(Response response) throws IOException {
+		final ResponseBody peekedBody = response.peekBody(MAX_ERROR_PEEK_BYTES);
 		try {
-			defaultApiClient.handleResponse(response
-				.newBuilder()
-				.body(ResponseBody.create(contentType, body))
-				.build(), Object.class);
+			defaultApiClient.handleResponse(response.newBuilder().body(peekedBody).build(), null);
 		} catch (ApiException e) {
 			KinEcosystemException serviceException = ErrorUtil.fromApiException(e);
 			if (serviceException.getCode() == ServiceException.BLOCKCHAIN_ENDPOINT_CHANGED) {
 				blockchainSource.startMigrationProcess();
 			}
 		}
-
-		return response;
 	}
 
 	@Override
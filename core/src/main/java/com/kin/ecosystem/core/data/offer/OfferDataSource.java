@@ -17,6 +17,10 @@ public interface OfferDataSource {
 
 	OfferList getCachedOfferList();
 
+	/**
+	 * Get the offers list, the callback can be called twice: first with the disk cached list,
+	 * then with the list from the network.
+	 */
 	void getOffers(KinCallback<OfferList> callback);
 
 	void addNativeOfferClickedObserver(@NonNull Observer<NativeOfferClickEvent> observer);
@@ -27,6 +31,12 @@ public interface OfferDataSource {
 
 	Subscription<Offer> addNativeOfferRemovedObserver(@NonNull Observer<Offer> observer);
 
+	/**
+	 * Observe the changes of the cached offer list, when native offers are added or removed
+	 * or when an offer was removed by its pending order. Changes are posted on the main thread, in order.
+	 */
+	Subscription<OfferListChange> addOfferListChangedObserver(@NonNull Observer<OfferListChange> observer);
+
 	boolean addNativeOffer(@NonNull NativeOffer nativeOffer, boolean dismissOnTap);
 
 	boolean removeNativeOffer(@NonNull NativeOffer nativeOffer);
@@ -37,6 +47,16 @@ public interface OfferDataSource {
 
 	interface Remote {
 
+		/**
+		 * Get offers from the network, revalidating the HTTP cache.
+		 */
 		void getOffers(Callback<OfferList, ApiException> callback);
+
+		/**
+		 * Get the last offers list from the HTTP cache only, fails if nothing is cached.
+		 */
+		void getCachedOffers(Callback<OfferList, ApiException> callback);
+
+		void clearCache();
 	}
 }
@@ -0,0 +1,146 @@
+package com.kin.ecosystem.core.data.offer;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.core.network.model.Offer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Change of the offer list, the operations that turn the previous list into {@link #getOffers()}.
+ * Operations are in order, each position is relative to the list after the previous operations were applied,
+ * the same way RecyclerView adapter notifications are. Operations never touch a position before the one of
+ * an earlier operation, so inserted and changed offers are already at their position in {@link #getOffers()}.
+ */
+public final class OfferListChange {
+
+	public enum Type {
+		INSERT,
+		REMOVE,
+		MOVE,
+		CHANGE
+	}
+
+	public static final class Operation {
+
+		private final Type type;
+		private final int position;
+		private final int toPosition;
+
+		private Operation(@NonNull Type type, int position, int toPosition) {
+			this.type = type;
+			this.position = position;
+			this.toPosition = toPosition;
+		}
+
+		static Operation insert(int position) {
+			return new Operation(Type.INSERT, position, position);
+		}
+
+		static Operation remove(int position) {
+			return new Operation(Type.REMOVE, position, position);
+		}
+
+		static Operation move(int fromPosition, int toPosition) {
+			return new Operation(Type.MOVE, fromPosition, toPosition);
+		}
+
+		static Operation change(int position) {
+			return new Operation(Type.CHANGE, position, position);
+		}
+
+		@NonNull
+		public Type getType() {
+			return type;
+		}
+
+		public int getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return the target position of a {@link Type#MOVE}, same as {@link #getPosition()} for other types.
+		 */
+		public int getToPosition() {
+			return toPosition;
+		}
+
+		@Override
+		public String toString() {
+			return type == Type.MOVE ? type + " " + position + "->" + toPosition : type + " " + position;
+		}
+	}
+
+	private final List<Offer> offers;
+	private final List<Operation> operations;
+
+	OfferListChange(@NonNull List<Offer> offers, @NonNull List<Operation> operations) {
+		this.offers = Collections.unmodifiableList(offers);
+		this.operations = Collections.unmodifiableList(operations);
+	}
+
+	/**
+	 * @return the list after the change, not modifiable.
+	 */
+	@NonNull
+	public List<Offer> getOffers() {
+		return offers;
+	}
+
+	@NonNull
+	public List<Operation> getOperations() {
+		return operations;
+	}
+
+	/**
+	 * @return true if applying the operations to {@code previous} leads to {@link #getOffers()},
+	 * false e.g. when {@code previous} is not the list this change was made from.
+	 */
+	public boolean isChangeOf(@NonNull List<Offer> previous) {
+		final List<Offer> list = new ArrayList<>(previous);
+		for (Operation operation : operations) {
+			final int size = list.size();
+			switch (operation.type) {
+				case INSERT:
+					if (operation.position > size || operation.position >= offers.size()) {
+						return false;
+					}
+					list.add(operation.position, offers.get(operation.position));
+					break;
+				case REMOVE:
+					if (operation.position >= size) {
+						return false;
+					}
+					list.remove(operation.position);
+					break;
+				case MOVE:
+					if (operation.position >= size || operation.toPosition >= size) {
+						return false;
+					}
+					list.add(operation.toPosition, list.remove(operation.position));
+					break;
+				case CHANGE:
+					if (operation.position >= size || operation.position >= offers.size()) {
+						return false;
+					}
+					list.set(operation.position, offers.get(operation.position));
+					break;
+			}
+		}
+
+		if (list.size() != offers.size()) {
+			return false;
+		}
+		for (int i = 0; i < list.size(); i++) {
+			if (!list.get(i).equals(offers.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "OfferListChange{" + operations + "}";
+	}
+}
@@ -1,17 +1,27 @@
 package com.kin.ecosystem.core.data.offer;
 
 import android.support.annotation.NonNull;
+import com.kin.ecosystem.core.Log;
+import com.kin.ecosystem.core.Logger;
 import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.SharedHttpClient;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import com.kin.ecosystem.common.Callback;
 import com.kin.ecosystem.core.network.ApiCallback;
 import com.kin.ecosystem.core.network.api.OffersApi;
 import com.kin.ecosystem.core.network.model.OfferList;
 import com.kin.ecosystem.core.util.ExecutorsUtil;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
 
 public class OfferRemoteData implements OfferDataSource.Remote {
 
+    private static final String TAG = OfferRemoteData.class.getSimpleName();
+    private static final CacheControl REVALIDATE = new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build();
+
     private static volatile OfferRemoteData instance;
 
     private final OffersApi offersApi;
@@ -35,15 +45,42 @@ public class OfferRemoteData implements OfferDataSource.Remote {
 
     @Override
     public void getOffers(@NonNull final Callback<OfferList, ApiException> callback) {
+        // max-age=0 revalidates the cached list, an unchanged list is answered with 304 Not Modified.
+        getOffers(REVALIDATE, callback);
+    }
+
+    @Override
+    public void getCachedOffers(@NonNull final Callback<OfferList, ApiException> callback) {
+        getOffers(CacheControl.FORCE_CACHE, callback);
+    }
+
+    @Override
+    public void clearCache() {
+        final Cache cache = SharedHttpClient.getCache();
+        if (cache != null) {
+            executorsUtil.diskIO().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        cache.evictAll();
+                    } catch (IOException e) {
+                        Logger.log(new Log().withTag(TAG).priority(Log.ERROR).put("clearCache failed", e.getMessage()));
+                    }
+                }
+            });
+        }
+    }
+
+    private void getOffers(CacheControl cacheControl, @NonNull final Callback<OfferList, ApiException> callback) {
         try {
-            offersApi.getOffersAsync("", 25, "", "", new ApiCallback<OfferList>() {
+            offersApi.getOffersAsync("", 25, "", "", cacheControl, new ApiCallback<OfferList>() {
                 @Override
                 public void onFailure(final ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
                     executorsUtil.mainThread().execute(new Runnable() {
                         @Override
                         public void run() {
                             callback.onFailure(e);
-                            e.printStackTrace();
+                            Logger.log(new Log().withTag(TAG).put("getOffers failed", e.getMessage()));
                         }
                     });
                 }
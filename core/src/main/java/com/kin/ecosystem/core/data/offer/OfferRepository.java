@@ -9,20 +9,18 @@ import com.kin.ecosystem.common.ObservableData;
 import com.kin.ecosystem.common.Observer;
 import com.kin.ecosystem.common.Subscription;
 import com.kin.ecosystem.common.model.NativeOffer;
+import com.kin.ecosystem.core.data.offer.OfferListChange.Operation;
 import com.kin.ecosystem.core.data.order.OrderDataSource;
 import com.kin.ecosystem.core.network.ApiException;
 import com.kin.ecosystem.core.network.model.Offer;
-import com.kin.ecosystem.core.network.model.Offer.ContentTypeEnum;
 import com.kin.ecosystem.core.network.model.Offer.OfferType;
 import com.kin.ecosystem.core.network.model.OfferList;
 import com.kin.ecosystem.core.network.model.Order;
 import com.kin.ecosystem.core.network.model.Order.Status;
 import com.kin.ecosystem.core.util.ErrorUtil;
 import com.kin.ecosystem.core.util.OfferConverter;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import kotlin.Pair;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class OfferRepository implements OfferDataSource {
 
@@ -31,14 +29,14 @@ public class OfferRepository implements OfferDataSource {
 	private final OfferDataSource.Remote remoteData;
 	private final OrderDataSource orderRepository;
 
-	//Saves offerId with a value dismissOnTap
-	private HashMap<String, Boolean> nativeOfferMap = new HashMap<>();
-	private OfferList nativeSpendOfferList = new OfferList();
-	private OfferList nativeEarnOfferList = new OfferList();
-	private OfferList cachedOfferList = new OfferList();
+	// Readers use the current snapshot without locking, writers edit it while holding the repository lock
+	// and publish the new snapshot, so readers never see a partial change.
+	private volatile OfferSnapshot snapshot = OfferSnapshot.EMPTY;
+	private volatile boolean isDiskCacheLoaded;
 
 	private ObservableData<NativeOfferClickEvent> nativeSpendOfferObservable = ObservableData.create();
 	private ObservableData<Offer> nativeOfferRemoved = ObservableData.create();
+	private ObservableData<OfferListChange> offerListChanged = ObservableData.create();
 
 	private OfferRepository(@NonNull OfferDataSource.Remote remoteData, @NonNull OrderDataSource orderRepository) {
 		this.remoteData = remoteData;
@@ -73,88 +71,91 @@ public class OfferRepository implements OfferDataSource {
 
 	@Override
 	public OfferList getCachedOfferList() {
-		return getList();
+		return snapshot.toOfferList();
 	}
 
+	/**
+	 * Stale while revalidate: the network request always runs and revalidates the HTTP cache,
+	 * while the disk cached list answers first if nothing was loaded yet in this process.
+	 * In that case the callback is called again with the revalidated list, a failed revalidation
+	 * is not reported since the cached list was already delivered.
+	 */
 	@Override
 	public void getOffers(@Nullable final KinCallback<OfferList> callback) {
+		final AtomicBoolean answered = new AtomicBoolean(false);
 		remoteData.getOffers(new Callback<OfferList, ApiException>() {
 			@Override
 			public void onResponse(OfferList response) {
-				cachedOfferList = response;
+				setCachedOfferList(response);
+				answered.set(true);
 				if (callback != null) {
-					callback.onResponse(getList());
+					callback.onResponse(snapshot.toOfferList());
 				}
 			}
 
 			@Override
 			public void onFailure(ApiException e) {
-				if (callback != null) {
+				if (answered.compareAndSet(false, true) && callback != null) {
 					callback.onFailure(ErrorUtil.fromApiException(e));
 				}
 			}
 
 		});
-	}
 
-	private OfferList getList() {
-		OfferList masterList = new OfferList();
-
-		Offer tutorial = getTutorialOffer(cachedOfferList);
-		// Tutorial offer should be first
-		if (tutorial != null) {
-			masterList.add(tutorial);
-		}
-
-		Iterator<Offer> nativeSpendItr = nativeSpendOfferList.getOffers().iterator();
-		Iterator<Offer> nativeEarnItr = nativeEarnOfferList.getOffers().iterator();
-		Iterator<Offer> earnMPItr = cachedOfferList.getOffers().iterator();
-
-		while (nativeSpendItr.hasNext() || nativeEarnItr.hasNext() || earnMPItr.hasNext()) {
-			// 1st nativeSpendItr, 2ns nativeEarnItr
-			if(nativeSpendItr.hasNext()) {
-				masterList.add(nativeSpendItr.next());
-				if(nativeEarnItr.hasNext()) {
-					masterList.add(nativeEarnItr.next());
-				}
-			} else {
-				// 1st nativeEarnItr, 2nd earnMPItr
-				if(nativeEarnItr.hasNext()) {
-					masterList.add(nativeEarnItr.next());
-				} else {
-					if(earnMPItr.hasNext()) {
-						Offer offer = earnMPItr.next();
-						if((tutorial != null && !tutorial.equals(offer)) || (tutorial == null)) {
-							masterList.add(offer);
+		if (!isDiskCacheLoaded && !snapshot.hasMarketplaceOffers()) {
+			isDiskCacheLoaded = true;
+			remoteData.getCachedOffers(new Callback<OfferList, ApiException>() {
+				@Override
+				public void onResponse(OfferList response) {
+					if (answered.compareAndSet(false, true)) {
+						setCachedOfferList(response);
+						if (callback != null) {
+							callback.onResponse(snapshot.toOfferList());
 						}
 					}
 				}
-			}
-		}
-
-		masterList.setPaging(cachedOfferList.getPaging());
-		return masterList;
-	}
 
-	private Offer getTutorialOffer(OfferList offerList) {
-		if (offerList != null && offerList.getOffers() != null) {
-			List<Offer> offers = offerList.getOffers();
-			for (Offer offer: offers) {
-				if (offer.getContentType() == ContentTypeEnum.TUTORIAL) {
-					return offer;
+				@Override
+				public void onFailure(ApiException e) {
+					// Nothing cached yet, the network response will answer.
 				}
-			}
+			});
 		}
-		return null;
+	}
+
+	/**
+	 * A new marketplace list replaces the whole interleaved list, the caller gets the new list and diffs it,
+	 * so no change is posted.
+	 */
+	private synchronized void setCachedOfferList(@NonNull OfferList offerList) {
+		final OfferSnapshot.Editor editor = snapshot.edit();
+		editor.setMarketplaceOffers(offerList);
+		snapshot = editor.build();
 	}
 
 	private void removeFromCachedOfferList(String offerID) {
-		if (cachedOfferList == null) {
+		if (offerID == null || snapshot.getSource(offerID) == null) {
 			return;
 		}
 
-		Offer offer = cachedOfferList.getOfferByID(offerID);
-		cachedOfferList.remove(offer);
+		synchronized (this) {
+			final OfferSnapshot.Editor editor = snapshot.edit();
+			if (editor.removeMarketplaceOffer(offerID)) {
+				publish(editor);
+			}
+		}
+	}
+
+	/**
+	 * Publish the edited snapshot and post its change, called while holding the repository lock
+	 * so changes are posted in the order they were made.
+	 */
+	private void publish(OfferSnapshot.Editor editor) {
+		snapshot = editor.build();
+		final List<Operation> operations = editor.getOperations();
+		if (!operations.isEmpty()) {
+			offerListChanged.postValue(new OfferListChange(snapshot.getOffers(), operations));
+		}
 	}
 
 	@Override
@@ -177,20 +178,22 @@ public class OfferRepository implements OfferDataSource {
 		return nativeOfferRemoved.subscribe(observer);
 	}
 
+	@Override
+	public Subscription<OfferListChange> addOfferListChangedObserver(@NonNull Observer<OfferListChange> observer) {
+		return offerListChanged.subscribe(observer);
+	}
+
 	@Override
 	public boolean addNativeOffer(@NonNull NativeOffer nativeOffer, boolean dismissOnTap) {
 		String offerId = nativeOffer.getId();
 		if (offerId != null) {
 			Offer offer = OfferConverter.toOffer(nativeOffer);
 			if (offer != null) {
-				nativeOfferMap.put(offerId, dismissOnTap);
-
-				if (offer.getOfferType() == OfferType.EARN) {
-					addOrUpdate(nativeEarnOfferList, offer);
-				} else {
-					addOrUpdate(nativeSpendOfferList, offer);
+				synchronized (this) {
+					final OfferSnapshot.Editor editor = snapshot.edit();
+					editor.addOrUpdateNativeOffer(offer, offer.getOfferType() != OfferType.EARN, dismissOnTap);
+					publish(editor);
 				}
-
 				return true;
 			}
 			return false;
@@ -198,17 +201,6 @@ public class OfferRepository implements OfferDataSource {
 		return false;
 	}
 
-	private void addOrUpdate(OfferList offerList, Offer offer) {
-		int index = offerList.getOffers().indexOf(offer);
-		if (index >= 0) {
-			// Update existing
-			offerList.getOffers().set(index, offer);
-		} else {
-			// Add new
-			offerList.addAtIndex(0, offer);
-		}
-	}
-
 	@Override
 	public boolean removeNativeOffer(@NonNull NativeOffer nativeOffer) {
 		String offerId = nativeOffer.getId();
@@ -216,11 +208,11 @@ public class OfferRepository implements OfferDataSource {
 			Offer offer = OfferConverter.toOffer(nativeOffer);
 			if (offer != null) {
 				nativeOfferRemoved.postValue(offer);
-				nativeOfferMap.remove(offerId);
-				if (offer.getOfferType() == OfferType.EARN) {
-					return nativeEarnOfferList.remove(offer);
-				} else {
-					return nativeSpendOfferList.remove(offer);
+				synchronized (this) {
+					final OfferSnapshot.Editor editor = snapshot.edit();
+					final boolean isRemoved = editor.removeNativeOffer(offerId);
+					publish(editor);
+					return isRemoved;
 				}
 			}
 			return false;
@@ -232,12 +224,12 @@ public class OfferRepository implements OfferDataSource {
 
 	@Override
 	public boolean shouldDismissOnTap(@NonNull String offerId) {
-		final Boolean shouldDismissOnTap = nativeOfferMap.get(offerId);
-		return shouldDismissOnTap == null ? false : shouldDismissOnTap;
+		return snapshot.shouldDismissOnTap(offerId);
 	}
 
 	@Override
 	public void logout() {
-		cachedOfferList.removeAll();
+		setCachedOfferList(new OfferList());
+		remoteData.clearCache();
 	}
 }
@@ -0,0 +1,365 @@
+package com.kin.ecosystem.core.data.offer;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.kin.ecosystem.core.data.offer.OfferListChange.Operation;
+import com.kin.ecosystem.core.network.model.Offer;
+import com.kin.ecosystem.core.network.model.Offer.ContentTypeEnum;
+import com.kin.ecosystem.core.network.model.OfferList;
+import com.kin.ecosystem.core.network.model.Paging;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable version of the offers of {@link OfferRepository}, indexed by offerId.
+ * Readers use the current snapshot without locking, writers {@link #edit()} it and publish the built snapshot.
+ * The interleaved list: tutorial first, then native spend and native earn offers in pairs,
+ * the native offers left, then the marketplace offers.
+ */
+final class OfferSnapshot {
+
+	enum Source {
+		TUTORIAL,
+		NATIVE_SPEND,
+		NATIVE_EARN,
+		MARKETPLACE
+	}
+
+	private static final class Entry {
+
+		private final Offer offer;
+		private final Source source;
+
+		private Entry(Offer offer, Source source) {
+			this.offer = offer;
+			this.source = source;
+		}
+	}
+
+	static final OfferSnapshot EMPTY = new OfferSnapshot(null, Collections.<Offer>emptyList(),
+		Collections.<Offer>emptyList(), Collections.<Offer>emptyList(), Collections.<Offer>emptyList(),
+		Collections.<String, Entry>emptyMap(), Collections.<String, Boolean>emptyMap(), null);
+
+	@Nullable
+	private final Offer tutorialOffer;
+	private final List<Offer> nativeSpendOffers;
+	private final List<Offer> nativeEarnOffers;
+	private final List<Offer> marketplaceOffers;
+	private final List<Offer> offers;
+	private final Map<String, Entry> index;
+	private final Map<String, Boolean> dismissOnTap;
+	@Nullable
+	private final Paging paging;
+
+	private OfferSnapshot(@Nullable Offer tutorialOffer, List<Offer> nativeSpendOffers, List<Offer> nativeEarnOffers,
+		List<Offer> marketplaceOffers, List<Offer> offers, Map<String, Entry> index, Map<String, Boolean> dismissOnTap,
+		@Nullable Paging paging) {
+		this.tutorialOffer = tutorialOffer;
+		this.nativeSpendOffers = nativeSpendOffers;
+		this.nativeEarnOffers = nativeEarnOffers;
+		this.marketplaceOffers = marketplaceOffers;
+		this.offers = offers;
+		this.index = index;
+		this.dismissOnTap = dismissOnTap;
+		this.paging = paging;
+	}
+
+	/**
+	 * @return the interleaved list, not modifiable.
+	 */
+	@NonNull
+	List<Offer> getOffers() {
+		return offers;
+	}
+
+	/**
+	 * @return a new {@link OfferList} of the interleaved list, the caller may modify it.
+	 */
+	@NonNull
+	OfferList toOfferList() {
+		OfferList offerList = new OfferList(new ArrayList<>(offers));
+		offerList.setPaging(paging);
+		return offerList;
+	}
+
+	@Nullable
+	Source getSource(@NonNull String offerId) {
+		final Entry entry = index.get(offerId);
+		return entry != null ? entry.source : null;
+	}
+
+	boolean hasMarketplaceOffers() {
+		return tutorialOffer != null || !marketplaceOffers.isEmpty();
+	}
+
+	boolean shouldDismissOnTap(@NonNull String offerId) {
+		final Boolean shouldDismissOnTap = dismissOnTap.get(offerId);
+		return shouldDismissOnTap == null ? false : shouldDismissOnTap;
+	}
+
+	@NonNull
+	Editor edit() {
+		return new Editor(this);
+	}
+
+	/**
+	 * Mutable copy of a snapshot, keeps the interleaved list up to date on each change and records the
+	 * {@link Operation}s that were applied to it. Not thread safe, used by one writer at a time.
+	 */
+	static final class Editor {
+
+		private Offer tutorialOffer;
+		private final List<Offer> nativeSpendOffers;
+		private final List<Offer> nativeEarnOffers;
+		private final List<Offer> marketplaceOffers;
+		private final List<Offer> offers;
+		private final Map<String, Entry> index;
+		private final Map<String, Boolean> dismissOnTap;
+		private Paging paging;
+		private final List<Operation> operations = new ArrayList<>();
+
+		private Editor(OfferSnapshot snapshot) {
+			tutorialOffer = snapshot.tutorialOffer;
+			nativeSpendOffers = new ArrayList<>(snapshot.nativeSpendOffers);
+			nativeEarnOffers = new ArrayList<>(snapshot.nativeEarnOffers);
+			marketplaceOffers = new ArrayList<>(snapshot.marketplaceOffers);
+			offers = new ArrayList<>(snapshot.offers);
+			index = new HashMap<>(snapshot.index);
+			dismissOnTap = new HashMap<>(snapshot.dismissOnTap);
+			paging = snapshot.paging;
+		}
+
+		/**
+		 * Replace the marketplace offers, the whole interleaved list is rebuilt and no operations are recorded.
+		 */
+		void setMarketplaceOffers(@NonNull OfferList offerList) {
+			removeFromIndex(Source.TUTORIAL);
+			removeFromIndex(Source.MARKETPLACE);
+			tutorialOffer = null;
+			marketplaceOffers.clear();
+			if (offerList.getOffers() != null) {
+				for (Offer offer : offerList.getOffers()) {
+					// Offer ids are unique in the index, skip a marketplace offer with the id of a native one
+					if (offer == null || index.containsKey(offer.getId())) {
+						continue;
+					}
+					// Tutorial offer should be first
+					if (tutorialOffer == null && offer.getContentType() == ContentTypeEnum.TUTORIAL) {
+						tutorialOffer = offer;
+						index.put(offer.getId(), new Entry(offer, Source.TUTORIAL));
+					} else {
+						marketplaceOffers.add(offer);
+						index.put(offer.getId(), new Entry(offer, Source.MARKETPLACE));
+					}
+				}
+			}
+			paging = offerList.getPaging();
+
+			offers.clear();
+			final int size = interleavedSize();
+			for (int position = 0; position < size; position++) {
+				offers.add(interleavedAt(position));
+			}
+		}
+
+		/**
+		 * Native offers are added at the top of their type, an existing one is updated in place,
+		 * or moved if its type changed.
+		 */
+		void addOrUpdateNativeOffer(@NonNull Offer offer, boolean isSpend, boolean dismissOnTap) {
+			final String offerId = offer.getId();
+			final Source source = isSpend ? Source.NATIVE_SPEND : Source.NATIVE_EARN;
+			final Entry existing = index.get(offerId);
+			if (existing != null && existing.source != source) {
+				removeOffer(existing);
+			}
+
+			this.dismissOnTap.put(offerId, dismissOnTap);
+			final List<Offer> nativeOffers = nativeOffers(isSpend);
+			if (existing != null && existing.source == source) {
+				// Update existing
+				final int nativeIndex = nativeOffers.indexOf(existing.offer);
+				nativeOffers.set(nativeIndex, offer);
+				final int position = nativePosition(isSpend, nativeIndex);
+				offers.set(position, offer);
+				operations.add(Operation.change(position));
+			} else {
+				// Add new, native offers start right after the tutorial
+				nativeOffers.add(0, offer);
+				interleaveFrom(nativePosition(isSpend, 0), offer);
+			}
+			index.put(offerId, new Entry(offer, source));
+		}
+
+		/**
+		 * @return true if the native offer was removed.
+		 */
+		boolean removeNativeOffer(@NonNull String offerId) {
+			final Entry entry = index.get(offerId);
+			dismissOnTap.remove(offerId);
+			if (entry == null || (entry.source != Source.NATIVE_SPEND && entry.source != Source.NATIVE_EARN)) {
+				return false;
+			}
+			removeOffer(entry);
+			return true;
+		}
+
+		/**
+		 * @return true if the marketplace or tutorial offer was removed.
+		 */
+		boolean removeMarketplaceOffer(@NonNull String offerId) {
+			final Entry entry = index.get(offerId);
+			if (entry == null || (entry.source != Source.TUTORIAL && entry.source != Source.MARKETPLACE)) {
+				return false;
+			}
+			removeOffer(entry);
+			return true;
+		}
+
+		private void removeOffer(Entry entry) {
+			index.remove(entry.offer.getId());
+			final int position;
+			switch (entry.source) {
+				case NATIVE_SPEND:
+				case NATIVE_EARN:
+					final boolean isSpend = entry.source == Source.NATIVE_SPEND;
+					final List<Offer> nativeOffers = nativeOffers(isSpend);
+					final int nativeIndex = nativeOffers.indexOf(entry.offer);
+					position = nativePosition(isSpend, nativeIndex);
+					nativeOffers.remove(nativeIndex);
+					break;
+				case TUTORIAL:
+					position = 0;
+					tutorialOffer = null;
+					// The next tutorial offer, if any, moves to the top
+					for (int i = 0; i < marketplaceOffers.size(); i++) {
+						final Offer offer = marketplaceOffers.get(i);
+						if (offer.getContentType() == ContentTypeEnum.TUTORIAL) {
+							tutorialOffer = marketplaceOffers.remove(i);
+							index.put(offer.getId(), new Entry(offer, Source.TUTORIAL));
+							break;
+						}
+					}
+					break;
+				default:
+					final int marketplaceIndex = marketplaceOffers.indexOf(entry.offer);
+					position = offers.size() - marketplaceOffers.size() + marketplaceIndex;
+					marketplaceOffers.remove(marketplaceIndex);
+					break;
+			}
+			offers.remove(position);
+			operations.add(Operation.remove(position));
+			interleaveFrom(position, null);
+		}
+
+		private void removeFromIndex(Source source) {
+			for (Offer offer : source == Source.TUTORIAL ? Collections.singletonList(tutorialOffer)
+				: marketplaceOffers) {
+				if (offer != null) {
+					index.remove(offer.getId());
+				}
+			}
+		}
+
+		private List<Offer> nativeOffers(boolean isSpend) {
+			return isSpend ? nativeSpendOffers : nativeEarnOffers;
+		}
+
+		private int interleavedSize() {
+			return (tutorialOffer != null ? 1 : 0) + nativeSpendOffers.size() + nativeEarnOffers.size()
+				+ marketplaceOffers.size();
+		}
+
+		/**
+		 * @return the offer at {@code position} of the interleaved list, computed from the source lists.
+		 */
+		private Offer interleavedAt(int position) {
+			if (tutorialOffer != null) {
+				if (position == 0) {
+					return tutorialOffer;
+				}
+				position--;
+			}
+
+			final int pairs = Math.min(nativeSpendOffers.size(), nativeEarnOffers.size());
+			// 1st native spend, 2nd native earn
+			if (position < pairs * 2) {
+				return position % 2 == 0 ? nativeSpendOffers.get(position / 2) : nativeEarnOffers.get(position / 2);
+			}
+			// Then the native offers left, only one of the lists has any
+			final int nativeCount = nativeSpendOffers.size() + nativeEarnOffers.size();
+			if (position < nativeCount) {
+				return nativeSpendOffers.size() > nativeEarnOffers.size() ? nativeSpendOffers.get(position - pairs)
+					: nativeEarnOffers.get(position - pairs);
+			}
+			return marketplaceOffers.get(position - nativeCount);
+		}
+
+		/**
+		 * @return the position of the native offer at {@code nativeIndex} of its source list in the interleaved list.
+		 */
+		private int nativePosition(boolean isSpend, int nativeIndex) {
+			final int pairs = Math.min(nativeSpendOffers.size(), nativeEarnOffers.size());
+			final int position = nativeIndex < pairs ? nativeIndex * 2 + (isSpend ? 0 : 1) : pairs + nativeIndex;
+			return (tutorialOffer != null ? 1 : 0) + position;
+		}
+
+		/**
+		 * Bring the interleaved list in line with the source lists, after they were changed.
+		 * Positions before {@code from} are not affected by the change, from there on each offer that is not in place
+		 * is either the {@code inserted} one or moved from further down the list.
+		 */
+		private void interleaveFrom(int from, @Nullable Offer inserted) {
+			final int size = interleavedSize();
+			for (int position = from; position < size; position++) {
+				final Offer expected = interleavedAt(position);
+				if (position < offers.size() && offers.get(position) == expected) {
+					continue;
+				}
+				if (expected == inserted) {
+					offers.add(position, expected);
+					operations.add(Operation.insert(position));
+				} else {
+					final int current = indexOf(expected, position + 1);
+					offers.add(position, offers.remove(current));
+					operations.add(Operation.move(current, position));
+				}
+			}
+		}
+
+		private int indexOf(Offer offer, int from) {
+			for (int i = from; i < offers.size(); i++) {
+				if (offers.get(i) == offer) {
+					return i;
+				}
+			}
+			throw new IllegalStateException("Offer " + offer.getId() + " is not in the interleaved list");
+		}
+
+		/**
+		 * @return the operations applied to the interleaved list since this editor was created.
+		 */
+		@NonNull
+		List<Operation> getOperations() {
+			return operations;
+		}
+
+		/**
+		 * The snapshot takes over the editor lists, the editor should not be used after.
+		 */
+		@NonNull
+		OfferSnapshot build() {
+			return new OfferSnapshot(tutorialOffer,
+				Collections.unmodifiableList(nativeSpendOffers),
+				Collections.unmodifiableList(nativeEarnOffers),
+				Collections.unmodifiableList(marketplaceOffers),
+				Collections.unmodifiableList(offers),
+				Collections.unmodifiableMap(index),
+				Collections.unmodifiableMap(dismissOnTap),
+				paging);
+		}
+	}
+}
@@ -1,8 +1,8 @@
 package com.kin.ecosystem.core.data.order;
 
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import com.kin.ecosystem.common.KinCallback;
-import com.kin.ecosystem.common.Observer;
 import com.kin.ecosystem.common.exception.KinEcosystemException;
 import com.kin.ecosystem.common.exception.ServiceException;
 import com.kin.ecosystem.common.model.Balance;
@@ -16,6 +16,8 @@ import com.kin.ecosystem.core.bi.events.SpendOrderCreationReceived;
 import com.kin.ecosystem.core.data.blockchain.BlockchainSource;
 import com.kin.ecosystem.core.data.blockchain.BlockchainSource.SignTransactionListener;
 import com.kin.ecosystem.core.data.blockchain.Payment;
+import com.kin.ecosystem.core.data.blockchain.PaymentObserver;
+import com.kin.ecosystem.core.data.order.ExternalOrderMetrics.Stage;
 import com.kin.ecosystem.core.network.ApiException;
 import com.kin.ecosystem.core.network.model.JWTBodyPaymentConfirmationResult;
 import com.kin.ecosystem.core.network.model.Offer.OfferType;
@@ -23,89 +25,107 @@ import com.kin.ecosystem.core.network.model.OpenOrder;
 import com.kin.ecosystem.core.network.model.Order;
 import com.kin.ecosystem.core.util.ErrorUtil;
 import com.kin.ecosystem.core.util.ExecutorsUtil.MainThreadExecutor;
+import com.kin.ecosystem.core.util.SharedExecutors;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import kin.sdk.migration.common.KinSdkVersion;
 import kin.sdk.migration.common.exception.InsufficientKinException;
 import kin.sdk.migration.common.exception.OperationFailedException;
 
-class CreateExternalOrderCall extends Thread {
+/**
+ * Runs on the {@link SharedExecutors#orders()} lane.
+ * The order payment is observed through the {@link BlockchainSource} payment router, which also handles the SSE timeout
+ * on the shared scheduler, so an order doesn't start threads of its own.
+ * The payment listener connects while the order is created, a new blockchain spend is submitted as soon as it is signed,
+ * and an order failing the balance check is canceled in the background after the callback is notified.
+ * The latency of each {@link Stage} is reported to the {@link ExternalOrderRecorder}.
+ */
+class CreateExternalOrderCall implements Runnable {
 	private static final int SSE_TIMEOUT = 15000; // 15 seconds
 	private final OrderDataSource orderRepository;
 	private final BlockchainSource blockchainSource;
 	private final String orderJwt;
 	private final ExternalOrderCallbacks externalOrderCallbacks;
 	private final EventLogger eventLogger;
-	private final Timer sseTimeoutTimer;
-	private final AtomicBoolean isTimeoutTaskCanceled;
-	private final Observer<Payment> paymentObserver;
-
+	private final SharedExecutors executors;
+	private final PaymentObserver paymentObserver;
+	private final ExternalOrderRecorder recorder;
+	private final AtomicBoolean isFinished = new AtomicBoolean(false);
+
+	private volatile long startedAt;
+	private volatile long submitStartedAt;
+	private volatile long submittedAt;
 	private OpenOrder openOrder;
 	private MainThreadExecutor mainThreadExecutor = new MainThreadExecutor();
 
 	CreateExternalOrderCall(@NonNull OrderDataSource orderRepository, @NonNull BlockchainSource blockchainSource,
 		@NonNull String orderJwt, @NonNull EventLogger eventLogger,
-		@NonNull ExternalOrderCallbacks externalOrderCallbacks) {
+		@NonNull ExternalOrderRecorder recorder, @NonNull ExternalOrderCallbacks externalOrderCallbacks) {
 		this.orderRepository = orderRepository;
 		this.blockchainSource = blockchainSource;
 		this.orderJwt = orderJwt;
 		this.eventLogger = eventLogger;
+		this.recorder = recorder;
 		this.externalOrderCallbacks = externalOrderCallbacks;
-		this.sseTimeoutTimer = new Timer();
-		this.isTimeoutTaskCanceled = new AtomicBoolean(false);
+		this.executors = SharedExecutors.getInstance();
 
-		this.paymentObserver = new Observer<Payment>() {
+		this.paymentObserver = new PaymentObserver() {
 			@Override
 			public void onChanged(final Payment payment) {
-				if (isPaymentOrderEquals(payment, openOrder.getId())) {
-					//Cancel SSE timeout task
-					if (!isTimeoutTaskCanceled.getAndSet(true)) {
-						sseTimeoutTimer.cancel();
-					}
-
-					if (payment.isSucceed()) {
-						getOrder(payment.getOrderID());
-					} else {
-						if (isSpendOrder()) {
-							runOnMainThread(new Runnable() {
-								@Override
-								public void run() {
-									((ExternalSpendOrderCallbacks) CreateExternalOrderCall.this.externalOrderCallbacks)
-										.onTransactionFailed(openOrder,
-											ErrorUtil.getBlockchainException(payment.getException()));
-								}
-							});
-						}
+				if (payment.isSucceed()) {
+					getOrder(payment.getOrderID());
+				} else {
+					if (isSpendOrder()) {
+						finish();
+						runOnMainThread(new Runnable() {
+							@Override
+							public void run() {
+								((ExternalSpendOrderCallbacks) CreateExternalOrderCall.this.externalOrderCallbacks)
+									.onTransactionFailed(openOrder,
+										ErrorUtil.getBlockchainException(payment.getException()));
+							}
+						});
 					}
-
-					CreateExternalOrderCall.this.blockchainSource.removePaymentObserver(this);
 				}
 			}
+
+			@Override
+			public void onTimeout(@NonNull String orderID) {
+				// Payment event didn't arrive in time, get the order status from the server.
+				getOrder(orderID);
+			}
 		};
 	}
 
+	void start() {
+		executors.orders().execute(this);
+	}
+
 	@Override
 	public void run() {
+		startedAt = SystemClock.elapsedRealtime();
+		// Connect the payment listener while the order is created, instead of after it was submitted.
+		blockchainSource.holdPaymentListener();
+		try {
+			createAndSubmit();
+		} finally {
+			// The order payment observer, when added, keeps the listener connected from here on.
+			blockchainSource.releasePaymentListener();
+		}
+	}
+
+	private void createAndSubmit() {
 		try {
 			// Create external order
 			openOrder = orderRepository.createExternalOrderSync(orderJwt);
+			recordStage(Stage.CREATE, startedAt);
 			sendOrderCreationReceivedEvent();
 			if (isSpendOrder()) {
 				Balance balance = blockchainSource.getBalance();
 				if (balance.getAmount().intValue() < openOrder.getAmount()) {
-					orderRepository.cancelOrderSync(openOrder.getId());
-					runOnMainThread(new Runnable() {
-						@Override
-						public void run() {
-							externalOrderCallbacks
-								.onOrderFailed(ErrorUtil.getBlockchainException(new InsufficientKinException()),
-									openOrder);
-						}
-					});
+					onInsufficientBalance();
 					return;
 				}
 			}
@@ -125,7 +145,7 @@ class CreateExternalOrderCall extends Thread {
 		final BigDecimal amount = new BigDecimal(openOrder.getAmount());
 		final String address = openOrder.getBlockchainData().getRecipientAddress();
 
-		blockchainSource.addPaymentObservable(paymentObserver);
+		blockchainSource.addPaymentObserver(orderId, paymentObserver);
 		if (blockchainSource.getBlockchainVersion() == KinSdkVersion.NEW_KIN_SDK) {
 			sendKin3Order(orderId, offerId, address, amount);
 		} else {
@@ -135,10 +155,32 @@ class CreateExternalOrderCall extends Thread {
 		sendCompletionSubmittedEvent(openOrder);
 	}
 
+	/**
+	 * Fail the order right away, the order is canceled in the background.
+	 */
+	private void onInsufficientBalance() {
+		final OpenOrder finalOpenOrder = openOrder;
+		finish();
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				externalOrderCallbacks
+					.onOrderFailed(ErrorUtil.getBlockchainException(new InsufficientKinException()), finalOpenOrder);
+			}
+		});
+		executors.io().execute(new Runnable() {
+			@Override
+			public void run() {
+				orderRepository.cancelOrderSync(finalOpenOrder.getId());
+			}
+		});
+	}
+
 	private void sendKin2Order(final String orderId, final String offerId, final String address, final BigDecimal amount) {
 		KinCallback<Order> callback = new KinCallback<Order>() {
 			@Override
 			public void onResponse(Order response) {
+				onSubmitted();
 				if (isSpendOrder()) {
 					// Send transaction to the blockchain
 					blockchainSource.sendTransaction(address, amount, orderId, offerId);
@@ -149,11 +191,12 @@ class CreateExternalOrderCall extends Thread {
 
 			@Override
 			public void onFailure(KinEcosystemException e) {
-				blockchainSource.removePaymentObserver(paymentObserver);
+				blockchainSource.removePaymentObserver(orderId, paymentObserver);
 				onOrderFailed(e);
 			}
 		};
 
+		submitStartedAt = SystemClock.elapsedRealtime();
 		if (isSpendOrder()) {
 			orderRepository.submitSpendOrder(offerId, null, orderId, callback);
 		} else {
@@ -165,47 +208,64 @@ class CreateExternalOrderCall extends Thread {
 		final KinCallback<Order> callback = new KinCallback<Order>() {
 			@Override
 			public void onResponse(Order response) {
+				onSubmitted();
 				// no need to send transaction to tbe BC, as the server does it
 				scheduleTimeoutTimer();
 			}
 
 			@Override
 			public void onFailure(KinEcosystemException e) {
-				blockchainSource.removePaymentObserver(paymentObserver);
+				blockchainSource.removePaymentObserver(orderId, paymentObserver);
 				onOrderFailed(e);
 			}
 		};
 
 		if (isSpendOrder()) {
+			final long signStartedAt = SystemClock.elapsedRealtime();
 			try {
 				blockchainSource.signTransaction(address, amount, orderId, offerId, new SignTransactionListener() {
 					@Override
 					public void onTransactionSigned(@NonNull String transaction) {
+						recordStage(Stage.SIGN, signStartedAt);
+						// Submit right away, while the signing call returns.
+						submitStartedAt = SystemClock.elapsedRealtime();
 						orderRepository.submitSpendOrder(offerId, transaction, orderId, callback);
 					}
 				});
 			} catch (OperationFailedException e) {
-				blockchainSource.removePaymentObserver(paymentObserver);
+				blockchainSource.removePaymentObserver(orderId, paymentObserver);
 				onOrderFailed(new KinEcosystemException(KinEcosystemException.UNKNOWN, e.getMessage(), e));
 			}
 		} else {
+			submitStartedAt = SystemClock.elapsedRealtime();
 			orderRepository.submitEarnOrder(offerId, null, orderId, callback);
 		}
 	}
 
+	private void onSubmitted() {
+		submittedAt = SystemClock.elapsedRealtime();
+		recorder.record(Stage.SUBMIT, submittedAt - submitStartedAt);
+	}
+
 	private void scheduleTimeoutTimer() {
-		sseTimeoutTimer.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				// TimerTask runs on a BG thread of the timer.
-				if (!isTimeoutTaskCanceled.getAndSet(true)) {
-					// Timeout should be fulfilled, remove payment observer and start server polling for order.
-					blockchainSource.removePaymentObserver(paymentObserver);
-					getOrder(openOrder.getId());
-					sseTimeoutTimer.cancel(); // Clear queue so it can be GC
-				}
+		blockchainSource.setPaymentTimeout(openOrder.getId(), SSE_TIMEOUT);
+	}
+
+	private void recordStage(Stage stage, long stageStartedAt) {
+		recorder.record(stage, SystemClock.elapsedRealtime() - stageStartedAt);
+	}
+
+	/**
+	 * Record the confirm and total latency, once, when the order callback is notified.
+	 */
+	private void finish() {
+		if (isFinished.compareAndSet(false, true)) {
+			final long now = SystemClock.elapsedRealtime();
+			if (submittedAt != 0) {
+				recorder.record(Stage.CONFIRM, now - submittedAt);
 			}
-		}, SSE_TIMEOUT);
+			recorder.record(Stage.TOTAL, now - startedAt);
+		}
 	}
 
 	private boolean isSpendOrder() {
@@ -280,17 +340,13 @@ class CreateExternalOrderCall extends Thread {
 			&& e.getResponseBody().getCode() == ErrorUtil.ERROR_CODE_EXTERNAL_ORDER_ALREADY_COMPLETED;
 	}
 
-	private boolean isPaymentOrderEquals(Payment payment, String orderId) {
-		String paymentOrderID = payment.getOrderID();
-		return paymentOrderID != null && paymentOrderID.equals(orderId);
-	}
-
 	private void getOrder(String orderID) {
 		orderRepository.getOrder(orderID, new KinCallback<Order>() {
 			@Override
 			public void onResponse(final Order order) {
 				switch (order.getStatus()) {
 					case COMPLETED:
+						finish();
 						runOnMainThread(new Runnable() {
 							@Override
 							public void run() {
@@ -324,6 +380,7 @@ class CreateExternalOrderCall extends Thread {
 
 	private void onOrderFailed(final KinEcosystemException exception) {
 		final OpenOrder finalOpenOrder = openOrder;
+		finish();
 		runOnMainThread(new Runnable() {
 			@Override
 			public void run() {
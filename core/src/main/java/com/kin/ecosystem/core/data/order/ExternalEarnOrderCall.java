@@ -11,7 +11,8 @@ class ExternalEarnOrderCall extends CreateExternalOrderCall {
         @NonNull BlockchainSource blockchainSource,
         @NonNull String orderJwt,
         @NonNull EventLogger eventLogger,
+        @NonNull ExternalOrderRecorder recorder,
         @NonNull ExternalOrderCallbacks externalEarnOrderCallbacks) {
-        super(orderRepository, blockchainSource, orderJwt, eventLogger, externalEarnOrderCallbacks);
+        super(orderRepository, blockchainSource, orderJwt, eventLogger, recorder, externalEarnOrderCallbacks);
     }
 }
\ No newline at end of file
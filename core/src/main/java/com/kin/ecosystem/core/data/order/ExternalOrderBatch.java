@@ -0,0 +1,143 @@
+package com.kin.ecosystem.core.data.order;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.BatchOrderCallback;
+import com.kin.ecosystem.common.KinCallback;
+import com.kin.ecosystem.common.exception.ClientException;
+import com.kin.ecosystem.common.exception.KinEcosystemException;
+import com.kin.ecosystem.common.model.OrderConfirmation;
+import com.kin.ecosystem.core.data.blockchain.BlockchainSource;
+import com.kin.ecosystem.core.util.ErrorUtil;
+import com.kin.ecosystem.core.util.ExecutorsUtil.MainThreadExecutor;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a list of external orders with at most {@code maxConcurrent} orders in flight,
+ * the next order starts as soon as one completes.
+ * The payment listener is held for the whole batch, so all the orders share one connection
+ * and their payment timeouts run on the shared scheduler of the payment router.
+ */
+class ExternalOrderBatch {
+
+	/**
+	 * Earn payments are sent by the server, so earn orders can run side by side.
+	 */
+	static final int MAX_CONCURRENT_EARN_ORDERS = 4;
+	/**
+	 * Spend transactions of the same account must be sent in sequence, so spend orders run one at a time.
+	 */
+	static final int MAX_CONCURRENT_SPEND_ORDERS = 1;
+
+	interface OrderStarter {
+
+		void start(@NonNull String offerJwt, @NonNull KinCallback<OrderConfirmation> callback);
+	}
+
+	private final BlockchainSource blockchainSource;
+	private final List<String> offerJwts;
+	private final int maxConcurrent;
+	private final OrderStarter orderStarter;
+	private final BatchOrderCallback callback;
+	private final MainThreadExecutor mainThread = new MainThreadExecutor();
+
+	// Guarded by this
+	private int nextIndex;
+	private int succeeded;
+	private int failed;
+
+	ExternalOrderBatch(@NonNull BlockchainSource blockchainSource, @NonNull List<String> offerJwts, int maxConcurrent,
+		@NonNull OrderStarter orderStarter, @NonNull BatchOrderCallback callback) {
+		this.blockchainSource = blockchainSource;
+		this.offerJwts = offerJwts;
+		this.maxConcurrent = Math.max(1, maxConcurrent);
+		this.orderStarter = orderStarter;
+		this.callback = callback;
+	}
+
+	void start() {
+		if (offerJwts.isEmpty()) {
+			mainThread.execute(new Runnable() {
+				@Override
+				public void run() {
+					callback.onBatchCompleted(0, 0);
+				}
+			});
+			return;
+		}
+
+		blockchainSource.holdPaymentListener();
+		final int count = Math.min(maxConcurrent, offerJwts.size());
+		for (int i = 0; i < count; i++) {
+			startNext();
+		}
+	}
+
+	private void startNext() {
+		final int index;
+		synchronized (this) {
+			if (nextIndex == offerJwts.size()) {
+				return;
+			}
+			index = nextIndex++;
+		}
+
+		final KinCallback<OrderConfirmation> orderCallback = new KinCallback<OrderConfirmation>() {
+
+			// An order is reported and counted once, even if its flow calls back twice.
+			private final AtomicBoolean isReported = new AtomicBoolean();
+
+			@Override
+			public void onResponse(OrderConfirmation response) {
+				if (isReported.compareAndSet(false, true)) {
+					callback.onOrderResponse(index, response);
+					onOrderCompleted(true);
+				}
+			}
+
+			@Override
+			public void onFailure(KinEcosystemException exception) {
+				if (isReported.compareAndSet(false, true)) {
+					callback.onOrderFailure(index, exception);
+					onOrderCompleted(false);
+				}
+			}
+		};
+
+		try {
+			orderStarter.start(offerJwts.get(index), orderCallback);
+		} catch (final RuntimeException e) {
+			// Fail this order only, the rest of the batch still runs and completes.
+			// Reported on the main thread like the results of the orders that started.
+			mainThread.execute(new Runnable() {
+				@Override
+				public void run() {
+					orderCallback.onFailure(ErrorUtil.getClientException(ClientException.INTERNAL_INCONSISTENCY, e));
+				}
+			});
+		}
+	}
+
+	private void onOrderCompleted(boolean isSucceeded) {
+		final boolean isCompleted;
+		final int succeededCount;
+		final int failedCount;
+		synchronized (this) {
+			if (isSucceeded) {
+				succeeded++;
+			} else {
+				failed++;
+			}
+			succeededCount = succeeded;
+			failedCount = failed;
+			isCompleted = succeededCount + failedCount == offerJwts.size();
+		}
+
+		if (isCompleted) {
+			blockchainSource.releasePaymentListener();
+			callback.onBatchCompleted(succeededCount, failedCount);
+		} else {
+			startNext();
+		}
+	}
+}
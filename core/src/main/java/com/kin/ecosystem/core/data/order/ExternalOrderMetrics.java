@@ -0,0 +1,74 @@
+package com.kin.ecosystem.core.data.order;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Snapshot of the external order (purchase / requestPayment) latency, per {@link Stage}:
+ * how many orders went through the stage and how long it took them.
+ */
+public final class ExternalOrderMetrics {
+
+	public enum Stage {
+		/**
+		 * Creating the order from the offer jwt.
+		 */
+		CREATE,
+		/**
+		 * Signing the spend transaction, new blockchain only.
+		 */
+		SIGN,
+		/**
+		 * Submitting the order until the server accepted it.
+		 */
+		SUBMIT,
+		/**
+		 * From the submit response until the order was confirmed or failed.
+		 */
+		CONFIRM,
+		/**
+		 * The whole order, from start until the callback was notified, including failures.
+		 */
+		TOTAL
+	}
+
+	private final long[] counts;
+	private final long[] totalMillis;
+	private final long[] maxMillis;
+
+	ExternalOrderMetrics(@NonNull long[] counts, @NonNull long[] totalMillis, @NonNull long[] maxMillis) {
+		this.counts = counts;
+		this.totalMillis = totalMillis;
+		this.maxMillis = maxMillis;
+	}
+
+	public long getCount(@NonNull Stage stage) {
+		return counts[stage.ordinal()];
+	}
+
+	public long getTotalMillis(@NonNull Stage stage) {
+		return totalMillis[stage.ordinal()];
+	}
+
+	public long getMaxMillis(@NonNull Stage stage) {
+		return maxMillis[stage.ordinal()];
+	}
+
+	public long getAverageMillis(@NonNull Stage stage) {
+		final long count = getCount(stage);
+		return count == 0 ? 0 : getTotalMillis(stage) / count;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (Stage stage : Stage.values()) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(stage.name()).append(" count: ").append(getCount(stage))
+				.append(", avgMillis: ").append(getAverageMillis(stage))
+				.append(", maxMillis: ").append(getMaxMillis(stage));
+		}
+		return builder.toString();
+	}
+}
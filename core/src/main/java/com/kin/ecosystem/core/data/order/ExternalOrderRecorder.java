@@ -0,0 +1,29 @@
+package com.kin.ecosystem.core.data.order;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.core.data.order.ExternalOrderMetrics.Stage;
+
+/**
+ * Collects the stage latencies reported by the {@link CreateExternalOrderCall}s of the repository.
+ */
+class ExternalOrderRecorder {
+
+	private static final int STAGES = Stage.values().length;
+
+	// Guarded by this
+	private final long[] counts = new long[STAGES];
+	private final long[] totalMillis = new long[STAGES];
+	private final long[] maxMillis = new long[STAGES];
+
+	synchronized void record(@NonNull Stage stage, long millis) {
+		final int index = stage.ordinal();
+		counts[index]++;
+		totalMillis[index] += millis;
+		maxMillis[index] = Math.max(maxMillis[index], millis);
+	}
+
+	@NonNull
+	synchronized ExternalOrderMetrics snapshot() {
+		return new ExternalOrderMetrics(counts.clone(), totalMillis.clone(), maxMillis.clone());
+	}
+}
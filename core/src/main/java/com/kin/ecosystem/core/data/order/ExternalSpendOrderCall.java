@@ -11,7 +11,8 @@ class ExternalSpendOrderCall extends CreateExternalOrderCall {
 		@NonNull BlockchainSource blockchainSource,
 		@NonNull String orderJwt,
 		@NonNull EventLogger eventLogger,
+		@NonNull ExternalOrderRecorder recorder,
 		@NonNull ExternalSpendOrderCallbacks externalSpendOrderCallbacks) {
-		super(orderRepository, blockchainSource, orderJwt, eventLogger, externalSpendOrderCallbacks);
+		super(orderRepository, blockchainSource, orderJwt, eventLogger, recorder, externalSpendOrderCallbacks);
 	}
 }
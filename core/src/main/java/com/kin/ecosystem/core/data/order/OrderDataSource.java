@@ -2,6 +2,7 @@ package com.kin.ecosystem.core.data.order;
 
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import com.kin.ecosystem.common.BatchOrderCallback;
 import com.kin.ecosystem.common.Callback;
 import com.kin.ecosystem.common.KinCallback;
 import com.kin.ecosystem.common.ObservableData;
@@ -12,6 +13,8 @@ import com.kin.ecosystem.core.network.model.Body;
 import com.kin.ecosystem.core.network.model.OpenOrder;
 import com.kin.ecosystem.core.network.model.Order;
 import com.kin.ecosystem.core.network.model.OrderList;
+import java.io.File;
+import java.util.List;
 
 public interface OrderDataSource {
 
@@ -20,6 +23,15 @@ public interface OrderDataSource {
 
     void getAllOrderHistory(@NonNull final KinCallback<OrderList> callback);
 
+    /**
+     * Fetch the next page of older orders and append it to the cached history.
+     *
+     * @param callback the fetched page.
+     */
+    void getOrderHistoryNextPage(@NonNull final KinCallback<OrderList> callback);
+
+    boolean hasMoreOrderHistory();
+
     void createOrder(@NonNull final String offerID, final KinCallback<OpenOrder> callback);
 
 	void submitEarnOrder(@NonNull final String offerID, @Nullable String content, @NonNull String orderID,
@@ -42,6 +54,16 @@ public interface OrderDataSource {
 
     void requestPayment(String offerJwt, KinCallback<OrderConfirmation> callback);
 
+    /**
+     * Purchase each of the offer jwts, the orders run one at a time.
+     */
+    void purchaseBatch(@NonNull List<String> offerJwts, @NonNull BatchOrderCallback callback);
+
+    /**
+     * Request payment for each of the offer jwts, several orders run concurrently.
+     */
+    void requestPaymentBatch(@NonNull List<String> offerJwts, @NonNull BatchOrderCallback callback);
+
     void addOrderObserver(@NonNull final Observer<Order> observer);
 
     void removeOrderObserver(@NonNull final Observer<Order> observer);
@@ -59,26 +81,51 @@ public interface OrderDataSource {
         void isFirstSpendOrder(@NonNull final Callback<Boolean, Void> callback);
 
         void setIsFirstSpendOrder(boolean isFirstSpendOrder);
+
+        void getOrderHistory(@NonNull final Callback<OrderList, Void> callback);
+
+        void saveOrderHistory(@NonNull OrderList orderList);
+
+        void clearOrderHistory();
+
+        /**
+         * @return the order outbox journal file, null to keep the outbox in memory only.
+         */
+        @Nullable
+        File getOutboxFile();
     }
 
     interface Remote {
 
         void getAllOrderHistory(@NonNull final Callback<OrderList, ApiException> callback);
 
-        void createOrder(@NonNull final String offerID, final Callback<OpenOrder, ApiException> callback);
+        /**
+         * @param before cursor to get orders newer than it, can be null.
+         * @param after cursor to get orders older than it, can be null.
+         */
+        void getOrderHistoryPage(@Nullable String before, @Nullable String after,
+            @NonNull final Callback<OrderList, ApiException> callback);
 
-        void submitEarnOrder(@Nullable String content, @NonNull String orderID, final Callback<Order, ApiException> callback);
+        void createOrder(@NonNull final String offerID, final Callback<OpenOrder, ApiException> callback);
 
-        void submitSpendOrder(@Nullable String transaction, @NonNull String orderID, final Callback<Order, ApiException> callback);
+        /**
+         * @param requestID sent as X-REQUEST-ID, the same id on a retry lets the server ignore a duplicate request.
+         */
+        void submitEarnOrder(@Nullable String content, @NonNull String orderID, @NonNull String requestID,
+            final Callback<Order, ApiException> callback);
 
-        void cancelOrder(@NonNull final String orderID, final Callback<Void, ApiException> callback);
+        void submitSpendOrder(@Nullable String transaction, @NonNull String orderID, @NonNull String requestID,
+            final Callback<Order, ApiException> callback);
 
-        void cancelOrderSync(@NonNull final String orderID);
+        void cancelOrder(@NonNull final String orderID, @NonNull String requestID,
+            final Callback<Void, ApiException> callback);
 
         void getOrder(@NonNull final String orderID, Callback<Order, ApiException> callback);
 
         Order getOrderSync(@NonNull final String orderID);
 
+        void cancelOrdersPolling();
+
         OpenOrder createExternalOrderSync(String orderJwt) throws ApiException;
 
         void getFilteredOrderHistory(@Nullable String origin, @NonNull String offerID, @NonNull final Callback<OrderList, ApiException> callback);
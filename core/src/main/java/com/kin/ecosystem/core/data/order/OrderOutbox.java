@@ -0,0 +1,591 @@
+package com.kin.ecosystem.core.data.order;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.google.gson.JsonParseException;
+import com.kin.ecosystem.common.Callback;
+import com.kin.ecosystem.core.Log;
+import com.kin.ecosystem.core.Logger;
+import com.kin.ecosystem.core.data.order.OrderPoller.BackoffPolicy;
+import com.kin.ecosystem.core.data.order.OrderPoller.JitteredBackoffPolicy;
+import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.JSON;
+import com.kin.ecosystem.core.network.model.Order;
+import com.kin.ecosystem.core.util.ErrorUtil;
+import com.kin.ecosystem.core.util.SharedExecutors;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durable FIFO of order requests (submit, cancel and change) that must reach the server.
+ * Each request is journaled on the io lane before it is sent and keeps the same request id (sent as X-REQUEST-ID)
+ * on every attempt, so a retry of a request the server already handled is not applied twice.
+ * Requests of the same order are sent one at a time in order, requests of different orders don't wait for each other.
+ * A request that failed with a retriable error, see {@link ErrorUtil#isRetriable(ApiException)}, is retried with backoff
+ * and holds the requests of its order behind it. Its callback gets the failure after {@link #CALLBACK_ATTEMPTS} attempts,
+ * so the user doesn't wait for the whole backoff, but the request stays journaled. When it runs out of attempts it waits
+ * for {@link #replay()}, e.g. when the network is back, and its final result is reported as a recovered request.
+ * Requests journaled by a previous session, e.g. before a crash, are sent again by {@link #recover()}.
+ */
+class OrderOutbox {
+
+	private static final String TAG = OrderOutbox.class.getSimpleName();
+
+	static final String SUBMIT_EARN = "submit_earn";
+	static final String SUBMIT_SPEND = "submit_spend";
+	static final String CANCEL = "cancel";
+	static final String CHANGE = "change";
+
+	static final int ERROR_CODE_NO_RESPONSE = 0;
+	/**
+	 * Attempts that failed with a retriable error before the request callback gets the failure.
+	 */
+	static final int CALLBACK_ATTEMPTS = 3;
+
+	static class Entry {
+
+		private final String requestID;
+		private final String type;
+		private final String orderID;
+		@Nullable
+		private final String payload;
+
+		/**
+		 * @param payload earn content, spend transaction or serialized change body.
+		 */
+		Entry(@NonNull String type, @NonNull String orderID, @Nullable String payload) {
+			this(UUID.randomUUID().toString(), type, orderID, payload);
+		}
+
+		Entry(@NonNull String requestID, @NonNull String type, @NonNull String orderID, @Nullable String payload) {
+			this.requestID = requestID;
+			this.type = type;
+			this.orderID = orderID;
+			this.payload = payload;
+		}
+
+		@NonNull
+		String getRequestID() {
+			return requestID;
+		}
+
+		@NonNull
+		String getType() {
+			return type;
+		}
+
+		@NonNull
+		String getOrderID() {
+			return orderID;
+		}
+
+		@Nullable
+		String getPayload() {
+			return payload;
+		}
+	}
+
+	interface Sender {
+
+		/**
+		 * Send the request, the callback can be called on any thread.
+		 */
+		void send(@NonNull Entry entry, @NonNull Callback<Order, ApiException> callback);
+
+		/**
+		 * Called with the result of a request recovered from the journal, which has no callback of its own,
+		 * or of a request whose callback already got a failure while it was retried.
+		 */
+		void onRecovered(@NonNull Entry entry, @Nullable ApiException exception);
+	}
+
+	private static class Pending {
+
+		private final Entry entry;
+		// Guarded by the outbox, null once the failure was reported while the request is still retried.
+		@Nullable
+		private Callback<Order, ApiException> callback;
+		private int attempt;
+		// Guarded by the outbox, a request is sent only after it was written to the journal.
+		private boolean isJournaled;
+
+		Pending(Entry entry, @Nullable Callback<Order, ApiException> callback, boolean isJournaled) {
+			this.entry = entry;
+			this.callback = callback;
+			this.isJournaled = isJournaled;
+		}
+	}
+
+	/**
+	 * The pending requests of one order.
+	 */
+	private static class Lane {
+
+		private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+		private boolean isSending;
+		// The head ran out of attempts, the lane waits for a replay.
+		private boolean isWaitingForReplay;
+		@Nullable
+		private ScheduledFuture<?> scheduledRetry;
+	}
+
+	private final Journal journal;
+	private final Sender sender;
+	private final BackoffPolicy backoffPolicy;
+	private final Executor ioExecutor;
+	private final ScheduledExecutorService scheduler;
+
+	// Guarded by this
+	private final Map<String, Lane> lanes = new HashMap<>();
+
+	/**
+	 * @param file journal file, null for an in memory only outbox.
+	 */
+	OrderOutbox(@Nullable File file, @NonNull Sender sender) {
+		this(file, sender, new JitteredBackoffPolicy(), SharedExecutors.getInstance().io(),
+			SharedExecutors.getInstance().scheduled());
+	}
+
+	OrderOutbox(@Nullable File file, @NonNull Sender sender, @NonNull BackoffPolicy backoffPolicy,
+		@NonNull Executor ioExecutor, @NonNull ScheduledExecutorService scheduler) {
+		this.journal = new Journal(file);
+		this.sender = sender;
+		this.backoffPolicy = backoffPolicy;
+		this.ioExecutor = ioExecutor;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Queue the request in its order lane right away, so the order of requests is kept,
+	 * then journal it on the io lane and send it once no other request of the order is pending.
+	 */
+	void enqueue(@NonNull final Entry entry, @Nullable Callback<Order, ApiException> callback) {
+		final Pending request = new Pending(entry, callback, false);
+		final int generation;
+		synchronized (this) {
+			addLocked(request);
+			generation = journal.getGeneration();
+		}
+		ioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				journal.add(entry, generation);
+				final Pending head;
+				synchronized (OrderOutbox.this) {
+					request.isJournaled = true;
+					final Lane lane = lanes.get(entry.orderID);
+					head = lane != null ? nextToSendLocked(lane) : null;
+				}
+				if (head != null) {
+					send(head);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Load the requests left in the journal by a previous session, on the io lane, and send them again.
+	 */
+	void recover() {
+		ioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final List<Entry> recovered = journal.load();
+				if (recovered.isEmpty()) {
+					return;
+				}
+				Logger.log(new Log().withTag(TAG).put("recovered requests", recovered.size()));
+				final List<Pending> heads = new ArrayList<>();
+				synchronized (OrderOutbox.this) {
+					final Set<String> queued = new HashSet<>();
+					for (Lane lane : lanes.values()) {
+						for (Pending queuedPending : lane.pending) {
+							queued.add(queuedPending.entry.requestID);
+						}
+					}
+					for (Entry entry : recovered) {
+						if (!queued.contains(entry.requestID)) {
+							final Pending head = addLocked(new Pending(entry, null, true));
+							if (head != null) {
+								heads.add(head);
+							}
+						}
+					}
+				}
+				for (Pending head : heads) {
+					send(head);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Send again the requests that ran out of attempts, with a fresh backoff. Call it when the network is back.
+	 */
+	void replay() {
+		final List<Pending> heads = new ArrayList<>();
+		synchronized (this) {
+			for (Lane lane : lanes.values()) {
+				if (lane.isWaitingForReplay) {
+					lane.isWaitingForReplay = false;
+					final Pending head = nextToSendLocked(lane);
+					if (head != null) {
+						head.attempt = 0;
+						heads.add(head);
+					}
+				}
+			}
+		}
+		if (!heads.isEmpty()) {
+			Logger.log(new Log().withTag(TAG).put("replay requests", heads.size()));
+		}
+		for (Pending head : heads) {
+			send(head);
+		}
+	}
+
+	/**
+	 * Drop all pending requests without sending them, e.g. on logout.
+	 * Requests that are in flight or queued fail their callbacks, a late response of an in flight request is ignored.
+	 */
+	void clear() {
+		final List<Pending> dropped = new ArrayList<>();
+		synchronized (this) {
+			for (Lane lane : lanes.values()) {
+				if (lane.scheduledRetry != null) {
+					lane.scheduledRetry.cancel(false);
+				}
+				dropped.addAll(lane.pending);
+			}
+			lanes.clear();
+			journal.invalidate();
+		}
+		ioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				journal.clear();
+			}
+		});
+
+		for (Pending request : dropped) {
+			if (request.callback != null) {
+				request.callback.onFailure(new ApiException(ERROR_CODE_NO_RESPONSE,
+					"Order request " + request.entry.type + " dropped, the outbox was cleared"));
+			}
+		}
+	}
+
+	synchronized int size() {
+		int size = 0;
+		for (Lane lane : lanes.values()) {
+			size += lane.pending.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the request to send now, null if the order has a request in flight or waiting for the journal.
+	 */
+	@Nullable
+	private Pending addLocked(Pending request) {
+		final String orderID = request.entry.orderID;
+		Lane lane = lanes.get(orderID);
+		if (lane == null) {
+			lane = new Lane();
+			lanes.put(orderID, lane);
+		}
+		lane.pending.addLast(request);
+		return nextToSendLocked(lane);
+	}
+
+	/**
+	 * @return the head of the lane, marked as sending, if nothing is sending and it was journaled.
+	 */
+	@Nullable
+	private Pending nextToSendLocked(Lane lane) {
+		final Pending head = lane.pending.peekFirst();
+		if (lane.isSending || lane.isWaitingForReplay || head == null || !head.isJournaled) {
+			return null;
+		}
+		lane.isSending = true;
+		return head;
+	}
+
+	/**
+	 * @return the order lane if the request is still its head, null if the lane was cleared.
+	 */
+	@Nullable
+	private Lane laneOfHeadLocked(Pending head) {
+		final Lane lane = lanes.get(head.entry.orderID);
+		return lane != null && lane.pending.peekFirst() == head ? lane : null;
+	}
+
+	private void send(final Pending head) {
+		sender.send(head.entry, new Callback<Order, ApiException>() {
+			@Override
+			public void onResponse(Order response) {
+				onCompleted(head, response, null);
+			}
+
+			@Override
+			public void onFailure(ApiException exception) {
+				if (ErrorUtil.isRetriable(exception)) {
+					onRetriableFailure(head, exception);
+				} else {
+					onCompleted(head, null, exception);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Retry with backoff, or wait for a replay once out of attempts. The request stays journaled either way.
+	 */
+	private void onRetriableFailure(final Pending head, ApiException exception) {
+		final Callback<Order, ApiException> callback;
+		synchronized (this) {
+			final Lane lane = laneOfHeadLocked(head);
+			if (lane == null) {
+				// Cleared while in flight.
+				return;
+			}
+			head.attempt++;
+			final boolean isOutOfAttempts = head.attempt >= backoffPolicy.getMaxAttempts();
+			callback = head.attempt >= CALLBACK_ATTEMPTS || isOutOfAttempts ? head.callback : null;
+			if (callback != null) {
+				// Reported once, the final result goes to Sender.onRecovered.
+				head.callback = null;
+			}
+			if (isOutOfAttempts) {
+				lane.isSending = false;
+				lane.isWaitingForReplay = true;
+				Logger.log(new Log().withTag(TAG).put("request waits for replay", head.entry.type)
+					.put("orderID", head.entry.orderID).put("code", exception.getCode()));
+			} else {
+				scheduleRetryLocked(lane, head, exception);
+			}
+		}
+		if (callback != null) {
+			callback.onFailure(exception);
+		}
+	}
+
+	private void scheduleRetryLocked(Lane lane, final Pending head, ApiException exception) {
+		final long delay = backoffPolicy.getDelayMillis(head.attempt - 1);
+		Logger.log(new Log().withTag(TAG).put("retry request", head.entry.type).put("orderID", head.entry.orderID)
+			.put("code", exception.getCode()).put("in millis", delay));
+		lane.scheduledRetry = scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (OrderOutbox.this) {
+					final Lane headLane = laneOfHeadLocked(head);
+					if (headLane == null) {
+						return;
+					}
+					headLane.scheduledRetry = null;
+				}
+				send(head);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void onCompleted(Pending head, @Nullable Order response, @Nullable ApiException exception) {
+		final Pending next;
+		final Callback<Order, ApiException> callback;
+		synchronized (this) {
+			final Lane lane = laneOfHeadLocked(head);
+			if (lane == null) {
+				return;
+			}
+			callback = head.callback;
+			lane.pending.pollFirst();
+			lane.isSending = false;
+			next = nextToSendLocked(lane);
+			if (lane.pending.isEmpty()) {
+				lanes.remove(head.entry.orderID);
+			}
+		}
+		final String requestID = head.entry.requestID;
+		ioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				journal.remove(requestID);
+			}
+		});
+
+		if (callback != null) {
+			if (exception == null) {
+				callback.onResponse(response);
+			} else {
+				callback.onFailure(exception);
+			}
+		} else {
+			sender.onRecovered(head.entry, exception);
+		}
+
+		if (next != null) {
+			send(next);
+		}
+	}
+
+	/**
+	 * Append only file of add and remove records, one json record per line.
+	 * Loading compacts the file to the entries that were added and not removed.
+	 */
+	private static class Journal {
+
+		private static final Charset UTF_8 = Charset.forName("UTF-8");
+		private static final String ADD = "add";
+		private static final String REMOVE = "remove";
+
+		private static class Record {
+
+			private final String op;
+			@Nullable
+			private final Entry entry;
+			@Nullable
+			private final String requestID;
+
+			Record(String op, @Nullable Entry entry, @Nullable String requestID) {
+				this.op = op;
+				this.entry = entry;
+				this.requestID = requestID;
+			}
+		}
+
+		@Nullable
+		private final File file;
+		private final JSON json = new JSON();
+		// Incremented when the outbox is cleared, an add queued before that is not written.
+		// Not guarded by the journal lock, so reading it never waits for a write in progress.
+		private final AtomicInteger generation = new AtomicInteger();
+
+		Journal(@Nullable File file) {
+			this.file = file;
+		}
+
+		int getGeneration() {
+			return generation.get();
+		}
+
+		void invalidate() {
+			generation.incrementAndGet();
+		}
+
+		synchronized void add(Entry entry, int generation) {
+			if (generation == this.generation.get()) {
+				write(true, Collections.singletonList(json.serialize(new Record(ADD, entry, null))));
+			}
+		}
+
+		synchronized void remove(String requestID) {
+			write(true, Collections.singletonList(json.serialize(new Record(REMOVE, null, requestID))));
+		}
+
+		synchronized void clear() {
+			if (file != null && file.exists() && !file.delete()) {
+				write(false, Collections.<String>emptyList());
+			}
+		}
+
+		synchronized List<Entry> load() {
+			if (file == null || !file.exists()) {
+				return Collections.emptyList();
+			}
+			final Map<String, Entry> entries = new LinkedHashMap<>();
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+				String line;
+				while ((line = reader.readLine()) != null) {
+					final Record record = parse(line);
+					if (record == null) {
+						continue;
+					}
+					if (ADD.equals(record.op) && record.entry != null) {
+						entries.put(record.entry.requestID, record.entry);
+					} else if (REMOVE.equals(record.op) && record.requestID != null) {
+						entries.remove(record.requestID);
+					}
+				}
+			} catch (IOException e) {
+				Logger.log(new Log().withTag(TAG).text("failed to load journal").put("error", e.getMessage()));
+			} finally {
+				closeQuietly(reader);
+			}
+
+			final List<String> lines = new ArrayList<>(entries.size());
+			for (Entry entry : entries.values()) {
+				lines.add(json.serialize(new Record(ADD, entry, null)));
+			}
+			write(false, lines);
+			return new ArrayList<>(entries.values());
+		}
+
+		@Nullable
+		private Record parse(String line) {
+			if (line.isEmpty()) {
+				return null;
+			}
+			try {
+				return json.deserialize(line, Record.class);
+			} catch (JsonParseException e) {
+				// A record cut by a crash while it was written.
+				return null;
+			}
+		}
+
+		private void write(boolean append, List<String> lines) {
+			if (file == null) {
+				return;
+			}
+			Writer writer = null;
+			try {
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), UTF_8));
+				for (String line : lines) {
+					writer.write(line);
+					writer.write('\n');
+				}
+				writer.flush();
+			} catch (IOException e) {
+				Logger.log(new Log().withTag(TAG).text("failed to write journal").put("error", e.getMessage()));
+			} finally {
+				closeQuietly(writer);
+			}
+		}
+
+		private static void closeQuietly(@Nullable Closeable closeable) {
+			if (closeable != null) {
+				try {
+					closeable.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,305 @@
+package com.kin.ecosystem.core.data.order;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.Callback;
+import com.kin.ecosystem.core.Log;
+import com.kin.ecosystem.core.Logger;
+import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.model.Order;
+import com.kin.ecosystem.core.network.model.Order.Status;
+import com.kin.ecosystem.core.util.ErrorUtil;
+import com.kin.ecosystem.core.util.SharedExecutors;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls order status until the order is no longer pending, ticks are timed by the shared scheduler
+ * and run one at a time on a serial io worker, as polling blocks on the network.
+ * Polls for the same order are merged, and polls for different orders that are due within
+ * {@link #COALESCE_WINDOW_MILLIS} of each other run in the same tick.
+ */
+public class OrderPoller {
+
+	private static final String TAG = OrderPoller.class.getSimpleName();
+	static final long COALESCE_WINDOW_MILLIS = 500;
+	private static final int DELAYED_ATTEMPTED_NUMBER = 5;
+
+	public interface BackoffPolicy {
+
+		/**
+		 * @return max number of status requests before the order times out.
+		 */
+		int getMaxAttempts();
+
+		/**
+		 * @param attempt zero based attempt that just returned a pending order.
+		 * @return delay before the next attempt.
+		 */
+		long getDelayMillis(int attempt);
+	}
+
+	public interface Cancellable {
+
+		void cancel();
+	}
+
+	/**
+	 * Uses a fixed delays table, each delay is randomized by +-jitterFraction to spread requests of orders
+	 * submitted together.
+	 */
+	public static class JitteredBackoffPolicy implements BackoffPolicy {
+
+		private static final int[] DEFAULT_DELAY_SECONDS = {2, 4, 8, 16, 32, 32, 32, 32, 32};
+		private static final double DEFAULT_JITTER_FRACTION = 0.2;
+
+		private final int[] delaySeconds;
+		private final double jitterFraction;
+		private final Random random = new Random();
+
+		public JitteredBackoffPolicy() {
+			this(DEFAULT_DELAY_SECONDS, DEFAULT_JITTER_FRACTION);
+		}
+
+		public JitteredBackoffPolicy(@NonNull int[] delaySeconds, double jitterFraction) {
+			this.delaySeconds = delaySeconds.clone();
+			this.jitterFraction = jitterFraction;
+		}
+
+		@Override
+		public int getMaxAttempts() {
+			return delaySeconds.length;
+		}
+
+		@Override
+		public long getDelayMillis(int attempt) {
+			final long delay = TimeUnit.SECONDS.toMillis(delaySeconds[Math.min(attempt, delaySeconds.length - 1)]);
+			final double jitter = (random.nextDouble() * 2 - 1) * jitterFraction;
+			return Math.max(0, (long) (delay * (1 + jitter)));
+		}
+	}
+
+	private static class PollEntry {
+
+		private final String orderID;
+		private final List<Callback<Order, ApiException>> callbacks = new ArrayList<>();
+		private int attempt;
+		private long nextPollAt;
+
+		PollEntry(String orderID, long nextPollAt) {
+			this.orderID = orderID;
+			this.nextPollAt = nextPollAt;
+		}
+	}
+
+	private final OrderDataSource.Remote remote;
+	private final BackoffPolicy backoffPolicy;
+	private final ScheduledExecutorService scheduler;
+	private final Executor worker;
+
+	// Guarded by this
+	private final Map<String, PollEntry> entries = new HashMap<>();
+	private ScheduledFuture<?> nextTick;
+	private long nextTickAt;
+
+	OrderPoller(@NonNull OrderDataSource.Remote remote) {
+		this(remote, new JitteredBackoffPolicy());
+	}
+
+	OrderPoller(@NonNull OrderDataSource.Remote remote, @NonNull BackoffPolicy backoffPolicy) {
+		this(remote, backoffPolicy, SharedExecutors.getInstance().scheduled(),
+			SharedExecutors.serial(SharedExecutors.getInstance().io()));
+	}
+
+	/**
+	 * @param worker runs the ticks, one at a time.
+	 */
+	OrderPoller(@NonNull OrderDataSource.Remote remote, @NonNull BackoffPolicy backoffPolicy,
+		@NonNull ScheduledExecutorService scheduler, @NonNull Executor worker) {
+		this.remote = remote;
+		this.backoffPolicy = backoffPolicy;
+		this.scheduler = scheduler;
+		this.worker = worker;
+	}
+
+	/**
+	 * Start polling the order status, the callback is called from the poller worker.
+	 *
+	 * @return handle to stop polling for this callback.
+	 */
+	public Cancellable poll(@NonNull final String orderID, @NonNull final Callback<Order, ApiException> callback) {
+		synchronized (this) {
+			PollEntry entry = entries.get(orderID);
+			if (entry == null) {
+				entry = new PollEntry(orderID, now());
+				entries.put(orderID, entry);
+			}
+			entry.callbacks.add(callback);
+			scheduleTickLocked(entry.nextPollAt);
+		}
+
+		return new Cancellable() {
+			@Override
+			public void cancel() {
+				synchronized (OrderPoller.this) {
+					PollEntry entry = entries.get(orderID);
+					if (entry != null) {
+						entry.callbacks.remove(callback);
+						if (entry.callbacks.isEmpty()) {
+							entries.remove(orderID);
+						}
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Stop polling all orders, pending callbacks won't be called.
+	 */
+	public synchronized void cancelAll() {
+		entries.clear();
+		if (nextTick != null) {
+			nextTick.cancel(false);
+			nextTick = null;
+		}
+	}
+
+	private long now() {
+		return System.currentTimeMillis();
+	}
+
+	private void scheduleTickLocked(long at) {
+		if (nextTick != null) {
+			if (nextTickAt <= at) {
+				return;
+			}
+			nextTick.cancel(false);
+		}
+		nextTickAt = at;
+		nextTick = scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				worker.execute(new Runnable() {
+					@Override
+					public void run() {
+						tick();
+					}
+				});
+			}
+		}, Math.max(0, at - now()), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Poll the due orders and schedule the next tick, always, so one failing order or callback
+	 * never stops polling for the others.
+	 */
+	private void tick() {
+		final List<PollEntry> due = new ArrayList<>();
+		synchronized (this) {
+			nextTick = null;
+			final long dueUntil = now() + COALESCE_WINDOW_MILLIS;
+			for (PollEntry entry : entries.values()) {
+				if (entry.nextPollAt <= dueUntil) {
+					due.add(entry);
+				}
+			}
+		}
+
+		try {
+			for (PollEntry entry : due) {
+				try {
+					poll(entry);
+				} catch (RuntimeException e) {
+					Logger.log(new Log().withTag(TAG).priority(Log.ERROR).put("poll failed, orderID", entry.orderID)
+						.put("error", e.getMessage()));
+					backOff(entry);
+				}
+			}
+		} finally {
+			synchronized (this) {
+				long earliest = Long.MAX_VALUE;
+				for (PollEntry entry : entries.values()) {
+					earliest = Math.min(earliest, entry.nextPollAt);
+				}
+				if (earliest != Long.MAX_VALUE) {
+					scheduleTickLocked(earliest);
+				}
+			}
+		}
+	}
+
+	private void poll(PollEntry entry) {
+		if (entry.attempt >= backoffPolicy.getMaxAttempts()) {
+			if (removeEntry(entry)) {
+				notifyFailure(entry, ErrorUtil.createOrderTimeoutException());
+			}
+			return;
+		}
+
+		final Order order = remote.getOrderSync(entry.orderID);
+		if (order == null || order.getStatus() == Status.PENDING) {
+			final List<Callback<Order, ApiException>> callbacks = backOff(entry);
+			if (order != null && callbacks != null) {
+				notifyResponse(callbacks, order.status(Status.DELAYED));
+			}
+		} else if (removeEntry(entry)) {
+			notifyResponse(entry.callbacks, order);
+		}
+	}
+
+	/**
+	 * Schedule the next poll of a still pending order.
+	 *
+	 * @return the callbacks to notify the order is delayed, null if it was not delayed now or polling stopped.
+	 */
+	private synchronized List<Callback<Order, ApiException>> backOff(PollEntry entry) {
+		if (entries.get(entry.orderID) != entry) {
+			return null;
+		}
+		final List<Callback<Order, ApiException>> callbacks = entry.attempt == DELAYED_ATTEMPTED_NUMBER ?
+			new ArrayList<>(entry.callbacks) : null;
+		entry.nextPollAt = now() + backoffPolicy.getDelayMillis(entry.attempt);
+		entry.attempt++;
+		return callbacks;
+	}
+
+	private synchronized boolean removeEntry(PollEntry entry) {
+		if (entries.get(entry.orderID) == entry) {
+			entries.remove(entry.orderID);
+			return true;
+		}
+		return false;
+	}
+
+	private void notifyFailure(PollEntry entry, ApiException exception) {
+		for (Callback<Order, ApiException> callback : entry.callbacks) {
+			try {
+				callback.onFailure(exception);
+			} catch (RuntimeException e) {
+				logCallbackError(entry.orderID, e);
+			}
+		}
+	}
+
+	private void notifyResponse(List<Callback<Order, ApiException>> callbacks, Order order) {
+		for (Callback<Order, ApiException> callback : callbacks) {
+			try {
+				callback.onResponse(order);
+			} catch (RuntimeException e) {
+				logCallbackError(order.getOrderId(), e);
+			}
+		}
+	}
+
+	private static void logCallbackError(String orderID, RuntimeException e) {
+		Logger.log(new Log().withTag(TAG).priority(Log.ERROR).put("callback failed, orderID", orderID)
+			.put("error", e.getMessage()));
+	}
+}
@@ -23,17 +23,19 @@ public class OrderRemoteData implements OrderDataSource.Remote {
 
     private static final String TAG = OrderRemoteData.class.getSimpleName();
 
-    private static final int ORDERS_ITEMS_LIMIT = 100;
+    static final int ORDERS_ITEMS_LIMIT = 100;
     private static final int ONE_ORDER_LIMIT = 1;
 
     private static volatile OrderRemoteData instance;
 
     private final OrdersApi ordersApi;
     private final ExecutorsUtil executorsUtil;
+    private final OrderPoller orderPoller;
 
     private OrderRemoteData(@NonNull ExecutorsUtil executorsUtil) {
         this.ordersApi = new OrdersApi();
         this.executorsUtil = executorsUtil;
+        this.orderPoller = new OrderPoller(this);
     }
 
     public static OrderRemoteData getInstance(@NonNull ExecutorsUtil executorsUtil) {
@@ -49,7 +51,13 @@ public class OrderRemoteData implements OrderDataSource.Remote {
 
     @Override
     public void getAllOrderHistory(@NonNull final Callback<OrderList, ApiException> callback) {
-        getHistory(null, null, ORDERS_ITEMS_LIMIT, callback);
+        getHistory(null, null, ORDERS_ITEMS_LIMIT, null, null, callback);
+    }
+
+    @Override
+    public void getOrderHistoryPage(@Nullable String before, @Nullable String after,
+        @NonNull Callback<OrderList, ApiException> callback) {
+        getHistory(null, null, ORDERS_ITEMS_LIMIT, before, after, callback);
     }
 
     @Override
@@ -88,9 +96,10 @@ public class OrderRemoteData implements OrderDataSource.Remote {
     }
 
     @Override
-    public void submitEarnOrder(@NonNull String content, @NonNull String orderID, @NonNull final Callback<Order, ApiException> callback) {
+    public void submitEarnOrder(@NonNull String content, @NonNull String orderID, @NonNull String requestID,
+        @NonNull final Callback<Order, ApiException> callback) {
         try {
-            ordersApi.submitEarnOrderAsync(new EarnSubmission().content(content), orderID, "", new ApiCallback<Order>() {
+            ordersApi.submitEarnOrderAsync(new EarnSubmission().content(content), orderID, requestID, new ApiCallback<Order>() {
                 @Override
                 public void onFailure(final ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
                     executorsUtil.mainThread().execute(new Runnable() {
@@ -122,9 +131,10 @@ public class OrderRemoteData implements OrderDataSource.Remote {
     }
 
     @Override
-    public void submitSpendOrder(@NonNull String transaction, @NonNull String orderID, @NonNull final Callback<Order, ApiException> callback) {
+    public void submitSpendOrder(@NonNull String transaction, @NonNull String orderID, @NonNull String requestID,
+        @NonNull final Callback<Order, ApiException> callback) {
 		try {
-			ordersApi.submitSpendOrderAsync(new SpendOrderPayload().transaction(transaction), orderID, "", new ApiCallback<Order>() {
+			ordersApi.submitSpendOrderAsync(new SpendOrderPayload().transaction(transaction), orderID, requestID, new ApiCallback<Order>() {
 				@Override
 				public void onFailure(final ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
 					executorsUtil.mainThread().execute(new Runnable() {
@@ -156,9 +166,10 @@ public class OrderRemoteData implements OrderDataSource.Remote {
     }
 
     @Override
-    public void cancelOrder(@NonNull final String orderID, @Nullable final Callback<Void, ApiException> callback) {
+    public void cancelOrder(@NonNull final String orderID, @NonNull String requestID,
+        @Nullable final Callback<Void, ApiException> callback) {
         try {
-            ordersApi.cancelOrderAsync(orderID, "", new ApiCallback<Void>() {
+            ordersApi.cancelOrderAsync(orderID, requestID, new ApiCallback<Void>() {
                 @Override
                 public void onFailure(final ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
                     executorsUtil.mainThread().execute(new Runnable() {
@@ -193,19 +204,9 @@ public class OrderRemoteData implements OrderDataSource.Remote {
         }
     }
 
-    @Override
-    public void cancelOrderSync(@NonNull String orderID) {
-        try {
-            ordersApi.cancelOrder(orderID, "");
-        } catch (ApiException e) {
-			Logger
-                .log(new Log().withTag(TAG).priority(Log.ERROR).put("Cancel order", orderID).put("sync failed, code", e.getCode()));
-        }
-    }
-
     @Override
     public void getOrder(@NonNull final String orderID, final Callback<Order, ApiException> callback) {
-        new GetOrderPollingCall(this, orderID, new Callback<Order, ApiException>() {
+        orderPoller.poll(orderID, new Callback<Order, ApiException>() {
             @Override
             public void onResponse(final Order result) {
                 executorsUtil.mainThread().execute(new Runnable() {
@@ -225,7 +226,12 @@ public class OrderRemoteData implements OrderDataSource.Remote {
                     }
                 });
             }
-        }).start();
+        });
+    }
+
+    @Override
+    public void cancelOrdersPolling() {
+        orderPoller.cancelAll();
     }
 
     @Override
@@ -246,7 +252,7 @@ public class OrderRemoteData implements OrderDataSource.Remote {
     @Override
     public void getFilteredOrderHistory(@Nullable String origin, @NonNull String offerID,
         @NonNull Callback<OrderList, ApiException> callback) {
-        getHistory(origin, offerID, ONE_ORDER_LIMIT, callback);
+        getHistory(origin, offerID, ONE_ORDER_LIMIT, null, null, callback);
     }
 
     @Override
@@ -283,10 +289,10 @@ public class OrderRemoteData implements OrderDataSource.Remote {
         }
     }
 
-    private void getHistory(@Nullable String origin, @Nullable String offerID, int limit,
-        @NonNull final Callback<OrderList, ApiException> callback) {
+    private void getHistory(@Nullable String origin, @Nullable String offerID, int limit, @Nullable String before,
+        @Nullable String after, @NonNull final Callback<OrderList, ApiException> callback) {
         try {
-            ordersApi.getHistoryAsync("", origin, offerID, limit, null, null, new ApiCallback<OrderList>() {
+            ordersApi.getHistoryAsync("", origin, offerID, limit, before, after, new ApiCallback<OrderList>() {
                 @Override
                 public void onFailure(final ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
                     executorsUtil.mainThread().execute(new Runnable() {
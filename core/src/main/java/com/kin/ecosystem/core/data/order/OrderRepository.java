@@ -3,6 +3,7 @@ package com.kin.ecosystem.core.data.order;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
+import com.kin.ecosystem.common.BatchOrderCallback;
 import com.kin.ecosystem.common.Callback;
 import com.kin.ecosystem.common.KinCallback;
 import com.kin.ecosystem.common.ObservableData;
@@ -24,9 +25,11 @@ import com.kin.ecosystem.core.bi.events.SpendOrderCreationRequested;
 import com.kin.ecosystem.core.bi.events.SpendOrderFailed;
 import com.kin.ecosystem.core.data.blockchain.BlockchainSource;
 import com.kin.ecosystem.core.data.blockchain.Payment;
+import com.kin.ecosystem.core.data.blockchain.PaymentObserver;
 import com.kin.ecosystem.core.data.order.CreateExternalOrderCall.ExternalOrderCallbacks;
 import com.kin.ecosystem.core.data.order.CreateExternalOrderCall.ExternalSpendOrderCallbacks;
 import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.JSON;
 import com.kin.ecosystem.core.network.model.Body;
 import com.kin.ecosystem.core.network.model.Error;
 import com.kin.ecosystem.core.network.model.JWTBodyPaymentConfirmationResult;
@@ -36,8 +39,15 @@ import com.kin.ecosystem.core.network.model.Order;
 import com.kin.ecosystem.core.network.model.Order.Origin;
 import com.kin.ecosystem.core.network.model.Order.Status;
 import com.kin.ecosystem.core.network.model.OrderList;
+import com.kin.ecosystem.core.network.model.Paging;
+import com.kin.ecosystem.core.network.model.PagingCursors;
 import com.kin.ecosystem.core.util.ErrorUtil;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class OrderRepository implements OrderDataSource {
@@ -51,16 +61,42 @@ public class OrderRepository implements OrderDataSource {
 	private final BlockchainSource blockchainSource;
 	private final EventLogger eventLogger;
 
+	/**
+	 * Cached order history, newest order first.
+	 * The paging cursors are used to fetch only newer orders ('before') or the next older page ('after').
+	 */
 	@Nullable
-	private OrderList cachedOrderList;
+	private volatile OrderList cachedOrderList;
+	private final Object orderHistoryLock = new Object();
+	/**
+	 * Cached orders that were not final when persisted are fetched again once per process,
+	 * their updates were not observed by this process.
+	 */
+	private volatile boolean areUnfinishedOrdersRefreshed;
 	private ObservableData<OpenOrder> cachedOpenOrder = ObservableData.create();
 	private ObservableData<Order> orderWatcher = ObservableData.create();
-	private Observer<Payment> paymentObserver;
+	private final PaymentObserver completedPaymentObserver = new PaymentObserver() {
+		@Override
+		public void onChanged(Payment payment) {
+			if (!payment.isSucceed()) {
+				BlockchainException blockchainException = ErrorUtil
+					.getBlockchainException(payment.getException());
+				final Error error = new Error("Transaction failed", blockchainException.getMessage(),
+					blockchainException.getCode());
+				final Body body = new Body().error(error);
+				changeOrder(payment.getOrderID(), body, null);
+			}
 
-	private volatile AtomicInteger pendingOrdersCount = new AtomicInteger(0);
+			sendEarnPaymentConfirmed(payment);
+			getOrder(payment.getOrderID(), null);
+		}
+	};
 
-	private final Object paymentObserversLock = new Object();
-	private int paymentObserverCount;
+	private final ExternalOrderRecorder externalOrderRecorder = new ExternalOrderRecorder();
+	private final OrderOutbox outbox;
+	private final JSON json = new JSON();
+
+	private volatile AtomicInteger pendingOrdersCount = new AtomicInteger(0);
 
 	private OrderRepository(@NonNull final BlockchainSource blockchainSource,
 		@NonNull final EventLogger eventLogger,
@@ -70,6 +106,42 @@ public class OrderRepository implements OrderDataSource {
 		this.localData = localData;
 		this.blockchainSource = blockchainSource;
 		this.eventLogger = eventLogger;
+		this.outbox = new OrderOutbox(localData.getOutboxFile(), new OrderOutbox.Sender() {
+			@Override
+			public void send(@NonNull OrderOutbox.Entry entry, @NonNull Callback<Order, ApiException> callback) {
+				sendOutboxEntry(entry, callback);
+			}
+
+			@Override
+			public void onRecovered(@NonNull OrderOutbox.Entry entry, @Nullable ApiException exception) {
+				Logger.log(Log.with(TAG).put("recovered request", entry.getType()).put("orderID", entry.getOrderID())
+					.put("succeeded", exception == null));
+				if (!OrderOutbox.CANCEL.equals(entry.getType())) {
+					// Nobody waits for the result, refresh the order for its observers.
+					getOrder(entry.getOrderID(), null);
+				}
+			}
+		});
+		loadCachedOrderHistory();
+		outbox.recover();
+	}
+
+	private void loadCachedOrderHistory() {
+		localData.getOrderHistory(new Callback<OrderList, Void>() {
+			@Override
+			public void onResponse(OrderList response) {
+				synchronized (orderHistoryLock) {
+					if (cachedOrderList == null && response.getOrders() != null) {
+						cachedOrderList = response;
+					}
+				}
+			}
+
+			@Override
+			public void onFailure(Void exception) {
+				// No cached history, will be fetched from remote.
+			}
+		});
 	}
 
 	public static void init(@NonNull final BlockchainSource blockchainSource,
@@ -95,12 +167,124 @@ public class OrderRepository implements OrderDataSource {
 		return cachedOrderList;
 	}
 
+	/**
+	 * Fetch the orders newer than the cached history, or the first page if nothing is cached yet.
+	 *
+	 * @param callback the whole cached order history after the update.
+	 */
 	@Override
 	public void getAllOrderHistory(@NonNull final KinCallback<OrderList> callback) {
-		remoteData.getAllOrderHistory(new Callback<OrderList, ApiException>() {
+		final String newestCursor = getNewestCursor();
+		if (newestCursor == null) {
+			remoteData.getAllOrderHistory(new Callback<OrderList, ApiException>() {
+				@Override
+				public void onResponse(OrderList response) {
+					callback.onResponse(mergeFirstPage(response));
+				}
+
+				@Override
+				public void onFailure(ApiException e) {
+					callback.onFailure(ErrorUtil.fromApiException(e));
+				}
+			});
+		} else {
+			getNewerOrderHistory(newestCursor, callback);
+		}
+	}
+
+	private void getNewerOrderHistory(@NonNull String newestCursor, @NonNull final KinCallback<OrderList> callback) {
+		remoteData.getOrderHistoryPage(newestCursor, null, new Callback<OrderList, ApiException>() {
+			@Override
+			public void onResponse(OrderList response) {
+				mergeNewerPage(response);
+				if (hasNewerPage(response)) {
+					// More new orders than a single page, keep fetching until we reach the newest.
+					getNewerOrderHistory(getNewestCursor(), callback);
+				} else {
+					refreshUnfinishedOrders(callback);
+				}
+			}
+
+			@Override
+			public void onFailure(ApiException e) {
+				callback.onFailure(ErrorUtil.fromApiException(e));
+			}
+		});
+	}
+
+	/**
+	 * A page smaller than the page size already holds the newest orders, don't pay for another empty page.
+	 */
+	private static boolean hasNewerPage(@NonNull OrderList page) {
+		final Paging paging = page.getPaging();
+		return paging != null && paging.getPrevious() != null && hasOrders(page)
+			&& page.getOrders().size() >= OrderRemoteData.ORDERS_ITEMS_LIMIT;
+	}
+
+	/**
+	 * Fetch the cached orders that are still pending or delayed, they could have been completed after the
+	 * history was persisted by a previous process.
+	 *
+	 * @param callback the whole cached order history after the update.
+	 */
+	private void refreshUnfinishedOrders(@NonNull final KinCallback<OrderList> callback) {
+		final List<Order> unfinishedOrders = getUnfinishedCachedOrders();
+		if (areUnfinishedOrdersRefreshed || unfinishedOrders.isEmpty()) {
+			areUnfinishedOrdersRefreshed = true;
+			callback.onResponse(cachedOrderList);
+			return;
+		}
+		final AtomicInteger remaining = new AtomicInteger(unfinishedOrders.size());
+		final AtomicBoolean isFailed = new AtomicBoolean();
+		for (Order order : unfinishedOrders) {
+			remoteData.getOrder(order.getOrderId(), new Callback<Order, ApiException>() {
+				@Override
+				public void onResponse(Order response) {
+					updateCachedOrder(response);
+					onDone();
+				}
+
+				@Override
+				public void onFailure(ApiException e) {
+					isFailed.set(true);
+					onDone();
+				}
+
+				private void onDone() {
+					if (remaining.decrementAndGet() == 0) {
+						// Try the failed ones again on the next call.
+						areUnfinishedOrdersRefreshed = !isFailed.get();
+						callback.onResponse(cachedOrderList);
+					}
+				}
+			});
+		}
+	}
+
+	private List<Order> getUnfinishedCachedOrders() {
+		final List<Order> unfinishedOrders = new ArrayList<>();
+		final OrderList orderList = cachedOrderList;
+		if (orderList != null && orderList.getOrders() != null) {
+			for (Order order : orderList.getOrders()) {
+				if (order.getStatus() != Status.COMPLETED && order.getStatus() != Status.FAILED) {
+					unfinishedOrders.add(order);
+				}
+			}
+		}
+		return unfinishedOrders;
+	}
+
+	@Override
+	public void getOrderHistoryNextPage(@NonNull final KinCallback<OrderList> callback) {
+		final String oldestCursor = getOldestCursor();
+		if (oldestCursor == null || !hasMoreOrderHistory()) {
+			callback.onResponse(new OrderList().orders(new ArrayList<Order>()));
+			return;
+		}
+		remoteData.getOrderHistoryPage(null, oldestCursor, new Callback<OrderList, ApiException>() {
 			@Override
 			public void onResponse(OrderList response) {
-				cachedOrderList = response;
+				mergeOlderPage(response);
 				callback.onResponse(response);
 			}
 
@@ -111,6 +295,138 @@ public class OrderRepository implements OrderDataSource {
 		});
 	}
 
+	@Override
+	public boolean hasMoreOrderHistory() {
+		final OrderList orderList = cachedOrderList;
+		return orderList != null && orderList.getPaging() != null && orderList.getPaging().getNext() != null;
+	}
+
+	@Nullable
+	private String getNewestCursor() {
+		final PagingCursors cursors = getCachedCursors();
+		return cursors != null ? cursors.getBefore() : null;
+	}
+
+	@Nullable
+	private String getOldestCursor() {
+		final PagingCursors cursors = getCachedCursors();
+		return cursors != null ? cursors.getAfter() : null;
+	}
+
+	@Nullable
+	private PagingCursors getCachedCursors() {
+		final OrderList orderList = cachedOrderList;
+		if (orderList != null && orderList.getPaging() != null) {
+			return orderList.getPaging().getCursors();
+		}
+		return null;
+	}
+
+	private static boolean hasOrders(OrderList orderList) {
+		return orderList.getOrders() != null && !orderList.getOrders().isEmpty();
+	}
+
+	private OrderList mergeFirstPage(@NonNull OrderList page) {
+		synchronized (orderHistoryLock) {
+			if (cachedOrderList == null || cachedOrderList.getOrders() == null) {
+				cachedOrderList = page;
+				saveCachedOrderHistory();
+				return page;
+			}
+		}
+		return mergeNewerPage(page);
+	}
+
+	private OrderList mergeNewerPage(@NonNull OrderList page) {
+		synchronized (orderHistoryLock) {
+			final OrderList current = cachedOrderList;
+			if (!hasOrders(page) && current != null) {
+				return current;
+			}
+			final List<Order> currentOrders = current != null ? current.getOrders() : null;
+			final List<Order> merged = mergeOrders(page.getOrders(), currentOrders);
+			final PagingCursors currentCursors = getCachedCursors();
+			final PagingCursors pageCursors = page.getPaging() != null ? page.getPaging().getCursors() : null;
+			final Paging paging = new Paging()
+				.cursors(new PagingCursors()
+					.before(pageCursors != null && pageCursors.getBefore() != null ? pageCursors.getBefore()
+						: currentCursors != null ? currentCursors.getBefore() : null)
+					.after(currentCursors != null ? currentCursors.getAfter()
+						: pageCursors != null ? pageCursors.getAfter() : null))
+				.next(current != null && current.getPaging() != null ? current.getPaging().getNext()
+					: page.getPaging() != null ? page.getPaging().getNext() : null);
+			cachedOrderList = new OrderList().orders(merged).paging(paging);
+			saveCachedOrderHistory();
+			return cachedOrderList;
+		}
+	}
+
+	private void mergeOlderPage(@NonNull OrderList page) {
+		synchronized (orderHistoryLock) {
+			final OrderList current = cachedOrderList;
+			if (current == null) {
+				return;
+			}
+			final List<Order> merged = mergeOrders(current.getOrders(), page.getOrders());
+			final PagingCursors currentCursors = getCachedCursors();
+			final PagingCursors pageCursors = page.getPaging() != null ? page.getPaging().getCursors() : null;
+			final Paging paging = new Paging()
+				.cursors(new PagingCursors()
+					.before(currentCursors != null ? currentCursors.getBefore() : null)
+					.after(pageCursors != null && pageCursors.getAfter() != null ? pageCursors.getAfter()
+						: currentCursors != null ? currentCursors.getAfter() : null))
+				.next(page.getPaging() != null ? page.getPaging().getNext() : null);
+			cachedOrderList = new OrderList().orders(merged).paging(paging);
+			saveCachedOrderHistory();
+		}
+	}
+
+	/**
+	 * Merge two lists sorted newest first, orders that appear in both lists are taken from the newer one.
+	 */
+	private static List<Order> mergeOrders(@Nullable List<Order> newer, @Nullable List<Order> older) {
+		final Map<String, Order> ordersByID = new LinkedHashMap<>();
+		if (newer != null) {
+			for (Order order : newer) {
+				ordersByID.put(order.getOrderId(), order);
+			}
+		}
+		if (older != null) {
+			for (Order order : older) {
+				if (!ordersByID.containsKey(order.getOrderId())) {
+					ordersByID.put(order.getOrderId(), order);
+				}
+			}
+		}
+		return new ArrayList<>(ordersByID.values());
+	}
+
+	/**
+	 * Replace a cached order with its updated status, if it is cached.
+	 */
+	private void updateCachedOrder(@NonNull Order order) {
+		synchronized (orderHistoryLock) {
+			final OrderList current = cachedOrderList;
+			if (current == null || current.getOrders() == null) {
+				return;
+			}
+			final List<Order> orders = new ArrayList<>(current.getOrders());
+			final int index = orders.indexOf(order);
+			if (index != -1) {
+				orders.set(index, order);
+				cachedOrderList = new OrderList().orders(orders).paging(current.getPaging());
+				saveCachedOrderHistory();
+			}
+		}
+	}
+
+	private void saveCachedOrderHistory() {
+		final OrderList orderList = cachedOrderList;
+		if (orderList != null) {
+			localData.saveOrderHistory(orderList);
+		}
+	}
+
 	public ObservableData<OpenOrder> getOpenOrder() {
 		return cachedOpenOrder;
 	}
@@ -121,6 +437,7 @@ public class OrderRepository implements OrderDataSource {
 			@Override
 			public void onResponse(Order order) {
 				decrementPendingOrdersCount();
+				updateCachedOrder(order);
 				getOrderWatcher().postValue(order);
 				sendSpendOrderCompleted(order);
 				if (!hasMorePendingOffers()) {
@@ -164,66 +481,70 @@ public class OrderRepository implements OrderDataSource {
 	@Override
 	public void submitEarnOrder(@NonNull final String offerID, @Nullable String content, @NonNull final String orderID,
 		@Nullable final KinCallback<Order> callback) {
-		listenForCompletedPayment();
-		remoteData.submitEarnOrder(content, orderID, createSubmitOrderCallback(callback, orderID, offerID));
+		listenForCompletedPayment(orderID);
+		outbox.enqueue(new OrderOutbox.Entry(OrderOutbox.SUBMIT_EARN, orderID, content),
+			createSubmitOrderCallback(callback, orderID, offerID));
 	}
 
 	@Override
 	public void submitSpendOrder(@NonNull final String offerID, @Nullable String transaction, @NonNull final String orderID,
 		@Nullable final KinCallback<Order> callback) {
-		listenForCompletedPayment();
-		remoteData.submitSpendOrder(transaction, orderID, createSubmitOrderCallback(callback, orderID, offerID));
+		listenForCompletedPayment(orderID);
+		outbox.enqueue(new OrderOutbox.Entry(OrderOutbox.SUBMIT_SPEND, orderID, transaction),
+			createSubmitOrderCallback(callback, orderID, offerID));
 	}
 
+	/**
+	 * Queued in the order outbox, returns without waiting for the server.
+	 */
 	@Override
-	public void cancelOrderSync(@NonNull String orderID) {
+	public void cancelOrderSync(@NonNull final String orderID) {
 		removeCachedOpenOrderByID(orderID);
-		remoteData.cancelOrderSync(orderID);
-	}
-
-	private void listenForCompletedPayment() {
-		synchronized (paymentObserversLock) {
-			if (paymentObserverCount == 0) {
-				paymentObserver = new Observer<Payment>() {
-					@Override
-					public void onChanged(Payment payment) {
-						if (!payment.isSucceed()) {
-							BlockchainException blockchainException = ErrorUtil
-								.getBlockchainException(payment.getException());
-							final Error error = new Error("Transaction failed", blockchainException.getMessage(),
-								blockchainException.getCode());
-							final Body body = new Body().error(error);
-							changeOrder(payment.getOrderID(), body, null);
-						}
+		outbox.enqueue(new OrderOutbox.Entry(OrderOutbox.CANCEL, orderID, null), new Callback<Order, ApiException>() {
+			@Override
+			public void onResponse(Order response) {
+			}
 
-						sendEarnPaymentConfirmed(payment);
-						decrementPaymentObserverCount();
-						getOrder(payment.getOrderID(), null);
-					}
-				};
-				blockchainSource.addPaymentObservable(paymentObserver);
-				Logger.log(new Log().withTag(TAG).text("listenForCompletedPayment: addPaymentObservable"));
+			@Override
+			public void onFailure(ApiException e) {
+				Logger.log(Log.with(TAG).priority(Log.ERROR).put("Cancel order", orderID).put("failed, code", e.getCode()));
 			}
-			paymentObserverCount++;
-		}
+		});
 	}
 
-	private void sendEarnPaymentConfirmed(Payment payment) {
-		if (payment.isSucceed() && payment.getAmount() != null && payment.getType() == Payment.EARN) {
-			eventLogger.send(EarnOrderPaymentConfirmed.create(payment.getTransactionID(), payment.getOrderID()));
+	private void sendOutboxEntry(@NonNull OrderOutbox.Entry entry, @NonNull final Callback<Order, ApiException> callback) {
+		final String type = entry.getType();
+		if (OrderOutbox.SUBMIT_EARN.equals(type)) {
+			remoteData.submitEarnOrder(entry.getPayload(), entry.getOrderID(), entry.getRequestID(), callback);
+		} else if (OrderOutbox.SUBMIT_SPEND.equals(type)) {
+			remoteData.submitSpendOrder(entry.getPayload(), entry.getOrderID(), entry.getRequestID(), callback);
+		} else if (OrderOutbox.CANCEL.equals(type)) {
+			remoteData.cancelOrder(entry.getOrderID(), entry.getRequestID(), new Callback<Void, ApiException>() {
+				@Override
+				public void onResponse(Void response) {
+					callback.onResponse(null);
+				}
+
+				@Override
+				public void onFailure(ApiException e) {
+					callback.onFailure(e);
+				}
+			});
+		} else if (OrderOutbox.CHANGE.equals(type)) {
+			remoteData.changeOrder(entry.getOrderID(), json.<Body>deserialize(entry.getPayload(), Body.class), callback);
+		} else {
+			callback.onFailure(new ApiException(ClientException.INTERNAL_INCONSISTENCY, "Unknown order request " + type));
 		}
 	}
 
-	private void decrementPaymentObserverCount() {
-		synchronized (paymentObserversLock) {
-			if (paymentObserverCount > 0) {
-				paymentObserverCount--;
-			}
+	private void listenForCompletedPayment(@NonNull String orderID) {
+		blockchainSource.addPaymentObserver(orderID, completedPaymentObserver);
+		Logger.log(Log.with(TAG).put("listenForCompletedPayment: addPaymentObserver", orderID));
+	}
 
-			if (paymentObserverCount == 0 && paymentObserver != null) {
-				blockchainSource.removePaymentObserver(paymentObserver);
-				paymentObserver = null;
-			}
+	private void sendEarnPaymentConfirmed(Payment payment) {
+		if (payment.isSucceed() && payment.getAmount() != null && payment.getType() == Payment.EARN) {
+			eventLogger.send(EarnOrderPaymentConfirmed.create(payment.getTransactionID(), payment.getOrderID()));
 		}
 	}
 
@@ -303,7 +624,7 @@ public class OrderRepository implements OrderDataSource {
 	public void cancelOrder(@NonNull final String offerID, @NonNull final String orderID,
 		@Nullable final KinCallback<Void> callback) {
 		removeCachedOpenOrderByID(orderID);
-		remoteData.cancelOrder(orderID, new Callback<Void, ApiException>() {
+		remoteData.cancelOrder(orderID, UUID.randomUUID().toString(), new Callback<Void, ApiException>() {
 			@Override
 			public void onResponse(Void response) {
 				if (callback != null) {
@@ -330,7 +651,7 @@ public class OrderRepository implements OrderDataSource {
 	@Override
 	public void purchase(String offerJwt, @Nullable final KinCallback<OrderConfirmation> callback) {
 		eventLogger.send(SpendOrderCreationRequested.create("", true, SpendOrderCreationRequested.Origin.EXTERNAL));
-		new ExternalSpendOrderCall(this, blockchainSource, offerJwt, eventLogger,
+		new ExternalSpendOrderCall(this, blockchainSource, offerJwt, eventLogger, externalOrderRecorder,
 			new ExternalSpendOrderCallbacks() {
 
 				@Override
@@ -361,7 +682,7 @@ public class OrderRepository implements OrderDataSource {
 				@Override
 				public void onOrderFailed(KinEcosystemException exception, OpenOrder openOrder) {
 					if (openOrder != null) { // did not fail before submit
-						decrementCount();
+						decrementCount(openOrder.getId());
 					}
 					handleOnFailure(exception, getOfferId(openOrder), getOrderId(openOrder));
 				}
@@ -404,54 +725,86 @@ public class OrderRepository implements OrderDataSource {
 	 */
 	private void changeOrder(@NonNull String orderID, @NonNull Body body,
 		@Nullable final KinCallback<Order> kinCallback) {
-		remoteData.changeOrder(orderID, body, new Callback<Order, ApiException>() {
-			@Override
-			public void onResponse(Order response) {
-				if (kinCallback != null) {
-					kinCallback.onResponse(response);
+		outbox.enqueue(new OrderOutbox.Entry(OrderOutbox.CHANGE, orderID, json.serialize(body)),
+			new Callback<Order, ApiException>() {
+				@Override
+				public void onResponse(Order response) {
+					if (kinCallback != null) {
+						kinCallback.onResponse(response);
+					}
 				}
-			}
 
-			@Override
-			public void onFailure(ApiException error) {
-				if (kinCallback != null) {
-					kinCallback.onFailure(ErrorUtil.fromApiException(error));
+				@Override
+				public void onFailure(ApiException error) {
+					if (kinCallback != null) {
+						kinCallback.onFailure(ErrorUtil.fromApiException(error));
+					}
 				}
-			}
-		});
+			});
 	}
 
 	@Override
 	public void requestPayment(String offerJwt, final KinCallback<OrderConfirmation> callback) {
 		eventLogger.send(EarnOrderCreationRequested.create(EarnOrderCreationRequested.OfferType.EXTERNAL, null, "null",
 			EarnOrderCreationRequested.Origin.EXTERNAL));
-		new ExternalEarnOrderCall(this, blockchainSource, offerJwt, eventLogger, new ExternalOrderCallbacks() {
-			@Override
-			public void onOrderConfirmed(String confirmationJwt, Order order) {
-				if (callback != null) {
-					callback.onResponse(createOrderConfirmation(confirmationJwt));
+		new ExternalEarnOrderCall(this, blockchainSource, offerJwt, eventLogger, externalOrderRecorder,
+			new ExternalOrderCallbacks() {
+				@Override
+				public void onOrderConfirmed(String confirmationJwt, Order order) {
+					if (callback != null) {
+						callback.onResponse(createOrderConfirmation(confirmationJwt));
+					}
+					eventLogger.send(EarnOrderCompleted
+						.create(EarnOrderCompleted.OfferType.EXTERNAL, (double) order.getAmount(), order.getOfferId(),
+							order.getOrderId(), EarnOrderCompleted.Origin.EXTERNAL));
 				}
-				eventLogger.send(EarnOrderCompleted
-					.create(EarnOrderCompleted.OfferType.EXTERNAL, (double) order.getAmount(), order.getOfferId(),
-						order.getOrderId(), EarnOrderCompleted.Origin.EXTERNAL));
-			}
 
-			@Override
-			public void onOrderFailed(KinEcosystemException exception, OpenOrder openOrder) {
-				if (openOrder != null) { // did not fail before submit
-					decrementCount();
+				@Override
+				public void onOrderFailed(KinEcosystemException exception, OpenOrder openOrder) {
+					if (openOrder != null) { // did not fail before submit
+						decrementCount(openOrder.getId());
+					}
+					handleOnFailure(exception, getOfferId(openOrder), getOrderId(openOrder));
 				}
-				handleOnFailure(exception, getOfferId(openOrder), getOrderId(openOrder));
-			}
 
-			private void handleOnFailure(KinEcosystemException exception, final String offerId, final String orderId) {
-				if (callback != null) {
-					callback.onFailure(exception);
+				private void handleOnFailure(KinEcosystemException exception, final String offerId, final String orderId) {
+					if (callback != null) {
+						callback.onFailure(exception);
+					}
+					eventLogger.send(
+						EarnOrderFailed.create(exception.getMessage(), offerId, orderId, EarnOrderFailed.Origin.EXTERNAL));
 				}
-				eventLogger.send(
-					EarnOrderFailed.create(exception.getMessage(), offerId, orderId, EarnOrderFailed.Origin.EXTERNAL));
-			}
-		}).start();
+			}).start();
+	}
+
+	@Override
+	public void purchaseBatch(@NonNull List<String> offerJwts, @NonNull BatchOrderCallback callback) {
+		new ExternalOrderBatch(blockchainSource, offerJwts, ExternalOrderBatch.MAX_CONCURRENT_SPEND_ORDERS,
+			new ExternalOrderBatch.OrderStarter() {
+				@Override
+				public void start(@NonNull String offerJwt, @NonNull KinCallback<OrderConfirmation> callback) {
+					purchase(offerJwt, callback);
+				}
+			}, callback).start();
+	}
+
+	@Override
+	public void requestPaymentBatch(@NonNull List<String> offerJwts, @NonNull BatchOrderCallback callback) {
+		new ExternalOrderBatch(blockchainSource, offerJwts, ExternalOrderBatch.MAX_CONCURRENT_EARN_ORDERS,
+			new ExternalOrderBatch.OrderStarter() {
+				@Override
+				public void start(@NonNull String offerJwt, @NonNull KinCallback<OrderConfirmation> callback) {
+					requestPayment(offerJwt, callback);
+				}
+			}, callback).start();
+	}
+
+	/**
+	 * @return per stage latency of the purchase and requestPayment orders since the sdk was initialized.
+	 */
+	@NonNull
+	public ExternalOrderMetrics getExternalOrderMetrics() {
+		return externalOrderRecorder.snapshot();
 	}
 
 	private OrderConfirmation createOrderConfirmation(String confirmationJwt) {
@@ -539,13 +892,25 @@ public class OrderRepository implements OrderDataSource {
 			});
 	}
 
+	/**
+	 * Send again the order requests that ran out of retries while offline, call it when the network is back.
+	 */
+	public void replayPendingRequests() {
+		outbox.replay();
+	}
+
 	@Override
 	public void logout() {
-		cachedOrderList = null;
+		synchronized (orderHistoryLock) {
+			cachedOrderList = null;
+		}
+		localData.clearOrderHistory();
+		remoteData.cancelOrdersPolling();
+		outbox.clear();
 	}
 
-	private void decrementCount() {
+	private void decrementCount(@NonNull String orderID) {
 		decrementPendingOrdersCount();
-		decrementPaymentObserverCount();
+		blockchainSource.removePaymentObserver(orderID, completedPaymentObserver);
 	}
 }
@@ -5,18 +5,21 @@
 package com.kin.ecosystem.core.network;
 
 import android.support.annotation.StringDef;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import com.kin.ecosystem.core.network.model.Error;
 import com.kin.ecosystem.core.util.StringUtil;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Type;
 import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.SecureRandom;
@@ -54,14 +57,20 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import okhttp3.internal.http.HttpMethod;
 import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
 import okio.BufferedSink;
+import okio.ForwardingSource;
 import okio.Okio;
+import okio.Source;
 
 
 public class ApiClient {
 
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
 	private String basePath;
 
 	private boolean debugging = false;
@@ -75,6 +84,7 @@ public class ApiClient {
 	private KeyManager[] keyManagers;
 
 	private OkHttpClient.Builder httpClientBuilder;
+	private volatile OkHttpClient httpClient;
 	private JSON json;
 
 	private HttpLoggingInterceptor loggingInterceptor;
@@ -97,8 +107,7 @@ public class ApiClient {
 	 */
 	public ApiClient(final String baseUrlPath) {
 		basePath = baseUrlPath;
-		httpClientBuilder = new OkHttpClient.Builder();
-		httpClientBuilder.connectTimeout(30, TimeUnit.SECONDS);
+		httpClientBuilder = SharedHttpClient.newBuilder();
 
 		//Depends on build variants
 		setDebugging(BuildConfig.DEBUG);
@@ -134,12 +143,26 @@ public class ApiClient {
 	}
 
 	/**
-	 * Get HTTP client
+	 * Get HTTP client, built once and reused until the builder configuration changes.
 	 *
 	 * @return An instance of OkHttpClient
 	 */
 	private OkHttpClient getHttpClient() {
-		return httpClientBuilder.build();
+		OkHttpClient client = httpClient;
+		if (client == null) {
+			synchronized (this) {
+				client = httpClient;
+				if (client == null) {
+					client = httpClientBuilder.build();
+					httpClient = client;
+				}
+			}
+		}
+		return client;
+	}
+
+	private synchronized void invalidateHttpClient() {
+		httpClient = null;
 	}
 
 	/**
@@ -284,9 +307,10 @@ public class ApiClient {
 				loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
 				httpClientBuilder.addInterceptor(loggingInterceptor);
 			} else {
-				httpClientBuilder.addInterceptor(loggingInterceptor);
+				httpClientBuilder.interceptors().remove(loggingInterceptor);
 				loggingInterceptor = null;
 			}
+			invalidateHttpClient();
 		}
 		this.debugging = debugging;
 		return this;
@@ -324,6 +348,7 @@ public class ApiClient {
 	 */
 	public ApiClient setConnectTimeout(int connectionTimeout) {
 		httpClientBuilder.connectTimeout(connectionTimeout, TimeUnit.MILLISECONDS);
+		invalidateHttpClient();
 		return this;
 	}
 
@@ -537,13 +562,38 @@ public class ApiClient {
 			return (T) downloadFileFromResponse(response);
 		}
 
+		final ResponseBody body = response.body();
+		if (body == null) {
+			return null;
+		}
+
+		String contentType = response.headers().get("Content-Type");
+		if (contentType == null) {
+			// ensuring a default content type
+			contentType = "application/json";
+		}
+		if (isJsonMime(contentType) && !returnType.equals(String.class)) {
+			// Stream straight from the response source, the body is never held in memory as a string.
+			final long startMillis = System.currentTimeMillis();
+			final CountingSource source = new CountingSource(body.source());
+			try {
+				final MediaType mediaType = body.contentType();
+				final Charset charset = mediaType != null ? mediaType.charset(UTF_8) : UTF_8;
+				final T result = json.deserialize(
+					new InputStreamReader(Okio.buffer(source).inputStream(), charset), returnType);
+				recordMetrics(response, System.currentTimeMillis() - startMillis, source.getBytesRead());
+				return result;
+			} catch (JsonParseException e) {
+				// Gson wraps a read failure of the body, e.g. a socket timeout, in JsonSyntaxException
+				throw new ApiException(e);
+			} finally {
+				body.close();
+			}
+		}
+
 		String respBody;
 		try {
-			if (response.body() != null) {
-				respBody = response.body().string();
-			} else {
-				respBody = null;
-			}
+			respBody = body.string();
 		} catch (IOException e) {
 			throw new ApiException(e);
 		}
@@ -552,11 +602,6 @@ public class ApiClient {
 			return null;
 		}
 
-		String contentType = response.headers().get("Content-Type");
-		if (contentType == null) {
-			// ensuring a default content type
-			contentType = "application/json";
-		}
 		if (isJsonMime(contentType)) {
 			return json.deserialize(respBody, returnType);
 		} else if (returnType.equals(String.class)) {
@@ -571,6 +616,39 @@ public class ApiClient {
 		}
 	}
 
+	private static void recordMetrics(Response response, long parseMillis, long bytes) {
+		final Object tag = response.request().tag();
+		if (tag instanceof String) {
+			final long latencyMillis = response.receivedResponseAtMillis() - response.sentRequestAtMillis();
+			EndpointMetrics.record((String) tag, latencyMillis, parseMillis, bytes);
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the response body.
+	 */
+	private static class CountingSource extends ForwardingSource {
+
+		private long bytesRead;
+
+		CountingSource(Source delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public long read(Buffer sink, long byteCount) throws IOException {
+			final long read = super.read(sink, byteCount);
+			if (read != -1) {
+				bytesRead += read;
+			}
+			return read;
+		}
+
+		long getBytesRead() {
+			return bytesRead;
+		}
+	}
+
 	private Error deserializeError(String respBody) {
 		try {
 			return (Error) (json.deserialize(respBody, new TypeToken<Error>() {
@@ -833,7 +911,8 @@ public class ApiClient {
 
 		final String url = buildUrl(path, queryParams, collectionQueryParams);
 
-		final Request.Builder reqBuilder = new Request.Builder().url(url);
+		final Request.Builder reqBuilder = new Request.Builder().url(url)
+			.tag(EndpointMetrics.endpointKey(method, path));
 		processHeaderParams(headerParams, reqBuilder);
 
 		String contentType = headerParams.get("Content-Type");
@@ -1063,6 +1142,7 @@ public class ApiClient {
 			if (hostnameVerifier != null) {
 				httpClientBuilder.hostnameVerifier(hostnameVerifier);
 			}
+			invalidateHttpClient();
 		} catch (GeneralSecurityException e) {
 			throw new RuntimeException(e);
 		}
@@ -1080,9 +1160,11 @@ public class ApiClient {
 
 	public void addInterceptor(Interceptor interceptor) {
 		httpClientBuilder.addInterceptor(interceptor);
+		invalidateHttpClient();
 	}
 
 	public void addNetworkInterceptor(Interceptor interceptor) {
 		httpClientBuilder.addNetworkInterceptor(interceptor);
+		invalidateHttpClient();
 	}
 }
@@ -0,0 +1,135 @@
+package com.kin.ecosystem.core.network;
+
+import android.support.annotation.NonNull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per endpoint response metrics: number of responses, network latency, deserialization time
+ * and response body bytes streamed into the deserializer, which bounds what a single parse can allocate.
+ * Endpoints are keyed by method and path, with id segments collapsed, e.g. "GET /orders/{id}".
+ */
+public final class EndpointMetrics {
+
+	private static final ConcurrentHashMap<String, Stats> endpoints = new ConcurrentHashMap<>();
+
+	private EndpointMetrics() {
+	}
+
+	public static class Stats {
+
+		private long count;
+		private long totalLatencyMillis;
+		private long totalParseMillis;
+		private long totalBytes;
+		private long maxBytes;
+
+		private Stats() {
+		}
+
+		private Stats(Stats other) {
+			count = other.count;
+			totalLatencyMillis = other.totalLatencyMillis;
+			totalParseMillis = other.totalParseMillis;
+			totalBytes = other.totalBytes;
+			maxBytes = other.maxBytes;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalLatencyMillis() {
+			return totalLatencyMillis;
+		}
+
+		public long getTotalParseMillis() {
+			return totalParseMillis;
+		}
+
+		public long getTotalBytes() {
+			return totalBytes;
+		}
+
+		public long getMaxBytes() {
+			return maxBytes;
+		}
+
+		public long getAverageLatencyMillis() {
+			return count == 0 ? 0 : totalLatencyMillis / count;
+		}
+
+		public long getAverageParseMillis() {
+			return count == 0 ? 0 : totalParseMillis / count;
+		}
+
+		@Override
+		public String toString() {
+			return "count: " + count + ", avgLatencyMillis: " + getAverageLatencyMillis() + ", avgParseMillis: "
+				+ getAverageParseMillis() + ", totalBytes: " + totalBytes + ", maxBytes: " + maxBytes;
+		}
+	}
+
+	static void record(@NonNull String endpoint, long latencyMillis, long parseMillis, long bytes) {
+		Stats stats = endpoints.get(endpoint);
+		if (stats == null) {
+			final Stats newStats = new Stats();
+			stats = endpoints.putIfAbsent(endpoint, newStats);
+			if (stats == null) {
+				stats = newStats;
+			}
+		}
+		synchronized (stats) {
+			stats.count++;
+			stats.totalLatencyMillis += latencyMillis;
+			stats.totalParseMillis += parseMillis;
+			stats.totalBytes += bytes;
+			stats.maxBytes = Math.max(stats.maxBytes, bytes);
+		}
+	}
+
+	/**
+	 * @return a copy of the current metrics keyed by endpoint.
+	 */
+	public static Map<String, Stats> snapshot() {
+		final Map<String, Stats> result = new HashMap<>();
+		for (Map.Entry<String, Stats> entry : endpoints.entrySet()) {
+			final Stats stats = entry.getValue();
+			synchronized (stats) {
+				result.put(entry.getKey(), new Stats(stats));
+			}
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	public static void reset() {
+		endpoints.clear();
+	}
+
+	/**
+	 * @return the endpoint key, path segments holding digits or upper case letters are treated as ids.
+	 */
+	static String endpointKey(String method, String path) {
+		final StringBuilder key = new StringBuilder(method).append(' ');
+		final String[] segments = path.split("/");
+		for (int i = 0; i < segments.length; i++) {
+			if (i > 0) {
+				key.append('/');
+			}
+			key.append(isId(segments[i]) ? "{id}" : segments[i]);
+		}
+		return key.toString();
+	}
+
+	private static boolean isId(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			final char c = segment.charAt(i);
+			if (Character.isDigit(c) || Character.isUpperCase(c)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
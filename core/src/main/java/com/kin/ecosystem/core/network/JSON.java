@@ -23,6 +23,7 @@ import com.google.gson.stream.JsonWriter;
 
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.text.DateFormat;
@@ -40,6 +41,7 @@ public class JSON {
         gson = new GsonBuilder()
             .registerTypeAdapter(Date.class, dateTypeAdapter)
             .registerTypeAdapter(java.sql.Date.class, sqlDateTypeAdapter)
+            .registerTypeAdapterFactory(ModelTypeAdapters.FACTORY)
             .create();
     }
 
@@ -106,6 +108,28 @@ public class JSON {
         }
     }
 
+    /**
+     * Deserialize JSON read from the given reader, without buffering the whole document.
+     * An empty document returns null.
+     *
+     * @param <T>        Type
+     * @param reader     The JSON source, closed when done
+     * @param returnType The type to deserialize into
+     * @return The deserialized Java object
+     */
+    public <T> T deserialize(Reader reader, Type returnType) {
+        JsonReader jsonReader = new JsonReader(reader);
+        jsonReader.setLenient(isLenientOnJson);
+        try {
+            return gson.fromJson(jsonReader, returnType);
+        } finally {
+            try {
+                jsonReader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
     /**
      * Gson TypeAdapter for java.sql.Date type
      * If the dateFormat is null, a simple "yyyy-MM-dd" format will be used
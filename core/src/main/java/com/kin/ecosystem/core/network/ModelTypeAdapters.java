@@ -0,0 +1,391 @@
+package com.kin.ecosystem.core.network;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kin.ecosystem.core.network.model.BlockchainData;
+import com.kin.ecosystem.core.network.model.Error;
+import com.kin.ecosystem.core.network.model.Offer;
+import com.kin.ecosystem.core.network.model.Offer.ContentTypeEnum;
+import com.kin.ecosystem.core.network.model.Offer.OfferType;
+import com.kin.ecosystem.core.network.model.OfferList;
+import com.kin.ecosystem.core.network.model.Order;
+import com.kin.ecosystem.core.network.model.Order.Origin;
+import com.kin.ecosystem.core.network.model.Order.Status;
+import com.kin.ecosystem.core.network.model.OrderList;
+import com.kin.ecosystem.core.network.model.OrderSpendResult;
+import com.kin.ecosystem.core.network.model.Paging;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand written adapters for the models returned in large lists (offers and order history pages),
+ * so reading them doesn't go through reflection per field.
+ * Field names and null handling match the reflective adapters, so persisted json stays compatible.
+ */
+final class ModelTypeAdapters {
+
+	private ModelTypeAdapters() {
+	}
+
+	static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+			final Class<? super T> rawType = type.getRawType();
+			if (rawType == Offer.class) {
+				return (TypeAdapter<T>) new OfferAdapter(gson);
+			} else if (rawType == Order.class) {
+				return (TypeAdapter<T>) new OrderAdapter(gson);
+			} else if (rawType == OfferList.class) {
+				return (TypeAdapter<T>) new OfferListAdapter(gson);
+			} else if (rawType == OrderList.class) {
+				return (TypeAdapter<T>) new OrderListAdapter(gson);
+			}
+			return null;
+		}
+	};
+
+	private static class OfferAdapter extends TypeAdapter<Offer> {
+
+		private final TypeAdapter<BlockchainData> blockchainDataAdapter;
+		private final TypeAdapter<OfferType> offerTypeAdapter = new OfferType.Adapter();
+		private final TypeAdapter<ContentTypeEnum> contentTypeAdapter = new ContentTypeEnum.Adapter();
+
+		OfferAdapter(Gson gson) {
+			blockchainDataAdapter = gson.getAdapter(BlockchainData.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, Offer offer) throws IOException {
+			if (offer == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			writeString(out, "id", offer.getId());
+			writeString(out, "title", offer.getTitle());
+			writeString(out, "description", offer.getDescription());
+			writeString(out, "image", offer.getImage());
+			writeNumber(out, "amount", offer.getAmount());
+			writeValue(out, "offer_type", offer.getOfferType(), offerTypeAdapter);
+			writeValue(out, "content_type", offer.getContentType(), contentTypeAdapter);
+			writeString(out, "content", offer.getContent());
+			writeValue(out, "blockchain_data", offer.getBlockchainData(), blockchainDataAdapter);
+			out.endObject();
+		}
+
+		@Override
+		public Offer read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			final Offer offer = new Offer();
+			in.beginObject();
+			while (in.hasNext()) {
+				final String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					continue;
+				}
+				switch (name) {
+					case "id":
+						offer.setId(in.nextString());
+						break;
+					case "title":
+						offer.setTitle(in.nextString());
+						break;
+					case "description":
+						offer.setDescription(in.nextString());
+						break;
+					case "image":
+						offer.setImage(in.nextString());
+						break;
+					case "amount":
+						offer.setAmount(in.nextInt());
+						break;
+					case "offer_type":
+						offer.setOfferType(offerTypeAdapter.read(in));
+						break;
+					case "content_type":
+						offer.setContentType(contentTypeAdapter.read(in));
+						break;
+					case "content":
+						offer.setContent(in.nextString());
+						break;
+					case "blockchain_data":
+						offer.setBlockchainData(blockchainDataAdapter.read(in));
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			return offer;
+		}
+	}
+
+	private static class OrderAdapter extends TypeAdapter<Order> {
+
+		private final TypeAdapter<BlockchainData> blockchainDataAdapter;
+		private final TypeAdapter<OrderSpendResult> resultAdapter;
+		private final TypeAdapter<Error> errorAdapter;
+		private final TypeAdapter<Status> statusAdapter = new Status.Adapter();
+		private final TypeAdapter<Origin> originAdapter = new Origin.Adapter();
+		private final TypeAdapter<OfferType> offerTypeAdapter = new OfferType.Adapter();
+
+		OrderAdapter(Gson gson) {
+			blockchainDataAdapter = gson.getAdapter(BlockchainData.class);
+			resultAdapter = gson.getAdapter(OrderSpendResult.class);
+			errorAdapter = gson.getAdapter(Error.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, Order order) throws IOException {
+			if (order == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			writeValue(out, "result", order.getResult(), resultAdapter);
+			writeString(out, "content", order.getContent());
+			writeValue(out, "origin", order.getOrigin(), originAdapter);
+			writeValue(out, "status", order.getStatus(), statusAdapter);
+			writeString(out, "id", order.getOrderId());
+			writeString(out, "offer_id", order.getOfferId());
+			writeString(out, "completion_date", order.getCompletionDate());
+			writeValue(out, "blockchain_data", order.getBlockchainData(), blockchainDataAdapter);
+			writeValue(out, "offer_type", order.getOfferType(), offerTypeAdapter);
+			writeString(out, "title", order.getTitle());
+			writeString(out, "description", order.getDescription());
+			writeString(out, "call_to_action", order.getCallToAction());
+			writeNumber(out, "amount", order.getAmount());
+			writeValue(out, "error", order.getError(), errorAdapter);
+			out.endObject();
+		}
+
+		@Override
+		public Order read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			final Order order = new Order();
+			in.beginObject();
+			while (in.hasNext()) {
+				final String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					continue;
+				}
+				switch (name) {
+					case "result":
+						order.setResult(resultAdapter.read(in));
+						break;
+					case "content":
+						order.content(in.nextString());
+						break;
+					case "origin":
+						order.setOrigin(originAdapter.read(in));
+						break;
+					case "status":
+						order.setStatus(statusAdapter.read(in));
+						break;
+					case "id":
+						order.setOrderId(in.nextString());
+						break;
+					case "offer_id":
+						order.offerId(in.nextString());
+						break;
+					case "completion_date":
+						order.setCompletionDate(in.nextString());
+						break;
+					case "blockchain_data":
+						order.setBlockchainData(blockchainDataAdapter.read(in));
+						break;
+					case "offer_type":
+						order.setOfferType(offerTypeAdapter.read(in));
+						break;
+					case "title":
+						order.setTitle(in.nextString());
+						break;
+					case "description":
+						order.setDescription(in.nextString());
+						break;
+					case "call_to_action":
+						order.setCallToAction(in.nextString());
+						break;
+					case "amount":
+						order.setAmount(in.nextInt());
+						break;
+					case "error":
+						order.error(errorAdapter.read(in));
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			return order;
+		}
+	}
+
+	private static class OfferListAdapter extends TypeAdapter<OfferList> {
+
+		private final TypeAdapter<Offer> offerAdapter;
+		private final TypeAdapter<Paging> pagingAdapter;
+
+		OfferListAdapter(Gson gson) {
+			offerAdapter = gson.getAdapter(Offer.class);
+			pagingAdapter = gson.getAdapter(Paging.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, OfferList offerList) throws IOException {
+			if (offerList == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			writeList(out, "offers", offerList.getOffers(), offerAdapter);
+			writeValue(out, "paging", offerList.getPaging(), pagingAdapter);
+			out.endObject();
+		}
+
+		@Override
+		public OfferList read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			// Match the reflective adapter, which leaves the offers list the default constructor created when absent.
+			final OfferList offerList = new OfferList();
+			in.beginObject();
+			while (in.hasNext()) {
+				final String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					if ("offers".equals(name)) {
+						offerList.setOffers(null);
+					}
+					continue;
+				}
+				switch (name) {
+					case "offers":
+						offerList.setOffers(readList(in, offerAdapter));
+						break;
+					case "paging":
+						offerList.setPaging(pagingAdapter.read(in));
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			return offerList;
+		}
+	}
+
+	private static class OrderListAdapter extends TypeAdapter<OrderList> {
+
+		private final TypeAdapter<Order> orderAdapter;
+		private final TypeAdapter<Paging> pagingAdapter;
+
+		OrderListAdapter(Gson gson) {
+			orderAdapter = gson.getAdapter(Order.class);
+			pagingAdapter = gson.getAdapter(Paging.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, OrderList orderList) throws IOException {
+			if (orderList == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			writeList(out, "orders", orderList.getOrders(), orderAdapter);
+			writeValue(out, "paging", orderList.getPaging(), pagingAdapter);
+			out.endObject();
+		}
+
+		@Override
+		public OrderList read(JsonReader in) throws IOException {
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				return null;
+			}
+			final OrderList orderList = new OrderList();
+			in.beginObject();
+			while (in.hasNext()) {
+				final String name = in.nextName();
+				if (in.peek() == JsonToken.NULL) {
+					in.nextNull();
+					continue;
+				}
+				switch (name) {
+					case "orders":
+						orderList.setOrders(readList(in, orderAdapter));
+						break;
+					case "paging":
+						orderList.setPaging(pagingAdapter.read(in));
+						break;
+					default:
+						in.skipValue();
+						break;
+				}
+			}
+			in.endObject();
+			return orderList;
+		}
+	}
+
+	private static void writeString(JsonWriter out, String name, String value) throws IOException {
+		if (value != null) {
+			out.name(name).value(value);
+		}
+	}
+
+	private static void writeNumber(JsonWriter out, String name, Number value) throws IOException {
+		if (value != null) {
+			out.name(name).value(value);
+		}
+	}
+
+	private static <V> void writeValue(JsonWriter out, String name, V value, TypeAdapter<V> adapter)
+		throws IOException {
+		if (value != null) {
+			out.name(name);
+			adapter.write(out, value);
+		}
+	}
+
+	private static <V> void writeList(JsonWriter out, String name, List<V> values, TypeAdapter<V> adapter)
+		throws IOException {
+		if (values != null) {
+			out.name(name).beginArray();
+			for (V value : values) {
+				adapter.write(out, value);
+			}
+			out.endArray();
+		}
+	}
+
+	private static <V> List<V> readList(JsonReader in, TypeAdapter<V> adapter) throws IOException {
+		final List<V> values = new ArrayList<>();
+		in.beginArray();
+		while (in.hasNext()) {
+			values.add(adapter.read(in));
+		}
+		in.endArray();
+		return values;
+	}
+}
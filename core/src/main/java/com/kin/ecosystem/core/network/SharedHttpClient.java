@@ -0,0 +1,161 @@
+package com.kin.ecosystem.core.network;
+
+import android.support.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Holds the single {@link OkHttpClient} all {@link ApiClient} instances derive from.
+ * Clients created with {@link #newBuilder()} share the same {@link ConnectionPool} and {@link Dispatcher},
+ * so TLS connections and HTTP/2 streams are reused across the different APIs.
+ * When a {@link Cache} is set, only responses to requests that send a Cache-Control header are stored,
+ * so endpoints opt in to caching explicitly (e.g. the offers list) and polled endpoints never hit the disk.
+ */
+public final class SharedHttpClient {
+
+	public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+	public static final long DEFAULT_KEEP_ALIVE_MINUTES = 5;
+	public static final int DEFAULT_MAX_REQUESTS = 64;
+	public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 10;
+	private static final long CONNECT_TIMEOUT_SECONDS = 30;
+	private static final String CACHE_CONTROL = "Cache-Control";
+
+	private static volatile OkHttpClient client;
+
+	private static int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+	private static long keepAliveDurationMillis = TimeUnit.MINUTES.toMillis(DEFAULT_KEEP_ALIVE_MINUTES);
+	private static int maxRequests = DEFAULT_MAX_REQUESTS;
+	private static int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+	@Nullable
+	private static Cache cache;
+
+	private static final Interceptor OPT_IN_CACHE_INTERCEPTOR = new Interceptor() {
+		@Override
+		public Response intercept(Chain chain) throws IOException {
+			final Request request = chain.request();
+			final Response response = chain.proceed(request);
+			if (request.header(CACHE_CONTROL) == null) {
+				return response.newBuilder().header(CACHE_CONTROL, "no-store").build();
+			}
+			return response;
+		}
+	};
+
+	private SharedHttpClient() {
+	}
+
+	/**
+	 * Configure the shared connection pool.
+	 * Should be called before any API call was made, clients that were already built keep the previous pool.
+	 *
+	 * @param maxIdleConnections maximum number of idle connections to keep per pool
+	 * @param keepAliveDuration how long an idle connection is kept alive
+	 * @param timeUnit unit of keepAliveDuration
+	 */
+	public static synchronized void setConnectionPool(int maxIdleConnections, long keepAliveDuration,
+		TimeUnit timeUnit) {
+		SharedHttpClient.maxIdleConnections = maxIdleConnections;
+		SharedHttpClient.keepAliveDurationMillis = timeUnit.toMillis(keepAliveDuration);
+		client = null;
+	}
+
+	/**
+	 * Configure the shared dispatcher concurrency, applied immediately to all clients.
+	 *
+	 * @param maxRequests maximum number of requests executing concurrently
+	 * @param maxRequestsPerHost maximum number of requests executing concurrently per host
+	 */
+	public static synchronized void setDispatcherConcurrency(int maxRequests, int maxRequestsPerHost) {
+		SharedHttpClient.maxRequests = maxRequests;
+		SharedHttpClient.maxRequestsPerHost = maxRequestsPerHost;
+		if (client != null) {
+			client.dispatcher().setMaxRequests(maxRequests);
+			client.dispatcher().setMaxRequestsPerHost(maxRequestsPerHost);
+		}
+	}
+
+	/**
+	 * Set the shared disk cache, should be called before any API call was made.
+	 *
+	 * @param cache the cache, or null to disable caching
+	 */
+	public static synchronized void setCache(@Nullable Cache cache) {
+		SharedHttpClient.cache = cache;
+		client = null;
+	}
+
+	/**
+	 * Set a shared disk cache in the given directory, should be called before any API call was made.
+	 *
+	 * @param directory cache directory, e.g. under the app cache dir
+	 * @param maxSizeBytes maximum size of the cache
+	 */
+	public static void setCacheDirectory(File directory, long maxSizeBytes) {
+		setCache(new Cache(directory, maxSizeBytes));
+	}
+
+	@Nullable
+	public static Cache getCache() {
+		return cache;
+	}
+
+	public static int getMaxIdleConnections() {
+		return maxIdleConnections;
+	}
+
+	public static long getKeepAliveDurationMillis() {
+		return keepAliveDurationMillis;
+	}
+
+	public static int getMaxRequests() {
+		return maxRequests;
+	}
+
+	public static int getMaxRequestsPerHost() {
+		return maxRequestsPerHost;
+	}
+
+	/**
+	 * @return the shared base client
+	 */
+	public static OkHttpClient getInstance() {
+		OkHttpClient result = client;
+		if (result == null) {
+			synchronized (SharedHttpClient.class) {
+				result = client;
+				if (result == null) {
+					Dispatcher dispatcher = new Dispatcher();
+					dispatcher.setMaxRequests(maxRequests);
+					dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+					OkHttpClient.Builder builder = new OkHttpClient.Builder()
+						.connectionPool(
+							new ConnectionPool(maxIdleConnections, keepAliveDurationMillis, TimeUnit.MILLISECONDS))
+						.dispatcher(dispatcher)
+						.connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+					if (cache != null) {
+						builder.cache(cache)
+							.addNetworkInterceptor(OPT_IN_CACHE_INTERCEPTOR);
+					}
+					result = builder.build();
+					client = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return a builder sharing the connection pool and dispatcher of the shared client
+	 */
+	public static OkHttpClient.Builder newBuilder() {
+		return getInstance().newBuilder();
+	}
+}
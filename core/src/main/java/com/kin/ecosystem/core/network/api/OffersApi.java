@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import okhttp3.CacheControl;
 import okhttp3.Call;
 
 
@@ -29,6 +30,21 @@ public class OffersApi extends Api {
      * @throws ApiException If fail to serialize the request body object
      */
     public Call getOffersCall(String X_REQUEST_ID, Integer limit, String after, String before) throws ApiException {
+        return getOffersCall(X_REQUEST_ID, limit, after, before, null);
+    }
+
+    /**
+     * Build call for getOffers
+     *
+     * @param X_REQUEST_ID            A unique id for the request. A retransmitted request will have the same id  (required)
+     * @param limit                   maximum number of items in a list (optional)
+     * @param after                   cursor that points to the end of the page of data that has been returned (optional)
+     * @param before                  cursor that points to the start of the page of data that has been returned (optional)
+     * @param cacheControl            how the HTTP cache should be used, null to skip the cache (optional)
+     * @return Call to execute
+     * @throws ApiException If fail to serialize the request body object
+     */
+    public Call getOffersCall(String X_REQUEST_ID, Integer limit, String after, String before, CacheControl cacheControl) throws ApiException {
         Object localVarPostBody = null;
 
         // create path and map variables
@@ -46,6 +62,8 @@ public class OffersApi extends Api {
         Map<String, String> localVarHeaderParams = new HashMap<String, String>();
         if (X_REQUEST_ID != null)
             localVarHeaderParams.put("X-REQUEST-ID", apiClient.parameterToString(X_REQUEST_ID));
+        if (cacheControl != null)
+            localVarHeaderParams.put("Cache-Control", cacheControl.toString());
 
         Map<String, Object> localVarFormParams = new HashMap<String, Object>();
 
@@ -66,7 +84,7 @@ public class OffersApi extends Api {
     }
 
     @SuppressWarnings("rawtypes")
-    private Call getOffersValidateBeforeCall(String X_REQUEST_ID, Integer limit, String after, String before) throws ApiException {
+    private Call getOffersValidateBeforeCall(String X_REQUEST_ID, Integer limit, String after, String before, CacheControl cacheControl) throws ApiException {
 
 
         // verify the required parameter 'X_REQUEST_ID' is set
@@ -74,7 +92,7 @@ public class OffersApi extends Api {
             throw new ApiException("Missing the required parameter 'X_REQUEST_ID' when calling getOffers(Async)");
         }
 
-        return getOffersCall(X_REQUEST_ID, limit, after, before);
+        return getOffersCall(X_REQUEST_ID, limit, after, before, cacheControl);
 
 
     }
@@ -107,7 +125,7 @@ public class OffersApi extends Api {
      * @throws ApiException If fail to call the API, e.g. server error or cannot deserialize the response body
      */
     public ApiResponse<OfferList> getOffersWithHttpInfo(String X_REQUEST_ID, Integer limit, String after, String before) throws ApiException {
-        Call call = getOffersValidateBeforeCall(X_REQUEST_ID, limit, after, before);
+        Call call = getOffersValidateBeforeCall(X_REQUEST_ID, limit, after, before, null);
         Type localVarReturnType = new TypeToken<OfferList>() {
         }.getType();
         return apiClient.execute(call, localVarReturnType);
@@ -126,8 +144,25 @@ public class OffersApi extends Api {
      * @throws ApiException If fail to process the API call, e.g. serializing the request body object
      */
     public Call getOffersAsync(String X_REQUEST_ID, Integer limit, String after, String before, final ApiCallback<OfferList> callback) throws ApiException {
+        return getOffersAsync(X_REQUEST_ID, limit, after, before, null, callback);
+    }
+
+    /**
+     * Return a list of offers (asynchronously)
+     * Return a **list** of offers
+     *
+     * @param X_REQUEST_ID A unique id for the request. A retransmitted request will have the same id  (required)
+     * @param limit        maximum number of items in a list (optional)
+     * @param after        cursor that points to the end of the page of data that has been returned (optional)
+     * @param before       cursor that points to the start of the page of data that has been returned (optional)
+     * @param cacheControl how the HTTP cache should be used, null to skip the cache (optional)
+     * @param callback     The callback to be executed when the API call finishes
+     * @return The request call
+     * @throws ApiException If fail to process the API call, e.g. serializing the request body object
+     */
+    public Call getOffersAsync(String X_REQUEST_ID, Integer limit, String after, String before, CacheControl cacheControl, final ApiCallback<OfferList> callback) throws ApiException {
 
-        Call call = getOffersValidateBeforeCall(X_REQUEST_ID, limit, after, before);
+        Call call = getOffersValidateBeforeCall(X_REQUEST_ID, limit, after, before, cacheControl);
         Type localVarReturnType = new TypeToken<OfferList>() {
         }.getType();
         apiClient.executeAsync(call, localVarReturnType, callback);
@@ -374,6 +374,11 @@ public class Order {
         return content;
     }
 
+    public Order content(String content) {
+        this.content = content;
+        return this;
+    }
+
     public Order error(Error error) {
         this.error = error;
         return this;
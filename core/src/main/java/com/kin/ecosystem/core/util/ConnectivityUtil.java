@@ -0,0 +1,42 @@
+package com.kin.ecosystem.core.util;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.support.annotation.NonNull;
+
+public class ConnectivityUtil {
+
+	private ConnectivityUtil() {
+	}
+
+	/**
+	 * Run the listener on the main thread every time the device gets connected to a network.
+	 * Registered with the application context, for the lifetime of the process.
+	 */
+	public static void registerOnConnected(@NonNull Context context, @NonNull final Runnable listener) {
+		final Context appContext = context.getApplicationContext();
+		appContext.registerReceiver(new BroadcastReceiver() {
+			@Override
+			public void onReceive(Context context, Intent intent) {
+				// The sticky broadcast delivered on register is the current state, not a change.
+				if (!isInitialStickyBroadcast() && isConnected(context)) {
+					listener.run();
+				}
+			}
+		}, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+	}
+
+	public static boolean isConnected(@NonNull Context context) {
+		final ConnectivityManager connectivityManager = (ConnectivityManager) context
+			.getSystemService(Context.CONNECTIVITY_SERVICE);
+		if (connectivityManager == null) {
+			return false;
+		}
+		final NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+		return networkInfo != null && networkInfo.isConnected();
+	}
+}
@@ -37,13 +37,16 @@ public class ErrorUtil {
 
 
 	// Server Error codes
+	private static final int ERROR_CODE_NO_RESPONSE = 0;
 	private static final int ERROR_CODE_BAD_REQUEST = 400;
 	private static final int ERROR_CODE_UNAUTHORIZED = 401;
 	private static final int ERROR_CODE_NOT_FOUND = 404;
 	private static final int ERROR_CODE_REQUEST_TIMEOUT = 408;
 	public static final int ERROR_CODE_CONFLICT = 409;
 	private static final int ERROR_CODE_GONE = 410;
+	private static final int ERROR_CODE_TOO_MANY_REQUESTS = 429;
 	private static final int ERROR_CODE_INTERNAL_SERVER_ERROR = 500;
+	private static final int ERROR_CODE_MAX_SERVER_ERROR = 599;
 	private static final int ERROR_CODE_TRANSACTION_FAILED_ERROR = 700;
 
 	private static final int ERROR_CODE_NO_SUCH_USER = 4046;
@@ -126,6 +129,20 @@ public class ErrorUtil {
 			? throwable.getCause().getMessage() : defaultMsg ;
 	}
 
+	/**
+	 * @return true if the same request can succeed when sent again: no response (e.g. IO error), 408, 429 or 5xx.
+	 * A 500 with an error body is an error reported by the ecosystem server, e.g. a failed order, and is final.
+	 */
+	public static boolean isRetriable(ApiException apiException) {
+		final int code = apiException.getCode();
+		if (code == ERROR_CODE_INTERNAL_SERVER_ERROR) {
+			return apiException.getResponseBody() == null;
+		}
+		return code == ERROR_CODE_NO_RESPONSE || code == ERROR_CODE_REQUEST_TIMEOUT
+			|| code == ERROR_CODE_TOO_MANY_REQUESTS
+			|| (code > ERROR_CODE_INTERNAL_SERVER_ERROR && code <= ERROR_CODE_MAX_SERVER_ERROR);
+	}
+
 	public static ApiException createOrderTimeoutException() {
 		final String errorTitle = "Time out";
 		final String errorMsg = "order timed out";
@@ -0,0 +1,92 @@
+package com.kin.ecosystem.core.util;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Snapshot of a {@link SharedExecutors} lane: current pool size, running and queued tasks,
+ * and for completed tasks the time spent waiting in the queue and running.
+ */
+public final class ExecutorMetrics {
+
+	private final String name;
+	private final int poolSize;
+	private final int activeCount;
+	private final int queueDepth;
+	private final int maxQueueDepth;
+	private final long taskCount;
+	private final long totalWaitMillis;
+	private final long maxWaitMillis;
+	private final long totalRunMillis;
+	private final long maxRunMillis;
+
+	ExecutorMetrics(@NonNull String name, int poolSize, int activeCount, int queueDepth, int maxQueueDepth,
+		long taskCount, long totalWaitMillis, long maxWaitMillis, long totalRunMillis, long maxRunMillis) {
+		this.name = name;
+		this.poolSize = poolSize;
+		this.activeCount = activeCount;
+		this.queueDepth = queueDepth;
+		this.maxQueueDepth = maxQueueDepth;
+		this.taskCount = taskCount;
+		this.totalWaitMillis = totalWaitMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.totalRunMillis = totalRunMillis;
+		this.maxRunMillis = maxRunMillis;
+	}
+
+	@NonNull
+	public String getName() {
+		return name;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public int getActiveCount() {
+		return activeCount;
+	}
+
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	public long getTaskCount() {
+		return taskCount;
+	}
+
+	public long getTotalWaitMillis() {
+		return totalWaitMillis;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public long getTotalRunMillis() {
+		return totalRunMillis;
+	}
+
+	public long getMaxRunMillis() {
+		return maxRunMillis;
+	}
+
+	public long getAverageWaitMillis() {
+		return taskCount == 0 ? 0 : totalWaitMillis / taskCount;
+	}
+
+	public long getAverageRunMillis() {
+		return taskCount == 0 ? 0 : totalRunMillis / taskCount;
+	}
+
+	@Override
+	public String toString() {
+		return name + " poolSize: " + poolSize + ", active: " + activeCount + ", queued: " + queueDepth
+			+ ", maxQueued: " + maxQueueDepth + ", tasks: " + taskCount + ", avgWaitMillis: " + getAverageWaitMillis()
+			+ ", maxWaitMillis: " + maxWaitMillis + ", avgRunMillis: " + getAverageRunMillis() + ", maxRunMillis: "
+			+ maxRunMillis;
+	}
+}
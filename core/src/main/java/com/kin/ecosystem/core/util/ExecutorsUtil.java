@@ -4,23 +4,33 @@ import android.os.Handler;
 import android.os.Looper;
 import android.support.annotation.NonNull;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 public class ExecutorsUtil {
 
+    private final SharedExecutors executors;
+
     private final Executor diskIO;
 
     private final Executor mainThread;
 
-    ExecutorsUtil(Executor diskIO, Executor mainThread) {
+    ExecutorsUtil(SharedExecutors executors, Executor diskIO, Executor mainThread) {
+        this.executors = executors;
         this.diskIO = diskIO;
         this.mainThread = mainThread;
     }
 
+    ExecutorsUtil(SharedExecutors executors) {
+        this(executors, SharedExecutors.serial(executors.io()), new MainThreadExecutor());
+    }
+
     public ExecutorsUtil() {
-        this(new DiskIOThreadExecutor(), new MainThreadExecutor());
+        this(SharedExecutors.getInstance());
     }
 
+    /**
+     * Disk tasks run one at a time in submission order, on the shared io threads.
+     */
     public Executor diskIO() {
         return diskIO;
     }
@@ -29,6 +39,22 @@ public class ExecutorsUtil {
         return mainThread;
     }
 
+    public Executor io() {
+        return executors.io();
+    }
+
+    public Executor cpu() {
+        return executors.cpu();
+    }
+
+    public Executor orders() {
+        return executors.orders();
+    }
+
+    public ScheduledExecutorService scheduled() {
+        return executors.scheduled();
+    }
+
     public static class MainThreadExecutor implements Executor {
 
         private Handler handler = new Handler(Looper.getMainLooper());
@@ -48,18 +74,4 @@ public class ExecutorsUtil {
             }
         }
     }
-
-    private static class DiskIOThreadExecutor implements Executor {
-
-        private final Executor diskIO;
-
-        DiskIOThreadExecutor() {
-            diskIO = Executors.newSingleThreadExecutor();
-        }
-
-        @Override
-        public void execute(@NonNull Runnable command) {
-            diskIO.execute(command);
-        }
-    }
 }
@@ -0,0 +1,322 @@
+package com.kin.ecosystem.core.util;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bounded thread pools background work in the sdk runs on, instead of threads per call.
+ * <ul>
+ * <li>{@link #io()} blocking network and disk work.</li>
+ * <li>{@link #cpu()} computation, e.g. parsing and diffing.</li>
+ * <li>{@link #orders()} user facing order flows, separate threads at default priority
+ * so they never queue behind background work.</li>
+ * <li>{@link #scheduled()} delayed and periodic tasks, which should be short or hop to another lane.</li>
+ * </ul>
+ * Idle threads time out, and each lane records queue depth and task wait and run time, see {@link #getMetrics()}.
+ */
+public final class SharedExecutors {
+
+	public static final int DEFAULT_IO_THREADS = 4;
+	public static final int DEFAULT_ORDER_THREADS = 2;
+	public static final int DEFAULT_SCHEDULED_THREADS = 2;
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	private static volatile SharedExecutors instance;
+
+	private final MonitoredThreadPool io;
+	private final MonitoredThreadPool cpu;
+	private final MonitoredThreadPool orders;
+	private final MonitoredScheduledPool scheduled;
+
+	SharedExecutors(int ioThreads, int cpuThreads, int orderThreads, int scheduledThreads) {
+		io = new MonitoredThreadPool("IO", ioThreads, Process.THREAD_PRIORITY_BACKGROUND);
+		cpu = new MonitoredThreadPool("CPU", cpuThreads, Process.THREAD_PRIORITY_BACKGROUND);
+		orders = new MonitoredThreadPool("Orders", orderThreads, Process.THREAD_PRIORITY_DEFAULT);
+		scheduled = new MonitoredScheduledPool("Scheduled", scheduledThreads);
+	}
+
+	public static SharedExecutors getInstance() {
+		if (instance == null) {
+			synchronized (SharedExecutors.class) {
+				if (instance == null) {
+					instance = new SharedExecutors(DEFAULT_IO_THREADS, defaultCpuThreads(), DEFAULT_ORDER_THREADS,
+						DEFAULT_SCHEDULED_THREADS);
+				}
+			}
+		}
+		return instance;
+	}
+
+	private static int defaultCpuThreads() {
+		return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+	}
+
+	@NonNull
+	public Executor io() {
+		return io;
+	}
+
+	@NonNull
+	public Executor cpu() {
+		return cpu;
+	}
+
+	@NonNull
+	public Executor orders() {
+		return orders;
+	}
+
+	@NonNull
+	public ScheduledExecutorService scheduled() {
+		return scheduled;
+	}
+
+	/**
+	 * @return executor running its tasks one at a time in submission order, on threads of the given executor.
+	 */
+	@NonNull
+	public static Executor serial(@NonNull Executor executor) {
+		return new SerialExecutor(executor);
+	}
+
+	/**
+	 * Cap the number of threads of each lane, applied immediately.
+	 */
+	public void setMaxThreads(int ioThreads, int cpuThreads, int orderThreads) {
+		io.resize(ioThreads);
+		cpu.resize(cpuThreads);
+		orders.resize(orderThreads);
+	}
+
+	/**
+	 * @return metrics of the io, cpu, orders and scheduled lanes.
+	 */
+	@NonNull
+	public List<ExecutorMetrics> getMetrics() {
+		final List<ExecutorMetrics> metrics = new ArrayList<>(4);
+		metrics.add(io.recorder.snapshot(io));
+		metrics.add(cpu.recorder.snapshot(cpu));
+		metrics.add(orders.recorder.snapshot(orders));
+		metrics.add(scheduled.recorder.snapshot(scheduled));
+		return metrics;
+	}
+
+	public void resetMetrics() {
+		io.recorder.reset();
+		cpu.recorder.reset();
+		orders.recorder.reset();
+		scheduled.recorder.reset();
+	}
+
+	private static class Recorder {
+
+		private final String name;
+		private int maxQueueDepth;
+		private long taskCount;
+		private long totalWaitMillis;
+		private long maxWaitMillis;
+		private long totalRunMillis;
+		private long maxRunMillis;
+
+		Recorder(String name) {
+			this.name = name;
+		}
+
+		synchronized void onQueued(int queueDepth) {
+			maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+		}
+
+		synchronized void record(long waitMillis, long runMillis) {
+			taskCount++;
+			totalWaitMillis += waitMillis;
+			maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+			totalRunMillis += runMillis;
+			maxRunMillis = Math.max(maxRunMillis, runMillis);
+		}
+
+		synchronized ExecutorMetrics snapshot(ThreadPoolExecutor pool) {
+			return new ExecutorMetrics(name, pool.getPoolSize(), pool.getActiveCount(), pool.getQueue().size(),
+				maxQueueDepth, taskCount, totalWaitMillis, maxWaitMillis, totalRunMillis, maxRunMillis);
+		}
+
+		synchronized void reset() {
+			maxQueueDepth = 0;
+			taskCount = 0;
+			totalWaitMillis = 0;
+			maxWaitMillis = 0;
+			totalRunMillis = 0;
+			maxRunMillis = 0;
+		}
+	}
+
+	private static class TimedRunnable implements Runnable {
+
+		private static final long NOT_MEASURED = -1;
+
+		private final Runnable command;
+		private final Recorder recorder;
+		private final long readyAt;
+
+		/**
+		 * @param readyAt when the task could have started, {@link #NOT_MEASURED} for periodic tasks.
+		 */
+		TimedRunnable(Runnable command, Recorder recorder, long readyAt) {
+			this.command = command;
+			this.recorder = recorder;
+			this.readyAt = readyAt;
+		}
+
+		@Override
+		public void run() {
+			final long start = SystemClock.elapsedRealtime();
+			try {
+				command.run();
+			} finally {
+				final long wait = readyAt == NOT_MEASURED ? 0 : Math.max(0, start - readyAt);
+				recorder.record(wait, SystemClock.elapsedRealtime() - start);
+			}
+		}
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String name;
+		private final int priority;
+		private final AtomicInteger count = new AtomicInteger();
+
+		NamedThreadFactory(String name, int priority) {
+			this.name = name;
+			this.priority = priority;
+		}
+
+		@Override
+		public Thread newThread(@NonNull final Runnable runnable) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Process.setThreadPriority(priority);
+					runnable.run();
+				}
+			}, "KinEcosystem-" + name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	private static class MonitoredThreadPool extends ThreadPoolExecutor {
+
+		private final Recorder recorder;
+
+		MonitoredThreadPool(String name, int threads, int priority) {
+			super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new NamedThreadFactory(name, priority));
+			this.recorder = new Recorder(name);
+			allowCoreThreadTimeOut(true);
+		}
+
+		@Override
+		public void execute(@NonNull Runnable command) {
+			super.execute(new TimedRunnable(command, recorder, SystemClock.elapsedRealtime()));
+			recorder.onQueued(getQueue().size());
+		}
+
+		synchronized void resize(int threads) {
+			if (threads > getMaximumPoolSize()) {
+				setMaximumPoolSize(threads);
+				setCorePoolSize(threads);
+			} else {
+				setCorePoolSize(threads);
+				setMaximumPoolSize(threads);
+			}
+		}
+	}
+
+	/**
+	 * Wait time of a delayed task is measured from when it was due.
+	 */
+	private static class MonitoredScheduledPool extends ScheduledThreadPoolExecutor {
+
+		private final Recorder recorder;
+
+		MonitoredScheduledPool(String name, int threads) {
+			super(threads, new NamedThreadFactory(name, Process.THREAD_PRIORITY_BACKGROUND));
+			this.recorder = new Recorder(name);
+			setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+			allowCoreThreadTimeOut(true);
+			setRemoveOnCancelPolicy(true);
+		}
+
+		@NonNull
+		@Override
+		public ScheduledFuture<?> schedule(@NonNull Runnable command, long delay, @NonNull TimeUnit unit) {
+			final long readyAt = SystemClock.elapsedRealtime() + Math.max(0, unit.toMillis(delay));
+			final ScheduledFuture<?> future = super.schedule(new TimedRunnable(command, recorder, readyAt), delay, unit);
+			recorder.onQueued(getQueue().size());
+			return future;
+		}
+
+		@NonNull
+		@Override
+		public ScheduledFuture<?> scheduleAtFixedRate(@NonNull Runnable command, long initialDelay, long period,
+			@NonNull TimeUnit unit) {
+			return super.scheduleAtFixedRate(new TimedRunnable(command, recorder, TimedRunnable.NOT_MEASURED),
+				initialDelay, period, unit);
+		}
+
+		@NonNull
+		@Override
+		public ScheduledFuture<?> scheduleWithFixedDelay(@NonNull Runnable command, long initialDelay, long delay,
+			@NonNull TimeUnit unit) {
+			return super.scheduleWithFixedDelay(new TimedRunnable(command, recorder, TimedRunnable.NOT_MEASURED),
+				initialDelay, delay, unit);
+		}
+	}
+
+	private static class SerialExecutor implements Executor {
+
+		private final Executor executor;
+		private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+		private Runnable active;
+
+		SerialExecutor(Executor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public synchronized void execute(@NonNull final Runnable command) {
+			tasks.offer(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						command.run();
+					} finally {
+						scheduleNext();
+					}
+				}
+			});
+			if (active == null) {
+				scheduleNext();
+			}
+		}
+
+		private synchronized void scheduleNext() {
+			active = tasks.poll();
+			if (active != null) {
+				executor.execute(active);
+			}
+		}
+	}
+}
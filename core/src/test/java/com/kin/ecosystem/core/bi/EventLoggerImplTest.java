@@ -0,0 +1,254 @@
+package com.kin.ecosystem.core.bi;
+
+import static com.kin.ecosystem.core.bi.EventLoggerImpl.BATCH_SIZE;
+import static com.kin.ecosystem.core.bi.EventLoggerImpl.FLUSH_INTERVAL_MILLIS;
+import static com.kin.ecosystem.core.bi.EventLoggerImpl.MAX_BACKOFF_MILLIS;
+import static com.kin.ecosystem.core.bi.EventLoggerImpl.MIN_BACKOFF_MILLIS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.kin.ecosystem.core.bi.events.Common;
+import com.kin.ecosystem.core.bi.events.User;
+import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.JSON;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class EventLoggerImplTest {
+
+	private final EventsApi eventsApi = mock(EventsApi.class);
+	private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+	private final List<ScheduledTask> scheduledTasks = new ArrayList<>();
+	private final JSON json = new JSON();
+
+	private EventLoggerImpl eventLogger;
+
+	@Before
+	public void setUp() {
+		when(eventsApi.getJSON()).thenReturn(json);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				((Runnable) invocation.getArgument(0)).run();
+				return null;
+			}
+		}).when(executor).execute(any(Runnable.class));
+		when(executor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(
+			new Answer<ScheduledFuture<?>>() {
+				@Override
+				public ScheduledFuture<?> answer(InvocationOnMock invocation) {
+					final ScheduledTask task = new ScheduledTask((Runnable) invocation.getArgument(0),
+						((TimeUnit) invocation.getArgument(2)).toMillis((Long) invocation.getArgument(1)));
+					scheduledTasks.add(task);
+					final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+					when(future.cancel(anyBoolean())).thenAnswer(new Answer<Boolean>() {
+						@Override
+						public Boolean answer(InvocationOnMock invocation) {
+							scheduledTasks.remove(task);
+							return true;
+						}
+					});
+					return future;
+				}
+			});
+		eventLogger = new EventLoggerImpl(eventsApi, null, executor, executor);
+	}
+
+	@Test
+	public void send_BelowBatchSize_FlushAfterInterval() throws Exception {
+		eventLogger.send(new TestEvent());
+
+		verify(eventsApi, never()).sendEventsSync(anyString(), anyString());
+		assertEquals(FLUSH_INTERVAL_MILLIS, runScheduled());
+		verify(eventsApi).sendEventsSync(anyString(), eq(jsonArray(1)));
+		assertTrue(scheduledTasks.isEmpty());
+	}
+
+	@Test
+	public void send_BatchSizeReached_FlushNow() throws Exception {
+		sendEvents(BATCH_SIZE);
+
+		assertEquals(0, runScheduled());
+		verify(eventsApi, times(1)).sendEventsSync(anyString(), eq(jsonArray(BATCH_SIZE)));
+		assertTrue(scheduledTasks.isEmpty());
+	}
+
+	@Test
+	public void flush_MoreThanBatchSize_SendInBatches() throws Exception {
+		sendEvents(BATCH_SIZE + 5);
+		eventLogger.flush();
+
+		assertEquals(0, runScheduled());
+		final InOrder inOrder = inOrder(eventsApi);
+		inOrder.verify(eventsApi).sendEventsSync(anyString(), eq(jsonArray(BATCH_SIZE)));
+		inOrder.verify(eventsApi).sendEventsSync(anyString(), eq(jsonArray(5)));
+		assertTrue(scheduledTasks.isEmpty());
+	}
+
+	@Test
+	public void sendFails_RetryWithExponentialBackoff_KeepEventsUntilSent() throws Exception {
+		doThrow(new ApiException(500, "server error")).when(eventsApi).sendEventsSync(anyString(), anyString());
+		eventLogger.send(new TestEvent());
+
+		assertEquals(FLUSH_INTERVAL_MILLIS, runScheduled());
+		assertEquals(MIN_BACKOFF_MILLIS, runScheduled());
+		assertEquals(MIN_BACKOFF_MILLIS * 2, runScheduled());
+
+		doNothing().when(eventsApi).sendEventsSync(anyString(), anyString());
+		assertEquals(MIN_BACKOFF_MILLIS * 4, runScheduled());
+		verify(eventsApi, times(4)).sendEventsSync(anyString(), eq(jsonArray(1)));
+		assertTrue(scheduledTasks.isEmpty());
+	}
+
+	@Test
+	public void sendFails_RetryWithSameRequestID() throws Exception {
+		doThrow(new ApiException(503, "unavailable")).when(eventsApi).sendEventsSync(anyString(), anyString());
+		sendEvents(BATCH_SIZE);
+		runScheduled();
+		runScheduled();
+
+		doNothing().when(eventsApi).sendEventsSync(anyString(), anyString());
+		sendEvents(1);
+		runScheduled();
+
+		final ArgumentCaptor<String> requestIDs = ArgumentCaptor.forClass(String.class);
+		verify(eventsApi, times(4)).sendEventsSync(requestIDs.capture(), anyString());
+		assertEquals(requestIDs.getAllValues().get(0), requestIDs.getAllValues().get(1));
+		assertEquals(requestIDs.getAllValues().get(0), requestIDs.getAllValues().get(2));
+		assertFalse(requestIDs.getAllValues().get(0).equals(requestIDs.getAllValues().get(3)));
+	}
+
+	@Test
+	public void sendFails_NotRetriable_DropBatchAndSendNext() throws Exception {
+		doThrow(new ApiException(413, "too large")).doNothing().when(eventsApi)
+			.sendEventsSync(anyString(), anyString());
+		sendEvents(BATCH_SIZE + 5);
+
+		assertEquals(0, runScheduled());
+		final InOrder inOrder = inOrder(eventsApi);
+		inOrder.verify(eventsApi).sendEventsSync(anyString(), eq(jsonArray(BATCH_SIZE)));
+		inOrder.verify(eventsApi).sendEventsSync(anyString(), eq(jsonArray(5)));
+		assertTrue(scheduledTasks.isEmpty());
+	}
+
+	@Test
+	public void sendFails_BackoffCappedAtMax() throws Exception {
+		doThrow(new ApiException(500, "server error")).when(eventsApi).sendEventsSync(anyString(), anyString());
+		eventLogger.send(new TestEvent());
+		runScheduled();
+
+		long delayMillis = 0;
+		for (int i = 0; i < 20; i++) {
+			delayMillis = runScheduled();
+			assertTrue(delayMillis <= MAX_BACKOFF_MILLIS);
+		}
+		assertEquals(MAX_BACKOFF_MILLIS, delayMillis);
+	}
+
+	@Test
+	public void sendFails_BatchSizeReachedWhileBackingOff_WaitForBackoff() throws Exception {
+		doThrow(new ApiException(500, "server error")).when(eventsApi).sendEventsSync(anyString(), anyString());
+		eventLogger.send(new TestEvent());
+		runScheduled();
+
+		sendEvents(BATCH_SIZE);
+		assertEquals(1, scheduledTasks.size());
+		assertEquals(MIN_BACKOFF_MILLIS, scheduledTasks.get(0).delayMillis);
+	}
+
+	private void sendEvents(int count) {
+		for (int i = 0; i < count; i++) {
+			eventLogger.send(new TestEvent());
+		}
+	}
+
+	/**
+	 * Run the only pending scheduled task.
+	 *
+	 * @return the delay it was scheduled with.
+	 */
+	private long runScheduled() {
+		assertEquals(1, scheduledTasks.size());
+		final ScheduledTask task = scheduledTasks.remove(0);
+		task.runnable.run();
+		return task.delayMillis;
+	}
+
+	private String jsonArray(int count) {
+		final String event = json.serialize(new TestEvent());
+		final StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(event);
+		}
+		return builder.append(']').toString();
+	}
+
+	private static class ScheduledTask {
+
+		private final Runnable runnable;
+		private final long delayMillis;
+
+		ScheduledTask(Runnable runnable, long delayMillis) {
+			this.runnable = runnable;
+			this.delayMillis = delayMillis;
+		}
+	}
+
+	private static class TestEvent implements Event {
+
+		private Common common;
+		private User user;
+
+		@Override
+		public Common getCommon() {
+			return common;
+		}
+
+		@Override
+		public void setCommon(Common common) {
+			this.common = common;
+		}
+
+		@Override
+		public User getUser() {
+			return user;
+		}
+
+		@Override
+		public void setUser(User user) {
+			this.user = user;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.kin.ecosystem.core.bi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import com.kin.ecosystem.core.bi.EventsQueue.Batch;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class EventsQueueTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void add_QueueFull_DropOldest() {
+		final EventsQueue queue = new EventsQueue(null, 3);
+		queue.add("e0");
+		queue.add("e1");
+		queue.add("e2");
+		queue.add("e3");
+
+		assertEquals(3, queue.size());
+		assertEquals(Arrays.asList("e1", "e2", "e3"), queue.peek(10));
+	}
+
+	@Test
+	public void peekAndRemove_FromHead() {
+		final EventsQueue queue = new EventsQueue(null, 10);
+		queue.add("e0");
+		queue.add("e1");
+		queue.add("e2");
+
+		assertEquals(Arrays.asList("e0", "e1"), queue.peek(2));
+		assertEquals(3, queue.size());
+
+		queue.remove(2);
+		assertEquals(Arrays.asList("e2"), queue.peek(2));
+
+		queue.remove(5);
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void reload_KeepsPendingEventsInOrder() {
+		final File file = new File(folder.getRoot(), "events");
+		final EventsQueue queue = new EventsQueue(file, 10);
+		queue.add("e0");
+		queue.add("e1");
+		queue.add("e2");
+		queue.remove(1);
+		queue.add("e3");
+
+		assertEquals(Arrays.asList("e1", "e2", "e3"), new EventsQueue(file, 10).peek(10));
+	}
+
+	@Test
+	public void reload_MoreThanMaxSize_KeepNewest() {
+		final File file = new File(folder.getRoot(), "events");
+		final EventsQueue queue = new EventsQueue(file, 10);
+		queue.add("e0");
+		queue.add("e1");
+		queue.add("e2");
+
+		assertEquals(Arrays.asList("e1", "e2"), new EventsQueue(file, 2).peek(10));
+	}
+
+	@Test
+	public void reload_AfterDroppingOldest_DroppedEventNotRestored() {
+		final File file = new File(folder.getRoot(), "events");
+		final EventsQueue queue = new EventsQueue(file, 2);
+		queue.add("e0");
+		queue.add("e1");
+		queue.add("e2");
+
+		assertEquals(Arrays.asList("e1", "e2"), new EventsQueue(file, 2).peek(10));
+	}
+
+	@Test
+	public void peekBatch_SameBatchUntilRemoved() {
+		final EventsQueue queue = new EventsQueue(null, 10);
+		queue.add("e0");
+		queue.add("e1");
+		final Batch batch = queue.peekBatch(5);
+		queue.add("e2");
+
+		assertEquals(batch.getRequestID(), queue.peekBatch(5).getRequestID());
+		assertEquals(Arrays.asList("e0", "e1"), queue.peekBatch(5).getEvents());
+
+		queue.remove(batch.getEvents().size());
+		final Batch next = queue.peekBatch(5);
+		assertNotEquals(batch.getRequestID(), next.getRequestID());
+		assertEquals(Arrays.asList("e2"), next.getEvents());
+	}
+
+	@Test
+	public void reload_KeepsHeadBatchRequestID() {
+		final File file = new File(folder.getRoot(), "events");
+		final EventsQueue queue = new EventsQueue(file, 10);
+		queue.add("e0");
+		queue.add("e1");
+		final Batch batch = queue.peekBatch(5);
+		queue.add("e2");
+
+		final EventsQueue reloaded = new EventsQueue(file, 10);
+		assertEquals(batch.getRequestID(), reloaded.peekBatch(5).getRequestID());
+		assertEquals(Arrays.asList("e0", "e1"), reloaded.peekBatch(5).getEvents());
+		assertEquals(Arrays.asList("e0", "e1", "e2"), reloaded.peek(10));
+	}
+
+	@Test
+	public void add_QueueFullWhileBatchPending_NewBatch() {
+		final EventsQueue queue = new EventsQueue(null, 2);
+		queue.add("e0");
+		queue.add("e1");
+		final Batch batch = queue.peekBatch(5);
+		queue.add("e2");
+
+		final Batch next = queue.peekBatch(5);
+		assertNotEquals(batch.getRequestID(), next.getRequestID());
+		assertEquals(Arrays.asList("e1", "e2"), next.getEvents());
+	}
+}
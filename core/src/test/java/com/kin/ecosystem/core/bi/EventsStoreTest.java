@@ -0,0 +1,63 @@
+package com.kin.ecosystem.core.bi;
+
+import static org.junit.Assert.assertEquals;
+
+import com.kin.ecosystem.core.bi.EventsStore.ClientModifier;
+import com.kin.ecosystem.core.bi.EventsStore.DynamicValue;
+import com.kin.ecosystem.core.bi.events.ClientProxy;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventsStoreTest {
+
+	private String language;
+	private int deviceIdEvaluations;
+
+	@Before
+	public void setUp() {
+		language = "English";
+		deviceIdEvaluations = 0;
+		EventsStore.update(new ClientModifier() {
+			@Override
+			public void modify(ClientProxy clientProxy) {
+				clientProxy.setOs("8.1");
+				clientProxy.setCarrier("carrier");
+				clientProxy.setDeviceManufacturer("manufacturer");
+				clientProxy.setDeviceModel("model");
+				clientProxy.setDeviceId(new DynamicValue<String>() {
+					@Override
+					public String get() {
+						deviceIdEvaluations++;
+						return "deviceId";
+					}
+				});
+				clientProxy.setLanguage(new DynamicValue<String>() {
+					@Override
+					public String get() {
+						return language;
+					}
+				});
+			}
+		});
+	}
+
+	@Test
+	public void client_LanguageChanged_NewLanguageWithoutInvalidate() {
+		assertEquals("English", EventsStore.client().getLanguage());
+
+		language = "Hebrew";
+		assertEquals("Hebrew", EventsStore.client().getLanguage());
+		assertEquals("model", EventsStore.client().getDeviceModel());
+	}
+
+	@Test
+	public void client_OtherDynamicValuesCachedUntilInvalidated() {
+		EventsStore.client();
+		EventsStore.client();
+		assertEquals(1, deviceIdEvaluations);
+
+		EventsStore.invalidateClient();
+		assertEquals("deviceId", EventsStore.client().getDeviceId());
+		assertEquals(2, deviceIdEvaluations);
+	}
+}
@@ -5,6 +5,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +31,8 @@ import com.kin.ecosystem.core.util.OfferConverter;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import com.kin.ecosystem.core.network.ApiException;
 import org.junit.Before;
 import org.junit.Test;
@@ -105,6 +109,62 @@ public class OfferRepositoryTest {
 		verify(offerListCallback).onFailure(any(KinEcosystemException.class));
 	}
 
+	@Test
+	public void getOffers_CachedListAnswersFirst_NetworkListDeliveredAfter() {
+		KinCallback<OfferList> offerListCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OfferList, ApiException>> getOfferCapture = ArgumentCaptor.forClass(Callback.class);
+		ArgumentCaptor<Callback<OfferList, ApiException>> getCachedCapture = ArgumentCaptor.forClass(Callback.class);
+
+		offerRepository.getOffers(offerListCallback);
+		verify(remote).getOffers(getOfferCapture.capture());
+		verify(remote).getCachedOffers(getCachedCapture.capture());
+
+		getCachedCapture.getValue().onResponse(getOfferList());
+		assertEquals(1, offerRepository.getCachedOfferList().getOffers().size());
+		verify(offerListCallback).onResponse(any(OfferList.class));
+
+		getOfferCapture.getValue().onResponse(new OfferList());
+		assertEquals(0, offerRepository.getCachedOfferList().getOffers().size());
+		ArgumentCaptor<OfferList> responses = ArgumentCaptor.forClass(OfferList.class);
+		verify(offerListCallback, times(2)).onResponse(responses.capture());
+		assertEquals(1, responses.getAllValues().get(0).getOffers().size());
+		assertEquals(0, responses.getAllValues().get(1).getOffers().size());
+	}
+
+	@Test
+	public void getOffers_NetworkAnswersFirst_CachedListIgnored() {
+		KinCallback<OfferList> offerListCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OfferList, ApiException>> getOfferCapture = ArgumentCaptor.forClass(Callback.class);
+		ArgumentCaptor<Callback<OfferList, ApiException>> getCachedCapture = ArgumentCaptor.forClass(Callback.class);
+
+		offerRepository.getOffers(offerListCallback);
+		verify(remote).getOffers(getOfferCapture.capture());
+		verify(remote).getCachedOffers(getCachedCapture.capture());
+
+		getOfferCapture.getValue().onResponse(new OfferList());
+		getCachedCapture.getValue().onResponse(getOfferList());
+
+		assertEquals(0, offerRepository.getCachedOfferList().getOffers().size());
+		verify(offerListCallback, times(1)).onResponse(any(OfferList.class));
+	}
+
+	@Test
+	public void getOffers_CachedListAnswered_NetworkFailureNotReported() {
+		KinCallback<OfferList> offerListCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OfferList, ApiException>> getOfferCapture = ArgumentCaptor.forClass(Callback.class);
+		ArgumentCaptor<Callback<OfferList, ApiException>> getCachedCapture = ArgumentCaptor.forClass(Callback.class);
+
+		offerRepository.getOffers(offerListCallback);
+		verify(remote).getOffers(getOfferCapture.capture());
+		verify(remote).getCachedOffers(getCachedCapture.capture());
+
+		getCachedCapture.getValue().onResponse(getOfferList());
+		getOfferCapture.getValue().onFailure(new ApiException(500, "error"));
+
+		verify(offerListCallback).onResponse(any(OfferList.class));
+		verify(offerListCallback, never()).onFailure(any(KinEcosystemException.class));
+	}
+
 	@Test
 	public void addNativeOfferCallback() throws Exception {
 		Observer<NativeOfferClickEvent> callback = new Observer<NativeOfferClickEvent>() {
@@ -206,6 +266,68 @@ public class OfferRepositoryTest {
 		assertEquals(0, offerRepository.getCachedOfferList().getOffers().size());
 	}
 
+	@Test
+	public void addRemoveNativeOffers_PostsIncrementalChanges() {
+		final List<OfferListChange> changes = new ArrayList<>();
+		offerRepository.addOfferListChangedObserver(new Observer<OfferListChange>() {
+			@Override
+			public void onChanged(OfferListChange change) {
+				changes.add(change);
+			}
+		});
+
+		offerRepository.addNativeOffer(new NativeSpendOfferBuilder("s1").title("s1").amount(10).build(), false);
+		NativeOffer nativeEarnOffer = new NativeEarnOfferBuilder("e1").title("e1").amount(10).build();
+		offerRepository.addNativeOffer(nativeEarnOffer, false);
+		offerRepository.addNativeOffer(new NativeSpendOfferBuilder("s2").title("s2").amount(10).build(), false);
+		assertEquals(3, changes.size());
+
+		// New spend offer is inserted at the top and the first pair is kept spend then earn
+		OfferListChange change = changes.get(2);
+		assertEquals("[s2, e1, s1]", idsOf(change.getOffers()));
+		assertEquals("[INSERT 0, MOVE 2->1]", change.getOperations().toString());
+		assertTrue(change.isChangeOf(changes.get(1).getOffers()));
+		assertFalse(change.isChangeOf(changes.get(0).getOffers()));
+
+		offerRepository.removeNativeOffer(nativeEarnOffer);
+		assertEquals(4, changes.size());
+		change = changes.get(3);
+		assertEquals("[s2, s1]", idsOf(change.getOffers()));
+		assertEquals("[REMOVE 1]", change.getOperations().toString());
+		assertEquals(idsOf(change.getOffers()), idsOf(offerRepository.getCachedOfferList().getOffers()));
+	}
+
+	@Test
+	public void addNativeOffers_FromManyThreads_AllAdded() throws Exception {
+		final int threadCount = 4;
+		final int offersPerThread = 50;
+		final CountDownLatch latch = new CountDownLatch(threadCount);
+		for (int t = 0; t < threadCount; t++) {
+			final int thread = t;
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < offersPerThread; i++) {
+						String id = thread + "_" + i;
+						NativeOfferBuilder builder = i % 2 == 0 ? new NativeSpendOfferBuilder(id) : new NativeEarnOfferBuilder(id);
+						offerRepository.addNativeOffer(builder.title(id).amount(10).build(), i % 3 == 0);
+					}
+					latch.countDown();
+				}
+			}).start();
+		}
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+		List<Offer> offers = offerRepository.getCachedOfferList().getOffers();
+		assertEquals(threadCount * offersPerThread, offers.size());
+		// Spend and earn offers are interleaved
+		for (int i = 0; i < offers.size(); i++) {
+			assertEquals(i % 2 == 0 ? Offer.OfferType.SPEND : Offer.OfferType.EARN, offers.get(i).getOfferType());
+		}
+		assertTrue(offerRepository.shouldDismissOnTap("0_0"));
+		assertFalse(offerRepository.shouldDismissOnTap("0_1"));
+	}
+
 	@Test
 	public void shouldDismissOnTap_WithNoExistingOfferId() {
 		assertFalse(offerRepository.shouldDismissOnTap("404"));
@@ -218,6 +340,14 @@ public class OfferRepositoryTest {
 		return offerList;
 	}
 
+	private String idsOf(List<Offer> offers) {
+		List<String> ids = new ArrayList<>();
+		for (Offer offer : offers) {
+			ids.add(offer.getId());
+		}
+		return ids.toString();
+	}
+
 	private ApiException getApiException() {
 		Exception exception = new IllegalArgumentException();
 		ApiException apiException = new ApiException(500, exception);
@@ -0,0 +1,173 @@
+package com.kin.ecosystem.core.data.order;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.BatchOrderCallback;
+import com.kin.ecosystem.common.KinCallback;
+import com.kin.ecosystem.common.exception.ClientException;
+import com.kin.ecosystem.common.exception.KinEcosystemException;
+import com.kin.ecosystem.common.model.OrderConfirmation;
+import com.kin.ecosystem.core.data.blockchain.BlockchainSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class ExternalOrderBatchTest {
+
+	private final BlockchainSource blockchainSource = mock(BlockchainSource.class);
+	private final BatchOrderCallback batchCallback = mock(BatchOrderCallback.class);
+	private final TestStarter starter = new TestStarter();
+
+	@Test
+	public void start_AtMostMaxConcurrentInFlight_NextStartsWhenOneCompletes() {
+		final List<String> jwts = Arrays.asList("jwt0", "jwt1", "jwt2", "jwt3", "jwt4");
+		new ExternalOrderBatch(blockchainSource, jwts, 2, starter, batchCallback).start();
+
+		assertEquals(Arrays.asList("jwt0", "jwt1"), starter.started);
+		verify(blockchainSource).holdPaymentListener();
+
+		starter.callbacks.get(1).onResponse(new OrderConfirmation());
+		assertEquals(Arrays.asList("jwt0", "jwt1", "jwt2"), starter.started);
+		assertEquals(2, starter.inFlight());
+
+		starter.callbacks.get(0).onFailure(failure());
+		starter.callbacks.get(2).onResponse(new OrderConfirmation());
+		assertEquals(5, starter.started.size());
+		assertEquals(2, starter.inFlight());
+		verify(batchCallback, never()).onBatchCompleted(anyInt(), anyInt());
+	}
+
+	@Test
+	public void allOrdersCompleted_ReportEachOrderAndCompleteOnce() {
+		final List<String> jwts = Arrays.asList("jwt0", "jwt1", "jwt2");
+		new ExternalOrderBatch(blockchainSource, jwts, 3, starter, batchCallback).start();
+
+		final OrderConfirmation confirmation = new OrderConfirmation();
+		starter.callbacks.get(2).onResponse(confirmation);
+		starter.callbacks.get(0).onFailure(failure());
+		starter.callbacks.get(1).onResponse(new OrderConfirmation());
+
+		verify(batchCallback).onOrderResponse(2, confirmation);
+		verify(batchCallback).onOrderFailure(eq(0), any(KinEcosystemException.class));
+		verify(batchCallback).onOrderResponse(eq(1), any(OrderConfirmation.class));
+		verify(batchCallback, times(1)).onBatchCompleted(2, 1);
+		verify(blockchainSource, times(1)).releasePaymentListener();
+	}
+
+	@Test
+	public void orderReportedTwice_CountedOnce() {
+		final List<String> jwts = Arrays.asList("jwt0", "jwt1");
+		new ExternalOrderBatch(blockchainSource, jwts, 2, starter, batchCallback).start();
+
+		starter.callbacks.get(0).onResponse(new OrderConfirmation());
+		starter.callbacks.get(0).onFailure(failure());
+		verify(batchCallback, never()).onBatchCompleted(anyInt(), anyInt());
+		verify(batchCallback, never()).onOrderFailure(anyInt(), any(KinEcosystemException.class));
+
+		starter.callbacks.get(1).onResponse(new OrderConfirmation());
+		verify(batchCallback, times(1)).onBatchCompleted(2, 0);
+	}
+
+	@Test
+	public void starterThrows_ReportOrderFailureAndContinue() {
+		starter.throwOn.add("jwt1");
+		final List<String> jwts = Arrays.asList("jwt0", "jwt1", "jwt2");
+		new ExternalOrderBatch(blockchainSource, jwts, 1, starter, batchCallback).start();
+		ShadowLooper.pauseMainLooper();
+
+		starter.callbacks.get(0).onResponse(new OrderConfirmation());
+		verify(batchCallback, never()).onOrderFailure(anyInt(), any(KinEcosystemException.class));
+
+		ShadowLooper.runUiThreadTasks();
+		verify(batchCallback).onOrderFailure(eq(1), any(ClientException.class));
+		assertEquals(Arrays.asList("jwt0", "jwt1", "jwt2"), starter.started);
+
+		starter.callbacks.get(2).onResponse(new OrderConfirmation());
+		verify(batchCallback).onBatchCompleted(2, 1);
+		verify(blockchainSource).releasePaymentListener();
+	}
+
+	@Test
+	public void allStartsThrow_BatchStillCompletes() {
+		starter.throwOn.addAll(Arrays.asList("jwt0", "jwt1"));
+		new ExternalOrderBatch(blockchainSource, Arrays.asList("jwt0", "jwt1"), 2, starter, batchCallback).start();
+		ShadowLooper.runUiThreadTasks();
+
+		verify(batchCallback, times(2)).onOrderFailure(anyInt(), any(ClientException.class));
+		verify(batchCallback).onBatchCompleted(0, 2);
+		verify(blockchainSource).holdPaymentListener();
+		verify(blockchainSource).releasePaymentListener();
+	}
+
+	@Test
+	public void emptyBatch_CompletedWithoutHoldingPaymentListener() {
+		new ExternalOrderBatch(blockchainSource, Collections.<String>emptyList(), 2, starter, batchCallback).start();
+		ShadowLooper.runUiThreadTasks();
+
+		verify(batchCallback).onBatchCompleted(0, 0);
+		verify(blockchainSource, never()).holdPaymentListener();
+	}
+
+	private static KinEcosystemException failure() {
+		return new ClientException(ClientException.INTERNAL_INCONSISTENCY, "failed", null);
+	}
+
+	private static class TestStarter implements ExternalOrderBatch.OrderStarter {
+
+		private final List<String> started = new ArrayList<>();
+		private final List<KinCallback<OrderConfirmation>> callbacks = new ArrayList<>();
+		private final Set<Integer> completed = new HashSet<>();
+		private final Set<String> throwOn = new HashSet<>();
+
+		@Override
+		public void start(@NonNull String offerJwt, @NonNull final KinCallback<OrderConfirmation> callback) {
+			final int index = started.size();
+			started.add(offerJwt);
+			if (throwOn.contains(offerJwt)) {
+				callbacks.add(null);
+				throw new IllegalStateException("failed to start " + offerJwt);
+			}
+			callbacks.add(new KinCallback<OrderConfirmation>() {
+				@Override
+				public void onResponse(OrderConfirmation response) {
+					completed.add(index);
+					callback.onResponse(response);
+				}
+
+				@Override
+				public void onFailure(KinEcosystemException exception) {
+					completed.add(index);
+					callback.onFailure(exception);
+				}
+			});
+		}
+
+		int inFlight() {
+			int inFlight = 0;
+			for (int i = 0; i < started.size(); i++) {
+				if (callbacks.get(i) != null && !completed.contains(i)) {
+					inFlight++;
+				}
+			}
+			return inFlight;
+		}
+	}
+}
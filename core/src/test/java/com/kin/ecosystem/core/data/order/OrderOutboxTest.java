@@ -0,0 +1,372 @@
+package com.kin.ecosystem.core.data.order;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.kin.ecosystem.common.Callback;
+import com.kin.ecosystem.core.data.order.OrderOutbox.Entry;
+import com.kin.ecosystem.core.data.order.OrderPoller.BackoffPolicy;
+import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.model.Error;
+import com.kin.ecosystem.core.network.model.Order;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class OrderOutboxTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<Runnable> ioTasks = new ArrayList<>();
+	private final Executor ioExecutor = new Executor() {
+		@Override
+		public void execute(@NonNull Runnable command) {
+			ioTasks.add(command);
+		}
+	};
+	private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+	private final ScheduledFuture<?> scheduledFuture = mock(ScheduledFuture.class);
+	private final TestSender sender = new TestSender();
+	private final BackoffPolicy backoffPolicy = new BackoffPolicy() {
+		@Override
+		public int getMaxAttempts() {
+			return OrderOutbox.CALLBACK_ATTEMPTS + 2;
+		}
+
+		@Override
+		public long getDelayMillis(int attempt) {
+			return 1000;
+		}
+	};
+
+	private File journalFile;
+
+	@Before
+	public void setUp() {
+		journalFile = new File(folder.getRoot(), "outbox.journal");
+		doReturn(scheduledFuture).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void enqueue_JournalOnIoLaneBeforeSending() throws Exception {
+		final OrderOutbox outbox = createOutbox();
+
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), callback());
+
+		assertFalse(journalFile.exists());
+		assertTrue(sender.sent.isEmpty());
+
+		runIoTasks();
+		assertEquals(1, readJournal().size());
+		assertEquals(1, sender.sent.size());
+		assertEquals("1", sender.sent.get(0).entry.getRequestID());
+	}
+
+	@Test
+	public void enqueue_SameOrderSentInOrder_OtherOrdersDontWait() {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+		final Callback<Order, ApiException> cancelCallback = callback();
+
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_SPEND, "order1", "tx"), submitCallback);
+		outbox.enqueue(new Entry("2", OrderOutbox.CANCEL, "order1", null), cancelCallback);
+		outbox.enqueue(new Entry("3", OrderOutbox.SUBMIT_EARN, "order2", "content"), callback());
+		runIoTasks();
+
+		assertEquals(2, sender.sent.size());
+		assertEquals("1", sender.sent.get(0).entry.getRequestID());
+		assertEquals("3", sender.sent.get(1).entry.getRequestID());
+
+		sender.sent.get(0).callback.onResponse(null);
+		verify(submitCallback).onResponse(null);
+		assertEquals(3, sender.sent.size());
+		assertEquals("2", sender.sent.get(2).entry.getRequestID());
+		assertEquals(2, outbox.size());
+	}
+
+	@Test
+	public void sendFailed_Transient_RetryWithSameRequestIdAndHoldOrder() {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), submitCallback);
+		outbox.enqueue(new Entry("2", OrderOutbox.CHANGE, "order1", "{}"), callback());
+		runIoTasks();
+		sender.sent.get(0).callback.onFailure(new ApiException(503, "unavailable"));
+
+		final ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).schedule(retry.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+		verify(submitCallback, never()).onFailure(any(ApiException.class));
+		assertEquals(1, sender.sent.size());
+
+		retry.getValue().run();
+		assertEquals(2, sender.sent.size());
+		assertEquals("1", sender.sent.get(1).entry.getRequestID());
+
+		final Order order = mock(Order.class);
+		sender.sent.get(1).callback.onResponse(order);
+		verify(submitCallback).onResponse(order);
+		assertEquals("2", sender.sent.get(2).entry.getRequestID());
+	}
+
+	@Test
+	public void sendFailed_ServerError_FailWithoutRetry() {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), submitCallback);
+		runIoTasks();
+		final ApiException exception = new ApiException(500, "order failed");
+		exception.setResponseBody(new Error("order failed", "order failed", 5001));
+		sender.sent.get(0).callback.onFailure(exception);
+
+		verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		verify(submitCallback).onFailure(exception);
+		assertEquals(0, outbox.size());
+	}
+
+	@Test
+	public void sendFailed_CallbackAttemptsReached_FailCallbackAndKeepRetrying() throws Exception {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), submitCallback);
+		runIoTasks();
+		failAttempts(0, OrderOutbox.CALLBACK_ATTEMPTS - 1);
+		verify(submitCallback, never()).onFailure(any(ApiException.class));
+
+		final ApiException last = new ApiException(0, "no response");
+		sender.sent.get(OrderOutbox.CALLBACK_ATTEMPTS - 1).callback.onFailure(last);
+		verify(submitCallback).onFailure(last);
+		verify(scheduler, times(OrderOutbox.CALLBACK_ATTEMPTS))
+			.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		assertEquals(1, outbox.size());
+		assertEquals(1, readJournal().size());
+	}
+
+	@Test
+	public void sendFailed_AttemptsExhausted_KeepJournaledUntilReplay() throws Exception {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+		final Callback<Order, ApiException> cancelCallback = callback();
+
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), submitCallback);
+		runIoTasks();
+		failAttempts(0, backoffPolicy.getMaxAttempts());
+		outbox.enqueue(new Entry("2", OrderOutbox.CANCEL, "order1", null), cancelCallback);
+		runIoTasks();
+
+		verify(submitCallback, times(1)).onFailure(any(ApiException.class));
+		verify(scheduler, times(backoffPolicy.getMaxAttempts() - 1))
+			.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		assertEquals(backoffPolicy.getMaxAttempts(), sender.sent.size());
+		assertEquals(2, outbox.size());
+		assertEquals(2, readJournal().size());
+
+		outbox.replay();
+		assertEquals(backoffPolicy.getMaxAttempts() + 1, sender.sent.size());
+		assertEquals("1", sender.sent.get(backoffPolicy.getMaxAttempts()).entry.getRequestID());
+
+		sender.sent.get(backoffPolicy.getMaxAttempts()).callback.onResponse(null);
+		runIoTasks();
+		assertEquals(1, sender.recovered.size());
+		assertEquals("1", sender.recovered.get(0).getRequestID());
+		assertEquals("2", sender.sent.get(backoffPolicy.getMaxAttempts() + 1).entry.getRequestID());
+		verify(submitCallback, never()).onResponse(any(Order.class));
+	}
+
+	@Test
+	public void recover_SendRequestsLeftByPreviousSession_AndCompactJournal() throws Exception {
+		final OrderOutbox previous = createOutbox();
+		previous.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), callback());
+		previous.enqueue(new Entry("2", OrderOutbox.SUBMIT_SPEND, "order2", "tx"), callback());
+		runIoTasks();
+		sender.sent.get(0).callback.onResponse(null);
+		runIoTasks();
+		// A record cut by a crash while it was written.
+		appendToJournal("{\"op\":\"add\",\"entry\":{\"requestID\":\"3\"");
+		assertEquals(4, readJournal().size());
+
+		final TestSender recoveredSender = new TestSender();
+		final OrderOutbox outbox = new OrderOutbox(journalFile, recoveredSender, backoffPolicy, ioExecutor, scheduler);
+		outbox.recover();
+		runIoTasks();
+
+		assertEquals(1, recoveredSender.sent.size());
+		final Entry entry = recoveredSender.sent.get(0).entry;
+		assertEquals("2", entry.getRequestID());
+		assertEquals(OrderOutbox.SUBMIT_SPEND, entry.getType());
+		assertEquals("order2", entry.getOrderID());
+		assertEquals("tx", entry.getPayload());
+		assertEquals(1, readJournal().size());
+
+		recoveredSender.sent.get(0).callback.onResponse(null);
+		assertEquals(1, recoveredSender.recovered.size());
+		runIoTasks();
+		outbox.recover();
+		runIoTasks();
+		assertEquals(1, recoveredSender.sent.size());
+		assertTrue(readJournal().isEmpty());
+	}
+
+	@Test
+	public void recover_RequestAlreadyQueued_NotSentTwice() {
+		final OrderOutbox outbox = createOutbox();
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), callback());
+		runIoTasks();
+
+		outbox.recover();
+		runIoTasks();
+
+		assertEquals(1, sender.sent.size());
+		assertEquals(1, outbox.size());
+	}
+
+	@Test
+	public void clear_FailQueuedAndInFlightCallbacks_IgnoreLateResponse() throws Exception {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+		final Callback<Order, ApiException> changeCallback = callback();
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), submitCallback);
+		outbox.enqueue(new Entry("2", OrderOutbox.CHANGE, "order1", "{}"), changeCallback);
+		runIoTasks();
+
+		outbox.clear();
+		verify(submitCallback).onFailure(any(ApiException.class));
+		verify(changeCallback).onFailure(any(ApiException.class));
+		assertEquals(0, outbox.size());
+
+		sender.sent.get(0).callback.onResponse(null);
+		verify(submitCallback, never()).onResponse(any(Order.class));
+		assertEquals(1, sender.sent.size());
+		runIoTasks();
+		assertFalse(journalFile.exists());
+	}
+
+	@Test
+	public void clear_BeforeRequestJournaled_NotWrittenNorSent() throws Exception {
+		final OrderOutbox outbox = createOutbox();
+		final Callback<Order, ApiException> submitCallback = callback();
+		outbox.enqueue(new Entry("1", OrderOutbox.SUBMIT_EARN, "order1", "content"), submitCallback);
+
+		outbox.clear();
+		runIoTasks();
+
+		verify(submitCallback).onFailure(any(ApiException.class));
+		assertTrue(sender.sent.isEmpty());
+		assertTrue(readJournal().isEmpty());
+	}
+
+	private OrderOutbox createOutbox() {
+		return new OrderOutbox(journalFile, sender, backoffPolicy, ioExecutor, scheduler);
+	}
+
+	@SuppressWarnings("unchecked")
+	/**
+	 * Fail the sent requests from index from, until index to, each with a retriable error, and run their retries.
+	 */
+	private void failAttempts(int from, int to) {
+		final ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+		for (int attempt = from; attempt < to; attempt++) {
+			sender.sent.get(attempt).callback.onFailure(new ApiException(0, "no response"));
+			if (attempt + 1 < backoffPolicy.getMaxAttempts()) {
+				verify(scheduler, times(attempt + 1)).schedule(retry.capture(), anyLong(), any(TimeUnit.class));
+				retry.getValue().run();
+			}
+		}
+	}
+
+	private static Callback<Order, ApiException> callback() {
+		return mock(Callback.class);
+	}
+
+	private void runIoTasks() {
+		while (!ioTasks.isEmpty()) {
+			ioTasks.remove(0).run();
+		}
+	}
+
+	private List<String> readJournal() throws IOException {
+		final List<String> lines = new ArrayList<>();
+		if (!journalFile.exists()) {
+			return lines;
+		}
+		final BufferedReader reader = new BufferedReader(new FileReader(journalFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+
+	private void appendToJournal(String line) throws IOException {
+		final FileWriter writer = new FileWriter(journalFile, true);
+		try {
+			writer.write(line);
+			writer.write('\n');
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static class Sent {
+
+		private final Entry entry;
+		private final Callback<Order, ApiException> callback;
+
+		Sent(Entry entry, Callback<Order, ApiException> callback) {
+			this.entry = entry;
+			this.callback = callback;
+		}
+	}
+
+	private static class TestSender implements OrderOutbox.Sender {
+
+		private final List<Sent> sent = new ArrayList<>();
+		private final List<Entry> recovered = new ArrayList<>();
+
+		@Override
+		public void send(@NonNull Entry entry, @NonNull Callback<Order, ApiException> callback) {
+			sent.add(new Sent(entry, callback));
+		}
+
+		@Override
+		public void onRecovered(@NonNull Entry entry, @Nullable ApiException exception) {
+			recovered.add(entry);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.kin.ecosystem.core.data.order;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.Callback;
+import com.kin.ecosystem.core.data.order.OrderPoller.BackoffPolicy;
+import com.kin.ecosystem.core.data.order.OrderPoller.Cancellable;
+import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.model.Order;
+import com.kin.ecosystem.core.network.model.Order.Status;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner.class)
+public class OrderPollerTest {
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final OrderDataSource.Remote remote = mock(OrderDataSource.Remote.class);
+	private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+	private final List<Runnable> scheduledTicks = new ArrayList<>();
+	private final BackoffPolicy backoffPolicy = new BackoffPolicy() {
+		@Override
+		public int getMaxAttempts() {
+			return MAX_ATTEMPTS;
+		}
+
+		@Override
+		public long getDelayMillis(int attempt) {
+			// Due again on the next tick.
+			return 0;
+		}
+	};
+
+	private OrderPoller poller;
+
+	@Before
+	public void setUp() {
+		when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(
+			new Answer<ScheduledFuture<?>>() {
+				@Override
+				public ScheduledFuture<?> answer(InvocationOnMock invocation) {
+					scheduledTicks.add((Runnable) invocation.getArgument(0));
+					return mock(ScheduledFuture.class);
+				}
+			});
+		poller = new OrderPoller(remote, backoffPolicy, scheduler, new Executor() {
+			@Override
+			public void execute(@NonNull Runnable command) {
+				command.run();
+			}
+		});
+	}
+
+	@Test
+	public void poll_PendingThenCompleted_NotifyOnceAndStop() {
+		final Callback<Order, ApiException> callback = callback();
+		final Order pending = order("1", Status.PENDING);
+		final Order completed = order("1", Status.COMPLETED);
+		when(remote.getOrderSync("1")).thenReturn(pending, completed);
+
+		poller.poll("1", callback);
+		runTick();
+		verify(callback, never()).onResponse(any(Order.class));
+		assertEquals(1, scheduledTicks.size());
+
+		runTick();
+		verify(callback).onResponse(completed);
+		assertTrue(scheduledTicks.isEmpty());
+	}
+
+	@Test
+	public void poll_SameOrderTwice_OneRequestBothNotified() {
+		final Callback<Order, ApiException> first = callback();
+		final Callback<Order, ApiException> second = callback();
+		final Order completed = order("1", Status.COMPLETED);
+		when(remote.getOrderSync("1")).thenReturn(completed);
+
+		poller.poll("1", first);
+		poller.poll("1", second);
+		runTick();
+
+		verify(remote, times(1)).getOrderSync("1");
+		verify(first).onResponse(completed);
+		verify(second).onResponse(completed);
+	}
+
+	@Test
+	public void poll_OrdersDueTogether_PolledInOneTick() {
+		when(remote.getOrderSync("1")).thenReturn(order("1", Status.COMPLETED));
+		when(remote.getOrderSync("2")).thenReturn(order("2", Status.COMPLETED));
+
+		poller.poll("1", callback());
+		poller.poll("2", callback());
+		assertEquals(1, scheduledTicks.size());
+		runTick();
+
+		verify(remote).getOrderSync("1");
+		verify(remote).getOrderSync("2");
+	}
+
+	@Test
+	public void poll_RequestThrows_OtherOrdersPolledAndPollingContinues() {
+		final Callback<Order, ApiException> failingCallback = callback();
+		final Callback<Order, ApiException> callback = callback();
+		final Order completed = order("1", Status.COMPLETED);
+		when(remote.getOrderSync("1")).thenThrow(new IllegalStateException("bad response")).thenReturn(completed);
+		when(remote.getOrderSync("2")).thenReturn(order("2", Status.PENDING));
+
+		poller.poll("1", failingCallback);
+		poller.poll("2", callback);
+		runTick();
+
+		verify(remote).getOrderSync("2");
+		assertEquals(1, scheduledTicks.size());
+
+		runTick();
+		verify(failingCallback).onResponse(completed);
+	}
+
+	@Test
+	public void poll_CallbackThrows_OtherOrdersNotifiedAndPollingContinues() {
+		final Callback<Order, ApiException> throwingCallback = callback();
+		final Callback<Order, ApiException> callback = callback();
+		final Order completed = order("1", Status.COMPLETED);
+		final Order pending = order("2", Status.PENDING);
+		final Order completedLater = order("2", Status.COMPLETED);
+		doThrow(new IllegalStateException("app error")).when(throwingCallback).onResponse(completed);
+		when(remote.getOrderSync("1")).thenReturn(completed);
+		when(remote.getOrderSync("2")).thenReturn(pending, completedLater);
+
+		poller.poll("1", throwingCallback);
+		poller.poll("2", callback);
+		runTick();
+		assertEquals(1, scheduledTicks.size());
+
+		runTick();
+		verify(callback).onResponse(completedLater);
+	}
+
+	@Test
+	public void poll_StillPendingAfterMaxAttempts_FailWithTimeout() {
+		final Callback<Order, ApiException> callback = callback();
+		when(remote.getOrderSync("1")).thenReturn(order("1", Status.PENDING));
+
+		poller.poll("1", callback);
+		for (int i = 0; i <= MAX_ATTEMPTS; i++) {
+			runTick();
+		}
+
+		verify(remote, times(MAX_ATTEMPTS)).getOrderSync("1");
+		verify(callback).onFailure(any(ApiException.class));
+		verify(callback, never()).onResponse(any(Order.class));
+		assertTrue(scheduledTicks.isEmpty());
+	}
+
+	@Test
+	public void cancel_CallbackNeverCalled() {
+		final Callback<Order, ApiException> callback = callback();
+		when(remote.getOrderSync("1")).thenReturn(order("1", Status.COMPLETED));
+
+		final Cancellable cancellable = poller.poll("1", callback);
+		cancellable.cancel();
+		runTick();
+
+		verify(remote, never()).getOrderSync("1");
+		verify(callback, never()).onResponse(any(Order.class));
+	}
+
+	private void runTick() {
+		assertEquals(1, scheduledTicks.size());
+		scheduledTicks.remove(0).run();
+	}
+
+	private static Order order(String orderID, Status status) {
+		final Order order = new Order();
+		order.setOrderId(orderID);
+		order.setStatus(status);
+		return order;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Callback<Order, ApiException> callback() {
+		return mock(Callback.class);
+	}
+}
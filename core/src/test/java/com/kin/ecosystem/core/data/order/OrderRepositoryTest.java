@@ -9,16 +9,17 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.kin.ecosystem.common.Callback;
 import com.kin.ecosystem.common.KinCallback;
-import com.kin.ecosystem.common.Observer;
 import com.kin.ecosystem.common.exception.BlockchainException;
 import com.kin.ecosystem.common.exception.DataNotAvailableException;
 import com.kin.ecosystem.common.exception.KinEcosystemException;
@@ -30,6 +31,7 @@ import com.kin.ecosystem.core.bi.events.SpendOrderCompleted;
 import com.kin.ecosystem.core.bi.events.SpendOrderFailed;
 import com.kin.ecosystem.core.data.blockchain.BlockchainSource;
 import com.kin.ecosystem.core.data.blockchain.Payment;
+import com.kin.ecosystem.core.data.blockchain.PaymentObserver;
 import com.kin.ecosystem.core.network.ApiException;
 import com.kin.ecosystem.core.network.model.BlockchainData;
 import com.kin.ecosystem.core.network.model.Body;
@@ -42,9 +44,12 @@ import com.kin.ecosystem.core.network.model.Order;
 import com.kin.ecosystem.core.network.model.Order.Origin;
 import com.kin.ecosystem.core.network.model.Order.Status;
 import com.kin.ecosystem.core.network.model.OrderList;
+import com.kin.ecosystem.core.network.model.Paging;
+import com.kin.ecosystem.core.network.model.PagingCursors;
 import com.kin.ecosystem.core.network.model.OrderSpendResult.TypeEnum;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -70,6 +75,8 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 	private static String offerID = "1";
 	private static String orderID = "2";
+	// Order requests are journaled on the io lane before they are sent.
+	private static final long OUTBOX_TIMEOUT_MILLIS = 1000;
 
 	@Mock
 	private BlockchainSource blockchainSource;
@@ -160,6 +167,109 @@ public class OrderRepositoryTest extends BaseTestClass {
 		verify(orderHistoryCallback).onResponse(orderList);
 	}
 
+	@Test
+	public void getAllOrderHistory_CachedPendingOrder_FetchedAgainOnce() {
+		loadCachedHistory(historyOrder("3", Status.PENDING), historyOrder("4", Status.COMPLETED));
+		KinCallback<OrderList> orderHistoryCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OrderList, ApiException>> pageCaptor = ArgumentCaptor.forClass(Callback.class);
+		ArgumentCaptor<Callback<Order, ApiException>> orderCaptor = ArgumentCaptor.forClass(Callback.class);
+
+		orderRepository.getAllOrderHistory(orderHistoryCallback);
+		verify(remote).getOrderHistoryPage(eq("before"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(new OrderList().orders(new ArrayList<Order>()));
+
+		verify(remote).getOrder(eq("3"), orderCaptor.capture());
+		verify(remote, never()).getOrder(eq("4"), any(Callback.class));
+		verify(orderHistoryCallback, never()).onResponse(any(OrderList.class));
+
+		orderCaptor.getValue().onResponse(historyOrder("3", Status.COMPLETED));
+		ArgumentCaptor<OrderList> historyCaptor = ArgumentCaptor.forClass(OrderList.class);
+		verify(orderHistoryCallback).onResponse(historyCaptor.capture());
+		assertEquals(Status.COMPLETED, historyCaptor.getValue().getOrders().get(0).getStatus());
+		verify(local).saveOrderHistory(historyCaptor.getValue());
+
+		orderRepository.getAllOrderHistory(orderHistoryCallback);
+		verify(remote, times(2)).getOrderHistoryPage(eq("before"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(new OrderList().orders(new ArrayList<Order>()));
+		verify(remote, times(1)).getOrder(eq("3"), any(Callback.class));
+		verify(orderHistoryCallback, times(2)).onResponse(any(OrderList.class));
+	}
+
+	@Test
+	public void getAllOrderHistory_RefetchFailed_RetriedOnNextCall() {
+		loadCachedHistory(historyOrder("3", Status.DELAYED));
+		KinCallback<OrderList> orderHistoryCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OrderList, ApiException>> pageCaptor = ArgumentCaptor.forClass(Callback.class);
+		ArgumentCaptor<Callback<Order, ApiException>> orderCaptor = ArgumentCaptor.forClass(Callback.class);
+
+		orderRepository.getAllOrderHistory(orderHistoryCallback);
+		verify(remote).getOrderHistoryPage(eq("before"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(new OrderList().orders(new ArrayList<Order>()));
+		verify(remote).getOrder(eq("3"), orderCaptor.capture());
+		orderCaptor.getValue().onFailure(getApiException());
+		verify(orderHistoryCallback).onResponse(any(OrderList.class));
+
+		orderRepository.getAllOrderHistory(orderHistoryCallback);
+		verify(remote, times(2)).getOrderHistoryPage(eq("before"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(new OrderList().orders(new ArrayList<Order>()));
+		verify(remote, times(2)).getOrder(eq("3"), any(Callback.class));
+	}
+
+	@Test
+	public void getAllOrderHistory_NewerPageNotFull_NoExtraRequest() {
+		loadCachedHistory(historyOrder("3", Status.COMPLETED));
+		KinCallback<OrderList> orderHistoryCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OrderList, ApiException>> pageCaptor = ArgumentCaptor.forClass(Callback.class);
+
+		orderRepository.getAllOrderHistory(orderHistoryCallback);
+		verify(remote).getOrderHistoryPage(eq("before"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(historyPage("newer", 1));
+
+		verify(remote, times(1)).getOrderHistoryPage(anyString(), isNull(String.class), any(Callback.class));
+		ArgumentCaptor<OrderList> historyCaptor = ArgumentCaptor.forClass(OrderList.class);
+		verify(orderHistoryCallback).onResponse(historyCaptor.capture());
+		assertEquals(2, historyCaptor.getValue().getOrders().size());
+	}
+
+	@Test
+	public void getAllOrderHistory_NewerPageFull_FetchNextNewerPage() {
+		loadCachedHistory(historyOrder("3", Status.COMPLETED));
+		KinCallback<OrderList> orderHistoryCallback = mock(KinCallback.class);
+		ArgumentCaptor<Callback<OrderList, ApiException>> pageCaptor = ArgumentCaptor.forClass(Callback.class);
+
+		orderRepository.getAllOrderHistory(orderHistoryCallback);
+		verify(remote).getOrderHistoryPage(eq("before"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(historyPage("newer", OrderRemoteData.ORDERS_ITEMS_LIMIT));
+		verify(orderHistoryCallback, never()).onResponse(any(OrderList.class));
+
+		verify(remote).getOrderHistoryPage(eq("newer"), isNull(String.class), pageCaptor.capture());
+		pageCaptor.getValue().onResponse(new OrderList().orders(new ArrayList<Order>()));
+		verify(orderHistoryCallback).onResponse(any(OrderList.class));
+	}
+
+	private void loadCachedHistory(Order... orders) {
+		ArgumentCaptor<Callback<OrderList, Void>> localCaptor = ArgumentCaptor.forClass(Callback.class);
+		verify(local).getOrderHistory(localCaptor.capture());
+		localCaptor.getValue().onResponse(new OrderList().orders(new ArrayList<>(Arrays.asList(orders)))
+			.paging(new Paging().cursors(new PagingCursors().before("before").after("after"))));
+	}
+
+	private static OrderList historyPage(String beforeCursor, int size) {
+		final List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			orders.add(historyOrder("new" + i, Status.COMPLETED));
+		}
+		return new OrderList().orders(orders)
+			.paging(new Paging().previous("previous").cursors(new PagingCursors().before(beforeCursor)));
+	}
+
+	private static Order historyOrder(String orderID, Status status) {
+		final Order order = new Order();
+		order.setOrderId(orderID);
+		order.setStatus(status);
+		return order;
+	}
+
 	@Test
 	public void createOrder_Succeed() {
 		orderRepository.createOrder(offerID, openOrderCallback);
@@ -188,7 +298,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 	public void submitOrder_Succeed_EarnOrder() throws Exception {
 		KinCallback<Order> orderCallback = mock(KinCallback.class);
 		ArgumentCaptor<Callback<Order, ApiException>> submitOrderCapture = ArgumentCaptor.forClass(Callback.class);
-		ArgumentCaptor<Observer<Payment>> paymentCapture = ArgumentCaptor.forClass(Observer.class);
+		ArgumentCaptor<PaymentObserver> paymentCapture = ArgumentCaptor.forClass(PaymentObserver.class);
 		ArgumentCaptor<Callback<Order, ApiException>> getOrderCapture = ArgumentCaptor.forClass(Callback.class);
 
 		// Create Order
@@ -199,8 +309,8 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		// Submit Order
 		orderRepository.submitEarnOrder(order.getOfferId(), "", order.getOrderId(), orderCallback);
-		verify(remote).submitEarnOrder(anyString(), anyString(), submitOrderCapture.capture());
-		verify(blockchainSource).addPaymentObservable(paymentCapture.capture());
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).submitEarnOrder(anyString(), anyString(), anyString(), submitOrderCapture.capture());
+		verify(blockchainSource).addPaymentObserver(anyString(), paymentCapture.capture());
 
 		when(order.getStatus()).thenReturn(Status.PENDING);
 		submitOrderCapture.getValue().onResponse(order);
@@ -227,7 +337,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 	public void submitOrder_Succeed_SpendOrder_StatusCompleted() throws Exception {
 		KinCallback<Order> orderCallback = mock(KinCallback.class);
 		ArgumentCaptor<Callback<Order, ApiException>> submitOrderCapture = ArgumentCaptor.forClass(Callback.class);
-		ArgumentCaptor<Observer<Payment>> paymentCapture = ArgumentCaptor.forClass(Observer.class);
+		ArgumentCaptor<PaymentObserver> paymentCapture = ArgumentCaptor.forClass(PaymentObserver.class);
 		ArgumentCaptor<Callback<Order, ApiException>> getOrderCapture = ArgumentCaptor.forClass(Callback.class);
 
 		when(order.getOfferType()).thenReturn(OfferType.SPEND);
@@ -241,8 +351,8 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		// Submit Order
 		orderRepository.submitSpendOrder(order.getOfferId(), null, order.getOrderId(), orderCallback);
-		verify(remote).submitSpendOrder((String) isNull(), anyString(), submitOrderCapture.capture());
-		verify(blockchainSource).addPaymentObservable(paymentCapture.capture());
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).submitSpendOrder((String) isNull(), anyString(), anyString(), submitOrderCapture.capture());
+		verify(blockchainSource).addPaymentObserver(anyString(), paymentCapture.capture());
 
 		when(order.getStatus()).thenReturn(Status.PENDING);
 		submitOrderCapture.getValue().onResponse(order);
@@ -269,7 +379,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 	public void submitOrder_Succeed_SpendOrder_StatusFailed() throws Exception {
 		KinCallback<Order> orderCallback = mock(KinCallback.class);
 		ArgumentCaptor<Callback<Order, ApiException>> submitOrderCapture = ArgumentCaptor.forClass(Callback.class);
-		ArgumentCaptor<Observer<Payment>> paymentCapture = ArgumentCaptor.forClass(Observer.class);
+		ArgumentCaptor<PaymentObserver> paymentCapture = ArgumentCaptor.forClass(PaymentObserver.class);
 		ArgumentCaptor<Callback<Order, ApiException>> getOrderCapture = ArgumentCaptor.forClass(Callback.class);
 
 		when(order.getOfferType()).thenReturn(OfferType.SPEND);
@@ -282,8 +392,8 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		// Submit Order
 		orderRepository.submitSpendOrder(order.getOfferId(), null, order.getOrderId(), orderCallback);
-		verify(remote).submitSpendOrder((String) isNull(), anyString(), submitOrderCapture.capture());
-		verify(blockchainSource).addPaymentObservable(paymentCapture.capture());
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).submitSpendOrder((String) isNull(), anyString(), anyString(), submitOrderCapture.capture());
+		verify(blockchainSource).addPaymentObserver(anyString(), paymentCapture.capture());
 
 		when(order.getStatus()).thenReturn(Status.PENDING);
 		submitOrderCapture.getValue().onResponse(order);
@@ -318,7 +428,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		// Submit Order
 		orderRepository.submitSpendOrder(order.getOfferId(), null, order.getOrderId(), orderCallback);
-		verify(remote).submitSpendOrder((String) isNull(), anyString(), submitOrderCapture.capture());
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).submitSpendOrder((String) isNull(), anyString(), anyString(), submitOrderCapture.capture());
 
 		submitOrderCapture.getValue().onFailure(getApiException());
 		verify(orderCallback).onFailure(any(KinEcosystemException.class));
@@ -340,7 +450,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		// Cancel Order
 		orderRepository.cancelOrder(offerID, orderID, cancelOrderCallback);
-		verify(remote).cancelOrder(anyString(), cancelOrderCapture.capture());
+		verify(remote).cancelOrder(anyString(), anyString(), cancelOrderCapture.capture());
 
 		cancelOrderCapture.getValue().onResponse(null);
 		assertNull(orderRepository.getOpenOrder().getValue());
@@ -359,7 +469,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		// Cancel Order
 		orderRepository.cancelOrder(offerID, orderID, cancelOrderCallback);
-		verify(remote).cancelOrder(anyString(), cancelOrderCapture.capture());
+		verify(remote).cancelOrder(anyString(), anyString(), cancelOrderCapture.capture());
 
 		cancelOrderCapture.getValue().onFailure(getApiException());
 		verify(cancelOrderCallback).onFailure(any(KinEcosystemException.class));
@@ -369,7 +479,7 @@ public class OrderRepositoryTest extends BaseTestClass {
 	@Test
 	public void purchase_Spend_Succeed() throws Exception {
 		final CountDownLatch countDownLatch = new CountDownLatch(1);
-		ArgumentCaptor<Observer<Payment>> paymentCapture = ArgumentCaptor.forClass(Observer.class);
+		ArgumentCaptor<PaymentObserver> paymentCapture = ArgumentCaptor.forClass(PaymentObserver.class);
 		ArgumentCaptor<Callback<Order, ApiException>> getOrderCapture = ArgumentCaptor.forClass(Callback.class);
 
 		Order confirmedOrder = new Order().orderId(orderID).offerId(offerID).status(Status.COMPLETED).amount(30);
@@ -394,9 +504,9 @@ public class OrderRepositoryTest extends BaseTestClass {
 		});
 		Thread.sleep(500);
 		ShadowLooper.runUiThreadTasks();
-		verify(blockchainSource, times(2)).addPaymentObservable(paymentCapture.capture());
-		List<Observer<Payment>> observersList = paymentCapture.getAllValues();
-		for (Observer<Payment> observer : observersList) {
+		verify(blockchainSource, times(2)).addPaymentObserver(anyString(), paymentCapture.capture());
+		List<PaymentObserver> observersList = paymentCapture.getAllValues();
+		for (PaymentObserver observer : observersList) {
 			observer.onChanged(payment);
 		}
 
@@ -453,8 +563,8 @@ public class OrderRepositoryTest extends BaseTestClass {
 
 		Thread.sleep(500);
 		ShadowLooper.runUiThreadTasks();
-		verify(blockchainSource, never()).addPaymentObservable(any(Observer.class));
-		verify(remote, never()).submitSpendOrder((String) isNull(), anyString(), any(Callback.class));
+		verify(blockchainSource, never()).addPaymentObserver(anyString(), any(PaymentObserver.class));
+		verify(remote, never()).submitSpendOrder((String) isNull(), anyString(), anyString(), any(Callback.class));
 		assertNull(orderRepository.getOrderWatcher().getValue());
 
 		countDownLatch.await(1000, TimeUnit.MICROSECONDS);
@@ -483,8 +593,8 @@ public class OrderRepositoryTest extends BaseTestClass {
 		});
 		Thread.sleep(500);
 		ShadowLooper.runUiThreadTasks();
-		verify(blockchainSource, never()).addPaymentObservable(any(Observer.class));
-		verify(remote, never()).submitSpendOrder((String) isNull(), anyString(), any(Callback.class));
+		verify(blockchainSource, never()).addPaymentObserver(anyString(), any(PaymentObserver.class));
+		verify(remote, never()).submitSpendOrder((String) isNull(), anyString(), anyString(), any(Callback.class));
 		assertNull(orderRepository.getOrderWatcher().getValue());
 
 		countDownLatch.await(500, TimeUnit.MICROSECONDS);
@@ -515,14 +625,15 @@ public class OrderRepositoryTest extends BaseTestClass {
 		Thread.sleep(500);
 		ShadowLooper.runUiThreadTasks();
 
-		verify(remote).cancelOrderSync(anyString());
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).cancelOrder(anyString(), anyString(), any(Callback.class));
 		countDownLatch.await(500, TimeUnit.MICROSECONDS);
 	}
 
 	@Test
 	public void purchase_Spend_Failed_Payment_Failed() throws Exception {
 		final CountDownLatch countDownLatch = new CountDownLatch(1);
-		ArgumentCaptor<Observer<Payment>> paymentCapture = ArgumentCaptor.forClass(Observer.class);
+		ArgumentCaptor<PaymentObserver> paymentCapture = ArgumentCaptor.forClass(PaymentObserver.class);
+		ArgumentCaptor<Callback<Order, ApiException>> submitOrderCapture = ArgumentCaptor.forClass(Callback.class);
 
 		when(remote.createExternalOrderSync(anyString())).thenReturn(openOrder);
 		when(payment.isSucceed()).thenReturn(false);
@@ -543,17 +654,20 @@ public class OrderRepositoryTest extends BaseTestClass {
 		});
 		Thread.sleep(500);
 		ShadowLooper.runUiThreadTasks();
-		verify(blockchainSource, times(2)).addPaymentObservable(paymentCapture.capture());
-		List<Observer<Payment>> observersList = paymentCapture.getAllValues();
-		for (Observer<Payment> observer : observersList) {
+		// Requests of the same order are sent in order, the change waits for the submit.
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).submitSpendOrder((String) isNull(), anyString(), anyString(), submitOrderCapture.capture());
+		submitOrderCapture.getValue().onResponse(order);
+		verify(blockchainSource, times(2)).addPaymentObserver(anyString(), paymentCapture.capture());
+		List<PaymentObserver> observersList = paymentCapture.getAllValues();
+		for (PaymentObserver observer : observersList) {
 			observer.onChanged(payment);
 		}
 
 		countDownLatch.await(500, TimeUnit.MICROSECONDS);
 
-		verify(blockchainSource).removePaymentObserver(observersList.get(0));
-		verify(blockchainSource).removePaymentObserver(observersList.get(1));
-		verify(remote).changeOrder(anyString(), any(Body.class), any(Callback.class));
+		// Observers are removed by the payment router once notified.
+		verify(blockchainSource, never()).removePaymentObserver(anyString(), any(PaymentObserver.class));
+		verify(remote, timeout(OUTBOX_TIMEOUT_MILLIS)).changeOrder(anyString(), any(Body.class), any(Callback.class));
 
 		assertNull(orderRepository.getOrderWatcher().getValue());
 	}
@@ -0,0 +1,91 @@
+package com.kin.ecosystem.core
+
+import com.nhaarman.mockitokotlin2.*
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.robolectric.shadows.ShadowLooper
+import java.util.concurrent.Callable
+import java.util.concurrent.Executor
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class PollingRequestTest {
+
+    private val executor = Executor { it.run() }
+    private val scheduledDelays = mutableListOf<Long>()
+    private val scheduledTasks = mutableListOf<Runnable>()
+    private val scheduledFuture: ScheduledFuture<*> = mock()
+    private val scheduler: ScheduledExecutorService = mock {
+        on { schedule(any<Runnable>(), any(), any()) } doAnswer {
+            scheduledTasks.add(it.getArgument(0))
+            scheduledDelays.add(it.getArgument<TimeUnit>(2).toMillis(it.getArgument(1)))
+            scheduledFuture
+        }
+    }
+    private val callback: CoreCallback<String> = mock()
+
+    private var failures = 0
+    private var calls = 0
+    private val callable = Callable {
+        calls++
+        if (calls <= failures) throw IllegalStateException("not yet")
+        "result"
+    }
+
+    @Test
+    fun `poll until success, schedule each wait without blocking`() {
+        failures = 2
+        val request = PollingRequest(intArrayOf(2, 3, 5), callable, executor, scheduler)
+
+        request.run(callback)
+        runScheduledTasks()
+        ShadowLooper.runUiThreadTasks()
+
+        assertEquals(3, calls)
+        assertEquals(listOf(2000L, 3000L), scheduledDelays)
+        verify(callback).onResponse("result")
+        verify(callback, never()).onFailure(any())
+    }
+
+    @Test
+    fun `poll fails after all intervals, notify failure`() {
+        failures = 10
+        val request = PollingRequest(intArrayOf(1, 1), callable, executor, scheduler)
+
+        request.run(callback)
+        runScheduledTasks()
+        ShadowLooper.runUiThreadTasks()
+
+        assertEquals(3, calls)
+        verify(callback).onFailure(any<IllegalStateException>())
+        verify(callback, never()).onResponse(any())
+    }
+
+    @Test
+    fun `cancel while waiting, cancel the wait and never call again`() {
+        failures = 10
+        val request = PollingRequest(intArrayOf(1, 1), callable, executor, scheduler)
+
+        request.run(callback)
+        request.cancel(true)
+        verify(scheduledFuture).cancel(true)
+
+        runScheduledTasks()
+        ShadowLooper.runUiThreadTasks()
+
+        assertEquals(1, calls)
+        verifyZeroInteractions(callback)
+    }
+
+    private fun runScheduledTasks() {
+        while (scheduledTasks.isNotEmpty()) {
+            scheduledTasks.removeAt(0).run()
+        }
+    }
+}
@@ -20,6 +20,10 @@ import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
 import org.robolectric.annotation.Config
 import java.time.Instant
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 
 
 @Config(manifest = Config.NONE)
@@ -238,6 +242,33 @@ class AuthRepositoryTest : BaseTestClass() {
         verify(callback).onResponse(any())
     }
 
+    @Test
+    fun `concurrent token refreshes share a single sign in`() {
+        val accountInfo: AccountInfo = mock {
+            on { authToken } doAnswer { authToken }
+        }
+        val signInStarted = CountDownLatch(1)
+        val releaseSignIn = CountDownLatch(1)
+        whenever(local.authTokenSync) doAnswer { null }
+        whenever(remote.getAccountInfoSync(any())) doAnswer {
+            signInStarted.countDown()
+            releaseSignIn.await(5, TimeUnit.SECONDS)
+            accountInfo
+        }
+        resetInstance()
+        authRepository.setJWT(JWT_A)
+
+        val executor = Executors.newFixedThreadPool(5)
+        val results = (1..5).map { executor.submit(Callable { authRepository.authTokenSync }) }
+        signInStarted.await(5, TimeUnit.SECONDS)
+        releaseSignIn.countDown()
+
+        results.forEach { assertEquals(authToken, it.get(5, TimeUnit.SECONDS)) }
+        executor.shutdown()
+        verify(remote, times(1)).getAccountInfoSync(any())
+        assertEquals(1, (authRepository as AuthRepository).tokenRefreshMetrics.requestCount)
+    }
+
     private fun getValidToken(appId: String, userId: String, kinUserId: String): AuthToken {
         val tomorrow = Instant.now().plusMillis(3 * DateUtils.DAY_IN_MILLIS).toString()
         return AuthToken("authToken", tomorrow, appId, userId, kinUserId)
@@ -0,0 +1,55 @@
+package com.kin.ecosystem.core.data.blockchain
+
+import com.nhaarman.mockitokotlin2.*
+import kin.sdk.migration.common.interfaces.IKinAccount
+import kin.sdk.migration.common.interfaces.IKinClient
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class AccountIndexTest {
+
+    private val accounts = mutableListOf<IKinAccount>()
+    private val kinClient: IKinClient = mock {
+        on { accountCount } doAnswer { accounts.size }
+        on { getAccount(any()) } doAnswer { accounts.getOrNull(it.getArgument(0)) }
+    }
+
+    private val accountIndex = AccountIndex()
+
+    @Test
+    fun `indexOf existing and missing addresses`() {
+        addAccounts("a", "b", "c")
+        assertEquals(0, accountIndex.indexOf(kinClient, "a"))
+        assertEquals(2, accountIndex.indexOf(kinClient, "c"))
+        assertEquals(AccountIndex.NOT_FOUND, accountIndex.indexOf(kinClient, "d"))
+        assertEquals(AccountIndex.NOT_FOUND, accountIndex.indexOf(kinClient, null))
+    }
+
+    @Test
+    fun `indexOf an added account, only index the new accounts`() {
+        addAccounts("a", "b")
+        accountIndex.indexOf(kinClient, "a")
+        addAccounts("c")
+        clearInvocations(kinClient)
+
+        assertEquals(2, accountIndex.indexOf(kinClient, "c"))
+        verify(kinClient, never()).getAccount(0)
+        verify(kinClient, never()).getAccount(1)
+    }
+
+    @Test
+    fun `indexOf after an account was deleted, rebuild the index`() {
+        addAccounts("a", "b", "c")
+        accountIndex.indexOf(kinClient, "c")
+        accounts.removeAt(0)
+
+        assertEquals(1, accountIndex.indexOf(kinClient, "c"))
+        assertEquals(AccountIndex.NOT_FOUND, accountIndex.indexOf(kinClient, "a"))
+    }
+
+    private fun addAccounts(vararg addresses: String) {
+        addresses.forEach { address ->
+            accounts.add(mock { on { publicAddress } doReturn address })
+        }
+    }
+}
@@ -20,7 +20,10 @@ import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
 import org.robolectric.annotation.Config
+import org.robolectric.shadows.ShadowLooper
 import java.math.BigDecimal
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 @Config(manifest = Config.NONE)
 @RunWith(RobolectricTestRunner::class)
@@ -227,18 +230,100 @@ class BlockchainSourceImplTest() : BaseTestClass() {
         verify(transactionRequest).run(resultCallbackArgumentCaptor.capture())
 
         val exception = Exception("failed")
+        val paymentReceived = CountDownLatch(1)
+        var payment: Payment? = null
 
-        blockchainSource.addPaymentObservable(object : Observer<Payment>() {
+        // Payments are delivered on the main thread.
+        blockchainSource.addPaymentObserver(orderID, object : PaymentObserver() {
             override fun onChanged(value: Payment) {
-                assertFalse(value.isSucceed)
-                assertEquals(orderID, value.orderID)
-                assertEquals(exception, value.exception)
-                assertEquals(Payment.UNKNOWN.toLong(), value.type.toLong())
+                payment = value
+                paymentReceived.countDown()
             }
         })
 
         resultCallbackArgumentCaptor.firstValue.onError(exception)
         verify(eventLogger).send(any<SpendTransactionBroadcastToBlockchainFailed>())
+        assertTrue(awaitOnMainLooper(paymentReceived))
+        payment!!.let {
+            assertFalse(it.isSucceed)
+            assertEquals(orderID, it.orderID)
+            assertEquals(exception, it.exception)
+            assertEquals(Payment.UNKNOWN.toLong(), it.type.toLong())
+        }
+    }
+
+    @Test
+    fun `payment that arrived before the observer was added is replayed`() {
+        whenever(authRepository.appID).thenReturn(APP_ID);
+        loadAccount(kinAccountA, PUBLIC_ADDRESS_A, KIN_USER_ID_A)
+        val orderID = "someID"
+
+        val transactionRequest: Request<ITransactionId> = mock()
+        val resultCallbackArgumentCaptor = argumentCaptor<ResultCallback<ITransactionId>>()
+        whenever(kinAccountA.sendTransaction(any(), any(), any(), any())).thenReturn(transactionRequest)
+
+        blockchainSource.sendTransaction("some_pub_address", BigDecimal(10), orderID, "offerID")
+        verify(transactionRequest).run(resultCallbackArgumentCaptor.capture())
+        resultCallbackArgumentCaptor.firstValue.onError(Exception("failed"))
+
+        val paymentReceived = CountDownLatch(1)
+        val otherOrderPayments = CountDownLatch(1)
+        blockchainSource.addPaymentObserver("otherID", object : PaymentObserver() {
+            override fun onChanged(value: Payment) {
+                otherOrderPayments.countDown()
+            }
+        })
+        blockchainSource.addPaymentObserver(orderID, object : PaymentObserver() {
+            override fun onChanged(value: Payment) {
+                assertEquals(orderID, value.orderID)
+                paymentReceived.countDown()
+            }
+        })
+
+        assertTrue(awaitOnMainLooper(paymentReceived))
+        ShadowLooper.runUiThreadTasks()
+        assertEquals(1, otherOrderPayments.count)
+    }
+
+    @Test
+    fun `payment listener held before the account was loaded, started on load`() {
+        blockchainSource.holdPaymentListener()
+        verify(kinAccountA, never()).addPaymentListener(any())
+
+        loadAccount(kinAccountA, PUBLIC_ADDRESS_A, KIN_USER_ID_A)
+        verify(kinAccountA).addPaymentListener(any())
+    }
+
+    @Test
+    fun `payment listener released, registration removed once`() {
+        val registration: IListenerRegistration = mock()
+        whenever(kinAccountA.addPaymentListener(any())).thenReturn(registration)
+        loadAccount(kinAccountA, PUBLIC_ADDRESS_A, KIN_USER_ID_A)
+
+        blockchainSource.holdPaymentListener()
+        blockchainSource.releasePaymentListener()
+        verify(registration).remove()
+
+        blockchainSource.logout()
+        verify(registration, times(1)).remove()
+    }
+
+    @Test
+    fun `payment observer is notified on timeout`() {
+        val timedOut = CountDownLatch(1)
+        blockchainSource.addPaymentObserver("someID", object : PaymentObserver() {
+            override fun onChanged(value: Payment) {
+                fail("No payment was sent")
+            }
+
+            override fun onTimeout(orderID: String) {
+                assertEquals("someID", orderID)
+                timedOut.countDown()
+            }
+        })
+        blockchainSource.setPaymentTimeout("someID", 10)
+
+        assertTrue(awaitOnMainLooper(timedOut))
     }
 
     @Test
@@ -256,16 +341,19 @@ class BlockchainSourceImplTest() : BaseTestClass() {
         var value = BigDecimal(25)
         whenever(innerBalance.value()).thenReturn(value)
         blockchainSource.setBalance(innerBalance)
+        blockchainSource.flushBalance()
         assertEquals(value, balance?.amount)
 
         value = BigDecimal(50)
         whenever(innerBalance.value()).thenReturn(value)
         blockchainSource.setBalance(innerBalance)
+        blockchainSource.flushBalance()
         assertEquals(value, balance?.amount)
 
         value = BigDecimal(50)
         whenever(innerBalance.value()).thenReturn(value)
         blockchainSource.setBalance(innerBalance)
+        blockchainSource.flushBalance()
         assertEquals(value, balance?.amount)
 
         inOrder(local).apply {
@@ -291,13 +379,59 @@ class BlockchainSourceImplTest() : BaseTestClass() {
 
         whenever(balanceObj.value()).thenReturn(value)
         balanceEventListener.firstValue.onEvent(balanceObj)
+        blockchainSource.flushBalance()
 
         assertEquals(value, balance?.amount)
         verify(local).balance = value.toInt()
     }
 
+    @Test
+    fun `balance updates are persisted once per burst`() {
+        loadAccount(kinAccountA, PUBLIC_ADDRESS_A, KIN_USER_ID_A)
+        val innerBalance: kin.sdk.migration.common.interfaces.IBalance = mock()
+        for (amount in 1..10) {
+            whenever(innerBalance.value()).thenReturn(BigDecimal(amount))
+            blockchainSource.setBalance(innerBalance)
+        }
+        blockchainSource.flushBalance()
+
+        verify(local, times(1)).balance = any()
+        verify(local).balance = 10
+        assertEquals(BigDecimal(10), blockchainSource.balance.amount)
+    }
+
+    @Test
+    fun `concurrent getBalance calls share one request`() {
+        loadAccount(kinAccountA, PUBLIC_ADDRESS_A, KIN_USER_ID_A)
+        val resultCallback = argumentCaptor<ResultCallback<IBalance>>()
+        verify(getBalanceReq).run(resultCallback.capture())
+
+        blockchainSource.getBalance(null)
+        blockchainSource.getBalance(null)
+        verify(getBalanceReq, times(1)).run(any())
+
+        whenever(balanceObj.value()).thenReturn(BigDecimal(7))
+        resultCallback.firstValue.onResult(balanceObj)
+        blockchainSource.getBalance(null)
+        verify(getBalanceReq, times(2)).run(any())
+    }
+
     @Test
     fun `get KeyStoreProvider is not null`() {
         assertNotNull(blockchainSource.keyStoreProvider)
     }
-}
\ No newline at end of file
+
+    /**
+     * Run the main looper tasks until the latch is released, payment observers are notified on the main thread.
+     */
+    private fun awaitOnMainLooper(latch: CountDownLatch): Boolean {
+        val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5)
+        while (System.currentTimeMillis() < deadline) {
+            ShadowLooper.runUiThreadTasks()
+            if (latch.await(10, TimeUnit.MILLISECONDS)) {
+                return true
+            }
+        }
+        return false
+    }
+}
@@ -0,0 +1,96 @@
+package com.kin.ecosystem.core.network
+
+import com.google.gson.reflect.TypeToken
+import com.kin.ecosystem.core.network.model.OfferList
+import okhttp3.MediaType
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody
+import okio.Buffer
+import okio.Okio
+import okio.Source
+import okio.Timeout
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.IOException
+import java.net.SocketTimeoutException
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class ApiClientTest {
+
+    private val apiClient = ApiClient("http://localhost/")
+    private val offerListType = object : TypeToken<OfferList>() {}.type
+
+    @Test
+    fun `body read fails while streaming, throw ApiException`() {
+        val failingSource = object : Source {
+            private var isFirstRead = true
+
+            override fun read(sink: Buffer, byteCount: Long): Long {
+                if (isFirstRead) {
+                    isFirstRead = false
+                    sink.writeUtf8("{\"offers\": [")
+                    return 12
+                }
+                throw SocketTimeoutException("timeout")
+            }
+
+            override fun timeout() = Timeout.NONE
+
+            override fun close() {}
+        }
+
+        try {
+            apiClient.deserialize<OfferList>(response(ResponseBody.create(JSON_TYPE, -1, Okio.buffer(failingSource))),
+                    offerListType)
+            throw AssertionError("expected ApiException")
+        } catch (e: ApiException) {
+            assertTrue(hasCause(e, IOException::class.java))
+        }
+    }
+
+    @Test(expected = ApiException::class)
+    fun `malformed json, throw ApiException`() {
+        apiClient.deserialize<OfferList>(response(ResponseBody.create(JSON_TYPE, "{\"offers\": [")), offerListType)
+    }
+
+    @Test
+    fun `valid json, deserialize streamed body`() {
+        val offerList = apiClient.deserialize<OfferList>(
+                response(ResponseBody.create(JSON_TYPE, "{\"offers\": []}")), offerListType)
+
+        assertEquals(0, offerList.offers.size)
+    }
+
+    private fun response(body: ResponseBody): Response {
+        return Response.Builder()
+                .request(Request.Builder().url("http://localhost/offers").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .header("Content-Type", JSON_TYPE.toString())
+                .body(body)
+                .build()
+    }
+
+    private fun hasCause(throwable: Throwable, type: Class<out Throwable>): Boolean {
+        var cause: Throwable? = throwable.cause
+        while (cause != null) {
+            if (type.isInstance(cause)) {
+                return true
+            }
+            cause = cause.cause
+        }
+        return false
+    }
+
+    companion object {
+        private val JSON_TYPE = MediaType.parse("application/json; charset=utf-8")!!
+    }
+}
@@ -0,0 +1,95 @@
+package com.kin.ecosystem.core.network
+
+import okhttp3.Cache
+import okhttp3.CacheControl
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.util.concurrent.TimeUnit
+
+class SharedHttpClientTest {
+
+    @get:Rule
+    val cacheDir = TemporaryFolder()
+
+    private val server = MockWebServer()
+    private val revalidate = CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build()
+
+    @Before
+    fun setUp() {
+        server.start()
+        SharedHttpClient.setCache(Cache(cacheDir.root, 1024 * 1024))
+    }
+
+    @After
+    fun tearDown() {
+        SharedHttpClient.setCache(null)
+        server.shutdown()
+    }
+
+    @Test
+    fun `revalidate unchanged offers, send conditional request and return cached body`() {
+        server.enqueue(MockResponse().setHeader("ETag", "\"v1\"").setBody("offers"))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        assertEquals("offers", execute(request("/offers", revalidate)))
+        server.takeRequest()
+
+        val response = SharedHttpClient.getInstance().newCall(request("/offers", revalidate)).execute()
+        assertEquals(200, response.code())
+        assertEquals("offers", response.body()!!.string())
+        assertNotNull(response.cacheResponse())
+        assertEquals(304, response.networkResponse()!!.code())
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"))
+    }
+
+    @Test
+    fun `force cache after a response was stored, answer from disk without network`() {
+        server.enqueue(MockResponse().setHeader("ETag", "\"v1\"").setBody("offers"))
+
+        execute(request("/offers", revalidate))
+        val response = SharedHttpClient.getInstance().newCall(request("/offers", CacheControl.FORCE_CACHE)).execute()
+
+        assertEquals("offers", response.body()!!.string())
+        assertNull(response.networkResponse())
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test
+    fun `request without cache control, response is not stored`() {
+        server.enqueue(MockResponse().setHeader("ETag", "\"v1\"").setBody("order"))
+
+        execute(request("/orders/1", null))
+        val response = SharedHttpClient.getInstance().newCall(request("/orders/1", CacheControl.FORCE_CACHE)).execute()
+
+        assertEquals(504, response.code())
+        assertEquals(0, SharedHttpClient.getCache()!!.size())
+    }
+
+    @Test
+    fun `cache removed, shared client does not cache`() {
+        SharedHttpClient.setCache(null)
+
+        assertNull(SharedHttpClient.getInstance().cache())
+    }
+
+    private fun request(path: String, cacheControl: CacheControl?): Request {
+        val builder = Request.Builder().url(server.url(path))
+        if (cacheControl != null) {
+            builder.cacheControl(cacheControl)
+        }
+        return builder.build()
+    }
+
+    private fun execute(request: Request): String {
+        return SharedHttpClient.getInstance().newCall(request).execute().body()!!.string()
+    }
+}
@@ -0,0 +1,38 @@
+package com.kin.ecosystem.core.util
+
+import com.kin.ecosystem.core.network.ApiException
+import com.kin.ecosystem.core.network.model.Error
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.IOException
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class ErrorUtilTest {
+
+    @Test
+    fun `isRetriable, transient failures`() {
+        assertTrue(ErrorUtil.isRetriable(ApiException(IOException("no response"))))
+        assertTrue(ErrorUtil.isRetriable(ApiException(408, "timeout")))
+        assertTrue(ErrorUtil.isRetriable(ApiException(429, "too many")))
+        assertTrue(ErrorUtil.isRetriable(ApiException(500, "server error")))
+        assertTrue(ErrorUtil.isRetriable(ApiException(502, "bad gateway")))
+        assertTrue(ErrorUtil.isRetriable(ApiException(503, "unavailable")))
+        assertTrue(ErrorUtil.isRetriable(ApiException(504, "gateway timeout")))
+    }
+
+    @Test
+    fun `isRetriable, final failures`() {
+        assertFalse(ErrorUtil.isRetriable(ApiException(400, "bad request")))
+        assertFalse(ErrorUtil.isRetriable(ApiException(409, "conflict")))
+        assertFalse(ErrorUtil.isRetriable(ApiException(413, "too large")))
+
+        val orderFailed = ApiException(500, "order failed")
+        orderFailed.responseBody = Error("order failed", "order failed", 5001)
+        assertFalse(ErrorUtil.isRetriable(orderFailed))
+    }
+}
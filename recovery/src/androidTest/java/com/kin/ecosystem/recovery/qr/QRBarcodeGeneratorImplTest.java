@@ -5,6 +5,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import android.graphics.Bitmap;
+import android.graphics.Point;
 import android.net.Uri;
 import android.support.annotation.NonNull;
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRNotFoundInImageException;
@@ -49,8 +50,20 @@ public class QRBarcodeGeneratorImplTest {
 
 		@NonNull
 		@Override
-		public Bitmap loadFile(@NonNull Uri uri) throws IOException {
-			return map.get(uri);
+		public Point loadImageSize(@NonNull Uri uri) throws IOException {
+			Bitmap bitmap = map.get(uri);
+			return new Point(bitmap.getWidth(), bitmap.getHeight());
+		}
+
+		@NonNull
+		@Override
+		public Bitmap loadFile(@NonNull Uri uri, int inSampleSize) throws IOException {
+			Bitmap bitmap = map.get(uri);
+			if (inSampleSize <= 1) {
+				return bitmap;
+			}
+			return Bitmap.createScaledBitmap(bitmap, bitmap.getWidth() / inSampleSize,
+				bitmap.getHeight() / inSampleSize, true);
 		}
 
 		@NonNull
@@ -3,6 +3,8 @@ package com.kin.ecosystem.recovery;
 import android.app.Activity;
 import android.content.Intent;
 import android.support.annotation.NonNull;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoServiceImpl;
 import com.kin.ecosystem.recovery.events.BroadcastManagerImpl;
 import com.kin.ecosystem.recovery.events.CallbackManager;
 import com.kin.ecosystem.recovery.events.EventDispatcherImpl;
@@ -10,12 +12,14 @@ import com.kin.ecosystem.recovery.events.EventDispatcherImpl;
 public final class BackupManager {
 
 	private static volatile KeyStoreProvider keyStoreProvider;
+	private static volatile KeyStoreCryptoService keyStoreCryptoService;
 	private final CallbackManager callbackManager;
 	private Activity activity;
 
 	public BackupManager(@NonNull final Activity activity, @NonNull final KeyStoreProvider keyStoreProvider) {
 		Validator.checkNotNull(activity, "activity");
 		BackupManager.keyStoreProvider = keyStoreProvider;
+		BackupManager.keyStoreCryptoService = new KeyStoreCryptoServiceImpl(keyStoreProvider);
 		this.activity = activity;
 		this.callbackManager = new CallbackManager(
 			new EventDispatcherImpl(new BroadcastManagerImpl(activity)));
@@ -25,6 +29,10 @@ public final class BackupManager {
 		return keyStoreProvider;
 	}
 
+	public static KeyStoreCryptoService getKeyStoreCryptoService() {
+		return keyStoreCryptoService;
+	}
+
 	public void backupFlow() {
 		new Launcher(activity).backupFlow();
 	}
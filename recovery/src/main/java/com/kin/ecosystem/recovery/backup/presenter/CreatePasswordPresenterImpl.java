@@ -9,6 +9,10 @@ import com.kin.ecosystem.recovery.KeyStoreProvider;
 import com.kin.ecosystem.recovery.backup.view.BackupNavigator;
 import com.kin.ecosystem.recovery.backup.view.CreatePasswordView;
 import com.kin.ecosystem.recovery.base.BasePresenterImpl;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoCallback;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoTask;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.Stage;
 import com.kin.ecosystem.recovery.events.CallbackManager;
 import com.kin.ecosystem.recovery.exception.BackupException;
 
@@ -17,16 +21,21 @@ public class CreatePasswordPresenterImpl extends BasePresenterImpl<CreatePasswor
 
 	private final BackupNavigator backupNavigator;
 	private final KeyStoreProvider keyStoreProvider;
+	private final KeyStoreCryptoService keyStoreCryptoService;
 	private final CallbackManager callbackManager;
 
+	private CryptoTask exportTask;
+
 	private boolean isPasswordRulesOK = false;
 	private boolean isPasswordsMatches = false;
 	private boolean isIUnderstandChecked = false;
 
 	public CreatePasswordPresenterImpl(@NonNull final CallbackManager callbackManager,
-		@NonNull final BackupNavigator backupNavigator, @NonNull final KeyStoreProvider keyStoreProvider) {
+		@NonNull final BackupNavigator backupNavigator, @NonNull final KeyStoreProvider keyStoreProvider,
+		@NonNull final KeyStoreCryptoService keyStoreCryptoService) {
 		this.backupNavigator = backupNavigator;
 		this.keyStoreProvider = keyStoreProvider;
+		this.keyStoreCryptoService = keyStoreCryptoService;
 		this.callbackManager = callbackManager;
 		this.callbackManager.sendBackupEvent(BACKUP_CREATE_PASSWORD_PAGE_VIEWED);
 	}
@@ -101,13 +110,40 @@ public class CreatePasswordPresenterImpl extends BasePresenterImpl<CreatePasswor
 	}
 
 	private void exportAccount(String password) {
-		try {
-			final String accountKey = keyStoreProvider.exportAccount(password);
-			backupNavigator.navigateToSaveAndSharePage(accountKey);
-		} catch (BackupException e) {
-			if (view != null) {
-				view.showBackupFailed();
+		if (exportTask != null) {
+			// Already exporting, the key derivation takes a while
+			return;
+		}
+		disableNextButton();
+		exportTask = keyStoreCryptoService.exportAccount(password, new CryptoCallback<String>() {
+			@Override
+			public void onProgress(@NonNull Stage stage) {
+
 			}
+
+			@Override
+			public void onResult(@NonNull String accountKey) {
+				exportTask = null;
+				backupNavigator.navigateToSaveAndSharePage(accountKey);
+			}
+
+			@Override
+			public void onError(@NonNull BackupException exception) {
+				exportTask = null;
+				checkAllCompleted();
+				if (view != null) {
+					view.showBackupFailed();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void onDetach() {
+		super.onDetach();
+		if (exportTask != null) {
+			exportTask.cancel();
+			exportTask = null;
 		}
 	}
 
@@ -13,6 +13,8 @@ import com.kin.ecosystem.recovery.base.BasePresenterImpl;
 import com.kin.ecosystem.recovery.events.CallbackManager;
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator;
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRBarcodeGeneratorException;
+import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRCallback;
+import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRTask;
 
 public class SaveAndSharePresenterImpl extends BasePresenterImpl<SaveAndShareView> implements SaveAndSharePresenter {
 
@@ -22,6 +24,7 @@ public class SaveAndSharePresenterImpl extends BasePresenterImpl<SaveAndShareVie
 	private final CallbackManager callbackManager;
 
 	private Uri qrURI;
+	private QRTask generateQRTask;
 	private boolean isSendQREmailClicked;
 	private boolean couldNotGenerateQR = false;
 
@@ -42,11 +45,21 @@ public class SaveAndSharePresenterImpl extends BasePresenterImpl<SaveAndShareVie
 	}
 
 	private void createQR(String key) {
-		try {
-			this.qrURI = this.qrBarcodeGenerator.generate(key);
-		} catch (QRBarcodeGeneratorException e) {
-			couldNotGenerateQR = true;
-		}
+		generateQRTask = this.qrBarcodeGenerator.generateAsync(key, new QRCallback<Uri>() {
+			@Override
+			public void onResult(@NonNull Uri result) {
+				qrURI = result;
+				generateQRTask = null;
+				setQRImage();
+			}
+
+			@Override
+			public void onError(@NonNull QRBarcodeGeneratorException exception) {
+				couldNotGenerateQR = true;
+				generateQRTask = null;
+				couldNotLoadQRImage();
+			}
+		});
 	}
 
 	@Override
@@ -54,7 +67,7 @@ public class SaveAndSharePresenterImpl extends BasePresenterImpl<SaveAndShareVie
 		super.onAttach(view);
 		if (couldNotGenerateQR) {
 			couldNotLoadQRImage();
-		} else {
+		} else if (qrURI != null) {
 			setQRImage();
 		}
 		if (isSendQREmailClicked && view != null) {
@@ -62,6 +75,15 @@ public class SaveAndSharePresenterImpl extends BasePresenterImpl<SaveAndShareVie
 		}
 	}
 
+	@Override
+	public void onDetach() {
+		super.onDetach();
+		if (generateQRTask != null) {
+			generateQRTask.cancel();
+			generateQRTask = null;
+		}
+	}
+
 	private void setQRImage() {
 		if (view != null) {
 			view.setQRImage(qrURI);
@@ -55,7 +55,7 @@ public class CreatePasswordFragment extends Fragment implements CreatePasswordVi
 		initViews(root);
 		createPasswordPresenter = new CreatePasswordPresenterImpl(
 			new CallbackManager(new EventDispatcherImpl(new BroadcastManagerImpl(getActivity()))), nextStepListener,
-			BackupManager.getKeyStoreProvider());
+			BackupManager.getKeyStoreProvider(), BackupManager.getKeyStoreCryptoService());
 		createPasswordPresenter.onAttach(this);
 		return root;
 	}
@@ -213,6 +213,12 @@ public class CreatePasswordFragment extends Fragment implements CreatePasswordVi
 			.show();
 	}
 
+	@Override
+	public void onDestroyView() {
+		createPasswordPresenter.onDetach();
+		super.onDestroyView();
+	}
+
 	@Override
 	public void onDestroy() {
 		super.onDestroy();
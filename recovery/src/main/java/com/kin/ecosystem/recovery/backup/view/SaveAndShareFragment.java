@@ -96,6 +96,12 @@ public class SaveAndShareFragment extends Fragment implements SaveAndShareView {
 
 	}
 
+	@Override
+	public void onDestroyView() {
+		saveAndSharePresenter.onDetach();
+		super.onDestroyView();
+	}
+
 	@Override
 	public void onSaveInstanceState(Bundle outState) {
 		saveAndSharePresenter.onSaveInstanceState(outState);
@@ -0,0 +1,55 @@
+package com.kin.ecosystem.recovery.crypto;
+
+
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.recovery.KeyStoreProvider;
+import com.kin.ecosystem.recovery.exception.BackupException;
+
+/**
+ * Runs the {@link KeyStoreProvider} export and import, which derive the key from the password and take from
+ * hundreds of milliseconds up to seconds, on a dedicated worker thread.
+ * Callbacks are called on the main thread unless the task was cancelled.
+ */
+public interface KeyStoreCryptoService {
+
+	@NonNull
+	CryptoTask exportAccount(@NonNull String password, @NonNull CryptoCallback<String> callback);
+
+	/**
+	 * The result is the index of the restored account.
+	 */
+	@NonNull
+	CryptoTask importAccount(@NonNull String keyStore, @NonNull String password,
+		@NonNull CryptoCallback<Integer> callback);
+
+	enum Stage {
+		/**
+		 * Waiting for an earlier task on the worker.
+		 */
+		QUEUED,
+		/**
+		 * The key is being derived from the password, the long part of the task.
+		 */
+		DERIVING_KEY
+	}
+
+	interface CryptoCallback<T> {
+
+		void onProgress(@NonNull Stage stage);
+
+		void onResult(@NonNull T result);
+
+		void onError(@NonNull BackupException exception);
+	}
+
+	interface CryptoTask {
+
+		/**
+		 * The callback won't be called after cancel. A task that already started deriving the key runs to the
+		 * end, as the derivation can't be interrupted, but a queued task won't start.
+		 */
+		void cancel();
+
+		boolean isCancelled();
+	}
+}
@@ -0,0 +1,132 @@
+package com.kin.ecosystem.recovery.crypto;
+
+
+import static com.kin.ecosystem.recovery.exception.BackupException.CODE_UNEXPECTED;
+import static com.kin.ecosystem.recovery.utils.BackgroundTasks.deliver;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.recovery.KeyStoreProvider;
+import com.kin.ecosystem.recovery.exception.BackupException;
+import com.kin.ecosystem.recovery.utils.BackgroundTasks;
+import com.kin.ecosystem.recovery.utils.BackgroundTasks.CancellableTask;
+import com.kin.ecosystem.recovery.utils.Logger;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KeyStoreCryptoServiceImpl implements KeyStoreCryptoService {
+
+	private final KeyStoreProvider keyStoreProvider;
+	private final Executor workerExecutor;
+	private final Executor callbackExecutor;
+	private final AtomicInteger pendingTasks = new AtomicInteger();
+
+	public KeyStoreCryptoServiceImpl(@NonNull KeyStoreProvider keyStoreProvider) {
+		this(keyStoreProvider, WorkerExecutorHolder.INSTANCE, BackgroundTasks.mainThreadExecutor());
+	}
+
+	KeyStoreCryptoServiceImpl(@NonNull KeyStoreProvider keyStoreProvider, @NonNull Executor workerExecutor,
+		@NonNull Executor callbackExecutor) {
+		this.keyStoreProvider = keyStoreProvider;
+		this.workerExecutor = workerExecutor;
+		this.callbackExecutor = callbackExecutor;
+	}
+
+	/**
+	 * One worker thread for key derivations, which times out when idle.
+	 * Derivations are memory hard, running them one at a time keeps a double tap from doubling the peak.
+	 * The thread keeps the default priority, the user is waiting for the result.
+	 */
+	private static final class WorkerExecutorHolder {
+
+		private static final Executor INSTANCE = BackgroundTasks
+			.newSingleThreadExecutor("KinRecovery-Crypto", Process.THREAD_PRIORITY_DEFAULT);
+	}
+
+	@NonNull
+	@Override
+	public CryptoTask exportAccount(@NonNull final String password, @NonNull CryptoCallback<String> callback) {
+		return submit(callback, new Operation<String>() {
+			@Override
+			public String run() throws BackupException {
+				return keyStoreProvider.exportAccount(password);
+			}
+		});
+	}
+
+	@NonNull
+	@Override
+	public CryptoTask importAccount(@NonNull final String keyStore, @NonNull final String password,
+		@NonNull CryptoCallback<Integer> callback) {
+		return submit(callback, new Operation<Integer>() {
+			@Override
+			public Integer run() throws BackupException {
+				return keyStoreProvider.importAccount(keyStore, password);
+			}
+		});
+	}
+
+	private interface Operation<T> {
+
+		T run() throws BackupException;
+	}
+
+	private <T> CryptoTask submit(@NonNull final CryptoCallback<T> callback, @NonNull final Operation<T> operation) {
+		final Task task = new Task();
+		if (pendingTasks.getAndIncrement() > 0) {
+			deliverProgress(task, callback, Stage.QUEUED);
+		}
+		workerExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (task.isCancelled()) {
+						return;
+					}
+					deliverProgress(task, callback, Stage.DERIVING_KEY);
+					deliverResult(task, callback, operation.run());
+				} catch (BackupException e) {
+					deliverError(task, callback, e);
+				} catch (RuntimeException e) {
+					Logger.e("KeyStoreCryptoService - unexpected failure.", e);
+					deliverError(task, callback, new BackupException(CODE_UNEXPECTED, e.getMessage(), e));
+				} finally {
+					pendingTasks.decrementAndGet();
+				}
+			}
+		});
+		return task;
+	}
+
+	private <T> void deliverProgress(final Task task, final CryptoCallback<T> callback, final Stage stage) {
+		deliver(callbackExecutor, task, new Runnable() {
+			@Override
+			public void run() {
+				callback.onProgress(stage);
+			}
+		});
+	}
+
+	private <T> void deliverResult(final Task task, final CryptoCallback<T> callback, final T result) {
+		deliver(callbackExecutor, task, new Runnable() {
+			@Override
+			public void run() {
+				callback.onResult(result);
+			}
+		});
+	}
+
+	private <T> void deliverError(final Task task, final CryptoCallback<T> callback,
+		final BackupException exception) {
+		deliver(callbackExecutor, task, new Runnable() {
+			@Override
+			public void run() {
+				callback.onError(exception);
+			}
+		});
+	}
+
+	private static final class Task extends CancellableTask implements CryptoTask {
+
+	}
+}
@@ -0,0 +1,53 @@
+package com.kin.ecosystem.recovery.qr;
+
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import com.google.zxing.LuminanceSource;
+
+/**
+ * Luminance of a {@link Bitmap}, read one row at a time, so only a byte per pixel is held
+ * instead of the whole ARGB pixel array.
+ */
+class BitmapLuminanceSource extends LuminanceSource {
+
+	private final byte[] luminances;
+
+	BitmapLuminanceSource(@NonNull Bitmap bitmap) {
+		super(bitmap.getWidth(), bitmap.getHeight());
+		final int width = bitmap.getWidth();
+		final int height = bitmap.getHeight();
+		luminances = new byte[width * height];
+		final int[] row = new int[width];
+		for (int y = 0; y < height; y++) {
+			bitmap.getPixels(row, 0, width, 0, y, width, 1);
+			final int offset = y * width;
+			for (int x = 0; x < width; x++) {
+				final int pixel = row[x];
+				final int r = (pixel >> 16) & 0xff;
+				final int g2 = (pixel >> 7) & 0x1fe;
+				final int b = pixel & 0xff;
+				// Same approximation as RGBLuminanceSource, (r + 2g + b) / 4
+				luminances[offset + x] = (byte) ((r + g2 + b) / 4);
+			}
+		}
+	}
+
+	@Override
+	public byte[] getRow(int y, byte[] row) {
+		if (y < 0 || y >= getHeight()) {
+			throw new IllegalArgumentException("Requested row is outside the image: " + y);
+		}
+		final int width = getWidth();
+		if (row == null || row.length < width) {
+			row = new byte[width];
+		}
+		System.arraycopy(luminances, y * width, row, 0, width);
+		return row;
+	}
+
+	@Override
+	public byte[] getMatrix() {
+		return luminances;
+	}
+}
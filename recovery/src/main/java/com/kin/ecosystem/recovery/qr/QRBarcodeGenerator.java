@@ -13,6 +13,37 @@ public interface QRBarcodeGenerator {
 	@NonNull
 	String decodeQR(@NonNull Uri uri) throws QRBarcodeGeneratorException;
 
+	/**
+	 * Generate the QR on a background thread, the callback is called on the main thread unless the task was
+	 * cancelled.
+	 */
+	@NonNull
+	QRTask generateAsync(@NonNull String text, @NonNull QRCallback<Uri> callback);
+
+	/**
+	 * Decode the QR on a background thread, the callback is called on the main thread unless the task was
+	 * cancelled.
+	 */
+	@NonNull
+	QRTask decodeQRAsync(@NonNull Uri uri, @NonNull QRCallback<String> callback);
+
+	interface QRCallback<T> {
+
+		void onResult(@NonNull T result);
+
+		void onError(@NonNull QRBarcodeGeneratorException exception);
+	}
+
+	interface QRTask {
+
+		/**
+		 * The callback won't be called after cancel, decoding stops at the next attempt.
+		 */
+		void cancel();
+
+		boolean isCancelled();
+	}
+
 	class QRBarcodeGeneratorException extends Exception {
 
 		QRBarcodeGeneratorException(String msg, Throwable throwable) {
@@ -3,10 +3,14 @@ package com.kin.ecosystem.recovery.qr;
 
 import static android.graphics.Color.BLACK;
 import static android.graphics.Color.WHITE;
+import static com.kin.ecosystem.recovery.utils.BackgroundTasks.deliver;
 
 import android.graphics.Bitmap;
+import android.graphics.Point;
 import android.net.Uri;
+import android.os.Process;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
@@ -14,25 +18,69 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.NotFoundException;
-import com.google.zxing.RGBLuminanceSource;
 import com.google.zxing.Result;
 import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.HybridBinarizer;
 import com.google.zxing.qrcode.QRCodeReader;
+import com.kin.ecosystem.recovery.utils.BackgroundTasks;
+import com.kin.ecosystem.recovery.utils.BackgroundTasks.CancellableTask;
 import com.kin.ecosystem.recovery.utils.Logger;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class QRBarcodeGeneratorImpl implements QRBarcodeGenerator {
 
 	private static final int QR_PIXELS = 600;
+
+	/**
+	 * Decode attempts, in order until one finds the QR. Gallery photos are downsampled to the max dimension,
+	 * a QR that fills a fraction of a 12 MP photo is still a few hundred pixels wide at 2048.
+	 * Attempts with the same sample size and flags as the previous one are skipped.
+	 */
+	private static final DecodeAttempt[] DECODE_ATTEMPTS = {
+		new DecodeAttempt(1024, false),
+		new DecodeAttempt(1024, true),
+		new DecodeAttempt(2048, true)
+	};
+
+	private static final class DecodeAttempt {
+
+		private final int maxDimension;
+		private final boolean tryHarder;
+
+		private DecodeAttempt(int maxDimension, boolean tryHarder) {
+			this.maxDimension = maxDimension;
+			this.tryHarder = tryHarder;
+		}
+	}
+
 	private final QRFileUriHandler fileUriHandler;
+	private final Executor backgroundExecutor;
+	private final Executor callbackExecutor;
 
 	public QRBarcodeGeneratorImpl(QRFileUriHandler fileUriHandler) {
+		this(fileUriHandler, BackgroundExecutorHolder.INSTANCE, BackgroundTasks.mainThreadExecutor());
+	}
+
+	QRBarcodeGeneratorImpl(QRFileUriHandler fileUriHandler, Executor backgroundExecutor, Executor callbackExecutor) {
 		this.fileUriHandler = fileUriHandler;
+		this.backgroundExecutor = backgroundExecutor;
+		this.callbackExecutor = callbackExecutor;
+	}
+
+	/**
+	 * One background thread for QR work, which times out when idle.
+	 */
+	private static final class BackgroundExecutorHolder {
+
+		private static final Executor INSTANCE = BackgroundTasks
+			.newSingleThreadExecutor("KinRecovery-QR", Process.THREAD_PRIORITY_BACKGROUND);
 	}
 
 	@NonNull
@@ -51,53 +99,172 @@ public class QRBarcodeGeneratorImpl implements QRBarcodeGenerator {
 		}
 	}
 
+	/**
+	 * Renders the matrix a row at a time into an RGB_565 bitmap, runs of modules are filled at once
+	 * and a row equal to the previous one, as most rows of a scaled QR are, reuses its pixels.
+	 */
 	private Bitmap bitMatrixToBitmap(BitMatrix matrix) {
-		int width = matrix.getWidth();
-		int height = matrix.getHeight();
-		int[] pixels = new int[width * height];
+		final int width = matrix.getWidth();
+		final int height = matrix.getHeight();
+		final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+		final int[] pixels = new int[width];
+		BitArray row = new BitArray(width);
+		BitArray previousRow = new BitArray(width);
 		for (int y = 0; y < height; y++) {
-			int offset = y * width;
-			for (int x = 0; x < width; x++) {
-				pixels[offset + x] = matrix.get(x, y) ? BLACK : WHITE;
+			row = matrix.getRow(y, row);
+			if (y == 0 || !row.equals(previousRow)) {
+				int x = 0;
+				while (x < width) {
+					final int black = Math.min(row.getNextSet(x), width);
+					Arrays.fill(pixels, x, black, WHITE);
+					final int white = Math.min(row.getNextUnset(black), width);
+					Arrays.fill(pixels, black, white, BLACK);
+					x = white;
+				}
 			}
-		}
+			bitmap.setPixels(pixels, 0, width, 0, y, width, 1);
 
-		Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-		bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+			final BitArray swap = previousRow;
+			previousRow = row;
+			row = swap;
+		}
 		return bitmap;
 	}
 
 	@NonNull
 	@Override
 	public String decodeQR(@NonNull Uri uri) throws QRBarcodeGeneratorException {
+		return decodeQR(uri, null);
+	}
+
+	@NonNull
+	private String decodeQR(@NonNull Uri uri, @Nullable QRTask task) throws QRBarcodeGeneratorException {
+		Exception formatException = null;
 		try {
-			Bitmap bitmap = fileUriHandler.loadFile(uri);
-			int width = bitmap.getWidth();
-			int height = bitmap.getHeight();
-			int[] pixels = new int[width * height];
-			bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
-
-			RGBLuminanceSource source = new RGBLuminanceSource(width, height, pixels);
-			BinaryBitmap binaryBitmap = new BinaryBitmap(new HybridBinarizer(source));
-
-			QRCodeReader reader = new QRCodeReader();
-			Map<DecodeHintType, Object>
-				hintsMap = new EnumMap<>(DecodeHintType.class);
-			hintsMap.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
-			hintsMap.put(DecodeHintType.POSSIBLE_FORMATS, EnumSet
-				.allOf(BarcodeFormat.class));
-			hintsMap.put(DecodeHintType.PURE_BARCODE, Boolean.FALSE);
-			Result result = reader.decode(binaryBitmap, hintsMap);
-			return result.getText();
+			final Point size = fileUriHandler.loadImageSize(uri);
+			int previousSampleSize = 0;
+			boolean previousTryHarder = false;
+			BinaryBitmap binaryBitmap = null;
+			for (DecodeAttempt attempt : DECODE_ATTEMPTS) {
+				final int sampleSize = sampleSizeFor(size, attempt.maxDimension);
+				if (sampleSize == previousSampleSize && attempt.tryHarder == previousTryHarder) {
+					continue;
+				}
+				if (task != null && task.isCancelled()) {
+					throw new QRBarcodeGeneratorException("Decoding QR was cancelled.", null);
+				}
+
+				if (sampleSize != previousSampleSize) {
+					final Bitmap bitmap = fileUriHandler.loadFile(uri, sampleSize);
+					binaryBitmap = new BinaryBitmap(new HybridBinarizer(new BitmapLuminanceSource(bitmap)));
+				}
+				previousSampleSize = sampleSize;
+				previousTryHarder = attempt.tryHarder;
+
+				try {
+					Result result = new QRCodeReader().decode(binaryBitmap, decodeHints(attempt.tryHarder));
+					return result.getText();
+				} catch (NotFoundException e) {
+					// Try the next attempt
+				} catch (FormatException | ChecksumException e) {
+					formatException = e;
+				}
+			}
 		} catch (IOException e) {
 			Logger.e("decodeQR failed. ", e);
 			throw new QRFileHandlingException("Cannot load QR file, caused by :" + e.getMessage(), e);
-		} catch (NotFoundException e) {
-			Logger.e("decodeQR failed. ", e);
-			throw new QRNotFoundInImageException("Cannot find a QR code in given image.", e);
-		} catch (FormatException | ChecksumException e) {
-			Logger.e("decodeQR failed. ", e);
-			throw new QRBarcodeGeneratorException("Cannot find a QR code in given image.", e);
 		}
+
+		if (formatException != null) {
+			Logger.e("decodeQR failed. ", formatException);
+			throw new QRBarcodeGeneratorException("Cannot find a QR code in given image.", formatException);
+		}
+		Logger.d("decodeQR failed, QR not found.");
+		throw new QRNotFoundInImageException("Cannot find a QR code in given image.", null);
+	}
+
+	private static Map<DecodeHintType, Object> decodeHints(boolean tryHarder) {
+		Map<DecodeHintType, Object> hintsMap = new EnumMap<>(DecodeHintType.class);
+		if (tryHarder) {
+			hintsMap.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+		}
+		hintsMap.put(DecodeHintType.POSSIBLE_FORMATS, EnumSet.of(BarcodeFormat.QR_CODE));
+		hintsMap.put(DecodeHintType.PURE_BARCODE, Boolean.FALSE);
+		return hintsMap;
+	}
+
+	/**
+	 * @return the smallest power of 2 that downsamples the image to at most maxDimension on each side.
+	 */
+	static int sampleSizeFor(@NonNull Point size, int maxDimension) {
+		final int largest = Math.max(size.x, size.y);
+		int sampleSize = 1;
+		while (largest / sampleSize > maxDimension) {
+			sampleSize *= 2;
+		}
+		return sampleSize;
+	}
+
+	@NonNull
+	@Override
+	public QRTask generateAsync(@NonNull final String text, @NonNull final QRCallback<Uri> callback) {
+		final Task task = new Task();
+		backgroundExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (task.isCancelled()) {
+					return;
+				}
+				try {
+					deliverResult(task, callback, generate(text));
+				} catch (QRBarcodeGeneratorException e) {
+					deliverError(task, callback, e);
+				}
+			}
+		});
+		return task;
+	}
+
+	@NonNull
+	@Override
+	public QRTask decodeQRAsync(@NonNull final Uri uri, @NonNull final QRCallback<String> callback) {
+		final Task task = new Task();
+		backgroundExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (task.isCancelled()) {
+					return;
+				}
+				try {
+					deliverResult(task, callback, decodeQR(uri, task));
+				} catch (QRBarcodeGeneratorException e) {
+					deliverError(task, callback, e);
+				}
+			}
+		});
+		return task;
+	}
+
+	private <T> void deliverResult(final Task task, final QRCallback<T> callback, final T result) {
+		deliver(callbackExecutor, task, new Runnable() {
+			@Override
+			public void run() {
+				callback.onResult(result);
+			}
+		});
+	}
+
+	private <T> void deliverError(final Task task, final QRCallback<T> callback,
+		final QRBarcodeGeneratorException exception) {
+		deliver(callbackExecutor, task, new Runnable() {
+			@Override
+			public void run() {
+				callback.onError(exception);
+			}
+		});
+	}
+
+	private static final class Task extends CancellableTask implements QRTask {
+
 	}
 }
@@ -2,14 +2,25 @@ package com.kin.ecosystem.recovery.qr;
 
 
 import android.graphics.Bitmap;
+import android.graphics.Point;
 import android.net.Uri;
 import android.support.annotation.NonNull;
 import java.io.IOException;
 
 interface QRFileUriHandler {
 
+	/**
+	 * @return the image width and height, without decoding the image.
+	 */
 	@NonNull
-	Bitmap loadFile(@NonNull Uri uri) throws IOException;
+	Point loadImageSize(@NonNull Uri uri) throws IOException;
+
+	/**
+	 * @param inSampleSize power of 2 to downsample the image by, 1 for the full image.
+	 * @return the image in {@link Bitmap.Config#RGB_565}.
+	 */
+	@NonNull
+	Bitmap loadFile(@NonNull Uri uri, int inSampleSize) throws IOException;
 
 	@NonNull
 	Uri saveFile(@NonNull Bitmap image) throws IOException;
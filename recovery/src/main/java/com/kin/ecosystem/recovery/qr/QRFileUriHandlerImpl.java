@@ -4,6 +4,7 @@ package com.kin.ecosystem.recovery.qr;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Point;
 import android.net.Uri;
 import android.os.ParcelFileDescriptor;
 import android.support.annotation.NonNull;
@@ -27,16 +28,40 @@ public class QRFileUriHandlerImpl implements QRFileUriHandler {
 
 	@NonNull
 	@Override
-	public Bitmap loadFile(@NonNull Uri uri) throws IOException {
+	public Point loadImageSize(@NonNull Uri uri) throws IOException {
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inJustDecodeBounds = true;
+		decode(uri, options);
+		if (options.outWidth <= 0 || options.outHeight <= 0) {
+			throw new IOException("decoding file bounds failed.");
+		}
+		return new Point(options.outWidth, options.outHeight);
+	}
+
+	@NonNull
+	@Override
+	public Bitmap loadFile(@NonNull Uri uri, int inSampleSize) throws IOException {
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inSampleSize = Math.max(1, inSampleSize);
+		options.inPreferredConfig = Bitmap.Config.RGB_565;
+		Bitmap bitmap = decode(uri, options);
+		if (bitmap != null) {
+			return bitmap;
+		}
+		throw new IOException("decoding file as bitmap failed.");
+	}
+
+	private Bitmap decode(@NonNull Uri uri, BitmapFactory.Options options) throws IOException {
 		ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
-		if (pfd != null) {
+		if (pfd == null) {
+			throw new IOException("opening file failed.");
+		}
+		try {
 			FileDescriptor fd = pfd.getFileDescriptor();
-			Bitmap bitmap = BitmapFactory.decodeFileDescriptor(fd);
-			if (bitmap != null) {
-				return bitmap;
-			}
+			return BitmapFactory.decodeFileDescriptor(fd, null, options);
+		} finally {
+			pfd.close();
 		}
-		throw new IOException("decoding file as bitmap failed.");
 	}
 
 	@NonNull
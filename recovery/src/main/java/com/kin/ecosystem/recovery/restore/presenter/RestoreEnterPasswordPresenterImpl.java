@@ -9,7 +9,10 @@ import static com.kin.ecosystem.recovery.restore.presenter.RestorePresenterImpl.
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import com.kin.ecosystem.recovery.BackupManager;
-import com.kin.ecosystem.recovery.KeyStoreProvider;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoCallback;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoTask;
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.Stage;
 import com.kin.ecosystem.recovery.events.CallbackManager;
 import com.kin.ecosystem.recovery.exception.BackupException;
 import com.kin.ecosystem.recovery.restore.view.RestoreEnterPasswordView;
@@ -20,18 +23,20 @@ public class RestoreEnterPasswordPresenterImpl extends BaseChildPresenterImpl<Re
 
 	private final String keystoreData;
 	private final CallbackManager callbackManager;
-	private final KeyStoreProvider keyStoreProvider;
+	private final KeyStoreCryptoService keyStoreCryptoService;
 
-	public RestoreEnterPasswordPresenterImpl(@NonNull final CallbackManager callbackManager, String keystoreData, @NonNull KeyStoreProvider keyStoreProvider) {
+	private CryptoTask importTask;
+
+	public RestoreEnterPasswordPresenterImpl(@NonNull final CallbackManager callbackManager, String keystoreData, @NonNull KeyStoreCryptoService keyStoreCryptoService) {
 		this.callbackManager = callbackManager;
 		this.keystoreData = keystoreData;
-		this.keyStoreProvider = keyStoreProvider;
+		this.keyStoreCryptoService = keyStoreCryptoService;
 		this.callbackManager.sendRestoreEvent(RESTORE_PASSWORD_ENTRY_PAGE_VIEWED);
 	}
 
 	@Override
 	public void onPasswordChanged(String password) {
-		if (password.isEmpty()) {
+		if (password.isEmpty() || importTask != null) {
 			getView().disableDoneButton();
 		} else {
 			getView().enableDoneButton();
@@ -41,16 +46,47 @@ public class RestoreEnterPasswordPresenterImpl extends BaseChildPresenterImpl<Re
 	@Override
 	public void restoreClicked(String password) {
 		callbackManager.sendRestoreEvent(RESTORE_PASSWORD_DONE_TAPPED);
-		try {
-			int accountIndex = keyStoreProvider.importAccount(keystoreData, password);
-			getParentPresenter().navigateToRestoreCompletedPage(accountIndex);
-		} catch (BackupException e) {
-			Logger.e("RestoreEnterPasswordPresenterImpl - restore failed.", e);
-			if (e.getCode() == BackupException.CODE_RESTORE_INVALID_KEYSTORE_FORMAT) {
-				getView().invalidQrError();
-			} else {
-				getView().decodeError();
+		if (importTask != null) {
+			// Already restoring, the key derivation takes a while
+			return;
+		}
+		if (getView() != null) {
+			getView().disableDoneButton();
+		}
+		importTask = keyStoreCryptoService.importAccount(keystoreData, password, new CryptoCallback<Integer>() {
+			@Override
+			public void onProgress(@NonNull Stage stage) {
+
+			}
+
+			@Override
+			public void onResult(@NonNull Integer accountIndex) {
+				importTask = null;
+				getParentPresenter().navigateToRestoreCompletedPage(accountIndex);
+			}
+
+			@Override
+			public void onError(@NonNull BackupException e) {
+				importTask = null;
+				Logger.e("RestoreEnterPasswordPresenterImpl - restore failed.", e);
+				if (getView() != null) {
+					getView().enableDoneButton();
+					if (e.getCode() == BackupException.CODE_RESTORE_INVALID_KEYSTORE_FORMAT) {
+						getView().invalidQrError();
+					} else {
+						getView().decodeError();
+					}
+				}
 			}
+		});
+	}
+
+	@Override
+	public void onDetach() {
+		super.onDetach();
+		if (importTask != null) {
+			importTask.cancel();
+			importTask = null;
 		}
 	}
 
@@ -12,7 +12,9 @@ import android.support.annotation.NonNull;
 import com.kin.ecosystem.recovery.events.CallbackManager;
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator;
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRBarcodeGeneratorException;
+import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRCallback;
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRFileHandlingException;
+import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRTask;
 import com.kin.ecosystem.recovery.restore.presenter.FileSharingHelper.RequestFileResult;
 import com.kin.ecosystem.recovery.restore.view.UploadQRView;
 import com.kin.ecosystem.recovery.utils.Logger;
@@ -22,6 +24,7 @@ public class UploadQRPresenterImpl extends BaseChildPresenterImpl<UploadQRView>
 	private final FileSharingHelper fileRequester;
 	private final QRBarcodeGenerator qrBarcodeGenerator;
 	private final CallbackManager callbackManager;
+	private QRTask decodeQRTask;
 
 	public UploadQRPresenterImpl(@NonNull final CallbackManager callbackManager, FileSharingHelper fileRequester,
 		QRBarcodeGenerator qrBarcodeGenerator) {
@@ -64,15 +67,39 @@ public class UploadQRPresenterImpl extends BaseChildPresenterImpl<UploadQRView>
 	}
 
 	private void loadEncryptedKeyStore(Uri fileUri) {
-		try {
-			String encryptedKeyStore = qrBarcodeGenerator.decodeQR(fileUri);
-			getParentPresenter().navigateToEnterPasswordPage(encryptedKeyStore);
-		} catch (QRFileHandlingException e) {
-			Logger.e("loadEncryptedKeyStore - loading file failed.", e);
-			view.showErrorLoadingFileDialog();
-		} catch (QRBarcodeGeneratorException e) {
-			Logger.e("loadEncryptedKeyStore - decoding QR failed.", e);
-			view.showErrorDecodingQRDialog();
+		if (decodeQRTask != null) {
+			decodeQRTask.cancel();
+		}
+		decodeQRTask = qrBarcodeGenerator.decodeQRAsync(fileUri, new QRCallback<String>() {
+			@Override
+			public void onResult(@NonNull String encryptedKeyStore) {
+				decodeQRTask = null;
+				getParentPresenter().navigateToEnterPasswordPage(encryptedKeyStore);
+			}
+
+			@Override
+			public void onError(@NonNull QRBarcodeGeneratorException e) {
+				decodeQRTask = null;
+				if (view == null) {
+					return;
+				}
+				if (e instanceof QRFileHandlingException) {
+					Logger.e("loadEncryptedKeyStore - loading file failed.", e);
+					view.showErrorLoadingFileDialog();
+				} else {
+					Logger.e("loadEncryptedKeyStore - decoding QR failed.", e);
+					view.showErrorDecodingQRDialog();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void onDetach() {
+		super.onDetach();
+		if (decodeQRTask != null) {
+			decodeQRTask.cancel();
+			decodeQRTask = null;
 		}
 	}
 
@@ -92,7 +92,7 @@ public class RestoreEnterPasswordFragment extends Fragment implements RestoreEnt
 	private void injectPresenter(String keystoreData) {
 		presenter = new RestoreEnterPasswordPresenterImpl(
 			new CallbackManager(new EventDispatcherImpl(new BroadcastManagerImpl(getActivity()))), keystoreData,
-			BackupManager.getKeyStoreProvider());
+			BackupManager.getKeyStoreCryptoService());
 		presenter.onAttach(this, ((RestoreActivity) getActivity()).getPresenter());
 	}
 
@@ -166,6 +166,12 @@ public class RestoreEnterPasswordFragment extends Fragment implements RestoreEnt
 		password.setFrameBackgroundColor(R.color.kinrecovery_red);
 	}
 
+	@Override
+	public void onDestroyView() {
+		presenter.onDetach();
+		super.onDestroyView();
+	}
+
 	@Override
 	public void onDestroy() {
 		super.onDestroy();
@@ -49,6 +49,12 @@ public class UploadQRFragment extends Fragment implements UploadQRView {
 		return root;
 	}
 
+	@Override
+	public void onDestroyView() {
+		presenter.onDetach();
+		super.onDestroyView();
+	}
+
 	private void injectPresenter() {
 		presenter = new UploadQRPresenterImpl(
 			new CallbackManager(new EventDispatcherImpl(new BroadcastManagerImpl(getActivity()))),
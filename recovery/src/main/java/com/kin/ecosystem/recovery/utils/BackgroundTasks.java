@@ -0,0 +1,94 @@
+package com.kin.ecosystem.recovery.utils;
+
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared plumbing for recovery work that runs on a worker thread and reports back on the main thread.
+ */
+public final class BackgroundTasks {
+
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	private BackgroundTasks() {
+	}
+
+	/**
+	 * @param threadName name of the worker thread.
+	 * @param threadPriority {@link Process} thread priority of the worker thread.
+	 * @return executor with one worker thread, which times out when idle.
+	 */
+	public static Executor newSingleThreadExecutor(@NonNull final String threadName, final int threadPriority) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			@Override
+			public Thread newThread(@NonNull final Runnable runnable) {
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						Process.setThreadPriority(threadPriority);
+						runnable.run();
+					}
+				}, threadName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * @return executor that posts to the main thread.
+	 */
+	public static Executor mainThreadExecutor() {
+		return new Executor() {
+			private final Handler handler = new Handler(Looper.getMainLooper());
+
+			@Override
+			public void execute(@NonNull Runnable command) {
+				handler.post(command);
+			}
+		};
+	}
+
+	/**
+	 * Run the delivery on the callback executor, unless the task was cancelled by the time it runs.
+	 */
+	public static void deliver(@NonNull Executor callbackExecutor, @NonNull final CancellableTask task,
+		@NonNull final Runnable delivery) {
+		callbackExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (!task.isCancelled()) {
+					delivery.run();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Cancellation flag of a single background task, safe to cancel from any thread.
+	 */
+	public static class CancellableTask {
+
+		private final AtomicBoolean isCancelled = new AtomicBoolean();
+
+		public void cancel() {
+			isCancelled.set(true);
+		}
+
+		public boolean isCancelled() {
+			return isCancelled.get();
+		}
+	}
+}
@@ -3,6 +3,9 @@ package com.kin.ecosystem.recovery.backup.presenter
 import com.kin.ecosystem.recovery.KeyStoreProvider
 import com.kin.ecosystem.recovery.backup.view.BackupNavigator
 import com.kin.ecosystem.recovery.backup.view.CreatePasswordView
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoCallback
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoTask
 import com.kin.ecosystem.recovery.events.BackupEventCode.BACKUP_CREATE_PASSWORD_PAGE_VIEWED
 import com.kin.ecosystem.recovery.events.CallbackManager
 import com.kin.ecosystem.recovery.exception.BackupException
@@ -15,6 +18,21 @@ class CreatePasswordPresenterImplTest {
     private val callbackManager: CallbackManager = mock()
     private val backupNavigator: BackupNavigator = mock()
     private val keyStoreProvider: KeyStoreProvider = mock()
+    private val exportTask: CryptoTask = mock()
+    private var completeExport = true
+    private val keyStoreCryptoService: KeyStoreCryptoService = mock {
+        on { exportAccount(any(), any()) } doAnswer {
+            val callback = it.getArgument<CryptoCallback<String>>(1)
+            if (completeExport) {
+                try {
+                    callback.onResult(keyStoreProvider.exportAccount(it.getArgument(0)))
+                } catch (e: BackupException) {
+                    callback.onError(e)
+                }
+            }
+            exportTask
+        }
+    }
 
     private val view: CreatePasswordView = mock()
 
@@ -26,7 +44,7 @@ class CreatePasswordPresenterImplTest {
 
     @Before
     fun setUp() {
-        presenter = CreatePasswordPresenterImpl(callbackManager, backupNavigator, keyStoreProvider)
+        presenter = CreatePasswordPresenterImpl(callbackManager, backupNavigator, keyStoreProvider, keyStoreCryptoService)
         presenter.onAttach(view)
     }
 
@@ -144,4 +162,21 @@ class CreatePasswordPresenterImplTest {
         verify(view).showBackupFailed()
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `next button clicked while exporting, export only once`() {
+        completeExport = false
+        presenter.nextButtonClicked(pass)
+        presenter.nextButtonClicked(pass)
+        verify(keyStoreCryptoService).exportAccount(eq(pass), any())
+        verify(view).disableNextButton()
+    }
+
+    @Test
+    fun `onDetach while exporting, cancel the export`() {
+        completeExport = false
+        presenter.nextButtonClicked(pass)
+        presenter.onDetach()
+        verify(exportTask).cancel()
+    }
+
+}
@@ -8,6 +8,7 @@ import com.kin.ecosystem.recovery.backup.view.SaveAndShareView
 import com.kin.ecosystem.recovery.events.BackupEventCode.*
 import com.kin.ecosystem.recovery.events.CallbackManager
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator
+import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRCallback
 import com.nhaarman.mockitokotlin2.*
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -23,7 +24,10 @@ class SaveAndSharePresenterImplTest {
     private val callbackManager: CallbackManager = mock()
     private val backupNavigator: BackupNavigator = mock()
     private val qrBarcodeGenerator: QRBarcodeGenerator = mock {
-        on { generate(any()) } doReturn uri
+        on { generateAsync(any(), any()) } doAnswer {
+            it.getArgument<QRCallback<Uri>>(1).onResult(uri)
+            mock()
+        }
     }
     private val saveInstanceState: Bundle = mock()
 
@@ -85,11 +89,25 @@ class SaveAndSharePresenterImplTest {
 
     @Test
     fun `could not generate the QR, show error`() {
-        whenever(qrBarcodeGenerator.generate(KEY_TEST_DATA)) doThrow (QRBarcodeGenerator.QRBarcodeGeneratorException::class)
+        whenever(qrBarcodeGenerator.generateAsync(eq(KEY_TEST_DATA), any())) doAnswer {
+            it.getArgument<QRCallback<Uri>>(1).onError(mock<QRBarcodeGenerator.QRBarcodeGeneratorException>())
+            mock()
+        }
         createPresenter()
         verify(saveAndShareView).showErrorTryAgainLater()
     }
 
+    @Test
+    fun `detach before the QR is generated, cancel generating`() {
+        val task: QRBarcodeGenerator.QRTask = mock()
+        whenever(qrBarcodeGenerator.generateAsync(eq(KEY_TEST_DATA), any())).thenReturn(task)
+        createPresenter()
+        verify(saveAndShareView, never()).setQRImage(any())
+
+        presenter.onDetach()
+        verify(task).cancel()
+    }
+
     @Test
     fun `save instance state is being updated, show i have saved checkbox`() {
         createPresenter()
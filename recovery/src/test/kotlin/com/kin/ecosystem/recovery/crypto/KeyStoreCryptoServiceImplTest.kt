@@ -0,0 +1,119 @@
+package com.kin.ecosystem.recovery.crypto
+
+import com.kin.ecosystem.recovery.KeyStoreProvider
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoCallback
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.Stage
+import com.kin.ecosystem.recovery.exception.BackupException
+import com.kin.ecosystem.recovery.exception.BackupException.CODE_BACKUP_FAILED
+import com.kin.ecosystem.recovery.exception.BackupException.CODE_UNEXPECTED
+import com.nhaarman.mockitokotlin2.*
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.concurrent.Executor
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class KeyStoreCryptoServiceImplTest {
+
+    companion object {
+        const val PASS = "pass"
+        const val keyStoreData = "key store data"
+    }
+
+    private val keyStoreProvider: KeyStoreProvider = mock()
+    private val workerTasks = mutableListOf<Runnable>()
+    private val workerExecutor = Executor { workerTasks.add(it) }
+    private val callbackExecutor = Executor { it.run() }
+
+    private val service = KeyStoreCryptoServiceImpl(keyStoreProvider, workerExecutor, callbackExecutor)
+
+    @Test
+    fun `export account, report progress and result`() {
+        whenever(keyStoreProvider.exportAccount(PASS)) doReturn (keyStoreData)
+        val callback: CryptoCallback<String> = mock()
+
+        service.exportAccount(PASS, callback)
+        verifyZeroInteractions(keyStoreProvider)
+        runWorker()
+
+        inOrder(callback) {
+            verify(callback).onProgress(Stage.DERIVING_KEY)
+            verify(callback).onResult(keyStoreData)
+        }
+    }
+
+    @Test
+    fun `import account failed, report the error`() {
+        val exception = BackupException(CODE_BACKUP_FAILED, "some msg")
+        whenever(keyStoreProvider.importAccount(keyStoreData, PASS)) doThrow (exception)
+        val callback: CryptoCallback<Int> = mock()
+
+        service.importAccount(keyStoreData, PASS, callback)
+        runWorker()
+
+        verify(callback).onError(exception)
+        verify(callback, never()).onResult(any())
+    }
+
+    @Test
+    fun `import account unexpected failure, report as unexpected backup error`() {
+        whenever(keyStoreProvider.importAccount(keyStoreData, PASS)) doThrow (IllegalStateException::class)
+        val callback: CryptoCallback<Int> = mock()
+
+        service.importAccount(keyStoreData, PASS, callback)
+        runWorker()
+
+        argumentCaptor<BackupException>().apply {
+            verify(callback).onError(capture())
+            assertEquals(CODE_UNEXPECTED, firstValue.code)
+        }
+    }
+
+    @Test
+    fun `second task while the worker is busy, report queued`() {
+        val first: CryptoCallback<String> = mock()
+        val second: CryptoCallback<Int> = mock()
+
+        service.exportAccount(PASS, first)
+        service.importAccount(keyStoreData, PASS, second)
+
+        verify(first, never()).onProgress(any())
+        verify(second).onProgress(Stage.QUEUED)
+    }
+
+    @Test
+    fun `cancel before the worker starts, do not derive the key`() {
+        val callback: CryptoCallback<String> = mock()
+
+        service.exportAccount(PASS, callback).cancel()
+        runWorker()
+
+        verifyZeroInteractions(keyStoreProvider)
+        verifyZeroInteractions(callback)
+    }
+
+    @Test
+    fun `cancel while deriving the key, do not report the result`() {
+        val callback: CryptoCallback<Int> = mock()
+        lateinit var task: KeyStoreCryptoService.CryptoTask
+        whenever(keyStoreProvider.importAccount(keyStoreData, PASS)) doAnswer {
+            task.cancel()
+            1
+        }
+
+        task = service.importAccount(keyStoreData, PASS, callback)
+        runWorker()
+
+        verify(callback).onProgress(Stage.DERIVING_KEY)
+        verify(callback, never()).onResult(any())
+    }
+
+    private fun runWorker() {
+        while (workerTasks.isNotEmpty()) {
+            workerTasks.removeAt(0).run()
+        }
+    }
+}
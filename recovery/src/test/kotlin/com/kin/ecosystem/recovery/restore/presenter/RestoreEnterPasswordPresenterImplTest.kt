@@ -2,6 +2,9 @@ package com.kin.ecosystem.recovery.restore.presenter
 
 import android.os.Bundle
 import com.kin.ecosystem.recovery.KeyStoreProvider
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoCallback
+import com.kin.ecosystem.recovery.crypto.KeyStoreCryptoService.CryptoTask
 import com.kin.ecosystem.recovery.events.CallbackManager
 import com.kin.ecosystem.recovery.events.RestoreEventCode.*
 import com.kin.ecosystem.recovery.exception.BackupException
@@ -9,7 +12,10 @@ import com.kin.ecosystem.recovery.exception.BackupException.CODE_RESTORE_INVALID
 import com.kin.ecosystem.recovery.restore.presenter.RestorePresenterImpl.KEY_ACCOUNT_KEY
 import com.kin.ecosystem.recovery.restore.view.RestoreEnterPasswordView
 import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import org.junit.Assert.assertEquals
@@ -29,6 +35,21 @@ class RestoreEnterPasswordPresenterImplTest {
 
     private val callbackManager: CallbackManager = mock()
     private val keyStoreProvider: KeyStoreProvider = mock()
+    private val importTask: CryptoTask = mock()
+    private var completeImport = true
+    private val keyStoreCryptoService: KeyStoreCryptoService = mock {
+        on { importAccount(any(), any(), any()) } doAnswer {
+            val callback = it.getArgument<CryptoCallback<Int>>(2)
+            if (completeImport) {
+                try {
+                    callback.onResult(keyStoreProvider.importAccount(it.getArgument(0), it.getArgument(1)))
+                } catch (e: BackupException) {
+                    callback.onError(e)
+                }
+            }
+            importTask
+        }
+    }
     private val view: RestoreEnterPasswordView = mock()
     private val parentPresenter: RestorePresenter = mock()
 
@@ -98,8 +119,26 @@ class RestoreEnterPasswordPresenterImplTest {
         verify(parentPresenter).previousStep()
     }
 
+    @Test
+    fun `restore clicked while importing, import only once and keep done button disabled`() {
+        completeImport = false
+        presenter.restoreClicked(PASS)
+        presenter.restoreClicked(PASS)
+        presenter.onPasswordChanged(PASS)
+        verify(keyStoreCryptoService).importAccount(eq(keyStoreData), eq(PASS), any())
+        verify(view, times(2)).disableDoneButton()
+    }
+
+    @Test
+    fun `onDetach while importing, cancel the import`() {
+        completeImport = false
+        presenter.restoreClicked(PASS)
+        presenter.onDetach()
+        verify(importTask).cancel()
+    }
+
     private fun createPresenter() {
-        presenter = RestoreEnterPasswordPresenterImpl(callbackManager, keyStoreData, keyStoreProvider)
+        presenter = RestoreEnterPasswordPresenterImpl(callbackManager, keyStoreData, keyStoreCryptoService)
         presenter.onAttach(view, parentPresenter)
     }
 }
\ No newline at end of file
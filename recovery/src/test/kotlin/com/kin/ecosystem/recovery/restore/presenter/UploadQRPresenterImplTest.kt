@@ -4,6 +4,7 @@ import android.net.Uri
 import com.kin.ecosystem.recovery.events.CallbackManager
 import com.kin.ecosystem.recovery.events.RestoreEventCode.*
 import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator
+import com.kin.ecosystem.recovery.qr.QRBarcodeGenerator.QRCallback
 import com.kin.ecosystem.recovery.restore.presenter.FileSharingHelper.*
 import com.kin.ecosystem.recovery.restore.view.UploadQRView
 import com.nhaarman.mockitokotlin2.*
@@ -97,10 +98,10 @@ class UploadQRPresenterImplTest {
         whenever(fileSharingHelper.extractUriFromActivityResult(req, res, data)).thenReturn(result)
         whenever(result.result).thenReturn(REQUEST_RESULT_OK)
         whenever(result.fileUri).thenReturn(uri)
-        whenever(qrBarcodeGenerator.decodeQR(uri)).thenReturn(accountKey)
+        mockDecodeResult(uri, accountKey)
         presenter.onActivityResult(req, res, data)
         verify(fileSharingHelper).extractUriFromActivityResult(req, res, data)
-        verify(qrBarcodeGenerator).decodeQR(uri)
+        verify(qrBarcodeGenerator).decodeQRAsync(eq(uri), any())
         verify(parentPresenter).navigateToEnterPasswordPage(accountKey)
         verify(view, never()).showErrorLoadingFileDialog()
         verify(view, never()).showErrorDecodingQRDialog()
@@ -119,10 +120,10 @@ class UploadQRPresenterImplTest {
         whenever(fileSharingHelper.extractUriFromActivityResult(req, res, data)).thenReturn(result)
         whenever(result.result).thenReturn(REQUEST_RESULT_OK)
         whenever(result.fileUri).thenReturn(uri)
-        whenever(qrBarcodeGenerator.decodeQR(uri)) doThrow(QRBarcodeGenerator.QRFileHandlingException::class)
+        mockDecodeError(uri, mock<QRBarcodeGenerator.QRFileHandlingException>())
         presenter.onActivityResult(req, res, data)
         verify(fileSharingHelper).extractUriFromActivityResult(req, res, data)
-        verify(qrBarcodeGenerator).decodeQR(uri)
+        verify(qrBarcodeGenerator).decodeQRAsync(eq(uri), any())
         verify(view).showErrorLoadingFileDialog()
         verify(parentPresenter, never()).navigateToEnterPasswordPage(accountKey)
         verify(view, never()).showErrorDecodingQRDialog()
@@ -141,13 +142,32 @@ class UploadQRPresenterImplTest {
         whenever(fileSharingHelper.extractUriFromActivityResult(req, res, data)).thenReturn(result)
         whenever(result.result).thenReturn(REQUEST_RESULT_OK)
         whenever(result.fileUri).thenReturn(uri)
-        whenever(qrBarcodeGenerator.decodeQR(uri)).thenReturn(accountKey)
+        mockDecodeError(uri, mock<QRBarcodeGenerator.QRBarcodeGeneratorException>())
         presenter.onActivityResult(req, res, data)
         verify(fileSharingHelper).extractUriFromActivityResult(req, res, data)
-        verify(qrBarcodeGenerator).decodeQR(uri)
-        verify(parentPresenter).navigateToEnterPasswordPage(accountKey)
+        verify(qrBarcodeGenerator).decodeQRAsync(eq(uri), any())
+        verify(view).showErrorDecodingQRDialog()
+        verify(parentPresenter, never()).navigateToEnterPasswordPage(accountKey)
         verify(view, never()).showErrorLoadingFileDialog()
-        verify(view, never()).showErrorDecodingQRDialog()
+    }
+
+    @Test
+    fun `onDetach while decoding, cancel decoding`() {
+        val req = 1
+        val res = 1
+        val data = null
+        val result: FileSharingHelper.RequestFileResult = mock()
+        val uri: Uri = mock()
+        val task: QRBarcodeGenerator.QRTask = mock()
+
+        whenever(fileSharingHelper.extractUriFromActivityResult(req, res, data)).thenReturn(result)
+        whenever(result.result).thenReturn(REQUEST_RESULT_OK)
+        whenever(result.fileUri).thenReturn(uri)
+        whenever(qrBarcodeGenerator.decodeQRAsync(eq(uri), any())).thenReturn(task)
+        presenter.onActivityResult(req, res, data)
+        presenter.onDetach()
+        verify(task).cancel()
+        verify(parentPresenter, never()).navigateToEnterPasswordPage(any())
     }
 
     @Test
@@ -156,4 +176,18 @@ class UploadQRPresenterImplTest {
         verify(callbackManager).sendRestoreEvent(RESTORE_UPLOAD_QR_CODE_BACK_TAPPED)
         verify(parentPresenter).previousStep()
     }
+
+    private fun mockDecodeResult(uri: Uri, text: String) {
+        whenever(qrBarcodeGenerator.decodeQRAsync(eq(uri), any())) doAnswer {
+            it.getArgument<QRCallback<String>>(1).onResult(text)
+            mock()
+        }
+    }
+
+    private fun mockDecodeError(uri: Uri, exception: QRBarcodeGenerator.QRBarcodeGeneratorException) {
+        whenever(qrBarcodeGenerator.decodeQRAsync(eq(uri), any())) doAnswer {
+            it.getArgument<QRCallback<String>>(1).onError(exception)
+            mock()
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.kin.ecosystem.recovery.utils
+
+import com.kin.ecosystem.recovery.utils.BackgroundTasks.CancellableTask
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.robolectric.shadows.ShadowLooper
+import java.util.concurrent.Executor
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class BackgroundTasksTest {
+
+    private val callbackTasks = mutableListOf<Runnable>()
+    private val callbackExecutor = Executor { callbackTasks.add(it) }
+    private val delivery: Runnable = mock()
+
+    @Test
+    fun `deliver, run on the callback executor`() {
+        BackgroundTasks.deliver(callbackExecutor, CancellableTask(), delivery)
+        verify(delivery, never()).run()
+
+        runCallbacks()
+        verify(delivery).run()
+    }
+
+    @Test
+    fun `task cancelled before delivery ran, skip it`() {
+        val task = CancellableTask()
+        BackgroundTasks.deliver(callbackExecutor, task, delivery)
+        task.cancel()
+
+        runCallbacks()
+        verify(delivery, never()).run()
+    }
+
+    @Test
+    fun `main thread executor, run on the main looper`() {
+        ShadowLooper.pauseMainLooper()
+        BackgroundTasks.deliver(BackgroundTasks.mainThreadExecutor(), CancellableTask(), delivery)
+        verify(delivery, never()).run()
+
+        ShadowLooper.runUiThreadTasks()
+        verify(delivery).run()
+    }
+
+    private fun runCallbacks() {
+        callbackTasks.forEach { it.run() }
+        callbackTasks.clear()
+    }
+}
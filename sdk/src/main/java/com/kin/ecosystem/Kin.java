@@ -12,6 +12,7 @@ import android.content.pm.PackageManager;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.app.AppCompatDelegate;
+import com.kin.ecosystem.common.BatchOrderCallback;
 import com.kin.ecosystem.common.KinCallback;
 import com.kin.ecosystem.common.KinEnvironment;
 import com.kin.ecosystem.common.KinTheme;
@@ -57,15 +58,21 @@ import com.kin.ecosystem.core.data.order.OrderRepository;
 import com.kin.ecosystem.core.data.settings.SettingsDataSourceImpl;
 import com.kin.ecosystem.core.data.settings.SettingsDataSourceLocal;
 import com.kin.ecosystem.core.network.ApiException;
+import com.kin.ecosystem.core.network.SharedHttpClient;
 import com.kin.ecosystem.core.network.model.AccountInfo;
+import com.kin.ecosystem.core.util.ConnectivityUtil;
 import com.kin.ecosystem.core.util.DeviceUtils;
 import com.kin.ecosystem.core.util.ErrorUtil;
 import com.kin.ecosystem.core.util.ExecutorsUtil;
+import com.kin.ecosystem.core.util.SharedExecutors;
 import com.kin.ecosystem.core.util.Validator;
 import com.kin.ecosystem.main.view.EcosystemActivity;
 import com.kin.ecosystem.recovery.BackupAndRestore;
 import com.kin.ecosystem.recovery.BackupAndRestoreImpl;
 import com.kin.ecosystem.widget.util.FontUtil;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import kin.sdk.migration.MigrationManager;
 import kin.sdk.migration.MigrationNetworkInfo;
@@ -75,6 +82,8 @@ public class Kin {
 
 	private static final String KIN_ECOSYSTEM_STORE_PREFIX_KEY = "kinecosystem_store";
 	private static final String KIN_ECOSYSTEM_ENVIRONMENT_NAME_KEY = "com.kin.ecosystem.sdk.EnvironmentName";
+	private static final String HTTP_CACHE_DIR_NAME = "kinecosystem_http_cache";
+	private static final long HTTP_CACHE_SIZE_BYTES = 2 * 1024 * 1024;
 	public static final String KEY_ECOSYSTEM_EXPERIENCE = "ecosystem_experience";
 	private static volatile Kin instance;
 
@@ -82,6 +91,11 @@ public class Kin {
 	private static volatile AtomicBoolean isAccountLoggedIn = new AtomicBoolean(false);
 	private static volatile String environmentName;
 
+	private static final StartupTrace startupTrace = new StartupTrace();
+	private static volatile boolean areComponentsCreated;
+	// Theme to apply once the components are created, guarded by Kin.class.
+	private static KinTheme pendingKinTheme;
+
 	private final ExecutorsUtil executorsUtil;
 	private final KinContext kinContext;
 
@@ -112,7 +126,23 @@ public class Kin {
 	 * @param appContext application context.
 	 * @throws ClientException - The sdk could not be initiated.
 	 */
-	public synchronized static void initialize(Context appContext, KinTheme kinTheme) throws ClientException {
+	public static void initialize(Context appContext, KinTheme kinTheme) throws ClientException {
+		initialize(appContext, kinTheme, false);
+	}
+
+	/**
+	 * Initialize the sdk, see {@link #initialize(Context, KinTheme)}.
+	 * In lazy mode only the configuration is loaded here, the sdk components are created on the first call that
+	 * needs them, e.g. {@link #login(String, KinCallback)} or {@link #launchMarketplace(Activity)},
+	 * and the sdk preferences are loaded on a background thread meanwhile.
+	 *
+	 * @param appContext application context.
+	 * @param lazy true to defer creating the sdk components until first use.
+	 * @throws ClientException - The sdk could not be initiated.
+	 */
+	public synchronized static void initialize(Context appContext, KinTheme kinTheme, boolean lazy)
+		throws ClientException {
+		final long start = startupTrace.begin();
 		if (isInstanceNull()) {
 			instance = getInstance(appContext);
 			// use application context to avoid leaks.
@@ -122,41 +152,133 @@ public class Kin {
 			//Load data from manifest, can throw ClientException if no data available.
 			loadDefaultsFromMetadata(getKinContext());
 
+			SharedHttpClient.setCacheDirectory(new File(appContext.getCacheDir(), HTTP_CACHE_DIR_NAME), HTTP_CACHE_SIZE_BYTES);
+
 			//Set Environment
 			ConfigurationImpl.init(environmentName, new ConfigurationLocalImpl(appContext));
-			eventLogger = EventLoggerImpl.getInstance();
 
-			AuthRepository
-				.init(AuthLocalData.getInstance(getKinContext()), AuthRemoteData.getInstance(instance.executorsUtil));
+			if (lazy) {
+				loadPreferencesInBackground(appContext);
+			}
+		}
+
+		if (kinTheme != null) {
+			pendingKinTheme = kinTheme;
+		}
+		final boolean wereComponentsCreated = areComponentsCreated;
+		if (!lazy) {
+			ensureComponents();
+		}
+		if (areComponentsCreated) {
+			applyKinTheme();
+		}
+		if (wereComponentsCreated) {
+			// Initialized again, e.g. by an sdk activity, a good time to send what waited for the network.
+			OrderRepository.getInstance().replayPendingRequests();
+		}
+		startupTrace.record(lazy ? "initialize (lazy)" : "initialize", start);
+	}
+
+	/**
+	 * @return timing of the sdk startup phases, empty before {@link #initialize(Context, KinTheme)}.
+	 */
+	@NonNull
+	public static List<StartupTrace.Span> getStartupTrace() {
+		return startupTrace.getSpans();
+	}
+
+	/**
+	 * Create the sdk components if they were not created yet, called by every call that needs them.
+	 */
+	private static void ensureComponents() {
+		if (!areComponentsCreated) {
+			synchronized (Kin.class) {
+				if (!areComponentsCreated) {
+					createComponents();
+					areComponentsCreated = true;
+				}
+			}
+		}
+	}
+
+	private static void createComponents() {
+		final Context appContext = getKinContext();
+		final long start = startupTrace.begin();
 
-			BlockchainSourceImpl.init(eventLogger, BlockchainSourceLocal.getInstance(getKinContext()),
-				BlockchainSourceRemote.getInstance(instance.executorsUtil, eventLogger), AuthRepository.getInstance());
+		long phase = startupTrace.begin();
+		EventLoggerImpl.init(appContext);
+		eventLogger = EventLoggerImpl.getInstance();
+		startupTrace.record("eventLogger", phase);
 
-			ConfigurationImpl.getInstance().setBlockchainSource(BlockchainSourceImpl.getInstance());
+		phase = startupTrace.begin();
+		AuthRepository
+			.init(AuthLocalData.getInstance(appContext), AuthRemoteData.getInstance(instance.executorsUtil));
+		startupTrace.record("auth", phase);
 
-			EventCommonDataUtil.setBaseData(getKinContext());
+		phase = startupTrace.begin();
+		BlockchainSourceImpl.init(eventLogger, BlockchainSourceLocal.getInstance(appContext),
+			BlockchainSourceRemote.getInstance(instance.executorsUtil, eventLogger), AuthRepository.getInstance());
 
-			AccountManagerImpl
-				.init(AccountManagerLocal.getInstance(getKinContext()), eventLogger, AuthRepository.getInstance(),
-					BlockchainSourceImpl.getInstance());
+		ConfigurationImpl.getInstance().setBlockchainSource(BlockchainSourceImpl.getInstance());
+		startupTrace.record("blockchain", phase);
 
-			OrderRepository.init(BlockchainSourceImpl.getInstance(),
-				eventLogger,
-				OrderRemoteData.getInstance(instance.executorsUtil),
-				OrderLocalData.getInstance(getKinContext(), instance.executorsUtil));
+		EventCommonDataUtil.setBaseData(appContext);
 
-			OfferRepository.init(OfferRemoteData.getInstance(instance.executorsUtil), OrderRepository.getInstance());
+		phase = startupTrace.begin();
+		AccountManagerImpl
+			.init(AccountManagerLocal.getInstance(appContext), eventLogger, AuthRepository.getInstance(),
+				BlockchainSourceImpl.getInstance());
+		startupTrace.record("accountManager", phase);
 
-			DeviceUtils.init(getKinContext());
-			FontUtil.Companion.init(appContext.getAssets());
+		phase = startupTrace.begin();
+		OrderRepository.init(BlockchainSourceImpl.getInstance(),
+			eventLogger,
+			OrderRemoteData.getInstance(instance.executorsUtil),
+			OrderLocalData.getInstance(appContext, instance.executorsUtil));
 
-			if (AuthRepository.getInstance().getAppID() != null) {
-				eventLogger.send(KinSdkInitiated.create());
+		OfferRepository.init(OfferRemoteData.getInstance(instance.executorsUtil), OrderRepository.getInstance());
+		ConnectivityUtil.registerOnConnected(appContext, new Runnable() {
+			@Override
+			public void run() {
+				OrderRepository.getInstance().replayPendingRequests();
 			}
+		});
+		startupTrace.record("ordersAndOffers", phase);
+
+		DeviceUtils.init(appContext);
+		// Fonts are loaded on first use, see FontUtil.warmUp
+		FontUtil.Companion.init(appContext.getAssets());
+
+		if (AuthRepository.getInstance().getAppID() != null) {
+			eventLogger.send(KinSdkInitiated.create());
 		}
+		applyKinTheme();
+		startupTrace.record("components", start);
+	}
+
+	private static void applyKinTheme() {
+		if (pendingKinTheme != null) {
+			ConfigurationImpl.getInstance().setKinTheme(pendingKinTheme);
+			pendingKinTheme = null;
+		}
+	}
 
-		//Instance not null, update KinTheme
-		ConfigurationImpl.getInstance().setKinTheme(kinTheme);
+	/**
+	 * Load the sdk preferences files, so the components created later don't wait for disk on the main thread.
+	 */
+	private static void loadPreferencesInBackground(final Context appContext) {
+		SharedExecutors.getInstance().io().execute(new Runnable() {
+			@Override
+			public void run() {
+				final long start = startupTrace.begin();
+				AuthLocalData.getInstance(appContext).getAuthTokenSync();
+				BlockchainSourceLocal.getInstance(appContext).getBlockchainVersion();
+				AccountManagerLocal.getInstance(appContext).getAccountState();
+				new ConfigurationLocalImpl(appContext).getKinTheme();
+				new SettingsDataSourceLocal(appContext).isSawOnboarding("");
+				startupTrace.record("preferences", start);
+			}
+		});
 	}
 
 	private static Context getKinContext() {
@@ -226,16 +348,16 @@ public class Kin {
 			}
 
 			AuthRepository.getInstance().setJWT(jwt);
-
-			BlockchainSourceImpl.getInstance().fetchBlockchainVersion(new KinCallback<KinSdkVersion>() {
+			createLoginPipeline().start(new LoginPipeline.Listener() {
 				@Override
-				public void onResponse(KinSdkVersion response) {
-					internalLogin(loginState, loginCallback);
+				public void onCompleted() {
+					sendLoginSucceed(loginCallback, loginState);
+					OfferRepository.getInstance().getOffers(null);
 				}
 
 				@Override
-				public void onFailure(KinEcosystemException exception) {
-					internalLogin(loginState, loginCallback);
+				public void onFailed(@NonNull KinEcosystemException exception) {
+					sendLoginFailed(exception, loginCallback);
 				}
 			});
 		} catch (final ClientException exception) {
@@ -243,77 +365,166 @@ public class Kin {
 		}
 	}
 
-	private static void internalLogin(@NonNull final int loginState, final KinCallback<Void> loginCallback) {
-		MigrationManager migrationManager = createMigrationManager(getKinContext(), AuthRepository.getInstance().getAppID());
-		BlockchainSourceImpl.getInstance().setMigrationManager(migrationManager);
+	/**
+	 * Login steps and what each one needs:
+	 * <pre>
+	 * blockchainVersion    accountInfo
+	 *         |                 |
+	 * migrationManager          |
+	 *          \               /
+	 *           loadAccount
+	 *          /           \
+	 * walletAddress     migration
+	 *          \           /
+	 *          accountState
+	 * </pre>
+	 * The blockchain version and account info requests overlap, and so do the wallet address update and the
+	 * migration check. The blockchain version fetch is skipped when the cached version is the new blockchain,
+	 * the one it can't change from, and the wallet address update is skipped when the server already has it.
+	 * The migration step doesn't call the server for an account that was already found on the new blockchain.
+	 */
+	private static LoginPipeline createLoginPipeline() {
+		final BlockchainSourceImpl blockchainSource = BlockchainSourceImpl.getInstance();
+		final AuthRepository authRepository = AuthRepository.getInstance();
+		final AccountInfo[] accountInfo = new AccountInfo[1];
+		final String[] publicAddress = new String[1];
+
+		final LoginPipeline.Step blockchainVersion = new LoginPipeline.Step("blockchainVersion") {
+			@Override
+			boolean canSkip() {
+				return blockchainSource.getBlockchainVersion() == KinSdkVersion.NEW_KIN_SDK;
+			}
+
+			@Override
+			void run(@NonNull final LoginPipeline.StepCallback callback) {
+				blockchainSource.fetchBlockchainVersion(new KinCallback<KinSdkVersion>() {
+					@Override
+					public void onResponse(KinSdkVersion response) {
+						callback.onCompleted();
+					}
+
+					@Override
+					public void onFailure(KinEcosystemException exception) {
+						// Continue with the cached version, the migration step fetches it again if needed.
+						callback.onCompleted();
+					}
+				});
+			}
+		};
+
+		final LoginPipeline.Step fetchAccountInfo = new LoginPipeline.Step("accountInfo") {
+			@Override
+			void run(@NonNull final LoginPipeline.StepCallback callback) {
+				authRepository.getAccountInfo(new KinCallback<AccountInfo>() {
+					@Override
+					public void onResponse(AccountInfo response) {
+						accountInfo[0] = response;
+						callback.onCompleted();
+					}
+
+					@Override
+					public void onFailure(KinEcosystemException exception) {
+						callback.onFailed(exception);
+					}
+				});
+			}
+		};
+
+		final LoginPipeline.Step migrationManager = new LoginPipeline.Step("migrationManager", blockchainVersion) {
+			@Override
+			void run(@NonNull LoginPipeline.StepCallback callback) {
+				blockchainSource.setMigrationManager(createMigrationManager(getKinContext(), authRepository.getAppID()));
+				callback.onCompleted();
+			}
+		};
 
-		AuthRepository.getInstance().getAccountInfo(new KinCallback<AccountInfo>() {
+		final LoginPipeline.Step loadAccount = new LoginPipeline.Step("loadAccount", fetchAccountInfo,
+			migrationManager) {
 			@Override
-			public void onResponse(AccountInfo accountInfo) {
-				String publicAddress;
+			void run(@NonNull LoginPipeline.StepCallback callback) {
 				try {
-					BlockchainSourceImpl.getInstance().loadAccount(accountInfo.getAuthToken().getEcosystemUserID());
-					publicAddress = BlockchainSourceImpl.getInstance().getPublicAddress();
+					blockchainSource.loadAccount(accountInfo[0].getAuthToken().getEcosystemUserID());
+					publicAddress[0] = blockchainSource.getPublicAddress();
 				} catch (final BlockchainException exception) {
-					sendLoginFailed(exception, loginCallback);
+					callback.onFailed(exception);
 					return;
 				}
+				callback.onCompleted();
+			}
+		};
 
-				// check server is synced with client, if synced -> skip updateWalletAddress
-				if (publicAddress != null && !publicAddress.equals(accountInfo.getUser().getCurrentWallet())) {
-					AuthRepository.getInstance().updateWalletAddress(publicAddress, new KinCallback<Boolean>() {
-						@Override
-						public void onResponse(Boolean response) {
-							migrate(loginCallback, loginState);
-						}
-
-						@Override
-						public void onFailure(KinEcosystemException exception) {
-							sendLoginFailed(exception, loginCallback);
-						}
-					});
-				} else {
-					migrate(loginCallback, loginState);
-				}
+		final LoginPipeline.Step walletAddress = new LoginPipeline.Step("walletAddress", loadAccount) {
+			@Override
+			boolean canSkip() {
+				// Server is synced with client
+				return publicAddress[0] == null || publicAddress[0].equals(accountInfo[0].getUser().getCurrentWallet());
 			}
 
 			@Override
-			public void onFailure(final KinEcosystemException exception) {
-				sendLoginFailed(exception, loginCallback);
+			void run(@NonNull final LoginPipeline.StepCallback callback) {
+				authRepository.updateWalletAddress(publicAddress[0], new KinCallback<Boolean>() {
+					@Override
+					public void onResponse(Boolean response) {
+						callback.onCompleted();
+					}
+
+					@Override
+					public void onFailure(KinEcosystemException exception) {
+						callback.onFailed(exception);
+					}
+				});
 			}
-		});
-	}
+		};
 
-	private static void migrate(final KinCallback<Void> loginCallback, final int loginState) {
-		BlockchainSourceImpl.getInstance().startMigrationProcess(new MigrationProcessListener() {
-				@Override
-				public void onMigrationStart() {}
+		final LoginPipeline.Step migration = new LoginPipeline.Step("migration", loadAccount) {
+			@Override
+			void run(@NonNull final LoginPipeline.StepCallback callback) {
+				blockchainSource.startMigrationProcess(new MigrationProcessListener() {
+					@Override
+					public void onMigrationStart() {}
+
+					@Override
+					public void onMigrationEnd() {
+						callback.onCompleted();
+					}
+
+					@Override
+					public void onMigrationError(BlockchainException error) {
+						callback.onFailed(error);
+					}
+				});
+			}
+		};
 
-				@Override
-				public void onMigrationEnd() {
-					onboard(loginCallback, loginState);
-				}
+		final LoginPipeline.Step accountState = new LoginPipeline.Step("accountState", walletAddress, migration) {
+			@Override
+			void run(@NonNull final LoginPipeline.StepCallback callback) {
+				onboard(callback);
+			}
+		};
 
-				@Override
-				public void onMigrationError(BlockchainException error) {
-					sendLoginFailed(error, loginCallback);
-				}
-			});
+		return new LoginPipeline()
+			.add(blockchainVersion)
+			.add(fetchAccountInfo)
+			.add(migrationManager)
+			.add(loadAccount)
+			.add(walletAddress)
+			.add(migration)
+			.add(accountState);
 	}
 
-	private static void onboard(final KinCallback<Void> loginCallback, final int loginState) {
+	private static void onboard(final LoginPipeline.StepCallback callback) {
 		AccountManagerImpl.getInstance().addAccountStateObserver(new Observer<Integer>() {
 			@Override
 			public void onChanged(@AccountState Integer accountState) {
 				switch (accountState) {
 					case AccountManager.CREATION_COMPLETED:
-						sendLoginSucceed(loginCallback, loginState);
-						OfferRepository.getInstance().getOffers(null);
 						AccountManagerImpl.getInstance().removeAccountStateObserver(this);
+						callback.onCompleted();
 						break;
 					case AccountManager.ERROR:
-						sendLoginFailed(AccountManagerImpl.getInstance().getError(), loginCallback);
 						AccountManagerImpl.getInstance().removeAccountStateObserver(this);
+						callback.onFailed(AccountManagerImpl.getInstance().getError());
 						break;
 				}
 			}
@@ -387,6 +598,7 @@ public class Kin {
 		if (isInstanceNull()) {
 			throw ErrorUtil.getClientException(SDK_NOT_STARTED, null);
 		}
+		ensureComponents();
 	}
 
 	/**
@@ -398,6 +610,8 @@ public class Kin {
 		checkInstanceNotNull();
 		if (isAccountLoggedIn.compareAndSet(true, false)) {
 			eventLogger.send(UserLogoutRequested.create());
+			// Send the events of the user that logs out now, instead of with the next user's events.
+			EventLoggerImpl.getInstance().flush();
 			Logger.log(new Log().withTag("Kin.java").text("logout").put("isAccountLoggedIn", isAccountLoggedIn));
 			AuthRepository.getInstance().logout();
 			clearCachedData();
@@ -553,6 +767,36 @@ public class Kin {
 		OrderRepository.getInstance().requestPayment(offerJwt, callback);
 	}
 
+	/**
+	 * Purchase with each of the offer jwts, see {@link #purchase(String, KinCallback)}.
+	 * Spend transactions of the account are sent in sequence, so the orders run one at a time.
+	 *
+	 * @param offerJwts the offers in a JWT manner.
+	 * @param callback {@link BatchOrderCallback} each order result is reported as soon as it completes.
+	 * @throws ClientException - sdk not initialized or account not logged in.
+	 */
+	public static void purchaseBatch(@NonNull List<String> offerJwts, @NonNull BatchOrderCallback callback)
+		throws ClientException {
+		checkInstanceNotNull();
+		checkAccountIsLoggedIn();
+		OrderRepository.getInstance().purchaseBatch(new ArrayList<>(offerJwts), callback);
+	}
+
+	/**
+	 * Request payment for each of the offer jwts, see {@link #requestPayment(String, KinCallback)}.
+	 * Several orders are created and confirmed concurrently, sharing one payment listener.
+	 *
+	 * @param offerJwts the offers details represented in a JWT manner.
+	 * @param callback {@link BatchOrderCallback} each order result is reported as soon as it completes.
+	 * @throws ClientException - sdk not initialized or account not logged in.
+	 */
+	public static void requestPaymentBatch(@NonNull List<String> offerJwts, @NonNull BatchOrderCallback callback)
+		throws ClientException {
+		checkInstanceNotNull();
+		checkAccountIsLoggedIn();
+		OrderRepository.getInstance().requestPaymentBatch(new ArrayList<>(offerJwts), callback);
+	}
+
 	/**
 	 * Allowing a user to pay to a different user for an offer defined within your app, using KIN.
 	 * This call might take time, due to transaction validation on the blockchain network.
@@ -0,0 +1,231 @@
+package com.kin.ecosystem;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import com.kin.ecosystem.common.exception.KinEcosystemException;
+import com.kin.ecosystem.core.Log;
+import com.kin.ecosystem.core.Logger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the login steps as a dependency graph, each step starts as soon as all the steps it depends on completed,
+ * so independent steps, e.g. network calls, overlap. A step whose cached result is still valid is skipped.
+ * The first failure fails the pipeline, steps that are still running complete but nothing else starts.
+ * Time of each step, from start to completion, is recorded and logged when the pipeline ends.
+ */
+class LoginPipeline {
+
+	private static final String TAG = LoginPipeline.class.getSimpleName();
+	static final long SKIPPED = -1;
+
+	interface Listener {
+
+		void onCompleted();
+
+		void onFailed(@NonNull KinEcosystemException exception);
+	}
+
+	interface StepCallback {
+
+		void onCompleted();
+
+		void onFailed(@NonNull KinEcosystemException exception);
+	}
+
+	abstract static class Step {
+
+		private final String name;
+		private final List<Step> dependencies;
+
+		Step(@NonNull String name, Step... dependencies) {
+			this.name = name;
+			List<Step> list = new ArrayList<>(dependencies.length);
+			Collections.addAll(list, dependencies);
+			this.dependencies = list;
+		}
+
+		/**
+		 * @return true if the result of the step is still valid and it doesn't need to run,
+		 * called after its dependencies completed.
+		 */
+		boolean canSkip() {
+			return false;
+		}
+
+		/**
+		 * Run the step, the callback can be called on any thread.
+		 */
+		abstract void run(@NonNull StepCallback callback);
+
+		@NonNull
+		String getName() {
+			return name;
+		}
+	}
+
+	private final List<Step> steps = new ArrayList<>();
+	private final Map<Step, Long> startTimes = new LinkedHashMap<>();
+	// Steps that completed or were skipped, a failed step is never added so its dependents never start.
+	private final Set<Step> completed = new HashSet<>();
+	private final Map<String, Long> durations = new LinkedHashMap<>();
+	private Listener listener;
+	private long startTime;
+	private boolean isFinished;
+
+	/**
+	 * Add a step, its dependencies must have been added before it.
+	 */
+	LoginPipeline add(@NonNull Step step) {
+		for (Step dependency : step.dependencies) {
+			if (!steps.contains(dependency)) {
+				throw new IllegalArgumentException(
+					"Step " + step.name + " depends on " + dependency.name + " which was not added");
+			}
+		}
+		steps.add(step);
+		return this;
+	}
+
+	void start(@NonNull Listener listener) {
+		final List<Step> ready;
+		synchronized (this) {
+			if (this.listener != null) {
+				throw new IllegalStateException("Login pipeline already started");
+			}
+			this.listener = listener;
+			startTime = SystemClock.elapsedRealtime();
+			ready = readySteps();
+			isFinished = steps.isEmpty();
+		}
+		if (steps.isEmpty()) {
+			finish(null, Collections.<String, Long>emptyMap());
+			return;
+		}
+		runAll(ready);
+	}
+
+	/**
+	 * @return duration in milliseconds of each step that completed, {@link #SKIPPED} for skipped steps.
+	 */
+	@NonNull
+	synchronized Map<String, Long> getDurations() {
+		return new LinkedHashMap<>(durations);
+	}
+
+	private void runAll(List<Step> ready) {
+		for (Step step : ready) {
+			run(step);
+		}
+	}
+
+	private void run(final Step step) {
+		if (step.canSkip()) {
+			onStepCompleted(step, SKIPPED);
+			return;
+		}
+		step.run(new StepCallback() {
+			@Override
+			public void onCompleted() {
+				onStepCompleted(step, SystemClock.elapsedRealtime() - startTimeOf(step));
+			}
+
+			@Override
+			public void onFailed(@NonNull KinEcosystemException exception) {
+				final Map<String, Long> stepDurations;
+				synchronized (LoginPipeline.this) {
+					// Finish in the same critical section, so a step completing meanwhile starts nothing else.
+					if (isFinished) {
+						return;
+					}
+					isFinished = true;
+					durations.put(step.name, SystemClock.elapsedRealtime() - startTimeOf(step));
+					stepDurations = new LinkedHashMap<>(durations);
+				}
+				Logger.log(new Log().withTag(TAG).put("step failed", step.name));
+				finish(exception, stepDurations);
+			}
+		});
+	}
+
+	private synchronized long startTimeOf(Step step) {
+		final Long start = startTimes.get(step);
+		return start != null ? start : startTime;
+	}
+
+	private void onStepCompleted(Step step, long duration) {
+		final List<Step> ready;
+		final Map<String, Long> stepDurations;
+		synchronized (this) {
+			if (isFinished || completed.contains(step)) {
+				return;
+			}
+			completed.add(step);
+			durations.put(step.name, duration);
+			if (completed.size() == steps.size()) {
+				isFinished = true;
+				stepDurations = new LinkedHashMap<>(durations);
+				ready = Collections.emptyList();
+			} else {
+				stepDurations = null;
+				ready = readySteps();
+			}
+		}
+		if (stepDurations != null) {
+			finish(null, stepDurations);
+		} else {
+			runAll(ready);
+		}
+	}
+
+	/**
+	 * @return steps that can start now, marked as started, must be called while holding the lock.
+	 */
+	private List<Step> readySteps() {
+		final List<Step> ready = new ArrayList<>();
+		if (isFinished) {
+			return ready;
+		}
+		final long now = SystemClock.elapsedRealtime();
+		for (Step step : steps) {
+			if (!startTimes.containsKey(step) && areCompleted(step.dependencies)) {
+				startTimes.put(step, now);
+				ready.add(step);
+			}
+		}
+		return ready;
+	}
+
+	private boolean areCompleted(List<Step> dependencies) {
+		return completed.containsAll(dependencies);
+	}
+
+	/**
+	 * Notify the listener, called once, after {@link #isFinished} was set while holding the lock.
+	 */
+	private void finish(KinEcosystemException exception, Map<String, Long> stepDurations) {
+		logDurations(stepDurations, exception == null);
+		if (exception == null) {
+			listener.onCompleted();
+		} else {
+			listener.onFailed(exception);
+		}
+	}
+
+	private void logDurations(Map<String, Long> stepDurations, boolean succeeded) {
+		if (!Logger.isLoggable()) {
+			return;
+		}
+		final Log log = new Log().withTag(TAG).put("succeeded", succeeded)
+			.put("total", SystemClock.elapsedRealtime() - startTime);
+		for (Map.Entry<String, Long> entry : stepDurations.entrySet()) {
+			log.put(entry.getKey(), entry.getValue() == SKIPPED ? "skipped" : entry.getValue());
+		}
+		Logger.log(log);
+	}
+}
@@ -0,0 +1,89 @@
+package com.kin.ecosystem;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timing of the sdk startup phases, from the first {@link Kin#initialize} call:
+ * initialize itself, creating the sdk components, which is deferred to first use in lazy mode,
+ * and loading the sdk preferences in the background.
+ */
+public final class StartupTrace {
+
+	public static final class Span {
+
+		private final String name;
+		private final String threadName;
+		private final long startMillis;
+		private final long durationMillis;
+
+		Span(@NonNull String name, @NonNull String threadName, long startMillis, long durationMillis) {
+			this.name = name;
+			this.threadName = threadName;
+			this.startMillis = startMillis;
+			this.durationMillis = durationMillis;
+		}
+
+		@NonNull
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the thread the phase ran on.
+		 */
+		@NonNull
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * @return start of the phase in milliseconds since the first {@link Kin#initialize} call.
+		 */
+		public long getStartMillis() {
+			return startMillis;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+
+		@Override
+		public String toString() {
+			return name + " [" + threadName + "] +" + startMillis + "ms " + durationMillis + "ms";
+		}
+	}
+
+	private final List<Span> spans = new ArrayList<>();
+	private long originMillis = -1;
+
+	/**
+	 * @return start time of a phase, to pass to {@link #record(String, long)} when the phase ends.
+	 */
+	synchronized long begin() {
+		final long now = SystemClock.elapsedRealtime();
+		if (originMillis == -1) {
+			originMillis = now;
+		}
+		return now;
+	}
+
+	synchronized void record(@NonNull String name, long beginMillis) {
+		final long now = SystemClock.elapsedRealtime();
+		if (originMillis == -1) {
+			originMillis = beginMillis;
+		}
+		spans.add(new Span(name, Thread.currentThread().getName(), beginMillis - originMillis, now - beginMillis));
+	}
+
+	/**
+	 * @return the recorded phases, in the order they ended.
+	 */
+	@NonNull
+	synchronized List<Span> getSpans() {
+		return Collections.unmodifiableList(new ArrayList<>(spans));
+	}
+}
@@ -35,10 +35,17 @@ public abstract class BaseRecyclerAdapter<T, VH extends BaseViewHolder> extends
 	protected abstract VH createBaseViewHolder(View view);
 
 	public void setNewData(@Nullable List<T> data) {
-		this.data = data == null ? new ArrayList<T>() : data;
+		replaceData(data);
 		notifyDataSetChanged();
 	}
 
+	/**
+	 * Replace the data without notifying, the caller dispatches the item notifications.
+	 */
+	protected void replaceData(@Nullable List<T> data) {
+		this.data = data == null ? new ArrayList<T>() : data;
+	}
+
 	@Override
 	public VH onCreateViewHolder(ViewGroup parent, int viewType) {
 		VH baseViewHolder;
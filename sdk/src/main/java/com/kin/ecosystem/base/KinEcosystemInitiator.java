@@ -8,6 +8,7 @@ import com.kin.ecosystem.core.Log;
 import com.kin.ecosystem.core.Logger;
 import com.kin.ecosystem.core.data.auth.AuthRepository;
 import com.kin.ecosystem.core.data.blockchain.BlockchainSourceImpl;
+import com.kin.ecosystem.core.util.StringUtil;
 import kin.sdk.migration.common.interfaces.IKinAccount;
 
 final class KinEcosystemInitiator {
@@ -17,6 +18,13 @@ final class KinEcosystemInitiator {
 	private KinEcosystemInitiator() {
 	}
 
+	/**
+	 * Called from every sdk activity onCreate, before the views are created.
+	 * The account is loaded synchronously on purpose: it is needed only after a process restart, and then the
+	 * presenters created right after this call read the account and balance, so it must be loaded before they do.
+	 * In every other case the account was already loaded by {@link Kin#login}, or there is no logged in user,
+	 * so this returns without touching the wallet, also in lazy mode.
+	 */
 	protected static void init(Context context) {
 		try {
 			Kin.initialize(context,  null);
@@ -24,7 +32,10 @@ final class KinEcosystemInitiator {
 			IKinAccount account = BlockchainSourceImpl.getInstance().getKinAccount();
 			if (account == null) {
 				final String kinUserId = AuthRepository.getInstance().getEcosystemUserID();
-				BlockchainSourceImpl.getInstance().loadAccount(kinUserId);
+				// Without a logged in user there is no account to restore, don't create a wallet for it.
+				if (!StringUtil.isEmpty(kinUserId)) {
+					BlockchainSourceImpl.getInstance().loadAccount(kinUserId);
+				}
 			}
 		} catch (ClientException | BlockchainException e) {
 			Logger.log(new Log().withTag(TAG).text("KinEcosystem sdk auto initialize failed"));
@@ -18,4 +18,6 @@ interface IOrderHistoryPresenter : IBasePresenter<IOrderHistoryView> {
 
     fun onTabSelected(tab: KinEcosystemTabs.Tab)
 
+    fun onScrolledToEnd()
+
 }
@@ -0,0 +1,63 @@
+package com.kin.ecosystem.history.presenter
+
+import com.kin.ecosystem.core.network.model.Order
+
+/**
+ * Order list ordered newest first, indexed by orderId.
+ * Orders can be inserted at the top, appended at the bottom or replaced, each in O(1).
+ * Orders inserted at the top are kept reversed in [head], all others in [tail].
+ */
+class OrderHistoryList : AbstractList<Order>() {
+
+    private val head = ArrayList<Order>()
+    private val tail = ArrayList<Order>()
+    private val slots = HashMap<String, Slot>()
+
+    private class Slot(val inHead: Boolean, val index: Int)
+
+    override val size: Int
+        get() = head.size + tail.size
+
+    override fun get(index: Int): Order {
+        return if (index < head.size) head[head.size - 1 - index] else tail[index - head.size]
+    }
+
+    override fun contains(element: Order): Boolean = slots.containsKey(element.orderId)
+
+    override fun indexOf(element: Order): Int = positionOf(element.orderId)
+
+    fun positionOf(orderId: String): Int {
+        val slot = slots[orderId] ?: return NOT_FOUND
+        return if (slot.inHead) head.size - 1 - slot.index else head.size + slot.index
+    }
+
+    fun addFirst(order: Order) {
+        head.add(order)
+        slots[order.orderId] = Slot(true, head.size - 1)
+    }
+
+    fun addLast(order: Order) {
+        tail.add(order)
+        slots[order.orderId] = Slot(false, tail.size - 1)
+    }
+
+    /**
+     * @return the position of the replaced order or [NOT_FOUND].
+     */
+    fun replace(order: Order): Int {
+        val slot = slots[order.orderId] ?: return NOT_FOUND
+        if (slot.inHead) head[slot.index] = order else tail[slot.index] = order
+        return positionOf(order.orderId)
+    }
+
+    fun reset(orders: List<Order>) {
+        head.clear()
+        tail.clear()
+        slots.clear()
+        orders.forEach { if (!slots.containsKey(it.orderId)) addLast(it) }
+    }
+
+    companion object {
+        const val NOT_FOUND = -1
+    }
+}
@@ -30,14 +30,15 @@ class OrderHistoryPresenter(private val orderRepository: OrderDataSource,
                             private var navigator: INavigator?,
                             private val eventLogger: EventLogger) : BasePresenter<IOrderHistoryView>(), IOrderHistoryPresenter {
 
-    private var earnOrderList: MutableList<Order> = ArrayList()
-    private var spendOrderList: MutableList<Order> = ArrayList()
+    private val earnOrderList = OrderHistoryList()
+    private val spendOrderList = OrderHistoryList()
 
     private var balanceObserver: Observer<Balance>? = null
     private var currentBalance: Balance = blockchainSource.balance
     private var publicAddress: String = blockchainSource.publicAddress
 
     private var currentPendingOrder: Order? = null
+    private var isLoadingNextPage = false
     private var completedOrderObserver: Observer<Order>? = null
 
     override fun onAttach(view: IOrderHistoryView) {
@@ -70,7 +71,9 @@ class OrderHistoryPresenter(private val orderRepository: OrderDataSource,
     private fun getCachedHistory() {
         val cachedOrderListObj = orderRepository.allCachedOrderHistory
         cachedOrderListObj?.let {
-            syncNewOrders(it)
+            val (cachedEarnList, cachedSpendList) = splitByType(it.orders)
+            earnOrderList.reset(cachedEarnList)
+            spendOrderList.reset(cachedSpendList)
         }
         view?.setEarnList(earnOrderList)
         view?.setSpendList(spendOrderList)
@@ -88,24 +91,90 @@ class OrderHistoryPresenter(private val orderRepository: OrderDataSource,
         })
     }
 
+    override fun onScrolledToEnd() {
+        if (isLoadingNextPage || !orderRepository.hasMoreOrderHistory()) {
+            return
+        }
+        isLoadingNextPage = true
+        orderRepository.getOrderHistoryNextPage(object : KinCallback<OrderList> {
+            override fun onResponse(page: OrderList) {
+                isLoadingNextPage = false
+                appendOlderOrders(page)
+            }
+
+            override fun onFailure(exception: KinEcosystemException) {
+                isLoadingNextPage = false
+            }
+        })
+    }
+
+    private fun appendOlderOrders(page: OrderList) {
+        val orders = page.orders ?: return
+        val (olderEarnList, olderSpendList) = splitByType(orders)
+        appendOrders(olderEarnList, earnOrderList, true)
+        appendOrders(olderSpendList, spendOrderList, false)
+    }
+
+    private fun appendOrders(orders: List<Order>, currentOrders: OrderHistoryList, isEarn: Boolean) {
+        val start = currentOrders.size
+        orders.forEach { if (!currentOrders.contains(it)) currentOrders.addLast(it) }
+        if (currentOrders.size > start) {
+            if (isEarn) view?.onEarnItemRangeInserted(start, currentOrders.size - start)
+            else view?.onSpendItemRangeInserted(start, currentOrders.size - start)
+        }
+    }
+
     private fun syncNewOrders(newOrdersListObj: OrderList) {
-        val (newEarnList,newSpendList ) = splitByType(newOrdersListObj.orders)
-        addOrders(newEarnList, earnOrderList)
-        addOrders(newSpendList, spendOrderList)
+        val (newEarnList, newSpendList) = splitByType(newOrdersListObj.orders)
+        mergeOrders(newEarnList, earnOrderList, true)
+        mergeOrders(newSpendList, spendOrderList, false)
     }
 
-    private fun addOrders(orders: List<Order>, currentOrders: MutableList<Order>) {
-        if (orders.isNotEmpty()) {
+    /**
+     * Merge a newest first list into [currentOrders].
+     * Known orders are replaced in place, unknown orders that precede all known ones are inserted at the top,
+     * each in O(1). If unknown orders are mixed between known ones the list is rebuilt and diffed.
+     */
+    private fun mergeOrders(orders: List<Order>, currentOrders: OrderHistoryList, isEarn: Boolean) {
+        if (orders.isEmpty()) {
+            return
+        }
+        val firstKnownIndex = orders.indexOfFirst { currentOrders.contains(it) }
+        val newPrefixSize = if (firstKnownIndex == NOT_FOUND) orders.size else firstKnownIndex
+        val hasUnknownAfterPrefix = orders.asSequence().drop(newPrefixSize).any { !currentOrders.contains(it) }
+
+        if (hasUnknownAfterPrefix && currentOrders.isNotEmpty()) {
+            val oldOrders = ArrayList<Order>(currentOrders)
+            val merged = LinkedHashMap<String, Order>()
+            orders.forEach { merged[it.orderId] = it }
+            oldOrders.forEach { if (!merged.containsKey(it.orderId)) merged[it.orderId] = it }
+            currentOrders.reset(ArrayList(merged.values))
+            if (isEarn) view?.onEarnListChanged(oldOrders) else view?.onSpendListChanged(oldOrders)
+            return
+        }
+
+        for (i in newPrefixSize until orders.size) {
+            val position = currentOrders.replace(orders[i])
+            if (position != NOT_FOUND) {
+                if (isEarn) view?.onEarnItemUpdated(position) else view?.onSpendItemUpdated(position)
+            }
+        }
+
+        if (newPrefixSize > 0) {
             //the oldest order is the last one, so we'll go from the last and add the top
             //we will end with newest order at the top.
-            for (i in orders.indices.reversed()) {
-                val order = orders[i]
-                val index = currentOrders.indexOf(order)
-                if (index == NOT_FOUND) {
-                    //add at top (ui orientation)
-                    addOrder(order = order)
-                }
+            for (i in newPrefixSize - 1 downTo 0) {
+                currentOrders.addFirst(orders[i])
             }
+            notifyInsertedAtTop(newPrefixSize, currentOrders, isEarn)
+        }
+    }
+
+    private fun notifyInsertedAtTop(count: Int, currentOrders: OrderHistoryList, isEarn: Boolean) {
+        if (isEarn) view?.onEarnItemRangeInserted(0, count) else view?.onSpendItemRangeInserted(0, count)
+        // The previous top item is no longer highlighted.
+        if (currentOrders.size > count) {
+            if (isEarn) view?.onEarnItemUpdated(count) else view?.onSpendItemUpdated(count)
         }
     }
 
@@ -137,7 +206,6 @@ class OrderHistoryPresenter(private val orderRepository: OrderDataSource,
                                 updateSubTitle(order)
                             }
                             addOrderOrUpdate(order)
-                            updateRestOfTheOrders(order)
                         }
                         Status.DELAYED -> if (isCurrentOrder(order)) {
                             updateSubTitle(order)
@@ -176,44 +244,17 @@ class OrderHistoryPresenter(private val orderRepository: OrderDataSource,
         }
     }
 
-    private fun updateRestOfTheOrders(order: Order) {
-        if (isEarn(order)) {
-            if(earnOrderList.size > 1) {
-                view?.notifyEarnDataChanged(IntRange(1, earnOrderList.size - 1))
-            }
-        } else {
-            if(spendOrderList.size > 1) {
-                view?.notifySpendDataChanged(IntRange(1, spendOrderList.size - 1))
-            }
-        }
-    }
-
     private fun addOrderOrUpdate(order: Order) {
-        val index = if (isEarn(order)) earnOrderList.indexOf(order) else spendOrderList.indexOf(order)
-        if (index == NOT_FOUND) {
-            addOrder(order = order)
-        } else {
-            updateOrder(index = index, order = order)
-        }
-    }
-
-    private fun addOrder(index: Int = 0, order: Order) {
-        if (isEarn(order)) {
-            earnOrderList.add(index, order)
-            view?.onEarnItemInserted()
-        } else {
-            spendOrderList.add(index, order)
-            view?.onSpendItemInserted()
-        }
-    }
-
-    private fun updateOrder(index: Int, order: Order) {
-        if (isEarn(order)) {
-            earnOrderList[index] = order
-            view?.onEarnItemUpdated(index)
+        val isEarn = isEarn(order)
+        val currentOrders = if (isEarn) earnOrderList else spendOrderList
+        val position = currentOrders.replace(order)
+        if (position == NOT_FOUND) {
+            currentOrders.addFirst(order)
+            notifyInsertedAtTop(1, currentOrders, isEarn)
+        } else if (isEarn) {
+            view?.onEarnItemUpdated(position)
         } else {
-            spendOrderList[index] = order
-            view?.onSpendItemUpdated(index)
+            view?.onSpendItemUpdated(position)
         }
     }
 
@@ -15,17 +15,23 @@ interface IOrderHistoryView : IBaseView {
 
     fun setSpendList(spendList: List<Order>)
 
-    fun onEarnItemInserted()
+    fun onEarnItemRangeInserted(start: Int, count: Int)
 
-    fun onSpendItemInserted()
+    fun onSpendItemRangeInserted(start: Int, count: Int)
 
     fun onEarnItemUpdated(index: Int)
 
     fun onSpendItemUpdated(index: Int)
 
-    fun notifyEarnDataChanged(range: IntRange)
+    /**
+     * The earn list was rebuilt, dispatch the difference from [oldList].
+     */
+    fun onEarnListChanged(oldList: List<Order>)
 
-    fun notifySpendDataChanged(range: IntRange)
+    /**
+     * The spend list was rebuilt, dispatch the difference from [oldList].
+     */
+    fun onSpendListChanged(oldList: List<Order>)
 
     fun setNavigator(navigator: INavigator)
 
@@ -8,6 +8,7 @@ import android.os.Handler
 import android.os.Looper
 import android.support.v4.app.Fragment
 import android.support.v4.content.ContextCompat
+import android.support.v7.widget.LinearLayoutManager
 import android.support.v7.widget.RecyclerView
 import android.view.LayoutInflater
 import android.view.View
@@ -52,6 +53,14 @@ open class OrderHistoryFragment : Fragment(), IOrderHistoryView {
     private val mainHandler by lazy {
         Handler(Looper.getMainLooper())
     }
+    private val loadMoreScrollListener = object : RecyclerView.OnScrollListener() {
+        override fun onScrolled(recyclerView: RecyclerView, dx: Int, dy: Int) {
+            val layoutManager = recyclerView.layoutManager as? LinearLayoutManager ?: return
+            if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= layoutManager.itemCount - LOAD_MORE_THRESHOLD) {
+                orderHistoryPresenter?.onScrolledToEnd()
+            }
+        }
+    }
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
         val root = inflater.inflate(R.layout.kinecosystem_fragment_order_history, container, false)
@@ -156,6 +165,9 @@ open class OrderHistoryFragment : Fragment(), IOrderHistoryView {
             bindToRecyclerView(spendOrderRecyclerView)
         }
 
+        earnOrderRecyclerView.addOnScrollListener(loadMoreScrollListener)
+        spendOrderRecyclerView.addOnScrollListener(loadMoreScrollListener)
+
         root.findViewById<KinEcosystemTabs>(R.id.order_history_tabs).apply {
             setOnTabClickedListener { orderHistoryPresenter?.onTabSelected(it) }
         }
@@ -252,12 +264,12 @@ open class OrderHistoryFragment : Fragment(), IOrderHistoryView {
         spendRecyclerAdapter.setNewData(spendList)
     }
 
-    override fun onEarnItemInserted() {
-        earnRecyclerAdapter.notifyItemInserted(0)
+    override fun onEarnItemRangeInserted(start: Int, count: Int) {
+        earnRecyclerAdapter.notifyItemRangeInserted(start, count)
     }
 
-    override fun onSpendItemInserted() {
-        spendRecyclerAdapter.notifyItemInserted(0)
+    override fun onSpendItemRangeInserted(start: Int, count: Int) {
+        spendRecyclerAdapter.notifyItemRangeInserted(start, count)
     }
 
     override fun onEarnItemUpdated(index: Int) {
@@ -268,12 +280,12 @@ open class OrderHistoryFragment : Fragment(), IOrderHistoryView {
         spendRecyclerAdapter.notifyItemChanged(index)
     }
 
-    override fun notifyEarnDataChanged(range: IntRange) {
-        earnRecyclerAdapter.notifyItemRangeChanged(range.start, range.last)
+    override fun onEarnListChanged(oldList: List<Order>) {
+        earnRecyclerAdapter.dispatchDiff(oldList)
     }
 
-    override fun notifySpendDataChanged(range: IntRange) {
-        spendRecyclerAdapter.notifyItemRangeChanged(range.start, range.last)
+    override fun onSpendListChanged(oldList: List<Order>) {
+        spendRecyclerAdapter.dispatchDiff(oldList)
     }
 
     override fun setNavigator(navigator: INavigator) {
@@ -285,6 +297,8 @@ open class OrderHistoryFragment : Fragment(), IOrderHistoryView {
 
         private const val DURATION_SLIDE_ANIM = 300L
 
+        private const val LOAD_MORE_THRESHOLD = 10
+
         private var colorOrange = NOT_INITIALIZED
         private var colorPrimary = NOT_INITIALIZED
         private var colorFailed = NOT_INITIALIZED
@@ -8,6 +8,7 @@ import static com.kin.ecosystem.core.util.StringUtil.getAmountFormatted;
 import android.content.Context;
 import android.content.res.Resources;
 import android.support.v4.content.ContextCompat;
+import android.support.v7.util.DiffUtil;
 import android.text.TextUtils;
 import android.view.View;
 import com.kin.ecosystem.R;
@@ -18,6 +19,7 @@ import com.kin.ecosystem.core.network.model.Order;
 import com.kin.ecosystem.core.network.model.Order.Status;
 import com.kin.ecosystem.history.view.OrderHistoryRecyclerAdapter.ViewHolder;
 import com.kin.ecosystem.widget.util.ThemeUtil;
+import java.util.List;
 
 
 public class OrderHistoryRecyclerAdapter extends BaseRecyclerAdapter<Order, ViewHolder> {
@@ -73,6 +75,13 @@ public class OrderHistoryRecyclerAdapter extends BaseRecyclerAdapter<Order, View
         }
     }
 
+    /**
+     * Dispatch the changes between oldList and the current data, which was already updated in place.
+     */
+    void dispatchDiff(List<Order> oldList) {
+        DiffUtil.calculateDiff(new OrdersDiffUtil(oldList, getData())).dispatchUpdatesTo(this);
+    }
+
     @Override
     protected void convert(ViewHolder holder, final Order item) {
         holder.bindObject(item);
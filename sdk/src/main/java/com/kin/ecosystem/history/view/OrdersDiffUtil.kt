@@ -0,0 +1,27 @@
+package com.kin.ecosystem.history.view
+
+import android.support.v7.util.DiffUtil
+import com.kin.ecosystem.core.network.model.Order
+
+class OrdersDiffUtil(private val oldOrders: List<Order>, private val newOrders: List<Order>): DiffUtil.Callback() {
+
+    override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
+        return oldOrders[oldItemPosition].orderId == newOrders[newItemPosition].orderId
+    }
+
+    override fun getOldListSize(): Int = oldOrders.size
+
+    override fun getNewListSize(): Int = newOrders.size
+
+    override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
+        val oldOrder = oldOrders[oldItemPosition]
+        val newOrder = newOrders[newItemPosition]
+        // Order.equals compares only the orderId, the top item is highlighted so its position matters too.
+        return oldItemPosition != 0 && newItemPosition != 0 &&
+                oldOrder.status == newOrder.status &&
+                oldOrder.completionDate == newOrder.completionDate &&
+                oldOrder.amount == newOrder.amount &&
+                oldOrder.title == newOrder.title &&
+                oldOrder.description == newOrder.description
+    }
+}
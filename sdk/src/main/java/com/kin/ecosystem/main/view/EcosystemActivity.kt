@@ -33,6 +33,7 @@ import com.kin.ecosystem.marketplace.view.MarketplaceFragment
 import com.kin.ecosystem.onPreDraw
 import com.kin.ecosystem.onboarding.view.OnboardingFragment
 import com.kin.ecosystem.settings.view.SettingsFragment
+import com.kin.ecosystem.widget.util.FontUtil
 import com.kin.ecosystem.withEndAction
 
 class EcosystemActivity : KinEcosystemBaseActivity(), IEcosystemView {
@@ -58,6 +59,7 @@ class EcosystemActivity : KinEcosystemBaseActivity(), IEcosystemView {
     override fun onCreate(savedInstanceState: Bundle?) {
         setTheme(getKinTheme())
         super.onCreate(savedInstanceState)
+        FontUtil.warmUp()
         initViews()
         ecosystemPresenter = EcosystemPresenter(AuthRepository.getInstance(),
                 SettingsDataSourceImpl(SettingsDataSourceLocal(applicationContext)),
@@ -69,7 +71,7 @@ class EcosystemActivity : KinEcosystemBaseActivity(), IEcosystemView {
 
     @StyleRes
     private fun getKinTheme(): Int {
-        return ConfigurationImpl.getInstance().kinTheme?.let {
+        return ConfigurationImpl.getInstance()?.kinTheme?.let {
             when (it) {
                 LIGHT -> R.style.KinecosysNoActionBar_Light
                 DARK -> R.style.KinecosysNoActionBar_Dark
@@ -14,6 +14,7 @@ import com.kin.ecosystem.core.bi.EventLogger
 import com.kin.ecosystem.core.bi.events.*
 import com.kin.ecosystem.core.data.blockchain.BlockchainSource
 import com.kin.ecosystem.core.data.offer.OfferDataSource
+import com.kin.ecosystem.core.data.offer.OfferListChange
 import com.kin.ecosystem.core.data.order.OrderDataSource
 import com.kin.ecosystem.core.data.settings.SettingsDataSource
 import com.kin.ecosystem.core.network.model.Offer
@@ -38,8 +39,9 @@ class MarketplacePresenter(private val offerRepository: OfferDataSource,
                            private var navigator: INavigator?,
                            private val eventLogger: EventLogger) : BasePresenter<IMarketplaceView>(), IMarketplacePresenter {
 
-    private var offerList: MutableList<Offer>? = null
-    private var nativeOfferRemovedSubscription: Subscription<Offer>? = null
+    // Replaced on each update and never modified, the adapter may still be diffing it.
+    private var offerList: List<Offer>? = null
+    private var offerListChangedSubscription: Subscription<OfferListChange>? = null
 
     private var orderObserver: Observer<Order>? = null
     private var isListsAdded: Boolean = false
@@ -73,16 +75,18 @@ class MarketplacePresenter(private val offerRepository: OfferDataSource,
     }
 
     override fun onResume() {
-        listenToRemovedNativeOffers()
+        listenToOfferListChanges()
         listenToOrders()
         updateMenuSettingsIcon()
     }
 
-    private fun listenToRemovedNativeOffers() {
-        nativeOfferRemovedSubscription?.remove()
-        nativeOfferRemovedSubscription = offerRepository.addNativeOfferRemovedObserver(object : Observer<Offer>() {
-            override fun onChanged(nativeOffer: Offer?) {
-                nativeOffer?.id?.let { removeOfferFromList(it) }
+    private fun listenToOfferListChanges() {
+        offerListChangedSubscription?.remove()
+        offerListChangedSubscription = offerRepository.addOfferListChangedObserver(object : Observer<OfferListChange>() {
+            override fun onChanged(change: OfferListChange) {
+                offerList = change.offers
+                view?.applyOfferListChange(change)
+                updateTitle()
             }
         })
     }
@@ -97,7 +101,7 @@ class MarketplacePresenter(private val offerRepository: OfferDataSource,
 
     override fun onDetach() {
         super.onDetach()
-        nativeOfferRemovedSubscription?.remove()
+        offerListChangedSubscription?.remove()
     }
 
     private fun addBalanceObserver() {
@@ -146,9 +150,8 @@ class MarketplacePresenter(private val offerRepository: OfferDataSource,
     }
 
     private fun setCachedOfferLists(cachedOfferList: OfferList) {
-        offerList ?: run { offerList = ArrayList() }
+        offerList = ArrayList(cachedOfferList.offers)
         offerList?.let { offerList ->
-            offerList.addAll(cachedOfferList.offers)
             view?.let { view ->
                 isListsAdded = true
                 view.setOfferList(offerList)
@@ -180,24 +183,19 @@ class MarketplacePresenter(private val offerRepository: OfferDataSource,
         }
     }
 
+    /**
+     * Marketplace offers are removed by the repository, which posts the change.
+     * Native offers stay in the repository until the app removes them, so they're removed from the shown list only.
+     */
     private fun removeOfferFromList(offerId: String) {
         offerList?.let { offerList ->
-            for (i in offerList.indices) {
-                val offer = offerList[i]
-                if (offer.id == offerId) {
-                    offerList.removeAt(i)
-                    notifyOfferItemRemoved(i)
-                    updateTitle()
-                    return
-                }
+            if (offerList.any { it.id == offerId }) {
+                this.offerList = offerList.filter { it.id != offerId }.also { view?.updateOffers(it) }
+                updateTitle()
             }
         }
     }
 
-    private fun notifyOfferItemRemoved(index: Int) {
-        view?.notifyOfferItemRemoved(index)
-    }
-
     override fun getOffers() {
         this.offerRepository.getOffers(object : KinCallback<OfferList> {
             override fun onResponse(newList: OfferList) {
@@ -216,9 +214,9 @@ class MarketplacePresenter(private val offerRepository: OfferDataSource,
 
     private fun updateOffers(offerList: OfferList?) {
         if (offerList != null && offerList.offers != null) {
+            this.offerList = offerList.offers
             view?.updateOffers(offerList.offers)
             updateTitle()
-
         }
     }
 
@@ -1,6 +1,7 @@
 package com.kin.ecosystem.marketplace.view
 
 import com.kin.ecosystem.base.IBaseView
+import com.kin.ecosystem.core.data.offer.OfferListChange
 import com.kin.ecosystem.core.network.model.Offer
 import com.kin.ecosystem.poll.view.PollWebViewActivity.PollBundle
 
@@ -35,4 +36,6 @@ interface IMarketplaceView : IBaseView {
     fun updateTitle(title: Title)
 
     fun updateOffers(offers: List<Offer>)
+
+    fun applyOfferListChange(change: OfferListChange)
 }
@@ -14,6 +14,7 @@ import com.kin.ecosystem.R
 import com.kin.ecosystem.common.exception.ClientException
 import com.kin.ecosystem.core.bi.EventLoggerImpl
 import com.kin.ecosystem.core.data.blockchain.BlockchainSourceImpl
+import com.kin.ecosystem.core.data.offer.OfferListChange
 import com.kin.ecosystem.core.data.offer.OfferRepository
 import com.kin.ecosystem.core.data.order.OrderRepository
 import com.kin.ecosystem.core.data.settings.SettingsDataSourceImpl
@@ -130,6 +131,10 @@ class MarketplaceFragment : Fragment(), IMarketplaceView {
         offersRecyclerAdapter.updateList(offers)
     }
 
+    override fun applyOfferListChange(change: OfferListChange) {
+        offersRecyclerAdapter.applyChange(change)
+    }
+
     override fun setupEmptyItemView() {
         offersRecyclerAdapter.setEmptyView(OffersEmptyView(context))
     }
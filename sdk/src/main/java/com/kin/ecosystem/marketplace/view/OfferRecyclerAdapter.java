@@ -3,6 +3,7 @@ package com.kin.ecosystem.marketplace.view;
 import static com.kin.ecosystem.core.util.StringUtil.getAmountFormatted;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
 import android.support.v7.util.DiffUtil;
 import android.support.v7.util.DiffUtil.DiffResult;
@@ -10,17 +11,27 @@ import android.view.View;
 import com.kin.ecosystem.R;
 import com.kin.ecosystem.base.AbstractBaseViewHolder;
 import com.kin.ecosystem.base.BaseRecyclerAdapter;
+import com.kin.ecosystem.core.data.offer.OfferListChange;
+import com.kin.ecosystem.core.data.offer.OfferListChange.Operation;
 import com.kin.ecosystem.core.network.model.Offer;
 import com.kin.ecosystem.core.network.model.Offer.ContentTypeEnum;
 import com.kin.ecosystem.core.network.model.Offer.OfferType;
 import com.kin.ecosystem.core.util.DeviceUtils;
+import com.kin.ecosystem.core.util.ExecutorsUtil.MainThreadExecutor;
+import com.kin.ecosystem.core.util.SharedExecutors;
 import com.kin.ecosystem.marketplace.view.OfferRecyclerAdapter.ViewHolder;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 class OfferRecyclerAdapter extends BaseRecyclerAdapter<Offer, ViewHolder> {
 
     private static final float WIDTH_RATIO = 0.205f;
 
+    private final Executor diffExecutor = SharedExecutors.getInstance().cpu();
+    private final Executor mainThreadExecutor = new MainThreadExecutor();
+    // Incremented on each update, a diff result is dropped if another update came after its diff was scheduled.
+    private int maxScheduledGeneration;
+
     OfferRecyclerAdapter() {
         super(R.layout.kinecosystem_offer_recycler_item);
     }
@@ -35,9 +46,70 @@ class OfferRecyclerAdapter extends BaseRecyclerAdapter<Offer, ViewHolder> {
         return new ViewHolder(view);
     }
 
-    public void updateList(List<Offer> newList) {
-        DiffResult diffResult = DiffUtil.calculateDiff(new OffersDiffUtil(getData(), newList));
-        diffResult.dispatchUpdatesTo(this);
+    /**
+     * Update the data to {@code newList}, the diff is calculated on a background thread
+     * and dispatched on the main thread, the list should not be modified after it was passed.
+     */
+    public void updateList(@NonNull final List<Offer> newList) {
+        final int runGeneration = ++maxScheduledGeneration;
+        final List<Offer> oldList = getData();
+        if (newList == oldList) {
+            return;
+        }
+
+        // Nothing to diff, also keeps the empty view in sync.
+        if (oldList.isEmpty() || newList.isEmpty()) {
+            setNewData(newList);
+            return;
+        }
+
+        diffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffResult diffResult = DiffUtil.calculateDiff(new OffersDiffUtil(oldList, newList));
+                mainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (maxScheduledGeneration == runGeneration) {
+                            replaceData(newList);
+                            diffResult.dispatchUpdatesTo(OfferRecyclerAdapter.this);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Apply the change operations without diffing, falls back to {@link #updateList(List)}
+     * if the change was not made from the current data, e.g. while a diff is still running.
+     */
+    public void applyChange(@NonNull OfferListChange change) {
+        final List<Offer> oldList = getData();
+        final List<Offer> newList = change.getOffers();
+        if (oldList.isEmpty() || newList.isEmpty() || !change.isChangeOf(oldList)) {
+            updateList(newList);
+            return;
+        }
+
+        maxScheduledGeneration++;
+        replaceData(newList);
+        for (Operation operation : change.getOperations()) {
+            switch (operation.getType()) {
+                case INSERT:
+                    notifyItemInserted(operation.getPosition());
+                    break;
+                case REMOVE:
+                    notifyItemRemoved(operation.getPosition());
+                    break;
+                case MOVE:
+                    notifyItemMoved(operation.getPosition(), operation.getToPosition());
+                    break;
+                case CHANGE:
+                    notifyItemChanged(operation.getPosition());
+                    break;
+            }
+        }
     }
 
     class ViewHolder extends AbstractBaseViewHolder<Offer> {
@@ -14,6 +14,14 @@ class OffersDiffUtil(private val oldOffers: List<Offer>, private val newOffers:
     override fun getNewListSize(): Int = newOffers.size
 
     override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean {
-        return oldOffers[oldItemPosition].equals(newOffers[newItemPosition])
+        val oldOffer = oldOffers[oldItemPosition]
+        val newOffer = newOffers[newItemPosition]
+        // Offer.equals compares only the id, compare what the item shows.
+        return oldOffer.title == newOffer.title &&
+                oldOffer.description == newOffer.description &&
+                oldOffer.image == newOffer.image &&
+                oldOffer.amount == newOffer.amount &&
+                oldOffer.offerType == newOffer.offerType &&
+                oldOffer.contentType == newOffer.contentType
     }
 }
\ No newline at end of file
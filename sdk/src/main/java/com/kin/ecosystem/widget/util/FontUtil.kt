@@ -2,11 +2,14 @@ package com.kin.ecosystem.widget.util
 
 import android.content.res.AssetManager
 import android.graphics.Typeface
+import com.kin.ecosystem.core.util.SharedExecutors
+import java.util.concurrent.atomic.AtomicBoolean
 
 class FontUtil private constructor(val assetsManager: AssetManager) {
 
     companion object {
         private var INSTANCE: FontUtil? = null
+        private val isWarmUpStarted = AtomicBoolean()
 
         /**
          * Should be called from Main Thread
@@ -15,6 +18,19 @@ class FontUtil private constructor(val assetsManager: AssetManager) {
             INSTANCE ?: FontUtil(assetsManager).also { INSTANCE = it }
         }
 
+        /**
+         * Load the fonts on a background thread, called when the marketplace is first shown
+         * so its first text views don't load them on the main thread.
+         */
+        fun warmUp() {
+            if (INSTANCE != null && isWarmUpStarted.compareAndSet(false, true)) {
+                SharedExecutors.getInstance().io().execute {
+                    SAILEC
+                    SAILEC_MEDIUM
+                }
+            }
+        }
+
         private const val NAME_SAILEC_REGULAR  = "sailec.otf"
         private const val NAME_SAILEC_MEDIUM  = "sailec_medium.otf"
 
@@ -0,0 +1,110 @@
+package com.kin.ecosystem
+
+import com.kin.ecosystem.common.exception.ClientException
+import com.kin.ecosystem.common.exception.KinEcosystemException
+import com.nhaarman.mockitokotlin2.*
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class LoginPipelineTest {
+
+    private val listener: LoginPipeline.Listener = mock()
+    private val started = mutableListOf<String>()
+    private val pending = mutableMapOf<String, LoginPipeline.StepCallback>()
+
+    private inner class TestStep(name: String, vararg dependencies: LoginPipeline.Step,
+                                 private val skip: Boolean = false) : LoginPipeline.Step(name, *dependencies) {
+
+        override fun canSkip() = skip
+
+        override fun run(callback: LoginPipeline.StepCallback) {
+            started.add(getName())
+            pending[getName()] = callback
+        }
+    }
+
+    @Test
+    fun `independent steps start together, dependent step waits for all its dependencies`() {
+        val a = TestStep("a")
+        val b = TestStep("b")
+        val c = TestStep("c", a, b)
+        LoginPipeline().add(a).add(b).add(c).start(listener)
+
+        assertEquals(listOf("a", "b"), started)
+        complete("a")
+        assertEquals(listOf("a", "b"), started)
+        complete("b")
+        assertEquals(listOf("a", "b", "c"), started)
+        verifyZeroInteractions(listener)
+
+        complete("c")
+        verify(listener).onCompleted()
+    }
+
+    @Test
+    fun `skipped step does not run and its dependents start`() {
+        val a = TestStep("a", skip = true)
+        val b = TestStep("b", a)
+        val pipeline = LoginPipeline().add(a).add(b)
+        pipeline.start(listener)
+
+        assertEquals(listOf("b"), started)
+        complete("b")
+        verify(listener).onCompleted()
+        assertEquals(LoginPipeline.SKIPPED, pipeline.durations["a"])
+        assertTrue(pipeline.durations.containsKey("b"))
+    }
+
+    @Test
+    fun `step failed, fail once and start nothing else`() {
+        val a = TestStep("a")
+        val b = TestStep("b")
+        val c = TestStep("c", a, b)
+        LoginPipeline().add(a).add(b).add(c).start(listener)
+
+        val exception = ClientException(ClientException.INTERNAL_INCONSISTENCY, "failed", null)
+        pending["a"]!!.onFailed(exception)
+        complete("b")
+        pending["b"]!!.onFailed(exception)
+
+        assertFalse(started.contains("c"))
+        verify(listener).onFailed(exception)
+        verify(listener, never()).onCompleted()
+        verify(listener, times(1)).onFailed(any<KinEcosystemException>())
+    }
+
+    @Test
+    fun `step failed while another runs, its dependents never start and duration is recorded`() {
+        val a = TestStep("a")
+        val b = TestStep("b")
+        val c = TestStep("c", a)
+        val pipeline = LoginPipeline().add(a).add(b).add(c)
+        pipeline.start(listener)
+
+        val exception = ClientException(ClientException.INTERNAL_INCONSISTENCY, "failed", null)
+        pending["a"]!!.onFailed(exception)
+        complete("b")
+
+        assertEquals(listOf("a", "b"), started)
+        assertTrue(pipeline.durations.containsKey("a"))
+        assertFalse(pipeline.durations.containsKey("b"))
+        verify(listener).onFailed(exception)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `add step before its dependency, throw`() {
+        val a = TestStep("a")
+        LoginPipeline().add(TestStep("b", a))
+    }
+
+    private fun complete(name: String) {
+        pending.getValue(name).onCompleted()
+    }
+}
@@ -0,0 +1,72 @@
+package com.kin.ecosystem.history.presenter
+
+import com.kin.ecosystem.core.network.model.Order
+import com.kin.ecosystem.history.presenter.OrderHistoryList.Companion.NOT_FOUND
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(JUnit4::class)
+class OrderHistoryListTest {
+
+    private val list = OrderHistoryList()
+
+    @Test
+    fun `positionOf, mixed addFirst and addLast`() {
+        list.addLast(order("c"))
+        list.addFirst(order("b"))
+        list.addLast(order("d"))
+        list.addFirst(order("a"))
+
+        assertEquals(listOf("a", "b", "c", "d"), list.map { it.orderId })
+        assertEquals(0, list.positionOf("a"))
+        assertEquals(1, list.positionOf("b"))
+        assertEquals(2, list.positionOf("c"))
+        assertEquals(3, list.positionOf("d"))
+        assertEquals(NOT_FOUND, list.positionOf("e"))
+        assertEquals(2, list.indexOf(order("c")))
+    }
+
+    @Test
+    fun `replace, same position and new instance`() {
+        list.addLast(order("b"))
+        list.addFirst(order("a"))
+        val updatedA = order("a", Order.Status.FAILED)
+        val updatedB = order("b", Order.Status.FAILED)
+
+        assertEquals(0, list.replace(updatedA))
+        assertEquals(1, list.replace(updatedB))
+        assertSame(updatedA, list[0])
+        assertSame(updatedB, list[1])
+        assertEquals(2, list.size)
+    }
+
+    @Test
+    fun `replace unknown order, not added`() {
+        list.addLast(order("a"))
+
+        assertEquals(NOT_FOUND, list.replace(order("b")))
+        assertEquals(1, list.size)
+        assertFalse(list.contains(order("b")))
+    }
+
+    @Test
+    fun `reset, keep first of duplicates and drop previous orders`() {
+        list.addFirst(order("old"))
+        val first = order("a")
+
+        list.reset(listOf(first, order("b"), order("a", Order.Status.FAILED), order("c")))
+
+        assertEquals(listOf("a", "b", "c"), list.map { it.orderId })
+        assertSame(first, list[0])
+        assertEquals(2, list.positionOf("c"))
+        assertEquals(NOT_FOUND, list.positionOf("old"))
+        assertTrue(list.contains(order("b")))
+    }
+
+    private fun order(id: String, status: Order.Status = Order.Status.COMPLETED) = Order().orderId(id).status(status)
+}
@@ -0,0 +1,136 @@
+package com.kin.ecosystem.history.presenter
+
+import com.kin.ecosystem.common.KinCallback
+import com.kin.ecosystem.common.model.Balance
+import com.kin.ecosystem.core.bi.EventLogger
+import com.kin.ecosystem.core.data.blockchain.BlockchainSource
+import com.kin.ecosystem.core.data.order.OrderDataSource
+import com.kin.ecosystem.core.data.settings.SettingsDataSource
+import com.kin.ecosystem.core.network.model.Offer
+import com.kin.ecosystem.core.network.model.Order
+import com.kin.ecosystem.core.network.model.OrderList
+import com.kin.ecosystem.history.view.IOrderHistoryView
+import com.kin.ecosystem.main.INavigator
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.inOrder
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import kin.ecosystem.test.base.BaseTestClass
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(JUnit4::class)
+class OrderHistoryPresenterTest : BaseTestClass() {
+
+    private val view: IOrderHistoryView = mock()
+    private val orderRepository: OrderDataSource = mock()
+    private val blockchainSource: BlockchainSource = mock()
+    private val settingsDataSource: SettingsDataSource = mock()
+    private val navigator: INavigator = mock()
+    private val eventLogger: EventLogger = mock()
+
+    private val earnListCaptor = argumentCaptor<List<Order>>()
+
+    private lateinit var presenter: OrderHistoryPresenter
+
+    @Before
+    override fun setUp() {
+        super.setUp()
+        whenever(blockchainSource.balance).thenReturn(Balance())
+        whenever(blockchainSource.publicAddress).thenReturn("publicAddress")
+        presenter = OrderHistoryPresenter(orderRepository, blockchainSource, settingsDataSource, navigator, eventLogger)
+    }
+
+    @Test
+    fun `new orders before the cached ones, inserted at the top`() {
+        attachWithCachedEarnOrders("c", "d")
+
+        syncEarnOrders(earn("a"), earn("b"), earn("c"), earn("d"))
+
+        assertEquals(listOf("a", "b", "c", "d"), earnListIds())
+        inOrder(view) {
+            verify(view).onEarnItemUpdated(0)
+            verify(view).onEarnItemUpdated(1)
+            verify(view).onEarnItemRangeInserted(0, 2)
+            // The previous top order is no longer the newest.
+            verify(view).onEarnItemUpdated(2)
+        }
+        verify(view, never()).onEarnListChanged(any())
+    }
+
+    @Test
+    fun `known orders only, replaced in place`() {
+        attachWithCachedEarnOrders("a", "b")
+
+        syncEarnOrders(earn("a"), earn("b", Order.Status.FAILED))
+
+        assertEquals(listOf("a", "b"), earnListIds())
+        assertEquals(Order.Status.FAILED, earnListCaptor.firstValue[1].status)
+        verify(view).onEarnItemUpdated(0)
+        verify(view).onEarnItemUpdated(1)
+        verify(view, never()).onEarnItemRangeInserted(any(), any())
+        verify(view, never()).onEarnListChanged(any())
+    }
+
+    @Test
+    fun `new orders in an empty list, inserted without updating a previous top`() {
+        attachWithCachedEarnOrders()
+
+        syncEarnOrders(earn("a"), earn("b"))
+
+        assertEquals(listOf("a", "b"), earnListIds())
+        verify(view).onEarnItemRangeInserted(0, 2)
+        verify(view, never()).onEarnItemUpdated(any())
+    }
+
+    @Test
+    fun `new order between known ones, list rebuilt and changed`() {
+        attachWithCachedEarnOrders("a", "c")
+        val oldListCaptor = argumentCaptor<List<Order>>()
+
+        syncEarnOrders(earn("a"), earn("b"), earn("c"))
+
+        assertEquals(listOf("a", "b", "c"), earnListIds())
+        verify(view).onEarnListChanged(oldListCaptor.capture())
+        assertEquals(listOf("a", "c"), oldListCaptor.firstValue.map { it.orderId })
+        verify(view, never()).onEarnItemRangeInserted(any(), any())
+        verify(view, never()).onEarnItemUpdated(any())
+    }
+
+    @Test
+    fun `no new orders of a type, that list is not touched`() {
+        attachWithCachedEarnOrders("a")
+
+        syncEarnOrders()
+
+        assertEquals(listOf("a"), earnListIds())
+        verify(view, never()).onEarnItemUpdated(any())
+        verify(view, never()).onEarnItemRangeInserted(any(), any())
+        verify(view, never()).onEarnListChanged(any())
+    }
+
+    private fun attachWithCachedEarnOrders(vararg ids: String) {
+        whenever(orderRepository.allCachedOrderHistory)
+                .thenReturn(OrderList().orders(ids.map { earn(it) }.toMutableList()))
+        presenter.onAttach(view)
+        verify(view).setEarnList(earnListCaptor.capture())
+    }
+
+    private fun syncEarnOrders(vararg orders: Order) {
+        val callbackCaptor = argumentCaptor<KinCallback<OrderList>>()
+        presenter.onEnterTransitionEnded()
+        verify(orderRepository).getAllOrderHistory(callbackCaptor.capture())
+        callbackCaptor.firstValue.onResponse(OrderList().orders(orders.toMutableList()))
+    }
+
+    private fun earnListIds() = earnListCaptor.firstValue.map { it.orderId }
+
+    private fun earn(id: String, status: Order.Status = Order.Status.COMPLETED) =
+            Order().orderId(id).status(status).offerType(Offer.OfferType.EARN)
+}